@@ -80,8 +80,7 @@ public class OrderService {
                 .status(OrderStatus.PENDING)
                 .build();
 
-        order = orderRepository.save(order);
-
+        // Attach items before the single save: the cascade inserts order + items in one JDBC batch
         for (OrderItem item : items) {
             item.setOrder(order);
             order.getItems().add(item);
@@ -0,0 +1,4 @@
+-- Hand out IDs in blocks of 50 (Hibernate pooled optimizer, allocationSize = 50).
+-- IDENTITY generation disables JDBC insert batching; sequence IDs keep inserts batchable.
+ALTER SEQUENCE orders_id_seq INCREMENT BY 50;
+ALTER SEQUENCE order_items_id_seq INCREMENT BY 50;
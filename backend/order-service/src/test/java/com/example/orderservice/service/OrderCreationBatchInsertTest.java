@@ -0,0 +1,88 @@
+package com.example.orderservice.service;
+
+import com.example.orderservice.dto.CreateOrderRequest;
+import com.example.orderservice.dto.CreateProductRequest;
+import com.example.orderservice.dto.OrderItemRequest;
+import com.example.orderservice.dto.OrderResponse;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Round-trip benchmark for order creation: the order and its items are inserted by one save, so with pooled
+ * sequence IDs and JDBC batching an order of N items costs one orders insert and one order_items batch
+ * instead of an insert, a merge and N item inserts.
+ */
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+        + "com.example.orderservice.service.OrderCreationBatchInsertTest$InsertCounter")
+@ActiveProfiles("test")
+class OrderCreationBatchInsertTest {
+
+    private static final int ITEMS = 20;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private ProductService productService;
+
+    private final List<OrderItemRequest> items = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        for (int i = 0; i < ITEMS; i++) {
+            Long productId = productService.createProduct(CreateProductRequest.builder()
+                    .name("Product " + i)
+                    .price(new BigDecimal("2.50"))
+                    .stock(10)
+                    .build()).getId();
+            items.add(OrderItemRequest.builder().productId(productId).quantity(1).build());
+        }
+        InsertCounter.ORDERS.set(0);
+        InsertCounter.ORDER_ITEMS.set(0);
+    }
+
+    @Test
+    void orderAndItemsAreInsertedInOneBatchEach() {
+        // When
+        OrderResponse order = orderService.createOrder(CreateOrderRequest.builder()
+                .merchantId("merchant-1")
+                .customerUserId(1L)
+                .items(items)
+                .build());
+
+        // Then - one prepared insert per table, the 20 item rows going out as one batch
+        assertEquals(ITEMS, order.getItems().size());
+        assertEquals(new BigDecimal("50.00"), order.getTotal());
+        assertEquals(1, InsertCounter.ORDERS.get());
+        assertEquals(1, InsertCounter.ORDER_ITEMS.get());
+    }
+
+    /** Counts the insert statements Hibernate prepares; a JDBC batch is prepared once. */
+    public static class InsertCounter implements StatementInspector {
+
+        static final AtomicInteger ORDERS = new AtomicInteger();
+        static final AtomicInteger ORDER_ITEMS = new AtomicInteger();
+
+        @Override
+        public String inspect(String sql) {
+            String statement = sql.toLowerCase();
+            if (statement.startsWith("insert into order_items")) {
+                ORDER_ITEMS.incrementAndGet();
+            } else if (statement.startsWith("insert into orders")) {
+                ORDERS.incrementAndGet();
+            }
+            return sql;
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.example.paymentservice.benchmark;
+
+import com.example.paymentservice.config.JwtValidator;
+import com.example.paymentservice.config.JwtValidatorProperties;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link JwtValidator#validateAccessToken}: runs on every authenticated request.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JwtValidatorBenchmark {
+
+    private static final String ISSUER = "user-service";
+    private static final String SECRET = "change-me-in-production-use-at-least-256-bits";
+
+    private JwtValidator validator;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        validator = new JwtValidator(new JwtValidatorProperties(ISSUER, SECRET));
+        Instant now = Instant.now();
+        token = Jwts.builder()
+                .subject("42")
+                .issuer(ISSUER)
+                .claim("token_type", "access")
+                .issuedAt(Date.from(now))
+                .expiration(Date.from(now.plus(1, ChronoUnit.DAYS)))
+                .signWith(Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8)))
+                .compact();
+    }
+
+    @Benchmark
+    public JwtValidator.AccessToken validateAccessToken() {
+        return validator.validateAccessToken(token);
+    }
+}
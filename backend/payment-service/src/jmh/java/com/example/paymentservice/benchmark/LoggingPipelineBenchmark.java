@@ -0,0 +1,169 @@
+package com.example.paymentservice.benchmark;
+
+import ch.qos.logback.classic.AsyncAppender;
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.encoder.PatternLayoutEncoder;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.classic.util.LogbackMDCAdapter;
+import ch.qos.logback.core.Appender;
+import ch.qos.logback.core.OutputStreamAppender;
+import com.example.paymentservice.config.LogSamplingFilter;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Latency of a Kafka-consumer-shaped request (three INFO lines around a little work) on 4 threads, with the
+ * logging set up as before and as in logback-spring.xml. Lines go to a file, flushed per event like stdout.
+ * <ul>
+ *   <li>{@code sync}: the previous setup, every thread writes its line itself under the appender's lock</li>
+ *   <li>{@code async}: threads enqueue into a bounded queue (8192, never blocking) drained by one writer</li>
+ *   <li>{@code asyncSampled}: as async, with the consumer/producer loggers sampled 1 in 10</li>
+ * </ul>
+ * Sample-time mode, so the percentiles show the tail. When the writer cannot keep up the async queue drops
+ * INFO lines instead of slowing requests down; the {@code attempted} and {@code written} secondary results
+ * ({@link Lines}) show how many.
+ */
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(4)
+@State(Scope.Benchmark)
+public class LoggingPipelineBenchmark {
+
+    private static final String PATTERN = "%d{yyyy-MM-dd'T'HH:mm:ss.SSSXXX} %5p --- [%t] %-40.40logger{39} : %m%n";
+
+    @Param({"sync", "async", "asyncSampled"})
+    public String pipeline;
+
+    private Path file;
+    private LoggerContext context;
+    private AsyncAppender async;
+    private CountingOutputStream lines;
+    private final AtomicLong linesReported = new AtomicLong();
+    private Logger consumerLog;
+    private Logger producerLog;
+
+    @Setup
+    public void setUp() throws IOException {
+        file = Files.createTempFile("logging-benchmark", ".log");
+        context = new LoggerContext();
+        context.setMDCAdapter(new LogbackMDCAdapter());
+        context.start();
+
+        lines = new CountingOutputStream(Files.newOutputStream(file));
+        PatternLayoutEncoder encoder = new PatternLayoutEncoder();
+        encoder.setContext(context);
+        encoder.setPattern(PATTERN);
+        encoder.start();
+        OutputStreamAppender<ILoggingEvent> output = new OutputStreamAppender<>();
+        output.setContext(context);
+        output.setName("CONSOLE");
+        output.setEncoder(encoder);
+        output.setImmediateFlush(true);
+        output.setOutputStream(lines);
+        output.start();
+
+        Appender<ILoggingEvent> root = output;
+        if (!pipeline.equals("sync")) {
+            async = new AsyncAppender();
+            async.setContext(context);
+            async.setName("ASYNC");
+            async.setQueueSize(8192);
+            async.setNeverBlock(true);
+            async.setIncludeCallerData(false);
+            async.addAppender(output);
+            async.start();
+            root = async;
+        }
+        if (pipeline.equals("asyncSampled")) {
+            LogSamplingFilter sampling = new LogSamplingFilter();
+            sampling.setContext(context);
+            sampling.setLoggers("com.example.paymentservice.kafka=10");
+            sampling.start();
+            context.addTurboFilter(sampling);
+        }
+        Logger rootLogger = context.getLogger(Logger.ROOT_LOGGER_NAME);
+        rootLogger.setLevel(Level.INFO);
+        rootLogger.addAppender(root);
+
+        consumerLog = context.getLogger("com.example.paymentservice.kafka.QRCodeEventConsumer");
+        producerLog = context.getLogger("com.example.paymentservice.kafka.KafkaEventProducer");
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        context.stop();
+        Files.deleteIfExists(file);
+    }
+
+    /**
+     * Lines written since the last call, once the async queue has drained. The first thread to end an iteration
+     * gets the iteration's lines, the others (close to) none, so the per-thread counters add up.
+     */
+    long takeWrittenLines() throws InterruptedException {
+        while (async != null && async.getNumberOfElementsInQueue() > 0) {
+            Thread.sleep(1);
+        }
+        long written = lines.lines;
+        return written - linesReported.getAndSet(written);
+    }
+
+    /**
+     * Log lines the benchmark threads attempted and the file got, as secondary results summed over threads.
+     * JMH zeroes both at the start of every iteration.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Lines {
+
+        public long attempted;
+        public long written;
+
+        @TearDown(org.openjdk.jmh.annotations.Level.Iteration)
+        public void collect(LoggingPipelineBenchmark benchmark) throws InterruptedException {
+            written = benchmark.takeWrittenLines();
+        }
+    }
+
+    @Benchmark
+    public void handleQRCodeGenerated(Lines counters) {
+        counters.attempted += 3;
+        consumerLog.info("Payment Service - Received QRCodeGeneratedEvent: key={}", "1234567890");
+        Blackhole.consumeCPU(500);
+        consumerLog.info("Updated payment status to READY for paymentId: {}, qrCodeId: {}", 1234567890L, 987654321L);
+        producerLog.info("Successfully published event to topic: {}, key: {}, offset: {}",
+                "payment.status.changed", "1234567890", 42L);
+    }
+
+    /** Counts newlines; only the writer (the appender, under its lock) calls it. */
+    private static final class CountingOutputStream extends FilterOutputStream {
+
+        private volatile long lines;
+
+        CountingOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(byte[] bytes, int offset, int length) throws IOException {
+            for (int i = offset; i < offset + length; i++) {
+                if (bytes[i] == '\n') {
+                    lines++;
+                }
+            }
+            out.write(bytes, offset, length);
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package com.example.paymentservice.benchmark;
+
+import com.example.paymentservice.config.AsyncConfig;
+import com.example.paymentservice.domain.model.EventOutbox;
+import com.example.paymentservice.entity.OutboxStatus;
+import com.example.paymentservice.repository.EventOutboxRepository;
+import com.example.paymentservice.service.OutboxService;
+import com.example.paymentservice.service.PaymentService;
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.SpanContext;
+import io.opentelemetry.api.trace.TraceFlags;
+import io.opentelemetry.api.trace.TraceState;
+import io.opentelemetry.context.Scope;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link OutboxService#saveEvent}: event JSON serialization plus traceparent extraction.
+ * The repository is a no-op sink so only the in-process work is measured.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(org.openjdk.jmh.annotations.Scope.Benchmark)
+public class OutboxSerializationBenchmark {
+
+    private OutboxService outboxService;
+    private PaymentService.PaymentProcessedEvent event;
+    private Scope spanScope;
+
+    @Param({"false", "true"})
+    public boolean withActiveSpan;
+
+    @Setup
+    public void setUp(Blackhole blackhole) {
+        outboxService = new OutboxService(new SinkOutboxRepository(blackhole), new AsyncConfig().objectMapper());
+        event = PaymentService.PaymentProcessedEvent.builder()
+                .paymentId(100L)
+                .qrCode("PAYMENT_100_1234567890_ABCDEF123456")
+                .amount(new BigDecimal("50.00"))
+                .currency("USD")
+                .timestamp(LocalDateTime.now())
+                .build();
+        if (withActiveSpan) {
+            SpanContext spanContext = SpanContext.create("4bf92f3577b34da6a3ce929d0e0e4736", "00f067aa0ba902b7",
+                    TraceFlags.getSampled(), TraceState.getDefault());
+            spanScope = Span.wrap(spanContext).makeCurrent();
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        if (spanScope != null) {
+            spanScope.close();
+        }
+    }
+
+    @Benchmark
+    public void saveEvent() {
+        outboxService.saveEvent("PaymentProcessedEvent", event);
+    }
+
+    private record SinkOutboxRepository(Blackhole blackhole) implements EventOutboxRepository {
+
+        @Override
+        public EventOutbox save(EventOutbox event) {
+            blackhole.consume(event);
+            return event;
+        }
+
+        @Override
+        public List<EventOutbox> saveAll(List<EventOutbox> events) {
+            blackhole.consume(events);
+            return events;
+        }
+
+        @Override
+        public List<EventOutbox> findByStatus(OutboxStatus status) {
+            return List.of();
+        }
+
+        @Override
+        public List<EventOutbox> findPendingEventsWithLock(OutboxStatus status) {
+            return List.of();
+        }
+
+        @Override
+        public Integer updateStatus(Long id, OutboxStatus newStatus, LocalDateTime processedAt) {
+            return 0;
+        }
+
+        @Override
+        public Integer updateFailedStatus(Long id, OutboxStatus newStatus, String errorMessage) {
+            return 0;
+        }
+    }
+}
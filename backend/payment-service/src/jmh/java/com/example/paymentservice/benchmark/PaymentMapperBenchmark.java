@@ -0,0 +1,73 @@
+package com.example.paymentservice.benchmark;
+
+import com.example.paymentservice.domain.model.Payment;
+import com.example.paymentservice.domain.model.QRCode;
+import com.example.paymentservice.dto.response.PaymentResponse;
+import com.example.paymentservice.entity.PaymentEntity;
+import com.example.paymentservice.entity.PaymentStatus;
+import com.example.paymentservice.mapper.PaymentMapper;
+import com.example.paymentservice.mapper.QRCodeMapper;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Entity/domain/response mapping done on every payment read and write.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PaymentMapperBenchmark {
+
+    private PaymentMapper mapper;
+    private PaymentEntity entity;
+    private Payment payment;
+    private QRCode qrCode;
+
+    @Setup
+    public void setUp() {
+        mapper = new PaymentMapper(new QRCodeMapper());
+        LocalDateTime now = LocalDateTime.now();
+        entity = PaymentEntity.builder()
+                .id(100L)
+                .amount(new BigDecimal("50.00"))
+                .currency("USD")
+                .status(PaymentStatus.READY)
+                .merchantId("MERCHANT_001")
+                .customerId("1")
+                .description("Coffee")
+                .idempotencyKey("6f1c2a9e-7d3b-4c1e-9a57-0b2f8e4d1c33")
+                .createdAt(now)
+                .updatedAt(now)
+                .build();
+        payment = mapper.toDomain(entity);
+        qrCode = QRCode.builder()
+                .id(1L)
+                .code("PAYMENT_100_1234567890_ABCDEF123456")
+                .paymentId(100L)
+                .status("ACTIVE")
+                .expiresAt(now.plusMinutes(15))
+                .createdAt(now)
+                .build();
+    }
+
+    @Benchmark
+    public Payment toDomain() {
+        return mapper.toDomain(entity);
+    }
+
+    @Benchmark
+    public PaymentEntity toEntity() {
+        return mapper.toEntity(payment);
+    }
+
+    @Benchmark
+    public PaymentResponse toResponse() {
+        return mapper.toResponse(payment, qrCode);
+    }
+}
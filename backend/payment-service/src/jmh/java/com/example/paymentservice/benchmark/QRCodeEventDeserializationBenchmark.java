@@ -0,0 +1,37 @@
+package com.example.paymentservice.benchmark;
+
+import com.example.paymentservice.config.AsyncConfig;
+import com.example.paymentservice.kafka.QRCodeEventConsumer;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Payload deserialization done by {@link QRCodeEventConsumer} for every qr.code.generated record.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class QRCodeEventDeserializationBenchmark {
+
+    private ObjectMapper objectMapper;
+    private String message;
+
+    @Setup
+    public void setUp() throws Exception {
+        objectMapper = new AsyncConfig().objectMapper();
+        LocalDateTime now = LocalDateTime.now();
+        message = objectMapper.writeValueAsString(new QRCodeEventConsumer.QRCodeGeneratedEvent(
+                1L, 100L, "PAYMENT_100_1234567890_ABCDEF123456", "ACTIVE", now.plusMinutes(15), now, now));
+    }
+
+    @Benchmark
+    public QRCodeEventConsumer.QRCodeGeneratedEvent deserialize() throws Exception {
+        return objectMapper.readValue(message, QRCodeEventConsumer.QRCodeGeneratedEvent.class);
+    }
+}
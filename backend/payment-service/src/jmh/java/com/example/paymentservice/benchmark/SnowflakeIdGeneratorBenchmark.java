@@ -0,0 +1,88 @@
+package com.example.paymentservice.benchmark;
+
+import com.example.paymentservice.service.SnowflakeIdGenerator;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Id generation throughput with 1, 4 and 16 threads sharing one generator, against a pooled database
+ * sequence's in-memory part (an AtomicLong) as the lower bound on cost.
+ * <p>
+ * {@code production} is the configured 53-bit layout writing to one shard, capped at 32 ids per millisecond
+ * (32k/s) per node and shard, so it measures how callers queue behind that cap; {@code productionShards} spreads
+ * the callers over the 16 shards, as customers are. {@code uncapped} gives all 22 low bits to the sequence,
+ * which takes the cap out of the way and leaves the cost of the compare-and-set loop itself.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SnowflakeIdGeneratorBenchmark {
+
+    private static final Instant EPOCH = Instant.parse("2025-01-01T00:00:00Z");
+
+    private SnowflakeIdGenerator production;
+    private SnowflakeIdGenerator uncapped;
+    private final AtomicLong sequence = new AtomicLong();
+
+    @Setup
+    public void setUp() {
+        production = new SnowflakeIdGenerator(EPOCH, 41, 4, 3, 5, 1, Duration.ofSeconds(1));
+        uncapped = new SnowflakeIdGenerator(EPOCH, 41, 0, 0, 22, 0, Duration.ofSeconds(1));
+    }
+
+    @Benchmark
+    @Threads(1)
+    public long production1Thread() {
+        return production.nextId();
+    }
+
+    @Benchmark
+    @Threads(4)
+    public long production4Threads() {
+        return production.nextId();
+    }
+
+    @Benchmark
+    @Threads(16)
+    public long production16Threads() {
+        return production.nextId();
+    }
+
+    @Benchmark
+    @Threads(16)
+    public long productionShards16Threads() {
+        return production.nextId(ThreadLocalRandom.current().nextInt(16));
+    }
+
+    @Benchmark
+    @Threads(1)
+    public long uncapped1Thread() {
+        return uncapped.nextId();
+    }
+
+    @Benchmark
+    @Threads(4)
+    public long uncapped4Threads() {
+        return uncapped.nextId();
+    }
+
+    @Benchmark
+    @Threads(16)
+    public long uncapped16Threads() {
+        return uncapped.nextId();
+    }
+
+    @Benchmark
+    @Threads(16)
+    public long atomicSequence16Threads() {
+        return sequence.incrementAndGet();
+    }
+}
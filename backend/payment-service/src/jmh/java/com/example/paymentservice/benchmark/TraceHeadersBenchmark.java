@@ -0,0 +1,39 @@
+package com.example.paymentservice.benchmark;
+
+import com.example.paymentservice.kafka.KafkaEventProducer;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link KafkaEventProducer#addTraceHeadersFromTraceParent}: runs once per relayed outbox event.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TraceHeadersBenchmark {
+
+    private static final String STORED_TRACEPARENT = "00-4bf92f3577b34da6a3ce929d0e0e4736-00f067aa0ba902b7-01";
+
+    private KafkaEventProducer producer;
+
+    @Setup
+    public void setUp() {
+        // Only the header helper is exercised, so no template or mapper is needed
+        producer = new KafkaEventProducer(null, null);
+    }
+
+    @Benchmark
+    public Map<String, Object> fromStoredTraceparent() {
+        return producer.addTraceHeadersFromTraceParent(STORED_TRACEPARENT);
+    }
+
+    @Benchmark
+    public Map<String, Object> fromCurrentContext() {
+        return producer.addTraceHeadersFromTraceParent(null);
+    }
+}
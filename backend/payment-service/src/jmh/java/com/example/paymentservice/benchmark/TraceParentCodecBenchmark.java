@@ -0,0 +1,64 @@
+package com.example.paymentservice.benchmark;
+
+import com.example.paymentservice.config.TraceParentCodec;
+import io.opentelemetry.api.trace.SpanContext;
+import io.opentelemetry.api.trace.TraceFlags;
+import io.opentelemetry.api.trace.TraceState;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link TraceParentCodec} against the String.format/split/new Random implementation it replaced
+ * in OutboxService and KafkaEventProducer (kept here verbatim as the baseline).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TraceParentCodecBenchmark {
+
+    private static final String STORED_TRACEPARENT = "00-4bf92f3577b34da6a3ce929d0e0e4736-00f067aa0ba902b7-01";
+
+    private SpanContext spanContext;
+
+    @Setup
+    public void setUp() {
+        spanContext = SpanContext.create("4bf92f3577b34da6a3ce929d0e0e4736", "00f067aa0ba902b7",
+                TraceFlags.getSampled(), TraceState.getDefault());
+    }
+
+    @Benchmark
+    public String formatLegacy() {
+        String traceFlags = String.format("%02x", spanContext.getTraceFlags().asByte());
+        return String.format("00-%s-%s-%s", spanContext.getTraceId(), spanContext.getSpanId(), traceFlags);
+    }
+
+    @Benchmark
+    public String formatCodec() {
+        return TraceParentCodec.format(spanContext);
+    }
+
+    @Benchmark
+    public String childLegacy() {
+        String[] parts = STORED_TRACEPARENT.split("-");
+        return String.format("00-%s-%s-%s", parts[1], legacySpanId(), parts[3]);
+    }
+
+    @Benchmark
+    public byte[] childCodec() {
+        return TraceParentCodec.childOf(STORED_TRACEPARENT);
+    }
+
+    private static String legacySpanId() {
+        Random random = new Random();
+        StringBuilder sb = new StringBuilder(16);
+        for (int i = 0; i < 16; i++) {
+            sb.append(String.format("%x", random.nextInt(16)));
+        }
+        return sb.toString();
+    }
+}
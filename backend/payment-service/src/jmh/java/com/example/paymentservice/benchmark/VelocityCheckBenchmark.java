@@ -0,0 +1,80 @@
+package com.example.paymentservice.benchmark;
+
+import com.example.paymentservice.config.VelocityProperties;
+import com.example.paymentservice.service.PaymentVelocityChecker;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Latency of the velocity check in processPayment on 4 threads: the production limits (customer per minute
+ * and per hour, merchant per minute) for {@code customers} customers paying 1k merchants, with the windows
+ * already full of an hour of history. Limits are set high enough that nothing is refused.
+ * <p>
+ * With 1k customers the rings stay in cache and this is the cost of the check itself; with 100k they take
+ * tens of megabytes and every check is a handful of cache misses per limit (a few microseconds).
+ * Sample-time mode, so the percentiles show the tail against the sub-millisecond budget.
+ */
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(4)
+@State(Scope.Benchmark)
+public class VelocityCheckBenchmark {
+
+    private static final int MERCHANTS = 1_000;
+    private static final BigDecimal AMOUNT = new BigDecimal("12.50");
+
+    @Param({"1000", "100000"})
+    public int customers;
+
+    private PaymentVelocityChecker checker;
+    private String[] customerIds;
+    private String[] merchantIds;
+    private final AtomicLong paymentIds = new AtomicLong();
+
+    @Setup
+    public void setUp() {
+        Map<String, VelocityProperties.Limit> limits = new LinkedHashMap<>();
+        limits.put("customer-minute", limit(VelocityProperties.Scope.CUSTOMER, Duration.ofMinutes(1), 12));
+        limits.put("customer-hour", limit(VelocityProperties.Scope.CUSTOMER, Duration.ofHours(1), 30));
+        limits.put("merchant-minute", limit(VelocityProperties.Scope.MERCHANT, Duration.ofMinutes(1), 12));
+        checker = new PaymentVelocityChecker(new VelocityProperties(true, 16, 8192, limits), new SimpleMeterRegistry());
+
+        customerIds = new String[customers];
+        for (int i = 0; i < customers; i++) {
+            customerIds[i] = Integer.toString(i + 1);
+        }
+        merchantIds = new String[MERCHANTS];
+        for (int i = 0; i < MERCHANTS; i++) {
+            merchantIds[i] = "MERCHANT_" + i;
+        }
+        // An hour of history, as rebuilt from payment.processed at startup
+        long now = System.currentTimeMillis();
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        for (int i = 0; i < 1_000_000; i++) {
+            checker.record(paymentIds.decrementAndGet(), customerIds[random.nextInt(customers)],
+                    merchantIds[random.nextInt(MERCHANTS)], AMOUNT, now - random.nextLong(3_600_000));
+        }
+    }
+
+    @Benchmark
+    public long acquire() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        return checker.acquire(paymentIds.incrementAndGet(), customerIds[random.nextInt(customers)],
+                merchantIds[random.nextInt(MERCHANTS)], AMOUNT);
+    }
+
+    private static VelocityProperties.Limit limit(VelocityProperties.Scope scope, Duration window, int buckets) {
+        return new VelocityProperties.Limit(scope, window, buckets, Long.MAX_VALUE, null);
+    }
+}
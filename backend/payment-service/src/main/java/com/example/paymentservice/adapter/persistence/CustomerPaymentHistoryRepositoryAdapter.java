@@ -0,0 +1,183 @@
+package com.example.paymentservice.adapter.persistence;
+
+import com.example.paymentservice.config.ShardRouter;
+import com.example.paymentservice.domain.model.PaymentHistoryEntry;
+import com.example.paymentservice.domain.model.PaymentPage;
+import com.example.paymentservice.entity.CustomerPaymentHistoryEntity;
+import com.example.paymentservice.entity.PaymentStatus;
+import com.example.paymentservice.repository.CustomerPaymentHistoryRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * JPA adapter for the customer payment history read model.
+ * <p>
+ * An event is one relative UPDATE of the payment's row that merges the event in: the status changes only if
+ * the event's lifecycle stage is later than the stored one, its fields overwrite the row's if its stage is not
+ * earlier and otherwise only fill empty columns. That makes applying events idempotent and independent of the
+ * order they arrive in across topics. The first event of a payment inserts the row; if a concurrent writer
+ * inserted it first, the primary key rejects ours and the UPDATE is retried (as for merchant rollups).
+ * <p>
+ * Rows are written to the payment's shard, which is its customer's. Pages are read on every database and
+ * merged, since payments created before sharding are in the home database; with one database that is a
+ * single index range scan.
+ */
+@Repository
+@RequiredArgsConstructor
+public class CustomerPaymentHistoryRepositoryAdapter implements CustomerPaymentHistoryRepository {
+
+    private static final Comparator<PaymentHistoryEntry> NEWEST_FIRST = Comparator
+            .comparing(PaymentHistoryEntry::getCreatedAt).thenComparing(PaymentHistoryEntry::getPaymentId).reversed();
+
+    private final SpringDataCustomerPaymentHistoryRepository historyRepository;
+    private final ShardRouter shardRouter;
+
+    @Override
+    public void apply(PaymentHistoryEntry change) {
+        shardRouter.onShard(shardRouter.shardOfId(change.getPaymentId()), () -> {
+            merge(change);
+            return null;
+        });
+    }
+
+    @Override
+    public List<PaymentHistoryEntry> findByCustomerId(String customerId, PaymentPage.Cursor after, int limit) {
+        List<PaymentHistoryEntry> candidates = shardRouter.scatter(() -> {
+            List<CustomerPaymentHistoryEntity> page = after == null
+                    ? historyRepository.findByCustomerIdAndCreatedAtNotNullOrderByCreatedAtDescPaymentIdDesc(
+                            customerId, Limit.of(limit))
+                    : historyRepository.findByCustomerIdBefore(customerId, after.createdAt(), after.id(),
+                            Limit.of(limit));
+            return page.stream()
+                    .map(this::toDomain)
+                    .toList();
+        });
+        List<PaymentHistoryEntry> merged = candidates.stream().sorted(NEWEST_FIRST).toList();
+        return merged.size() > limit ? merged.subList(0, limit) : merged;
+    }
+
+    private void merge(PaymentHistoryEntry change) {
+        int rank = rank(change.getStatus());
+        if (update(change, rank) > 0) {
+            return;
+        }
+        try {
+            historyRepository.insert(change.getPaymentId(), change.getCustomerId(), change.getMerchantId(),
+                    change.getAmount(), change.getCurrency(), change.getStatus().name(), rank,
+                    change.getDescription(), change.getQrCode(), change.getCreatedAt(), change.getUpdatedAt());
+        } catch (DataIntegrityViolationException e) {
+            update(change, rank);
+        }
+    }
+
+    private int update(PaymentHistoryEntry change, int rank) {
+        return historyRepository.merge(change.getPaymentId(), change.getCustomerId(), change.getMerchantId(),
+                change.getAmount(), change.getCurrency(), change.getStatus(), rank, change.getDescription(),
+                change.getQrCode(), change.getCreatedAt(), change.getUpdatedAt());
+    }
+
+    /** Lifecycle stage: PENDING, then READY, then a final outcome, of which only COMPLETED moves on to REFUNDED. */
+    static int rank(PaymentStatus status) {
+        return switch (status) {
+            case PENDING -> 0;
+            case READY -> 1;
+            case COMPLETED, FAILED, CANCELLED, EXPIRED -> 2;
+            case REFUNDED -> 3;
+        };
+    }
+
+    private PaymentHistoryEntry toDomain(CustomerPaymentHistoryEntity entity) {
+        return PaymentHistoryEntry.builder()
+                .paymentId(entity.getPaymentId())
+                .customerId(entity.getCustomerId())
+                .merchantId(entity.getMerchantId())
+                .amount(entity.getAmount())
+                .currency(entity.getCurrency())
+                .status(entity.getStatus())
+                .description(entity.getDescription())
+                .qrCode(entity.getQrCode())
+                .createdAt(entity.getCreatedAt())
+                .updatedAt(entity.getUpdatedAt())
+                .build();
+    }
+}
+
+interface SpringDataCustomerPaymentHistoryRepository extends JpaRepository<CustomerPaymentHistoryEntity, Long> {
+
+    List<CustomerPaymentHistoryEntity> findByCustomerIdAndCreatedAtNotNullOrderByCreatedAtDescPaymentIdDesc(
+            String customerId, Limit limit);
+
+    @Query("SELECT h FROM CustomerPaymentHistoryEntity h WHERE h.customerId = :customerId " +
+            "AND (h.createdAt < :createdAt OR (h.createdAt = :createdAt AND h.paymentId < :paymentId)) " +
+            "ORDER BY h.createdAt DESC, h.paymentId DESC")
+    List<CustomerPaymentHistoryEntity> findByCustomerIdBefore(@Param("customerId") String customerId,
+                                                              @Param("createdAt") LocalDateTime createdAt,
+                                                              @Param("paymentId") Long paymentId,
+                                                              Limit limit);
+
+    /**
+     * Merges one event into the row; null arguments keep the stored value. The customer and creation time
+     * come from payment.created only and are never overwritten.
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE CustomerPaymentHistoryEntity h SET " +
+            "h.customerId = COALESCE(h.customerId, :customerId), " +
+            "h.createdAt = COALESCE(h.createdAt, :createdAt), " +
+            "h.merchantId = CASE WHEN :rank >= h.statusRank THEN COALESCE(:merchantId, h.merchantId) " +
+            "ELSE COALESCE(h.merchantId, :merchantId) END, " +
+            "h.amount = CASE WHEN :rank >= h.statusRank THEN COALESCE(:amount, h.amount) " +
+            "ELSE COALESCE(h.amount, :amount) END, " +
+            "h.currency = CASE WHEN :rank >= h.statusRank THEN COALESCE(:currency, h.currency) " +
+            "ELSE COALESCE(h.currency, :currency) END, " +
+            "h.description = CASE WHEN :rank >= h.statusRank THEN COALESCE(:description, h.description) " +
+            "ELSE COALESCE(h.description, :description) END, " +
+            "h.qrCode = COALESCE(:qrCode, h.qrCode), " +
+            "h.status = CASE WHEN :rank > h.statusRank THEN :status ELSE h.status END, " +
+            "h.statusRank = CASE WHEN :rank > h.statusRank THEN :rank ELSE h.statusRank END, " +
+            "h.updatedAt = CASE WHEN :updatedAt > h.updatedAt THEN :updatedAt ELSE h.updatedAt END " +
+            "WHERE h.paymentId = :paymentId")
+    int merge(@Param("paymentId") Long paymentId,
+              @Param("customerId") String customerId,
+              @Param("merchantId") String merchantId,
+              @Param("amount") BigDecimal amount,
+              @Param("currency") String currency,
+              @Param("status") PaymentStatus status,
+              @Param("rank") int rank,
+              @Param("description") String description,
+              @Param("qrCode") String qrCode,
+              @Param("createdAt") LocalDateTime createdAt,
+              @Param("updatedAt") LocalDateTime updatedAt);
+
+    /** Plain INSERT (not merge), so a row created concurrently fails on the primary key instead of being overwritten. */
+    @Transactional
+    @Modifying
+    @Query(value = "INSERT INTO customer_payment_history (payment_id, customer_id, merchant_id, amount, currency, " +
+            "status, status_rank, description, qr_code, created_at, updated_at) " +
+            "VALUES (:paymentId, :customerId, :merchantId, :amount, :currency, :status, :rank, :description, " +
+            ":qrCode, :createdAt, :updatedAt)",
+            nativeQuery = true)
+    int insert(@Param("paymentId") Long paymentId,
+               @Param("customerId") String customerId,
+               @Param("merchantId") String merchantId,
+               @Param("amount") BigDecimal amount,
+               @Param("currency") String currency,
+               @Param("status") String status,
+               @Param("rank") int rank,
+               @Param("description") String description,
+               @Param("qrCode") String qrCode,
+               @Param("createdAt") LocalDateTime createdAt,
+               @Param("updatedAt") LocalDateTime updatedAt);
+}
@@ -31,6 +31,14 @@ public class EventOutboxRepositoryAdapter implements EventOutboxRepository {
         return eventOutboxMapper.toDomain(saved);
     }
 
+    @Override
+    public List<EventOutbox> saveAll(List<EventOutbox> events) {
+        List<EventOutboxEntity> entities = events.stream().map(eventOutboxMapper::toEntity).toList();
+        return eventOutboxRepository.saveAll(entities).stream()
+                .map(eventOutboxMapper::toDomain)
+                .toList();
+    }
+
     @Override
     public List<EventOutbox> findByStatus(OutboxStatus status) {
         return eventOutboxRepository.findByStatus(status).stream()
@@ -0,0 +1,222 @@
+package com.example.paymentservice.adapter.persistence;
+
+import com.example.paymentservice.config.ShardRouter;
+import com.example.paymentservice.domain.model.MerchantDailySummary;
+import com.example.paymentservice.domain.model.MerchantRollupIncrement;
+import com.example.paymentservice.entity.MerchantDailyRollupEntity;
+import com.example.paymentservice.entity.MerchantRollupBackfillEntity;
+import com.example.paymentservice.entity.MerchantRollupEventEntity;
+import com.example.paymentservice.repository.MerchantRollupRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * JPA adapter for merchant daily rollups.
+ * <p>
+ * Increments go to the merchant's shard (see ShardRouter), one transaction per database: references already in
+ * merchant_rollup_events are dropped, the rest are recorded there and added up per (merchant, day, currency), and
+ * each total is a single relative UPDATE, or an INSERT for the first event of a day. Rows are touched in key
+ * order so concurrent batches don't deadlock. If a concurrent writer records the same reference or inserts the
+ * same row first, the primary key fails the whole transaction and the caller retries it; nothing is half applied.
+ * Portable SELECT and UPDATE-then-INSERT rather than ON CONFLICT so the H2 test profile runs the same code.
+ * <p>
+ * Reads run on every database and add the rows up, since rollups written before sharding are in the home database.
+ * The backfill watermark is in the home database too.
+ */
+@Repository
+@RequiredArgsConstructor
+public class MerchantRollupRepositoryAdapter implements MerchantRollupRepository {
+
+    private static final String INSERT_EVENT = "INSERT INTO merchant_rollup_events (reference, applied_at) VALUES (?, ?)";
+    private static final int BATCH_SIZE = 50;
+
+    private final SpringDataMerchantRollupRepository rollupRepository;
+    private final SpringDataMerchantRollupEventRepository eventRepository;
+    private final SpringDataMerchantRollupBackfillRepository backfillRepository;
+    private final ShardRouter shardRouter;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    @Override
+    public void applyAllIfAbsent(List<MerchantRollupIncrement> increments) {
+        Map<Integer, List<MerchantRollupIncrement>> byDatabase = new TreeMap<>();
+        Map<Integer, Integer> representative = new TreeMap<>();
+        for (MerchantRollupIncrement increment : increments) {
+            int shard = shardRouter.shardOf(increment.getMerchantId());
+            int database = shardRouter.physicalShardOf(shard);
+            byDatabase.computeIfAbsent(database, key -> new ArrayList<>()).add(increment);
+            representative.putIfAbsent(database, shard);
+        }
+        byDatabase.forEach((database, batch) -> shardRouter.onShard(representative.get(database),
+                () -> transactionTemplate.execute(status -> applyIfAbsent(batch))));
+    }
+
+    @Override
+    public Optional<LocalDateTime> findBackfilledThrough() {
+        return backfillRepository.findById((short) 1).map(MerchantRollupBackfillEntity::getEventsThrough);
+    }
+
+    @Override
+    public List<MerchantDailySummary> findByMerchantId(String merchantId, LocalDate from, LocalDate to) {
+        List<MerchantDailySummary> rows = shardRouter.scatter(() ->
+                rollupRepository.findByMerchantIdAndRollupDateBetweenOrderByRollupDateAscCurrencyAsc(merchantId, from, to)
+                        .stream()
+                        .map(this::toDomain)
+                        .toList());
+        if (shardRouter.physicalShardCount() == 1) {
+            return rows;
+        }
+        Map<DayCurrency, MerchantDailySummary> totals = new TreeMap<>(
+                Comparator.comparing(DayCurrency::date).thenComparing(DayCurrency::currency));
+        for (MerchantDailySummary row : rows) {
+            totals.merge(new DayCurrency(row.getDate(), row.getCurrency()), row, MerchantRollupRepositoryAdapter::add);
+        }
+        return List.copyOf(totals.values());
+    }
+
+    private int applyIfAbsent(List<MerchantRollupIncrement> batch) {
+        Set<String> applied = new HashSet<>(eventRepository.findAppliedReferences(
+                batch.stream().map(MerchantRollupIncrement::getReference).toList()));
+        List<MerchantRollupIncrement> fresh = batch.stream()
+                .filter(increment -> !applied.contains(increment.getReference()))
+                .toList();
+        if (fresh.isEmpty()) {
+            return 0;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        jdbcTemplate.batchUpdate(INSERT_EVENT, fresh, BATCH_SIZE, (statement, increment) -> {
+            statement.setString(1, increment.getReference());
+            statement.setTimestamp(2, Timestamp.valueOf(now));
+        });
+
+        Map<RollupKey, MerchantRollupIncrement> totals = new TreeMap<>(Comparator.comparing(RollupKey::merchantId)
+                .thenComparing(RollupKey::date)
+                .thenComparing(RollupKey::currency));
+        for (MerchantRollupIncrement increment : fresh) {
+            totals.merge(new RollupKey(increment.getMerchantId(), increment.getDate(), increment.getCurrency()),
+                    increment, MerchantRollupRepositoryAdapter::add);
+        }
+        for (MerchantRollupIncrement total : totals.values()) {
+            if (rollupRepository.increment(total.getMerchantId(), total.getDate(), total.getCurrency(),
+                    total.getPaymentCount(), total.getGrossAmount(),
+                    total.getRefundCount(), total.getRefundAmount(), now) == 0) {
+                rollupRepository.insert(total.getMerchantId(), total.getDate(), total.getCurrency(),
+                        total.getPaymentCount(), total.getGrossAmount(),
+                        total.getRefundCount(), total.getRefundAmount(), now);
+            }
+        }
+        return fresh.size();
+    }
+
+    private static MerchantRollupIncrement add(MerchantRollupIncrement a, MerchantRollupIncrement b) {
+        return MerchantRollupIncrement.builder()
+                .merchantId(a.getMerchantId())
+                .date(a.getDate())
+                .currency(a.getCurrency())
+                .paymentCount(a.getPaymentCount() + b.getPaymentCount())
+                .grossAmount(a.getGrossAmount().add(b.getGrossAmount()))
+                .refundCount(a.getRefundCount() + b.getRefundCount())
+                .refundAmount(a.getRefundAmount().add(b.getRefundAmount()))
+                .build();
+    }
+
+    private static MerchantDailySummary add(MerchantDailySummary a, MerchantDailySummary b) {
+        return MerchantDailySummary.builder()
+                .merchantId(a.getMerchantId())
+                .date(a.getDate())
+                .currency(a.getCurrency())
+                .paymentCount(a.getPaymentCount() + b.getPaymentCount())
+                .grossAmount(a.getGrossAmount().add(b.getGrossAmount()))
+                .refundCount(a.getRefundCount() + b.getRefundCount())
+                .refundAmount(a.getRefundAmount().add(b.getRefundAmount()))
+                .build();
+    }
+
+    private MerchantDailySummary toDomain(MerchantDailyRollupEntity entity) {
+        return MerchantDailySummary.builder()
+                .merchantId(entity.getMerchantId())
+                .date(entity.getRollupDate())
+                .currency(entity.getCurrency())
+                .paymentCount(entity.getPaymentCount())
+                .grossAmount(entity.getGrossAmount())
+                .refundCount(entity.getRefundCount())
+                .refundAmount(entity.getRefundAmount())
+                .build();
+    }
+
+    private record DayCurrency(LocalDate date, String currency) {
+    }
+
+    private record RollupKey(String merchantId, LocalDate date, String currency) {
+    }
+}
+
+interface SpringDataMerchantRollupRepository
+        extends JpaRepository<MerchantDailyRollupEntity, MerchantDailyRollupEntity.Key> {
+
+    List<MerchantDailyRollupEntity> findByMerchantIdAndRollupDateBetweenOrderByRollupDateAscCurrencyAsc(
+            String merchantId, LocalDate from, LocalDate to);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE MerchantDailyRollupEntity r SET " +
+            "r.paymentCount = r.paymentCount + :payments, " +
+            "r.grossAmount = r.grossAmount + :gross, " +
+            "r.refundCount = r.refundCount + :refunds, " +
+            "r.refundAmount = r.refundAmount + :refunded, " +
+            "r.updatedAt = :updatedAt " +
+            "WHERE r.merchantId = :merchantId AND r.rollupDate = :rollupDate AND r.currency = :currency")
+    int increment(@Param("merchantId") String merchantId,
+                  @Param("rollupDate") LocalDate rollupDate,
+                  @Param("currency") String currency,
+                  @Param("payments") long payments,
+                  @Param("gross") BigDecimal gross,
+                  @Param("refunds") long refunds,
+                  @Param("refunded") BigDecimal refunded,
+                  @Param("updatedAt") LocalDateTime updatedAt);
+
+    /** Plain INSERT (not merge), so a row created concurrently fails on the primary key instead of being overwritten. */
+    @Transactional
+    @Modifying
+    @Query(value = "INSERT INTO merchant_daily_rollups (merchant_id, rollup_date, currency, payment_count, " +
+            "gross_amount, refund_count, refund_amount, updated_at) " +
+            "VALUES (:merchantId, :rollupDate, :currency, :payments, :gross, :refunds, :refunded, :updatedAt)",
+            nativeQuery = true)
+    int insert(@Param("merchantId") String merchantId,
+               @Param("rollupDate") LocalDate rollupDate,
+               @Param("currency") String currency,
+               @Param("payments") long payments,
+               @Param("gross") BigDecimal gross,
+               @Param("refunds") long refunds,
+               @Param("refunded") BigDecimal refunded,
+               @Param("updatedAt") LocalDateTime updatedAt);
+}
+
+interface SpringDataMerchantRollupEventRepository extends JpaRepository<MerchantRollupEventEntity, String> {
+
+    @Query("SELECT e.reference FROM MerchantRollupEventEntity e WHERE e.reference IN :references")
+    List<String> findAppliedReferences(@Param("references") List<String> references);
+}
+
+interface SpringDataMerchantRollupBackfillRepository extends JpaRepository<MerchantRollupBackfillEntity, Short> {
+}
@@ -0,0 +1,89 @@
+package com.example.paymentservice.adapter.persistence;
+
+import com.example.paymentservice.config.ReplicaRoutingDataSource;
+import com.example.paymentservice.config.ShardRouter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Profile;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps monthly partitions of {@code payments} created ahead of time (see V7 migration).
+ * <p>
+ * There is no default partition, so an insert for a month without a partition fails; running on
+ * startup and daily with a {@link #MONTHS_AHEAD}-month horizon keeps that from ever happening.
+ * The SQL function takes an advisory lock and skips existing partitions, so every replica can run this.
+ * Each shard database has its own partitioned table and gets its partitions created separately.
+ * <p>
+ * The function creates tables, so it is pinned to the primary (outside a transaction it would go to the
+ * read-only replica pool). A failed startup run fails the start; a failed daily run is counted in
+ * {@code payments.partitions.maintenance.failures}, and {@code payments.partitions.last.success} lets an alert
+ * fire long before the horizon runs out (see infra/observability/prometheus-alerts.yml).
+ */
+@Component
+@Profile("!test")
+@Slf4j
+public class PaymentPartitionMaintainer {
+
+    static final int MONTHS_AHEAD = 3;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ShardRouter shardRouter;
+    private final Counter failures;
+    private final AtomicLong lastSuccess = new AtomicLong();
+
+    public PaymentPartitionMaintainer(JdbcTemplate jdbcTemplate, ShardRouter shardRouter, MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.shardRouter = shardRouter;
+        this.failures = Counter.builder("payments.partitions.maintenance.failures")
+                .description("Runs that failed to create the payments partitions ahead")
+                .register(meterRegistry);
+        Gauge.builder("payments.partitions.last.success", lastSuccess, AtomicLong::get)
+                .description("When the payments partitions were last ensured on every shard (epoch seconds)")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onStartup() {
+        ensureOnEveryShard();
+    }
+
+    @Scheduled(cron = "${app.payments.partition-maintenance-cron:0 0 3 * * *}")
+    public void ensureFuturePartitions() {
+        try {
+            ensureOnEveryShard();
+        } catch (Exception e) {
+            failures.increment();
+            log.error("Failed to create payments partitions: {}", e.getMessage(), e);
+        }
+    }
+
+    private void ensureOnEveryShard() {
+        shardRouter.onEveryShard(() -> ReplicaRoutingDataSource.onPrimary(this::ensureShardPartitions));
+        lastSuccess.set(System.currentTimeMillis() / 1000);
+    }
+
+    private Integer ensureShardPartitions() {
+        LocalDate thisMonth = LocalDate.now().withDayOfMonth(1);
+        Integer created = jdbcTemplate.queryForObject(
+                "SELECT create_payments_partitions(?, ?)",
+                Integer.class,
+                Date.valueOf(thisMonth),
+                Date.valueOf(thisMonth.plusMonths(MONTHS_AHEAD)));
+        if (created != null && created > 0) {
+            log.info("Created {} payments partition(s) through {}", created, thisMonth.plusMonths(MONTHS_AHEAD));
+        }
+        return created;
+    }
+}
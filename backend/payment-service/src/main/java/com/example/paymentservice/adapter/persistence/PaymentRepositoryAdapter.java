@@ -1,87 +1,263 @@
 package com.example.paymentservice.adapter.persistence;
 
+import com.example.paymentservice.config.ShardRouter;
 import com.example.paymentservice.domain.model.Payment;
+import com.example.paymentservice.domain.model.PaymentPage;
+import com.example.paymentservice.domain.model.PaymentTransition;
 import com.example.paymentservice.entity.PaymentEntity;
+import com.example.paymentservice.entity.PaymentErrorCode;
 import com.example.paymentservice.entity.PaymentStatus;
 import com.example.paymentservice.mapper.PaymentMapper;
 import com.example.paymentservice.repository.PaymentRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Optional;
 
 /**
  * JPA adapter for payment persistence. Implements the port and delegates to Spring Data JPA.
+ * <p>
+ * Every statement is routed through {@link ShardRouter}: new payments go to their customer's shard, lookups by
+ * id to the shard encoded in the id, and queries with neither key run on every database and are merged here.
+ * Lists by customer also run everywhere: payments from before sharding are all in the home database.
  */
 @Repository
 @RequiredArgsConstructor
 public class PaymentRepositoryAdapter implements PaymentRepository  {
 
+    /** Newest first: the order of every list query, and a total order for merging keyset pages. */
+    private static final Comparator<Payment> NEWEST_FIRST =
+            Comparator.comparing(Payment::getCreatedAt).thenComparing(Payment::getId).reversed();
+
     private final SpringDataPaymentRepository paymentRepository;
     private final PaymentMapper paymentMapper;
+    private final ShardRouter shardRouter;
 
     @Override
     public Optional<Payment> findById(Long id) {
-        return paymentRepository.findById(id).map(paymentMapper::toDomain);
+        return shardRouter.onShard(shardRouter.shardOfId(id), () -> paymentRepository.findById(id))
+                .map(paymentMapper::toDomain);
     }
 
     @Override
     public Optional<Payment> findByIdempotencyKey(String idempotencyKey) {
-        return paymentRepository.findByIdempotencyKey(idempotencyKey).map(paymentMapper::toDomain);
+        return shardRouter.scatter(() -> paymentRepository.findByIdempotencyKey(idempotencyKey)
+                        .map(paymentMapper::toDomain)
+                        .stream()
+                        .toList())
+                .stream()
+                .findFirst();
     }
 
     @Override
     public Optional<Payment> findByIdAndStatus(Long id, PaymentStatus status) {
-        return paymentRepository.findByIdAndStatus(id, status).map(paymentMapper::toDomain);
+        return shardRouter.onShard(shardRouter.shardOfId(id), () -> paymentRepository.findByIdAndStatus(id, status))
+                .map(paymentMapper::toDomain);
     }
 
     @Override
-    public List<Payment> findByStatus(PaymentStatus status) {
-        return paymentRepository.findByStatus(status).stream()
-                .map(paymentMapper::toDomain)
-                .toList();
+    public List<Payment> findByStatus(PaymentStatus status, LocalDateTime createdAfter) {
+        return newestFirst(shardRouter.scatter(() ->
+                paymentRepository.findByStatusAndCreatedAtGreaterThanEqualOrderByCreatedAtDesc(status, createdAfter)
+                        .stream()
+                        .map(paymentMapper::toDomain)
+                        .toList()));
     }
 
+    /** Each database returns its own first {@code limit} after the cursor; the merged page is the newest of those. */
     @Override
-    public List<Payment> findByMerchantId(String merchantId) {
-        return List.of();
+    public List<Payment> findByMerchantId(String merchantId, PaymentPage.Cursor after, int limit) {
+        List<Payment> candidates = shardRouter.scatter(() -> {
+            List<PaymentEntity> page = after == null
+                    ? paymentRepository.findByMerchantIdOrderByCreatedAtDescIdDesc(merchantId, Limit.of(limit))
+                    : paymentRepository.findByMerchantIdBefore(merchantId, after.createdAt(), after.id(), Limit.of(limit));
+            return page.stream()
+                    .map(paymentMapper::toDomain)
+                    .toList();
+        });
+        List<Payment> merged = newestFirst(candidates);
+        return merged.size() > limit ? merged.subList(0, limit) : merged;
     }
 
     @Override
     public List<Payment> findByCustomerId(String customerId) {
-        return paymentRepository.findByCustomerId(customerId).stream()
+        return shardRouter.scatter(() -> paymentRepository.findByCustomerId(customerId).stream()
                 .map(paymentMapper::toDomain)
-                .toList();
+                .toList());
     }
 
     @Override
-    public List<Payment> findAll() {
-        return paymentRepository.findAll().stream()
-                .map(paymentMapper::toDomain)
-                .toList();
+    public List<Payment> findCreatedAfter(LocalDateTime createdAfter) {
+        return newestFirst(shardRouter.scatter(() ->
+                paymentRepository.findByCreatedAtGreaterThanEqualOrderByCreatedAtDesc(createdAfter).stream()
+                        .map(paymentMapper::toDomain)
+                        .toList()));
     }
 
     @Override
     public Payment save(Payment payment) {
         var entity = paymentMapper.toEntity(payment);
-        var saved = paymentRepository.save(entity);
+        var saved = shardRouter.onShard(shardFor(payment), () -> paymentRepository.save(entity));
         return paymentMapper.toDomain(saved);
     }
 
+    @Override
+    public List<Payment> saveAll(List<Payment> payments) {
+        int shard = shardFor(payments.getFirst());
+        if (payments.stream().anyMatch(payment -> shardFor(payment) != shard)) {
+            throw new IllegalArgumentException("Payments of a batch must belong to one shard");
+        }
+        List<PaymentEntity> entities = payments.stream().map(paymentMapper::toEntity).toList();
+        return shardRouter.onShard(shard, () -> paymentRepository.saveAll(entities)).stream()
+                .map(paymentMapper::toDomain)
+                .toList();
+    }
+
+    @Override
+    public boolean transitionStatus(Long id, PaymentStatus expectedStatus, PaymentTransition transition) {
+        return shardRouter.onShard(shardRouter.shardOfId(id), () -> paymentRepository.transitionStatus(
+                id,
+                expectedStatus,
+                transition.getTargetStatus(),
+                transition.getAmount(),
+                transition.getCurrency(),
+                transition.getMerchantId(),
+                transition.getDescription(),
+                transition.getIdempotencyKey(),
+                transition.getErrorCode(),
+                transition.getErrorMessage(),
+                transition.getUpdatedAt())) == 1;
+    }
+
+    /** Runs on the caller's shard: the sweeper opens one transaction per database (see ShardRouter#onEveryShard). */
+    @Override
+    public List<Long> expireStale(Collection<PaymentStatus> statuses, LocalDateTime createdBefore, int limit,
+                                  LocalDateTime expiredAt) {
+        List<Long> ids = paymentRepository.lockStaleIds(
+                statuses.stream().map(Enum::name).toList(), createdBefore, limit);
+        if (ids.isEmpty()) {
+            return ids;
+        }
+        // Every locked row is still in one of the statuses, so the UPDATE expires exactly these ids
+        paymentRepository.expire(ids, statuses, createdBefore, PaymentStatus.EXPIRED,
+                PaymentErrorCode.PAYMENT_EXPIRED.name(), "Payment was not completed before it expired", expiredAt);
+        return ids;
+    }
+
+    @Override
+    public Optional<Long> findVersionById(Long id) {
+        return shardRouter.onShard(shardRouter.shardOfId(id), () -> paymentRepository.findVersionById(id));
+    }
+
     @Override
     public Boolean existsById(Long id) {
-        return paymentRepository.existsById(id);
+        return shardRouter.onShard(shardRouter.shardOfId(id), () -> paymentRepository.existsById(id));
+    }
+
+    /** Existing payments stay where their id says; new ones go to their customer's (or merchant's) shard. */
+    private int shardFor(Payment payment) {
+        if (payment.getId() != null) {
+            return shardRouter.shardOfId(payment.getId());
+        }
+        String routingKey = payment.getCustomerId() != null ? payment.getCustomerId() : payment.getMerchantId();
+        return routingKey != null ? shardRouter.shardOf(routingKey) : 0;
+    }
+
+    private static List<Payment> newestFirst(List<Payment> payments) {
+        return payments.stream().sorted(NEWEST_FIRST).toList();
     }
 }
 
 interface SpringDataPaymentRepository extends JpaRepository<PaymentEntity, Long> {
-    List<PaymentEntity> findByStatus(PaymentStatus status);
+    List<PaymentEntity> findByStatusAndCreatedAtGreaterThanEqualOrderByCreatedAtDesc(PaymentStatus status,
+                                                                                   LocalDateTime createdAfter);
+
+    List<PaymentEntity> findByCreatedAtGreaterThanEqualOrderByCreatedAtDesc(LocalDateTime createdAfter);
 
     List<PaymentEntity> findByCustomerId(String customerId);
 
+    List<PaymentEntity> findByMerchantIdOrderByCreatedAtDescIdDesc(String merchantId, Limit limit);
+
+    @Query("SELECT p FROM PaymentEntity p WHERE p.merchantId = :merchantId " +
+            "AND (p.createdAt < :createdAt OR (p.createdAt = :createdAt AND p.id < :id)) " +
+            "ORDER BY p.createdAt DESC, p.id DESC")
+    List<PaymentEntity> findByMerchantIdBefore(@Param("merchantId") String merchantId,
+                                               @Param("createdAt") LocalDateTime createdAt,
+                                               @Param("id") Long id,
+                                               Limit limit);
+
     Optional<PaymentEntity> findByIdAndStatus(Long id, PaymentStatus status);
 
     Optional<PaymentEntity> findByIdempotencyKey(String idempotencyKey);
+
+    /** Covered by idx_payments_id_version, so Postgres can answer it from the index alone. */
+    @Query("SELECT p.version FROM PaymentEntity p WHERE p.id = :id")
+    Optional<Long> findVersionById(@Param("id") Long id);
+
+    /**
+     * Conditional UPDATE: only applies while the row is still in {@code expectedStatus}.
+     * Null arguments keep the current column value.
+     */
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE PaymentEntity p SET p.status = :targetStatus, " +
+            "p.amount = COALESCE(:amount, p.amount), " +
+            "p.currency = COALESCE(:currency, p.currency), " +
+            "p.merchantId = COALESCE(:merchantId, p.merchantId), " +
+            "p.description = COALESCE(:description, p.description), " +
+            "p.idempotencyKey = COALESCE(:idempotencyKey, p.idempotencyKey), " +
+            "p.errorCode = COALESCE(:errorCode, p.errorCode), " +
+            "p.errorMessage = COALESCE(:errorMessage, p.errorMessage), " +
+            "p.updatedAt = :updatedAt, " +
+            "p.version = p.version + 1 " +
+            "WHERE p.id = :id AND p.status = :expectedStatus")
+    int transitionStatus(@Param("id") Long id,
+                         @Param("expectedStatus") PaymentStatus expectedStatus,
+                         @Param("targetStatus") PaymentStatus targetStatus,
+                         @Param("amount") BigDecimal amount,
+                         @Param("currency") String currency,
+                         @Param("merchantId") String merchantId,
+                         @Param("description") String description,
+                         @Param("idempotencyKey") String idempotencyKey,
+                         @Param("errorCode") String errorCode,
+                         @Param("errorMessage") String errorMessage,
+                         @Param("updatedAt") LocalDateTime updatedAt);
+
+    /**
+     * Oldest expirable payments, locked with SKIP LOCKED so concurrent sweepers take disjoint chunks and never
+     * block on a row a request is transitioning. Served by idx_payments_status_created_at; the created_at bound
+     * prunes the newer monthly partitions.
+     */
+    @Query(value = "SELECT id FROM payments WHERE status IN (:statuses) AND created_at < :createdBefore " +
+            "ORDER BY created_at LIMIT :limit FOR UPDATE SKIP LOCKED",
+            nativeQuery = true)
+    List<Long> lockStaleIds(@Param("statuses") Collection<String> statuses,
+                            @Param("createdBefore") LocalDateTime createdBefore,
+                            @Param("limit") int limit);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE PaymentEntity p SET p.status = :expiredStatus, " +
+            "p.errorCode = :errorCode, " +
+            "p.errorMessage = :errorMessage, " +
+            "p.updatedAt = :updatedAt, " +
+            "p.version = p.version + 1 " +
+            "WHERE p.id IN :ids AND p.createdAt < :createdBefore AND p.status IN :statuses")
+    int expire(@Param("ids") Collection<Long> ids,
+               @Param("statuses") Collection<PaymentStatus> statuses,
+               @Param("createdBefore") LocalDateTime createdBefore,
+               @Param("expiredStatus") PaymentStatus expiredStatus,
+               @Param("errorCode") String errorCode,
+               @Param("errorMessage") String errorMessage,
+               @Param("updatedAt") LocalDateTime updatedAt);
 }
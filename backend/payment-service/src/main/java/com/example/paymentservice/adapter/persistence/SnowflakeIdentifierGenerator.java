@@ -0,0 +1,37 @@
+package com.example.paymentservice.adapter.persistence;
+
+import com.example.paymentservice.config.ShardRouter;
+import com.example.paymentservice.service.SnowflakeIdGenerator;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.generator.BeforeExecutionGenerator;
+import org.hibernate.generator.EventType;
+import org.hibernate.generator.EventTypeSets;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumSet;
+
+/**
+ * Hibernate side of {@link com.example.paymentservice.entity.SnowflakeId}. Hibernate looks generators up in
+ * the Spring bean container, so every annotated entity shares this bean and its node's id sequences.
+ * Ids carry the logical shard of the current scope or transaction (see ShardRouter), which is where the row
+ * is being written.
+ */
+@Component
+@RequiredArgsConstructor
+public class SnowflakeIdentifierGenerator implements BeforeExecutionGenerator {
+
+    private final SnowflakeIdGenerator snowflakeIdGenerator;
+    private final ShardRouter shardRouter;
+
+    @Override
+    public Object generate(SharedSessionContractImplementor session, Object owner, Object currentValue,
+                           EventType eventType) {
+        return snowflakeIdGenerator.nextId(shardRouter.currentShard());
+    }
+
+    @Override
+    public EnumSet<EventType> getEventTypes() {
+        return EventTypeSets.INSERT_ONLY;
+    }
+}
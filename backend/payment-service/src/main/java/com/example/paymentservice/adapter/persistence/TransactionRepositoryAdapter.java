@@ -1,29 +1,55 @@
 package com.example.paymentservice.adapter.persistence;
 
 
+import com.example.paymentservice.config.ShardRouter;
 import com.example.paymentservice.domain.model.Transaction;
 import com.example.paymentservice.entity.TransactionEntity;
 import com.example.paymentservice.entity.TransactionType;
 import com.example.paymentservice.mapper.TransactionMapper;
 import com.example.paymentservice.repository.TransactionRepository;
+import com.example.paymentservice.service.SnowflakeIdGenerator;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.sql.Timestamp;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.TreeMap;
 
 
+/**
+ * JPA adapter for transactions. A payment's transactions are stored on its shard, so lookups by payment or
+ * transaction id go to one database and the rest run on every database (see ShardRouter).
+ * <p>
+ * Ledger writes bypass JPA: plain JDBC batches with {@code ON CONFLICT DO NOTHING} against the unique
+ * (payment_id, type, reference) index, one transaction per database.
+ */
 @Repository
 @RequiredArgsConstructor
 public class TransactionRepositoryAdapter implements TransactionRepository {
 
+    private static final String INSERT_IF_ABSENT = """
+            INSERT INTO transactions
+                (id, payment_id, type, amount, status, reference, external_reference, timestamp, description)
+            VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)
+            ON CONFLICT DO NOTHING""";
+    private static final int BATCH_SIZE = 50;
+
     private final SpringDataTransactionRepository transactionRepository;
     private final TransactionMapper transactionMapper;
+    private final ShardRouter shardRouter;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final SnowflakeIdGenerator idGenerator;
 
     @Override
     public List<Transaction> findByPaymentId(Long paymentId) {
-        return transactionRepository.findByPaymentId(paymentId)
+        return shardRouter.onShard(shardRouter.shardOfId(paymentId), () -> transactionRepository.findByPaymentId(paymentId))
                 .stream()
                 .map(transactionMapper::toDomain)
                 .toList();
@@ -31,15 +57,16 @@ public class TransactionRepositoryAdapter implements TransactionRepository {
 
     @Override
     public List<Transaction> findByType(TransactionType type) {
-        return transactionRepository.findByType(type)
+        return shardRouter.scatter(() -> transactionRepository.findByType(type)
                 .stream()
                 .map(transactionMapper::toDomain)
-                .toList();
+                .toList());
     }
 
     @Override
     public List<Transaction> findByPaymentIdOrderByTimestampDesc(Long paymentId) {
-        return transactionRepository.findByPaymentIdOrderByTimestampDesc(paymentId)
+        return shardRouter.onShard(shardRouter.shardOfId(paymentId),
+                        () -> transactionRepository.findByPaymentIdOrderByTimestampDesc(paymentId))
                 .stream()
                 .map(transactionMapper::toDomain)
                 .toList();
@@ -47,15 +74,45 @@ public class TransactionRepositoryAdapter implements TransactionRepository {
 
     @Override
     public List<Transaction> findAll() {
-        return transactionRepository.findAll()
+        return shardRouter.scatter(() -> transactionRepository.findAll()
                 .stream()
                 .map(transactionMapper::toDomain)
-                .toList();
+                .toList());
     }
 
     @Override
     public Optional<Transaction> findById(Long id) {
-        return transactionRepository.findById(id).map(transactionMapper::toDomain);
+        return shardRouter.onShard(shardRouter.shardOfId(id), () -> transactionRepository.findById(id))
+                .map(transactionMapper::toDomain);
+    }
+
+    @Override
+    public void saveAllIfAbsent(List<Transaction> transactions) {
+        // A payment's transactions live on its shard; everything bound for one database goes in one transaction
+        Map<Integer, List<Transaction>> byDatabase = new TreeMap<>();
+        Map<Integer, Integer> representative = new TreeMap<>();
+        for (Transaction transaction : transactions) {
+            int shard = shardRouter.shardOfId(transaction.getPaymentId());
+            int database = shardRouter.physicalShardOf(shard);
+            byDatabase.computeIfAbsent(database, key -> new ArrayList<>()).add(transaction);
+            representative.putIfAbsent(database, shard);
+        }
+        byDatabase.forEach((database, batch) -> shardRouter.onShard(representative.get(database),
+                () -> transactionTemplate.execute(status -> insertIfAbsent(batch))));
+    }
+
+    private int[][] insertIfAbsent(List<Transaction> batch) {
+        return jdbcTemplate.batchUpdate(INSERT_IF_ABSENT, batch, BATCH_SIZE, (statement, transaction) -> {
+            statement.setLong(1, idGenerator.nextId(shardRouter.shardOfId(transaction.getPaymentId())));
+            statement.setLong(2, transaction.getPaymentId());
+            statement.setString(3, transaction.getType().name());
+            statement.setBigDecimal(4, transaction.getAmount());
+            statement.setString(5, transaction.getStatus().name());
+            statement.setString(6, transaction.getReference());
+            statement.setString(7, transaction.getExternalReference());
+            statement.setTimestamp(8, Timestamp.valueOf(transaction.getTimestamp()));
+            statement.setString(9, transaction.getDescription());
+        });
     }
 }
 
@@ -0,0 +1,180 @@
+package com.example.paymentservice.adapter.persistence;
+
+import com.example.paymentservice.domain.model.WebhookDelivery;
+import com.example.paymentservice.entity.WebhookDeliveryEntity;
+import com.example.paymentservice.entity.WebhookDeliveryStatus;
+import com.example.paymentservice.repository.WebhookDeliveryRepository;
+import com.example.paymentservice.service.SnowflakeIdGenerator;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * JPA adapter for the webhook delivery queue, in the home database.
+ * <p>
+ * Deliveries are queued with plain JDBC batches and {@code ON CONFLICT DO NOTHING} against the unique
+ * (endpoint_id, event_id) index, like ledger writes. Claims lock due rows with SKIP LOCKED and lease them by
+ * moving next_attempt_at forward in the same short transaction, so dispatchers on several replicas take
+ * disjoint batches and a batch whose sender died is picked up again once its lease expires.
+ */
+@Repository
+@RequiredArgsConstructor
+public class WebhookDeliveryRepositoryAdapter implements WebhookDeliveryRepository {
+
+    private static final String INSERT_IF_ABSENT = """
+            INSERT INTO webhook_deliveries
+                (id, endpoint_id, event_id, event_type, payload, status, attempts, next_attempt_at, created_at)
+            VALUES (?, ?, ?, ?, ?, 'PENDING', 0, ?, ?)
+            ON CONFLICT DO NOTHING""";
+    private static final int BATCH_SIZE = 50;
+    private static final int MAX_ERROR_LENGTH = 500;
+
+    private final SpringDataWebhookDeliveryRepository deliveryRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final SnowflakeIdGenerator idGenerator;
+
+    @Override
+    public void enqueueAllIfAbsent(List<WebhookDelivery> deliveries) {
+        transactionTemplate.execute(status -> jdbcTemplate.batchUpdate(INSERT_IF_ABSENT, deliveries, BATCH_SIZE,
+                (statement, delivery) -> {
+                    statement.setLong(1, idGenerator.nextId());
+                    statement.setLong(2, delivery.getEndpointId());
+                    statement.setString(3, delivery.getEventId());
+                    statement.setString(4, delivery.getEventType());
+                    statement.setString(5, delivery.getPayload());
+                    statement.setTimestamp(6, Timestamp.valueOf(delivery.getNextAttemptAt()));
+                    statement.setTimestamp(7, Timestamp.valueOf(delivery.getCreatedAt()));
+                }));
+    }
+
+    @Override
+    public List<Long> findEndpointsWithDueDeliveries(LocalDateTime now, int limit) {
+        return deliveryRepository.findEndpointIdsDue(WebhookDeliveryStatus.PENDING, now, Limit.of(limit));
+    }
+
+    @Override
+    public List<WebhookDelivery> claimDue(Long endpointId, LocalDateTime now, int limit, LocalDateTime leaseUntil) {
+        return transactionTemplate.execute(status -> {
+            List<Long> ids = deliveryRepository.lockDueIds(endpointId, now, limit);
+            if (ids.isEmpty()) {
+                return List.of();
+            }
+            deliveryRepository.lease(ids, leaseUntil);
+            return deliveryRepository.findAllById(ids).stream()
+                    .sorted(Comparator.comparing(WebhookDeliveryEntity::getId))
+                    .map(this::toDomain)
+                    .toList();
+        });
+    }
+
+    @Override
+    public void markDelivered(List<Long> ids, LocalDateTime deliveredAt) {
+        transactionTemplate.executeWithoutResult(status -> deliveryRepository.markDelivered(ids,
+                WebhookDeliveryStatus.DELIVERED, deliveredAt));
+    }
+
+    @Override
+    public void reschedule(List<Long> ids, LocalDateTime nextAttemptAt, String error) {
+        transactionTemplate.executeWithoutResult(status -> deliveryRepository.reschedule(ids, nextAttemptAt,
+                truncate(error)));
+    }
+
+    @Override
+    public void markFailed(List<Long> ids, String error) {
+        transactionTemplate.executeWithoutResult(status -> deliveryRepository.markFailed(ids,
+                WebhookDeliveryStatus.FAILED, truncate(error)));
+    }
+
+    @Override
+    public List<WebhookDelivery> findByEndpointId(Long endpointId) {
+        return deliveryRepository.findByEndpointIdOrderById(endpointId).stream()
+                .map(this::toDomain)
+                .toList();
+    }
+
+    @Override
+    public void deleteByEndpointId(Long endpointId) {
+        transactionTemplate.executeWithoutResult(status -> deliveryRepository.deleteByEndpointId(endpointId));
+    }
+
+    private static String truncate(String error) {
+        return error != null && error.length() > MAX_ERROR_LENGTH ? error.substring(0, MAX_ERROR_LENGTH) : error;
+    }
+
+    private WebhookDelivery toDomain(WebhookDeliveryEntity entity) {
+        return WebhookDelivery.builder()
+                .id(entity.getId())
+                .endpointId(entity.getEndpointId())
+                .eventId(entity.getEventId())
+                .eventType(entity.getEventType())
+                .payload(entity.getPayload())
+                .status(entity.getStatus())
+                .attempts(entity.getAttempts())
+                .nextAttemptAt(entity.getNextAttemptAt())
+                .lastError(entity.getLastError())
+                .createdAt(entity.getCreatedAt())
+                .deliveredAt(entity.getDeliveredAt())
+                .build();
+    }
+}
+
+interface SpringDataWebhookDeliveryRepository extends JpaRepository<WebhookDeliveryEntity, Long> {
+
+    @Query("SELECT DISTINCT d.endpointId FROM WebhookDeliveryEntity d " +
+            "WHERE d.status = :status AND d.nextAttemptAt <= :now")
+    List<Long> findEndpointIdsDue(@Param("status") WebhookDeliveryStatus status,
+                                  @Param("now") LocalDateTime now,
+                                  Limit limit);
+
+    /** Oldest due deliveries of the endpoint, served by idx_webhook_deliveries_due. */
+    @Query(value = "SELECT id FROM webhook_deliveries WHERE endpoint_id = :endpointId AND status = 'PENDING' " +
+            "AND next_attempt_at <= :now ORDER BY next_attempt_at, id LIMIT :limit FOR UPDATE SKIP LOCKED",
+            nativeQuery = true)
+    List<Long> lockDueIds(@Param("endpointId") Long endpointId,
+                          @Param("now") LocalDateTime now,
+                          @Param("limit") int limit);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE WebhookDeliveryEntity d SET d.attempts = d.attempts + 1, d.nextAttemptAt = :leaseUntil " +
+            "WHERE d.id IN :ids")
+    int lease(@Param("ids") Collection<Long> ids, @Param("leaseUntil") LocalDateTime leaseUntil);
+
+    @Modifying
+    @Query("UPDATE WebhookDeliveryEntity d SET d.status = :status, d.deliveredAt = :deliveredAt, " +
+            "d.lastError = NULL WHERE d.id IN :ids")
+    int markDelivered(@Param("ids") Collection<Long> ids,
+                      @Param("status") WebhookDeliveryStatus status,
+                      @Param("deliveredAt") LocalDateTime deliveredAt);
+
+    @Modifying
+    @Query("UPDATE WebhookDeliveryEntity d SET d.nextAttemptAt = :nextAttemptAt, d.lastError = :error " +
+            "WHERE d.id IN :ids")
+    int reschedule(@Param("ids") Collection<Long> ids,
+                   @Param("nextAttemptAt") LocalDateTime nextAttemptAt,
+                   @Param("error") String error);
+
+    @Modifying
+    @Query("UPDATE WebhookDeliveryEntity d SET d.status = :status, d.lastError = :error WHERE d.id IN :ids")
+    int markFailed(@Param("ids") Collection<Long> ids,
+                   @Param("status") WebhookDeliveryStatus status,
+                   @Param("error") String error);
+
+    List<WebhookDeliveryEntity> findByEndpointIdOrderById(Long endpointId);
+
+    @Modifying
+    @Query("DELETE FROM WebhookDeliveryEntity d WHERE d.endpointId = :endpointId")
+    int deleteByEndpointId(@Param("endpointId") Long endpointId);
+}
@@ -0,0 +1,88 @@
+package com.example.paymentservice.adapter.persistence;
+
+import com.example.paymentservice.domain.model.WebhookEndpoint;
+import com.example.paymentservice.entity.WebhookEndpointEntity;
+import com.example.paymentservice.repository.WebhookEndpointRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * JPA adapter for merchant webhook endpoints. The registry is small and lives in the home database only.
+ */
+@Repository
+@RequiredArgsConstructor
+public class WebhookEndpointRepositoryAdapter implements WebhookEndpointRepository {
+
+    private final SpringDataWebhookEndpointRepository endpointRepository;
+
+    @Override
+    public Optional<WebhookEndpoint> findByMerchantId(String merchantId) {
+        return endpointRepository.findByMerchantId(merchantId).map(this::toDomain);
+    }
+
+    @Override
+    public List<WebhookEndpoint> findEnabledByMerchantIds(Collection<String> merchantIds) {
+        return endpointRepository.findByMerchantIdInAndEnabledTrue(merchantIds).stream()
+                .map(this::toDomain)
+                .toList();
+    }
+
+    @Override
+    public List<WebhookEndpoint> findEnabledByIds(Collection<Long> ids) {
+        return endpointRepository.findByIdInAndEnabledTrue(ids).stream()
+                .map(this::toDomain)
+                .toList();
+    }
+
+    @Override
+    public WebhookEndpoint save(WebhookEndpoint endpoint) {
+        return toDomain(endpointRepository.save(toEntity(endpoint)));
+    }
+
+    @Override
+    public void delete(Long id) {
+        endpointRepository.deleteById(id);
+    }
+
+    private WebhookEndpoint toDomain(WebhookEndpointEntity entity) {
+        return WebhookEndpoint.builder()
+                .id(entity.getId())
+                .merchantId(entity.getMerchantId())
+                .url(entity.getUrl())
+                .secret(entity.getSecret())
+                .maxConcurrency(entity.getMaxConcurrency())
+                .maxBatchSize(entity.getMaxBatchSize())
+                .enabled(entity.isEnabled())
+                .createdAt(entity.getCreatedAt())
+                .updatedAt(entity.getUpdatedAt())
+                .build();
+    }
+
+    private WebhookEndpointEntity toEntity(WebhookEndpoint endpoint) {
+        return WebhookEndpointEntity.builder()
+                .id(endpoint.getId())
+                .merchantId(endpoint.getMerchantId())
+                .url(endpoint.getUrl())
+                .secret(endpoint.getSecret())
+                .maxConcurrency(endpoint.getMaxConcurrency())
+                .maxBatchSize(endpoint.getMaxBatchSize())
+                .enabled(endpoint.isEnabled())
+                .createdAt(endpoint.getCreatedAt())
+                .updatedAt(endpoint.getUpdatedAt())
+                .build();
+    }
+}
+
+interface SpringDataWebhookEndpointRepository extends JpaRepository<WebhookEndpointEntity, Long> {
+
+    Optional<WebhookEndpointEntity> findByMerchantId(String merchantId);
+
+    List<WebhookEndpointEntity> findByMerchantIdInAndEnabledTrue(Collection<String> merchantIds);
+
+    List<WebhookEndpointEntity> findByIdInAndEnabledTrue(Collection<Long> ids);
+}
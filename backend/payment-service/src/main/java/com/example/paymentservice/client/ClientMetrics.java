@@ -0,0 +1,116 @@
+package com.example.paymentservice.client;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Client-side latency and outcome metrics for the HTTP service clients (wallet, qrCode, user).
+ * <ul>
+ *   <li>{@code client.requests}: one sample per HTTP attempt, tagged by service group, API operation, status, outcome</li>
+ *   <li>{@code client.request.size} / {@code client.response.size}: bytes out / in per attempt</li>
+ *   <li>{@code client.calls}: one sample per resilient client call (*ClientService method), so it includes
+ *       Resilience4j retries, retry backoff and circuit-breaker rejections</li>
+ *   <li>{@code client.call.retries}: HTTP attempts beyond the first within a call</li>
+ * </ul>
+ * Timers publish percentile histograms; with the Prometheus registry the buckets carry trace-id exemplars.
+ */
+@Component
+@RequiredArgsConstructor
+public class ClientMetrics {
+
+    /** Request attribute carrying the API method name, set by the HTTP service proxy (see MetricsConfig). */
+    public static final String OPERATION_ATTRIBUTE = ClientMetrics.class.getName() + ".operation";
+
+    private static final String NONE = "none";
+
+    /** HTTP attempts made by the client call open on this thread, if any. */
+    private static final ThreadLocal<Call> CURRENT_CALL = new ThreadLocal<>();
+
+    private final MeterRegistry meterRegistry;
+
+    public ClientMetricsInterceptor interceptor(String client) {
+        return new ClientMetricsInterceptor(this, client);
+    }
+
+    /**
+     * Opens a call on this thread; HTTP attempts made until {@link #endCall} are counted against it.
+     * Nested calls (one client service calling another through its proxy) are counted by the outermost one.
+     */
+    Call startCall() {
+        Call call = new Call(System.nanoTime(), CURRENT_CALL.get());
+        if (call.outer == null) {
+            CURRENT_CALL.set(call);
+        }
+        return call;
+    }
+
+    void endCall(Call call, String client, String operation, Throwable error) {
+        if (call.outer != null) {
+            return;
+        }
+        CURRENT_CALL.remove();
+        Timer.builder("client.calls")
+                .description("Client calls including retries and circuit-breaker rejections")
+                .tag("client", client)
+                .tag("operation", operation)
+                .tag("outcome", error == null ? "SUCCESS" : "ERROR")
+                .tag("exception", error == null ? NONE : error.getClass().getSimpleName())
+                .publishPercentileHistogram()
+                .register(meterRegistry)
+                .record(System.nanoTime() - call.startNanos, TimeUnit.NANOSECONDS);
+        if (call.attempts > 1) {
+            Counter.builder("client.call.retries")
+                    .description("HTTP attempts beyond the first within a client call")
+                    .tag("client", client)
+                    .tag("operation", operation)
+                    .register(meterRegistry)
+                    .increment(call.attempts - 1);
+        }
+    }
+
+    void recordRequest(String client, String operation, String status, String outcome,
+                       long durationNanos, long bytesOut, long bytesIn) {
+        Call call = CURRENT_CALL.get();
+        if (call != null) {
+            call.attempts++;
+        }
+        Timer.builder("client.requests")
+                .description("HTTP requests to downstream services, one per attempt")
+                .tag("client", client)
+                .tag("operation", operation)
+                .tag("status", status)
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .register(meterRegistry)
+                .record(durationNanos, TimeUnit.NANOSECONDS);
+        DistributionSummary.builder("client.request.size")
+                .baseUnit("bytes")
+                .tag("client", client)
+                .tag("operation", operation)
+                .register(meterRegistry)
+                .record(bytesOut);
+        DistributionSummary.builder("client.response.size")
+                .baseUnit("bytes")
+                .tag("client", client)
+                .tag("operation", operation)
+                .register(meterRegistry)
+                .record(bytesIn);
+    }
+
+    static final class Call {
+        private final long startNanos;
+        private final Call outer;
+        private int attempts;
+
+        private Call(long startNanos, Call outer) {
+            this.startNanos = startNanos;
+            this.outer = outer;
+        }
+    }
+}
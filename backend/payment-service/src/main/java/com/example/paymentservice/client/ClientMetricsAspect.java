@@ -0,0 +1,44 @@
+package com.example.paymentservice.client;
+
+import io.github.resilience4j.circuitbreaker.annotation.CircuitBreaker;
+import lombok.RequiredArgsConstructor;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.lang.reflect.Method;
+
+/**
+ * Records {@code client.calls} around the resilient client methods. Ordered ahead of the Resilience4j
+ * aspects so the sample spans every retry attempt, the backoff between them and circuit-breaker rejections.
+ * The {@code client} tag is the Resilience4j instance name, matching the resilience4j_* metrics.
+ */
+@Aspect
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+@RequiredArgsConstructor
+public class ClientMetricsAspect {
+
+    private final ClientMetrics clientMetrics;
+
+    // The annotation is looked up rather than bound: binding needs ExposeInvocationInterceptor ahead of this advice
+    @Around("within(com.example.paymentservice.client..*) "
+            + "&& @annotation(io.github.resilience4j.circuitbreaker.annotation.CircuitBreaker)")
+    public Object recordCall(ProceedingJoinPoint joinPoint) throws Throwable {
+        Method method = ((MethodSignature) joinPoint.getSignature()).getMethod();
+        String client = method.getAnnotation(CircuitBreaker.class).name();
+        ClientMetrics.Call call = clientMetrics.startCall();
+        try {
+            Object result = joinPoint.proceed();
+            clientMetrics.endCall(call, client, method.getName(), null);
+            return result;
+        } catch (Throwable e) {
+            clientMetrics.endCall(call, client, method.getName(), e);
+            throw e;
+        }
+    }
+}
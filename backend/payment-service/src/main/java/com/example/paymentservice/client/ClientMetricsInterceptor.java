@@ -0,0 +1,164 @@
+package com.example.paymentservice.client;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Times each HTTP attempt of one service group and counts bytes in/out. The sample is recorded when the
+ * response is closed, so the time includes reading the body; I/O failures are recorded with status IO_ERROR.
+ */
+public class ClientMetricsInterceptor implements ClientHttpRequestInterceptor {
+
+    private final ClientMetrics clientMetrics;
+    private final String client;
+
+    ClientMetricsInterceptor(ClientMetrics clientMetrics, String client) {
+        this.clientMetrics = clientMetrics;
+        this.client = client;
+    }
+
+    @Override
+    public ClientHttpResponse intercept(HttpRequest request, byte[] body, ClientHttpRequestExecution execution)
+            throws IOException {
+        Object operation = request.getAttributes().get(ClientMetrics.OPERATION_ATTRIBUTE);
+        String operationTag = operation != null ? operation.toString() : "none";
+        long start = System.nanoTime();
+        try {
+            return new MeteredResponse(execution.execute(request, body), operationTag, start, body.length);
+        } catch (IOException e) {
+            clientMetrics.recordRequest(client, operationTag, "IO_ERROR", "IO_ERROR",
+                    System.nanoTime() - start, body.length, 0);
+            throw e;
+        }
+    }
+
+    private static String outcome(HttpStatusCode status) {
+        if (status.is2xxSuccessful()) {
+            return "SUCCESS";
+        }
+        if (status.is4xxClientError()) {
+            return "CLIENT_ERROR";
+        }
+        if (status.is5xxServerError()) {
+            return "SERVER_ERROR";
+        }
+        return status.is3xxRedirection() ? "REDIRECTION" : "UNKNOWN";
+    }
+
+    private final class MeteredResponse implements ClientHttpResponse {
+
+        private final ClientHttpResponse delegate;
+        private final String operation;
+        private final long startNanos;
+        private final long bytesOut;
+        private CountingInputStream body;
+        private boolean recorded;
+
+        private MeteredResponse(ClientHttpResponse delegate, String operation, long startNanos, long bytesOut) {
+            this.delegate = delegate;
+            this.operation = operation;
+            this.startNanos = startNanos;
+            this.bytesOut = bytesOut;
+        }
+
+        @Override
+        public HttpStatusCode getStatusCode() throws IOException {
+            return delegate.getStatusCode();
+        }
+
+        @Override
+        public String getStatusText() throws IOException {
+            return delegate.getStatusText();
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return delegate.getHeaders();
+        }
+
+        @Override
+        public InputStream getBody() throws IOException {
+            if (body == null) {
+                body = new CountingInputStream(delegate.getBody());
+            }
+            return body;
+        }
+
+        @Override
+        public void close() {
+            try {
+                if (!recorded) {
+                    recorded = true;
+                    record();
+                }
+            } finally {
+                delegate.close();
+            }
+        }
+
+        private void record() {
+            String status;
+            String outcome;
+            try {
+                HttpStatusCode statusCode = delegate.getStatusCode();
+                status = String.valueOf(statusCode.value());
+                outcome = outcome(statusCode);
+            } catch (IOException e) {
+                status = "IO_ERROR";
+                outcome = "IO_ERROR";
+            }
+            // Unread bodies (void operations) still arrived on the wire; fall back to Content-Length
+            long bytesIn = body != null && body.count > 0 ? body.count : Math.max(0, getHeaders().getContentLength());
+            clientMetrics.recordRequest(client, operation, status, outcome,
+                    System.nanoTime() - startNanos, bytesOut, bytesIn);
+        }
+    }
+
+    private static final class CountingInputStream extends FilterInputStream {
+
+        private long count;
+
+        private CountingInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) {
+                count++;
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int n = super.read(b, off, len);
+            if (n > 0) {
+                count += n;
+            }
+            return n;
+        }
+
+        /** Re-reads after mark/reset would be counted twice; callers fall back to a pushback stream instead. */
+        @Override
+        public boolean markSupported() {
+            return false;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            long skipped = super.skip(n);
+            count += skipped;
+            return skipped;
+        }
+    }
+}
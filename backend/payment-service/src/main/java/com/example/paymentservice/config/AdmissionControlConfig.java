@@ -0,0 +1,33 @@
+package com.example.paymentservice.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Configuration
+@EnableConfigurationProperties(AdmissionControlProperties.class)
+public class AdmissionControlConfig {
+
+    /** Ahead of JWT validation, so shed requests cost as little as possible; actuator endpoints are never shed. */
+    @Bean
+    public FilterRegistrationBean<AdmissionControlFilter> admissionControlFilterRegistration(
+            AdmissionControlProperties properties, List<HikariDataSource> pools,
+            ObjectProvider<ShardRoutingDataSource> shardRoutingDataSource, MeterRegistry meterRegistry) {
+        // Shard pools are not beans; with sharding enabled they are the only pools
+        List<HikariDataSource> allPools = new ArrayList<>(pools);
+        shardRoutingDataSource.ifAvailable(sharded -> allPools.addAll(sharded.getShards()));
+        FilterRegistrationBean<AdmissionControlFilter> registration = new FilterRegistrationBean<>();
+        registration.setFilter(new AdmissionControlFilter(properties, allPools, meterRegistry));
+        registration.addUrlPatterns("/api/*");
+        registration.setOrder(0);
+        registration.setEnabled(properties.enabled());
+        return registration;
+    }
+}
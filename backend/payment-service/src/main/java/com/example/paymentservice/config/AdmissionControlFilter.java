@@ -0,0 +1,129 @@
+package com.example.paymentservice.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.lang.NonNull;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Admission control: rejects requests with 503 + Retry-After while the service is saturated, lowest
+ * priority first, instead of letting them queue on the connection pool until they time out.
+ * <ul>
+ *   <li>LOW (GET: lists, status polls): shed once threads wait for a connection, the pool is nearly fully
+ *       in use, or {@code lowMaxInFlight} requests are in flight</li>
+ *   <li>NORMAL (other writes): shed once more than {@code normalMaxPendingConnections} threads wait for a
+ *       connection or {@code normalMaxInFlight} requests are in flight</li>
+ *   <li>CRITICAL (POST /process, /refund): only shed at {@code maxInFlight}; the gap to the lower limits is
+ *       capacity kept for completing and refunding payments</li>
+ * </ul>
+ * Pool signals are read from every Hikari pool (primary and replica, or each shard) and the busiest one counts.
+ */
+@Slf4j
+public class AdmissionControlFilter extends OncePerRequestFilter {
+
+    enum Priority { LOW, NORMAL, CRITICAL }
+
+    private static final String PAYMENTS_PATH = "/api/v1/payments/";
+
+    private final AdmissionControlProperties properties;
+    private final List<HikariDataSource> pools;
+    private final MeterRegistry meterRegistry;
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    public AdmissionControlFilter(AdmissionControlProperties properties, List<HikariDataSource> pools,
+                                  MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.pools = pools;
+        this.meterRegistry = meterRegistry;
+        Gauge.builder("http.admission.in.flight", inFlight, AtomicInteger::get)
+                .description("API requests in flight, as seen by admission control")
+                .register(meterRegistry);
+    }
+
+    @Override
+    protected void doFilterInternal(@NonNull HttpServletRequest request,
+                                    @NonNull HttpServletResponse response,
+                                    @NonNull FilterChain filterChain) throws ServletException, IOException {
+        Priority priority = classify(request);
+        int current = inFlight.incrementAndGet();
+        try {
+            String reason = rejectReason(priority, current);
+            if (reason != null) {
+                reject(response, priority, reason);
+                return;
+            }
+            filterChain.doFilter(request, response);
+        } finally {
+            inFlight.decrementAndGet();
+        }
+    }
+
+    static Priority classify(HttpServletRequest request) {
+        String method = request.getMethod();
+        if ("GET".equalsIgnoreCase(method) || "HEAD".equalsIgnoreCase(method)) {
+            return Priority.LOW;
+        }
+        String path = request.getRequestURI();
+        if ("POST".equalsIgnoreCase(method) && path.startsWith(PAYMENTS_PATH)
+                && (path.endsWith("/process") || path.endsWith("/refund"))) {
+            return Priority.CRITICAL;
+        }
+        return Priority.NORMAL;
+    }
+
+    /** @return why a request of this priority is rejected right now, or null to admit it */
+    private String rejectReason(Priority priority, int current) {
+        if (priority == Priority.CRITICAL) {
+            return current > properties.maxInFlight() ? "in_flight" : null;
+        }
+        if (current > (priority == Priority.LOW ? properties.lowMaxInFlight() : properties.normalMaxInFlight())) {
+            return "in_flight";
+        }
+        int pending = 0;
+        double usage = 0;
+        for (HikariDataSource pool : pools) {
+            HikariPoolMXBean mxBean = pool.getHikariPoolMXBean();
+            if (mxBean == null) {
+                continue; // pool not started yet
+            }
+            pending = Math.max(pending, mxBean.getThreadsAwaitingConnection());
+            usage = Math.max(usage, (double) mxBean.getActiveConnections() / pool.getMaximumPoolSize());
+        }
+        if (priority == Priority.LOW) {
+            if (pending > properties.lowMaxPendingConnections()) {
+                return "pool_pending";
+            }
+            return usage >= properties.lowMaxPoolUsage() ? "pool_active" : null;
+        }
+        return pending > properties.normalMaxPendingConnections() ? "pool_pending" : null;
+    }
+
+    private void reject(HttpServletResponse response, Priority priority, String reason) throws IOException {
+        Counter.builder("http.admission.rejected")
+                .description("API requests shed by admission control")
+                .tag("priority", priority.name())
+                .tag("reason", reason)
+                .register(meterRegistry)
+                .increment();
+        log.debug("Shedding {} request: {}", priority, reason);
+        long retryAfterSeconds = Math.max(1, properties.retryAfter().toSeconds());
+        response.setStatus(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+        response.setContentType("application/json");
+        response.getWriter().write("{\"status\":503,\"error\":\"Service Unavailable\",\"errorCode\":\"SERVICE_UNAVAILABLE\"," +
+                "\"message\":\"Service is overloaded. Please retry later.\"}");
+    }
+}
@@ -0,0 +1,29 @@
+package com.example.paymentservice.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Load-shedding thresholds (see AdmissionControlFilter). In-flight limits are per instance and should stay
+ * below the Tomcat thread count; pool thresholds apply to the busiest Hikari pool.
+ *
+ * @param maxInFlight                 requests in flight above which even /process and /refund are rejected
+ * @param normalMaxInFlight           in-flight limit for other writes (initiate, create, cancel)
+ * @param lowMaxInFlight              in-flight limit for reads (lists, status polls)
+ * @param normalMaxPendingConnections threads waiting for a connection above which other writes are rejected
+ * @param lowMaxPendingConnections    threads waiting for a connection above which reads are rejected
+ * @param lowMaxPoolUsage             share of the pool's connections in use above which reads are rejected
+ * @param retryAfter                  Retry-After sent with 503
+ */
+@ConfigurationProperties(prefix = "app.admission")
+public record AdmissionControlProperties(
+        @DefaultValue("true") boolean enabled,
+        @DefaultValue("180") int maxInFlight,
+        @DefaultValue("140") int normalMaxInFlight,
+        @DefaultValue("100") int lowMaxInFlight,
+        @DefaultValue("10") int normalMaxPendingConnections,
+        @DefaultValue("0") int lowMaxPendingConnections,
+        @DefaultValue("0.9") double lowMaxPoolUsage,
+        @DefaultValue("1s") Duration retryAfter) {}
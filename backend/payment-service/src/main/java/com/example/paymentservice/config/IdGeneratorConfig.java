@@ -0,0 +1,30 @@
+package com.example.paymentservice.config;
+
+import com.example.paymentservice.service.SnowflakeIdGenerator;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableConfigurationProperties(IdGeneratorProperties.class)
+public class IdGeneratorConfig {
+
+    @Bean
+    public SnowflakeIdGenerator snowflakeIdGenerator(IdGeneratorProperties properties, MeterRegistry meterRegistry) {
+        SnowflakeIdGenerator generator = new SnowflakeIdGenerator(properties.epoch(), properties.timestampBits(),
+                properties.shardBits(), properties.nodeBits(), properties.sequenceBits(), properties.nodeId(),
+                properties.maxClockSkew());
+        FunctionCounter.builder("ids.generated", generator, SnowflakeIdGenerator::generated)
+                .description("Ids handed out by the Snowflake id generator")
+                .register(meterRegistry);
+        FunctionCounter.builder("ids.clock.behind", generator, SnowflakeIdGenerator::clockBehind)
+                .description("Ids handed out while the clock was behind the last id's timestamp")
+                .register(meterRegistry);
+        FunctionCounter.builder("ids.sequence.waits", generator, SnowflakeIdGenerator::sequenceWaits)
+                .description("Spins waiting for the next millisecond after its sequence was used up")
+                .register(meterRegistry);
+        return generator;
+    }
+}
@@ -0,0 +1,31 @@
+package com.example.paymentservice.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Layout of the ids generated for payments, outbox events and transactions (see SnowflakeIdGenerator).
+ * The defaults add up to 53 bits, so ids stay exact as JSON numbers in JavaScript clients: 41 bits of
+ * milliseconds (about 69 years from the epoch), 4 bits of logical shard (see ShardingProperties), 3 bits of
+ * node id and 5 bits of sequence (32 ids per millisecond per node and shard).
+ * <p>
+ * The timestamp keeps the position it had in the earlier 41/5/7 layout (no shard bits), so ids keep sorting by
+ * creation time. Ids issued by that layout carry no shard; ShardRouter routes them to the home database.
+ *
+ * @param nodeId       distinct per running instance, below 2^nodeBits
+ * @param epoch        time zero of the timestamp field; must never change once ids have been issued
+ * @param maxClockSkew how far the clock may step backwards before id generation fails
+ */
+@ConfigurationProperties(prefix = "app.ids")
+public record IdGeneratorProperties(
+        @DefaultValue("0") long nodeId,
+        @DefaultValue("2025-01-01T00:00:00Z") Instant epoch,
+        @DefaultValue("41") int timestampBits,
+        @DefaultValue("4") int shardBits,
+        @DefaultValue("3") int nodeBits,
+        @DefaultValue("5") int sequenceBits,
+        @DefaultValue("1s") Duration maxClockSkew) {
+}
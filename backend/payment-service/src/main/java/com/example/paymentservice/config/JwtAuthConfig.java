@@ -13,7 +13,9 @@ public class JwtAuthConfig {
 
     private static final List<String> PROTECTED_PATHS = List.of(
             "/api/v1/payments",
-            "/api/v1/transactions"
+            "/api/v1/transactions",
+            "/api/v1/merchants",
+            "/api/v1/customers"
     );
 
     @Bean
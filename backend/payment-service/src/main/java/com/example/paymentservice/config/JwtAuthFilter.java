@@ -11,12 +11,14 @@ import java.io.IOException;
 import java.util.List;
 
 /**
- * Validates JWT Bearer token for protected paths and sets request attribute "userId".
- * Returns 401 when token is missing or invalid.
+ * Validates JWT Bearer token for protected paths and sets request attributes "userId", "roles" and, for a
+ * merchant, "merchantId". Returns 401 when token is missing or invalid.
  */
 public class JwtAuthFilter extends OncePerRequestFilter {
 
     public static final String REQUEST_ATTR_USER_ID = "userId";
+    public static final String REQUEST_ATTR_ROLES = "roles";
+    public static final String REQUEST_ATTR_MERCHANT_ID = "merchantId";
     private static final String AUTHORIZATION = "Authorization";
     private static final String BEARER = "Bearer ";
 
@@ -50,8 +52,12 @@ public class JwtAuthFilter extends OncePerRequestFilter {
         }
         String token = auth.substring(BEARER.length()).trim();
         try {
-            Long userId = jwtValidator.validateAccessTokenAndGetUserId(token);
-            request.setAttribute(REQUEST_ATTR_USER_ID, userId);
+            JwtValidator.AccessToken accessToken = jwtValidator.validateAccessToken(token);
+            request.setAttribute(REQUEST_ATTR_USER_ID, accessToken.userId());
+            request.setAttribute(REQUEST_ATTR_ROLES, accessToken.roles());
+            if (accessToken.merchantId() != null) {
+                request.setAttribute(REQUEST_ATTR_MERCHANT_ID, accessToken.merchantId());
+            }
             filterChain.doFilter(request, response);
         } catch (Exception e) {
             response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
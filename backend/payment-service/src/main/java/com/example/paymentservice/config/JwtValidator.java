@@ -9,6 +9,8 @@ import org.springframework.stereotype.Component;
 
 import javax.crypto.SecretKey;
 import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * Validates access tokens issued by user-service (shared secret).
@@ -18,6 +20,8 @@ public class JwtValidator {
 
     private static final String CLAIM_TOKEN_TYPE = "token_type";
     private static final String TYPE_ACCESS = "access";
+    private static final String CLAIM_ROLES = "roles";
+    private static final String CLAIM_MERCHANT_ID = "merchant_id";
 
     private final JwtValidatorProperties properties;
     private final SecretKey signingKey;
@@ -28,9 +32,10 @@ public class JwtValidator {
     }
 
     /**
-     * Validate access token and return user id (sub claim). Throws on invalid/expired.
+     * Validate access token and return its user id (sub claim), roles and, for a merchant, the merchant it runs.
+     * Throws on invalid/expired.
      */
-    public Long validateAccessTokenAndGetUserId(String token) {
+    public AccessToken validateAccessToken(String token) {
         try {
             Claims claims = Jwts.parser()
                     .verifyWith(signingKey)
@@ -43,7 +48,7 @@ public class JwtValidator {
             if (sub == null || sub.isBlank()) {
                 throw new JwtException("Missing subject");
             }
-            return Long.parseLong(sub);
+            return new AccessToken(Long.parseLong(sub), getRoles(claims), claims.get(CLAIM_MERCHANT_ID, String.class));
         } catch (ExpiredJwtException e) {
             throw new JwtException("Token expired", e);
         } catch (JwtException e) {
@@ -52,4 +57,20 @@ public class JwtValidator {
             throw new JwtException("Invalid token", e);
         }
     }
+
+    private static List<String> getRoles(Claims claims) {
+        if (!(claims.get(CLAIM_ROLES) instanceof List<?> list)) {
+            return List.of();
+        }
+        List<String> roles = new ArrayList<>();
+        for (Object o : list) {
+            if (o instanceof String role) {
+                roles.add(role);
+            }
+        }
+        return roles;
+    }
+
+    /** The claims payment-service authorizes on; merchantId is null unless the user is a merchant. */
+    public record AccessToken(Long userId, List<String> roles, String merchantId) {}
 }
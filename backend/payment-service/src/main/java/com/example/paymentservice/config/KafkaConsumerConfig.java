@@ -1,5 +1,10 @@
 package com.example.paymentservice.config;
 
+import com.example.paymentservice.kafka.KeyOrderedExecutor;
+import com.example.paymentservice.kafka.QRCodeEventConsumer;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.apache.kafka.clients.consumer.ConsumerConfig;
 import org.apache.kafka.common.serialization.StringDeserializer;
 import org.springframework.beans.factory.annotation.Value;
@@ -10,9 +15,17 @@ import org.springframework.kafka.annotation.EnableKafka;
 import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
 import org.springframework.kafka.core.ConsumerFactory;
 import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.kafka.listener.ContainerProperties;
+import org.springframework.kafka.listener.DefaultErrorHandler;
+import org.springframework.kafka.retrytopic.RetryTopicConfiguration;
+import org.springframework.kafka.retrytopic.RetryTopicConfigurationBuilder;
+import org.springframework.kafka.retrytopic.RetryTopicSchedulerWrapper;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+import org.springframework.util.backoff.ExponentialBackOff;
 
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 @Configuration
@@ -20,9 +33,45 @@ import java.util.Map;
 @Profile("!test")
 public class KafkaConsumerConfig {
 
+    /** Suffix of this service's retry topics, e.g. {@code qr.code.generated-payment-retry-0}. */
+    public static final String RETRY_TOPIC_SUFFIX = "-payment-retry";
+
+    /** Suffix of this service's dead-letter topics, e.g. {@code qr.code.generated-payment-dlt}. */
+    public static final String DLT_SUFFIX = "-payment-dlt";
+
     @Value("${spring.kafka.bootstrap-servers:localhost:9092}")
     private String bootstrapServers;
 
+    @Value("${app.ledger.batch-size:500}")
+    private int ledgerBatchSize;
+
+    @Value("${app.rollup.batch-size:500}")
+    private int rollupBatchSize;
+
+    @Value("${app.webhooks.consumer-batch-size:500}")
+    private int webhookBatchSize;
+
+    @Value("${app.velocity.consumer-batch-size:500}")
+    private int velocityBatchSize;
+
+    @Value("${app.kafka.key-ordered.enabled:true}")
+    private boolean keyOrderedEnabled;
+
+    @Value("${app.kafka.key-ordered.max-in-flight:200}")
+    private int keyOrderedMaxInFlight;
+
+    @Value("${app.kafka.retry.attempts:5}")
+    private int retryAttempts;
+
+    @Value("${app.kafka.retry.initial-interval-ms:1000}")
+    private long retryInitialIntervalMs;
+
+    @Value("${app.kafka.retry.multiplier:5}")
+    private double retryMultiplier;
+
+    @Value("${app.kafka.retry.max-interval-ms:300000}")
+    private long retryMaxIntervalMs;
+
     @Bean
     public ConsumerFactory<String, String> consumerFactory() {
         Map<String, Object> configProps = new HashMap<>();
@@ -50,4 +99,146 @@ public class KafkaConsumerConfig {
         
         return factory;
     }
+
+    /**
+     * Record listener whose records run in parallel, ordered per key, on {@link #keyOrderedExecutor}: the
+     * listener returns a future and the container acknowledges each record when it completes. Async acks commit
+     * a partition only up to its lowest incomplete offset, so a record finishing early is not committed past one
+     * still running. Each poll of up to {@code app.kafka.key-ordered.max-in-flight} records is finished before the
+     * next is fetched, which bounds the work in flight (and holds the partition up to the slowest key's chain).
+     * A failed future goes to the error handler like a thrown exception, so the retry topics apply unchanged.
+     */
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<String, String> keyOrderedListenerContainerFactory() {
+        Map<String, Object> configProps = new HashMap<>(consumerFactory().getConfigurationProperties());
+        configProps.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, keyOrderedMaxInFlight);
+
+        ConcurrentKafkaListenerContainerFactory<String, String> factory =
+                new ConcurrentKafkaListenerContainerFactory<>();
+        factory.setConsumerFactory(new DefaultKafkaConsumerFactory<>(configProps));
+        factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.MANUAL_IMMEDIATE);
+        factory.getContainerProperties().setAsyncAcks(true);
+        return factory;
+    }
+
+    /**
+     * Different keys (payment ids) run concurrently on virtual threads, so one partition's throughput scales
+     * with cores and the connection pool rather than with the partition count. Disabled with
+     * {@code app.kafka.key-ordered.enabled=false}: records then run one at a time on the consumer thread.
+     */
+    @Bean
+    public KeyOrderedExecutor keyOrderedExecutor(MeterRegistry meterRegistry) {
+        KeyOrderedExecutor executor = new KeyOrderedExecutor(keyOrderedEnabled);
+        Gauge.builder("kafka.key.ordered.keys", executor, KeyOrderedExecutor::inFlightKeys)
+                .description("Keys with a record running or waiting in the key-ordered listeners")
+                .register(meterRegistry);
+        return executor;
+    }
+
+    /**
+     * Non-blocking retries for the saga listeners. A record whose listener throws is published, with its original
+     * headers (traceparent included), to {@code <topic>-payment-retry-0}, then -1, ..., each consumed once its
+     * backoff has elapsed (1s, 5s, 25s, 2m5s by default, see {@code app.kafka.retry.*}), and after the last attempt
+     * to {@code <topic>-payment-dlt} with kafka_dlt-* headers naming the source topic, partition, offset and
+     * exception. The main topic's offset moves past the record at once, so the rest of its partition keeps
+     * flowing. Unreadable payloads go straight to the dead-letter topic; DeadLetterReplayer sends them back.
+     * <p>
+     * A listener gets these retries only if all of its topics are included: the history listener also reads
+     * qr.code.generated but keeps its blocking retries, like the ledger and webhook listeners, whose failures are
+     * the database being down, which every record would hit alike.
+     */
+    @Bean
+    public RetryTopicConfiguration retryTopicConfiguration(KafkaTemplate<String, String> kafkaTemplate) {
+        return RetryTopicConfigurationBuilder.newInstance()
+                .includeTopics(List.of(QRCodeEventConsumer.TOPIC_QR_CODE_GENERATED))
+                .maxAttempts(retryAttempts)
+                .exponentialBackoff(retryInitialIntervalMs, retryMultiplier, retryMaxIntervalMs)
+                .suffixTopicsWithIndexValues()
+                .retryTopicSuffix(RETRY_TOPIC_SUFFIX)
+                .dltSuffix(DLT_SUFFIX)
+                .notRetryOn(JsonProcessingException.class)
+                .traversingCauses()
+                .doNotAutoCreateRetryTopics()
+                .create(kafkaTemplate);
+    }
+
+    /** Resumes the retry topics' partitions when a record's backoff has elapsed. */
+    @Bean
+    public RetryTopicSchedulerWrapper retryTopicSchedulerWrapper() {
+        ThreadPoolTaskScheduler scheduler = new ThreadPoolTaskScheduler();
+        scheduler.setThreadNamePrefix("kafka-retry-");
+        return new RetryTopicSchedulerWrapper(scheduler);
+    }
+
+    /**
+     * Batch listener for the transaction ledger: each poll of up to {@code app.ledger.batch-size} records is
+     * one listener call, and offsets are committed when the listener acknowledges the batch. A batch that
+     * fails (database down) is retried with backoff, indefinitely, while the consumer stays paused, rather
+     * than skipped: the ledger must not lose events.
+     */
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<String, String> ledgerListenerContainerFactory() {
+        return batchListenerContainerFactory(ledgerBatchSize);
+    }
+
+    /**
+     * Batch listener for merchant daily rollups, up to {@code app.rollup.batch-size} records per call. Retried
+     * like the ledger: a skipped event would leave the merchant's totals short for good.
+     */
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<String, String> rollupListenerContainerFactory() {
+        return batchListenerContainerFactory(rollupBatchSize);
+    }
+
+    /**
+     * Batch listener queueing merchant webhooks, up to {@code app.webhooks.consumer-batch-size} records per
+     * call. Retried like the ledger: an event dropped here would never reach the merchant.
+     */
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<String, String> webhookListenerContainerFactory() {
+        return batchListenerContainerFactory(webhookBatchSize);
+    }
+
+    /**
+     * Record listener for the customer payment history read model. Like the ledger, a record whose write
+     * fails is retried with backoff until it succeeds: skipping it would leave the entry behind for good.
+     */
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<String, String> historyListenerContainerFactory() {
+        ConcurrentKafkaListenerContainerFactory<String, String> factory =
+                new ConcurrentKafkaListenerContainerFactory<>();
+        factory.setConsumerFactory(consumerFactory());
+        factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.MANUAL_IMMEDIATE);
+        factory.setCommonErrorHandler(retryingErrorHandler());
+        return factory;
+    }
+
+    /**
+     * Batch listener rebuilding the in-memory velocity windows. Nothing is acknowledged, so no offsets are
+     * committed: every start replays the recent history (see VelocityEventConsumer).
+     */
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<String, String> velocityListenerContainerFactory() {
+        return batchListenerContainerFactory(velocityBatchSize);
+    }
+
+    private ConcurrentKafkaListenerContainerFactory<String, String> batchListenerContainerFactory(int maxPollRecords) {
+        Map<String, Object> configProps = new HashMap<>(consumerFactory().getConfigurationProperties());
+        configProps.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, maxPollRecords);
+
+        ConcurrentKafkaListenerContainerFactory<String, String> factory =
+                new ConcurrentKafkaListenerContainerFactory<>();
+        factory.setConsumerFactory(new DefaultKafkaConsumerFactory<>(configProps));
+        factory.setBatchListener(true);
+        factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.MANUAL);
+        factory.setCommonErrorHandler(retryingErrorHandler());
+        return factory;
+    }
+
+    /** Redelivers the failed record (or batch) after 1s, 2s, 4s, ... up to 30s apart, with no retry limit. */
+    private static DefaultErrorHandler retryingErrorHandler() {
+        ExponentialBackOff backOff = new ExponentialBackOff(1_000, 2);
+        backOff.setMaxInterval(30_000);
+        return new DefaultErrorHandler(backOff);
+    }
 }
@@ -0,0 +1,34 @@
+package com.example.paymentservice.config;
+
+import com.example.paymentservice.client.ClientMetrics;
+import io.prometheus.metrics.tracer.common.SpanContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.client.support.RestClientHttpServiceGroupConfigurer;
+
+/**
+ * Client instrumentation for the HTTP service groups and trace exemplars for Prometheus histograms.
+ */
+@Configuration
+public class MetricsConfig {
+
+    /**
+     * Tags every HTTP service request with its API method name and adds the metrics interceptor
+     * (tagged with the group name) to each group's RestClient.
+     */
+    @Bean
+    public RestClientHttpServiceGroupConfigurer clientMetricsGroupConfigurer(ClientMetrics clientMetrics) {
+        return groups -> {
+            groups.forEachProxyFactory((group, factoryBuilder) -> factoryBuilder.httpRequestValuesProcessor(
+                    (method, parameters, arguments, requestValues) ->
+                            requestValues.addAttribute(ClientMetrics.OPERATION_ATTRIBUTE, method.getName())));
+            groups.forEachClient((group, clientBuilder) ->
+                    clientBuilder.requestInterceptor(clientMetrics.interceptor(group.name())));
+        };
+    }
+
+    @Bean
+    public SpanContext exemplarSpanContext() {
+        return new OpenTelemetryExemplarSpanContext();
+    }
+}
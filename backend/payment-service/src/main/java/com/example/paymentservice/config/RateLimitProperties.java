@@ -0,0 +1,27 @@
+package com.example.paymentservice.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.util.Map;
+
+/**
+ * Per-endpoint token buckets (see PaymentRateLimiter). Endpoints without an entry are not limited.
+ *
+ * @param stripes          lock stripes per endpoint limiter
+ * @param maxKeysPerStripe partially drained buckets kept per stripe before the stripe is reset
+ * @param endpoints        endpoint name (initiate, initiate-batch, create, process, refund) -> bucket size and refill rate
+ */
+@ConfigurationProperties(prefix = "app.rate-limit")
+public record RateLimitProperties(
+        @DefaultValue("true") boolean enabled,
+        @DefaultValue("64") int stripes,
+        @DefaultValue("16384") int maxKeysPerStripe,
+        Map<String, Endpoint> endpoints) {
+
+    /**
+     * @param capacity         permits available in a burst
+     * @param permitsPerSecond sustained rate the bucket refills at
+     */
+    public record Endpoint(int capacity, double permitsPerSecond) {}
+}
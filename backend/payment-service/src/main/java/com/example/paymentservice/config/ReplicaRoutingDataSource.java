@@ -0,0 +1,58 @@
+package com.example.paymentservice.config;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Routes connections between the primary and the read-replica pool.
+ * <p>
+ * Read-only transactions and non-transactional queries go to the replica; read-write transactions
+ * go to the primary. Code that needs read-your-writes (idempotency checks, the state read before a
+ * status transition) pins itself to the primary via {@link #onPrimary(Supplier)}.
+ * <p>
+ * Must be wrapped in a {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy} so
+ * the lookup happens at the first statement, after the transaction's read-only flag has been set.
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+    public enum Route { PRIMARY, REPLICA }
+
+    private static final ThreadLocal<Boolean> PRIMARY_PINNED = ThreadLocal.withInitial(() -> false);
+
+    public ReplicaRoutingDataSource(DataSource primary, DataSource replica) {
+        setTargetDataSources(Map.of(Route.PRIMARY, primary, Route.REPLICA, replica));
+        setDefaultTargetDataSource(primary);
+        afterPropertiesSet();
+    }
+
+    /**
+     * Run {@code action} with every connection it opens routed to the primary.
+     */
+    public static <T> T onPrimary(Supplier<T> action) {
+        if (PRIMARY_PINNED.get()) {
+            return action.get();
+        }
+        PRIMARY_PINNED.set(true);
+        try {
+            return action.get();
+        } finally {
+            PRIMARY_PINNED.remove();
+        }
+    }
+
+    @Override
+    protected Route determineCurrentLookupKey() {
+        if (PRIMARY_PINNED.get()) {
+            return Route.PRIMARY;
+        }
+        if (!TransactionSynchronizationManager.isActualTransactionActive()
+                || TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return Route.REPLICA;
+        }
+        return Route.PRIMARY;
+    }
+}
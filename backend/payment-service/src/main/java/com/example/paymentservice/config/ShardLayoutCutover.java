@@ -0,0 +1,80 @@
+package com.example.paymentservice.config;
+
+import com.example.paymentservice.service.SnowflakeIdGenerator;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Hands {@link ShardRouter} the first id of the sharded layout. Ids are time-ordered, so an id issued once no
+ * instance of the earlier layout is running any more has every earlier-layout id below it.
+ * <p>
+ * During a rolling deploy, instances still on the earlier layout keep issuing ids above any id the new instances
+ * issue, and those ids' node and sequence bits would read back as shards. So the cutover is recorded only once
+ * {@code app.sharding.earlier-id-layout-retired} is set, by the first instance that starts with it, in the home
+ * database. Until then every id is routed to the home database, which is where every row is while sharding is
+ * disabled; enabling sharding without a recorded cutover fails the start.
+ * <p>
+ * The statements are pinned to the primary: outside a transaction they would go to the read-only replica pool.
+ * Runs as the first lifecycle phase: after the schema is in place and before the web server, listeners and
+ * schedulers start routing ids. A training start that exits on refresh (fast-startup profile) never gets here,
+ * so it still needs no database.
+ */
+public class ShardLayoutCutover implements SmartLifecycle {
+
+    private static final String RECORD = """
+            INSERT INTO shard_layout (id, first_sharded_id, recorded_at) VALUES (1, ?, ?)
+            ON CONFLICT DO NOTHING""";
+    private static final String READ = "SELECT first_sharded_id FROM shard_layout WHERE id = 1";
+
+    private final ShardRouter shardRouter;
+    private final SnowflakeIdGenerator idGenerator;
+    private final JdbcTemplate jdbcTemplate;
+    private final ShardingProperties properties;
+    private volatile boolean running;
+
+    public ShardLayoutCutover(ShardRouter shardRouter, SnowflakeIdGenerator idGenerator, JdbcTemplate jdbcTemplate,
+                              ShardingProperties properties) {
+        this.shardRouter = shardRouter;
+        this.idGenerator = idGenerator;
+        this.jdbcTemplate = jdbcTemplate;
+        this.properties = properties;
+    }
+
+    @Override
+    public void start() {
+        List<Long> recorded = ReplicaRoutingDataSource.onPrimary(() -> {
+            if (properties.earlierIdLayoutRetired()) {
+                jdbcTemplate.update(RECORD, idGenerator.nextId(), Timestamp.valueOf(LocalDateTime.now()));
+            }
+            return jdbcTemplate.queryForList(READ, Long.class);
+        });
+        if (!recorded.isEmpty()) {
+            shardRouter.setFirstShardedId(recorded.getFirst());
+        } else if (properties.enabled()) {
+            throw new IllegalStateException("Sharding needs the id layout cutover: once no instance of the earlier "
+                    + "id layout is running, start with app.sharding.earlier-id-layout-retired=true");
+        } else {
+            shardRouter.setFirstShardedId(Long.MAX_VALUE);
+        }
+        running = true;
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public int getPhase() {
+        return Integer.MIN_VALUE;
+    }
+}
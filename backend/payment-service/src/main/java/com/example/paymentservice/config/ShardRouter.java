@@ -0,0 +1,228 @@
+package com.example.paymentservice.config;
+
+import com.example.paymentservice.service.SnowflakeIdGenerator;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
+
+/**
+ * Decides which shard payment storage statements go to.
+ * <p>
+ * A new payment's logical shard is a hash of its customer id; the shard is written into the payment's id (and
+ * the ids of its outbox events and transactions), so everything else is routed from an id without a lookup.
+ * Logical shards map onto physical databases through {@link ShardingProperties}; {@link ShardRoutingDataSource}
+ * resolves connections to the physical shard of the current scope.
+ * <p>
+ * Ids issued before this layout (BIGSERIAL values, and ids of the earlier layout without shard bits) name no
+ * shard: their bits would read back as arbitrary shards. Every id below the first one issued once the earlier
+ * layout was retired, recorded in the home database (see ShardLayoutCutover), is routed to logical shard 0, the
+ * home database those rows were written to; until it is recorded, every id is.
+ * <p>
+ * A transaction holds one connection, so it stays on the physical shard its first statement went to: the
+ * shard is bound to the transaction and entering a scope on another physical shard inside it throws
+ * {@link IllegalStateException} rather than silently writing to the wrong database. Statements outside any
+ * scope go to the transaction's shard, or to shard 0 (the home database) outside a transaction.
+ * <p>
+ * Queries that are not keyed by customer or id run on every physical shard via {@link #scatter(Supplier)},
+ * in parallel on virtual threads, each in its own transaction. With one physical shard everything runs inline.
+ */
+public class ShardRouter {
+
+    private final int logicalShards;
+    private final int[] physicalOf;
+    /** One logical shard per physical shard, to open a scope on that database. */
+    private final int[] representatives;
+    private final SnowflakeIdGenerator idGenerator;
+    private final ThreadLocal<Integer> scoped = new ThreadLocal<>();
+    /** Ids below this were issued before the sharded layout; set at startup, before any id is routed. */
+    private volatile long firstShardedId;
+
+    public ShardRouter(ShardingProperties properties, SnowflakeIdGenerator idGenerator) {
+        int physical = properties.physicalShardCount();
+        if (physical < 1) {
+            throw new IllegalArgumentException("app.sharding.shards must list at least one database when sharding is enabled");
+        }
+        if (properties.logicalShards() < physical || properties.logicalShards() > idGenerator.shardCount()) {
+            throw new IllegalArgumentException("app.sharding.logical-shards must be between the number of databases ("
+                    + physical + ") and the " + idGenerator.shardCount() + " shards the id layout can encode");
+        }
+        this.logicalShards = properties.logicalShards();
+        this.physicalOf = properties.physicalAssignment();
+        this.idGenerator = idGenerator;
+        this.representatives = new int[physical];
+        Arrays.fill(representatives, -1);
+        for (int logical = logicalShards - 1; logical >= 0; logical--) {
+            if (physicalOf[logical] < 0 || physicalOf[logical] >= physical) {
+                throw new IllegalArgumentException("Logical shard " + logical + " is assigned to unknown database "
+                        + physicalOf[logical]);
+            }
+            representatives[physicalOf[logical]] = logical;
+        }
+        if (physicalOf[0] != 0) {
+            // Rows from before sharding (and ids from before the sharded layout) live in the home database
+            throw new IllegalArgumentException("Logical shard 0 must stay on the home database (physical shard 0)");
+        }
+        for (int i = 0; i < physical; i++) {
+            if (representatives[i] < 0) {
+                throw new IllegalArgumentException("Database " + i + " has no logical shard assigned");
+            }
+        }
+    }
+
+    /** Logical shard for a routing key (the customer id). The hash must never change once payments exist. */
+    public int shardOf(String routingKey) {
+        // 64-bit FNV-1a: stable across JVMs and releases, unlike String.hashCode's contract
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < routingKey.length(); i++) {
+            hash ^= routingKey.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        return (int) Math.floorMod(hash, (long) logicalShards);
+    }
+
+    /** Logical shard a row with this id was written to: 0 for ids from before the sharded layout. */
+    public int shardOfId(long id) {
+        if (id < firstShardedId) {
+            return 0;
+        }
+        return idGenerator.shardOf(id) % logicalShards;
+    }
+
+    /** First id issued under the sharded layout, as recorded in the home database. */
+    public void setFirstShardedId(long firstShardedId) {
+        this.firstShardedId = firstShardedId;
+    }
+
+    public int physicalShardCount() {
+        return representatives.length;
+    }
+
+    /** Database holding a logical shard; statements for shards on the same database can share a transaction. */
+    public int physicalShardOf(int logicalShard) {
+        return physicalOf[logicalShard];
+    }
+
+    /**
+     * Runs {@code action} with its statements routed to {@code logicalShard}'s database. Inside a transaction the
+     * transaction is bound to that database.
+     *
+     * @throws IllegalStateException if the current transaction already runs on another database
+     */
+    public <T> T onShard(int logicalShard, Supplier<T> action) {
+        if (logicalShard < 0 || logicalShard >= logicalShards) {
+            throw new IllegalArgumentException("Unknown logical shard " + logicalShard);
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            Integer bound = (Integer) TransactionSynchronizationManager.getResource(this);
+            if (bound == null) {
+                bindToTransaction(logicalShard);
+            } else if (physicalOf[bound] != physicalOf[logicalShard]) {
+                throw new IllegalStateException("Transaction runs on database " + physicalOf[bound]
+                        + " and cannot reach logical shard " + logicalShard + " on database " + physicalOf[logicalShard]);
+            }
+        }
+        Integer previous = scoped.get();
+        scoped.set(logicalShard);
+        try {
+            return action.get();
+        } finally {
+            if (previous == null) {
+                scoped.remove();
+            } else {
+                scoped.set(previous);
+            }
+        }
+    }
+
+    /**
+     * Runs {@code action} once per database and returns the results in database order. With several databases
+     * the runs are parallel, each on a fresh thread, so they never join the caller's transaction; with one the
+     * action runs inline.
+     */
+    public <T> List<T> onEveryShard(Supplier<T> action) {
+        if (representatives.length == 1) {
+            return Collections.singletonList(onShard(representatives[0], action));
+        }
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<T>> futures = new ArrayList<>(representatives.length);
+            for (int representative : representatives) {
+                futures.add(executor.submit(() -> onShard(representative, action)));
+            }
+            List<T> results = new ArrayList<>(futures.size());
+            for (Future<T> future : futures) {
+                results.add(future.get());
+            }
+            return results;
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IllegalStateException("Shard query failed", e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for shard queries", e);
+        }
+    }
+
+    /** {@link #onEveryShard(Supplier)} for queries; the per-database results are concatenated, unsorted. */
+    public <T> List<T> scatter(Supplier<List<T>> query) {
+        List<List<T>> perShard = onEveryShard(query);
+        if (perShard.size() == 1) {
+            return perShard.getFirst();
+        }
+        List<T> merged = new ArrayList<>();
+        perShard.forEach(merged::addAll);
+        return merged;
+    }
+
+    /** Logical shard of the current scope or transaction; 0 (home) if neither chose one. Ids are generated for it. */
+    public int currentShard() {
+        Integer shard = scoped.get();
+        if (shard == null && TransactionSynchronizationManager.isSynchronizationActive()) {
+            shard = (Integer) TransactionSynchronizationManager.getResource(this);
+        }
+        return shard != null ? shard : 0;
+    }
+
+    /**
+     * Database for a connection being opened now. A transaction that opens one without a scope is bound to
+     * where it went, so a later scope on another database fails instead of sharing this connection.
+     */
+    int currentPhysicalShard() {
+        int shard = currentShard();
+        if (TransactionSynchronizationManager.isSynchronizationActive()
+                && TransactionSynchronizationManager.getResource(this) == null) {
+            bindToTransaction(shard);
+        }
+        return physicalOf[shard];
+    }
+
+    private void bindToTransaction(int logicalShard) {
+        TransactionSynchronizationManager.bindResource(this, logicalShard);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void suspend() {
+                TransactionSynchronizationManager.unbindResourceIfPossible(ShardRouter.this);
+            }
+
+            @Override
+            public void resume() {
+                TransactionSynchronizationManager.bindResource(ShardRouter.this, logicalShard);
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResourceIfPossible(ShardRouter.this);
+            }
+        });
+    }
+}
@@ -0,0 +1,49 @@
+package com.example.paymentservice.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Routes connections to the physical shard chosen by {@link ShardRouter}.
+ * <p>
+ * Must be wrapped in a {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy} so the lookup
+ * happens at the first statement, inside the repository call that opened the shard scope, rather than when
+ * the transaction begins.
+ */
+public class ShardRoutingDataSource extends AbstractRoutingDataSource {
+
+    private final ShardRouter shardRouter;
+    private final List<HikariDataSource> shards;
+
+    public ShardRoutingDataSource(ShardRouter shardRouter, List<HikariDataSource> shards) {
+        this.shardRouter = shardRouter;
+        this.shards = List.copyOf(shards);
+        Map<Object, Object> targets = new HashMap<>();
+        for (int i = 0; i < shards.size(); i++) {
+            targets.put(i, shards.get(i));
+        }
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(shards.getFirst());
+        setLenientFallback(false);
+        afterPropertiesSet();
+    }
+
+    /** Connection pools in physical shard order. */
+    public List<HikariDataSource> getShards() {
+        return shards;
+    }
+
+    /** Inferred as the bean's destroy method: the pools are not beans of their own. */
+    public void close() {
+        shards.forEach(HikariDataSource::close);
+    }
+
+    @Override
+    protected Integer determineCurrentLookupKey() {
+        return shardRouter.currentPhysicalShard();
+    }
+}
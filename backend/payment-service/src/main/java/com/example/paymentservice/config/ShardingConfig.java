@@ -0,0 +1,27 @@
+package com.example.paymentservice.config;
+
+import com.example.paymentservice.service.SnowflakeIdGenerator;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * The shard router is always present: payments are assigned logical shards (and carry them in their ids) even
+ * on a single database, so enabling sharding later only moves logical shards between databases.
+ */
+@Configuration
+@EnableConfigurationProperties(ShardingProperties.class)
+public class ShardingConfig {
+
+    @Bean
+    public ShardRouter shardRouter(ShardingProperties properties, SnowflakeIdGenerator snowflakeIdGenerator) {
+        return new ShardRouter(properties, snowflakeIdGenerator);
+    }
+
+    @Bean
+    public ShardLayoutCutover shardLayoutCutover(ShardRouter shardRouter, SnowflakeIdGenerator snowflakeIdGenerator,
+                                                 JdbcTemplate jdbcTemplate, ShardingProperties properties) {
+        return new ShardLayoutCutover(shardRouter, snowflakeIdGenerator, jdbcTemplate, properties);
+    }
+}
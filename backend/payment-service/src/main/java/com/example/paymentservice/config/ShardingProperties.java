@@ -0,0 +1,57 @@
+package com.example.paymentservice.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.util.List;
+
+/**
+ * Horizontal sharding of payment storage (see ShardRouter). Payments are hashed by customer id onto
+ * {@code logicalShards} logical shards, which are assigned to physical databases. Logical shards are the unit
+ * of rebalancing: adding a database means moving whole logical shards to it and changing the assignment, never
+ * rehashing, so {@code logicalShards} must not change once payments exist.
+ * <p>
+ * With sharding disabled there is one physical database (spring.datasource.*) holding every logical shard.
+ *
+ * @param enabled                route to {@code shards} instead of the single spring.datasource pool
+ * @param logicalShards          number of logical shards, at most 2^app.ids.shard-bits
+ * @param shards                 physical databases; shard 0 is the home database, which keeps rows from before
+ *                               sharding
+ * @param assignment             physical shard index per logical shard; empty for logical shard i on physical
+ *                               i mod P
+ * @param earlierIdLayoutRetired no instance issuing ids of the earlier layout (no shard bits) is running any more;
+ *                               the first start with this set records the layout cutover (see ShardLayoutCutover)
+ */
+@ConfigurationProperties(prefix = "app.sharding")
+public record ShardingProperties(
+        @DefaultValue("false") boolean enabled,
+        @DefaultValue("16") int logicalShards,
+        @DefaultValue List<PhysicalShard> shards,
+        @DefaultValue List<Integer> assignment,
+        @DefaultValue("false") boolean earlierIdLayoutRetired) {
+
+    /**
+     * @param url             JDBC url; several shards can be databases on the same Postgres
+     * @param maximumPoolSize connections in this shard's pool
+     */
+    public record PhysicalShard(
+            String url,
+            String username,
+            @DefaultValue("") String password,
+            @DefaultValue("10") int maximumPoolSize) {
+    }
+
+    int physicalShardCount() {
+        return enabled ? shards.size() : 1;
+    }
+
+    /** Physical shard of each logical shard. */
+    int[] physicalAssignment() {
+        int physical = physicalShardCount();
+        int[] result = new int[logicalShards];
+        for (int logical = 0; logical < logicalShards; logical++) {
+            result[logical] = enabled && !assignment.isEmpty() ? assignment.get(logical) : logical % physical;
+        }
+        return result;
+    }
+}
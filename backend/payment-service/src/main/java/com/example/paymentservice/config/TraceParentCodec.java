@@ -0,0 +1,144 @@
+package com.example.paymentservice.config;
+
+import io.opentelemetry.api.trace.SpanContext;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * W3C trace-context {@code traceparent} codec ({@code 00-<32 hex trace id>-<16 hex span id>-<2 hex flags>}).
+ * <p>
+ * Used by the outbox (storing the current context) and the Kafka producer (emitting a child span's header).
+ * Encodes straight into a 55-byte array, so there is no {@code String.format}, {@code split} or regex on the
+ * per-event path; span IDs come from {@link ThreadLocalRandom}.
+ */
+public final class TraceParentCodec {
+
+    public static final String HEADER = "traceparent";
+
+    static final int LENGTH = 55;
+    private static final int TRACE_ID_OFFSET = 3;
+    private static final int TRACE_ID_LENGTH = 32;
+    private static final int SPAN_ID_OFFSET = 36;
+    private static final int SPAN_ID_LENGTH = 16;
+    private static final int FLAGS_OFFSET = 53;
+
+    private static final byte[] HEX = "0123456789abcdef".getBytes(StandardCharsets.US_ASCII);
+
+    private TraceParentCodec() {
+    }
+
+    /**
+     * @return the traceparent of {@code spanContext}, or null if it is not a valid (sampled or not) context
+     */
+    public static String format(SpanContext spanContext) {
+        byte[] encoded = encode(spanContext);
+        return encoded == null ? null : new String(encoded, StandardCharsets.ISO_8859_1);
+    }
+
+    /**
+     * @return the traceparent of {@code spanContext} as ASCII bytes (ready for a Kafka header), or null if invalid
+     */
+    public static byte[] encode(SpanContext spanContext) {
+        if (spanContext == null || !spanContext.isValid()) {
+            return null;
+        }
+        byte[] out = newHeader();
+        writeAscii(spanContext.getTraceId(), out, TRACE_ID_OFFSET);
+        writeAscii(spanContext.getSpanId(), out, SPAN_ID_OFFSET);
+        byte flags = spanContext.getTraceFlags().asByte();
+        out[FLAGS_OFFSET] = HEX[(flags >>> 4) & 0xF];
+        out[FLAGS_OFFSET + 1] = HEX[flags & 0xF];
+        return out;
+    }
+
+    /**
+     * Header for a child span of a stored traceparent: same trace id and flags, freshly generated span id.
+     *
+     * @return the child traceparent as ASCII bytes, or null if {@code parent} is not a valid traceparent
+     */
+    public static byte[] childOf(CharSequence parent) {
+        if (!isValid(parent)) {
+            return null;
+        }
+        byte[] out = newHeader();
+        for (int i = TRACE_ID_OFFSET; i < TRACE_ID_OFFSET + TRACE_ID_LENGTH; i++) {
+            out[i] = (byte) parent.charAt(i);
+        }
+        writeRandomSpanId(out, SPAN_ID_OFFSET);
+        out[FLAGS_OFFSET] = (byte) parent.charAt(FLAGS_OFFSET);
+        out[FLAGS_OFFSET + 1] = (byte) parent.charAt(FLAGS_OFFSET + 1);
+        return out;
+    }
+
+    /**
+     * Structural check per the W3C spec: lowercase hex fields, non-zero trace and span ids, version not {@code ff}.
+     * Versions after 00 may append fields, so only the first 55 characters are checked for those.
+     */
+    public static boolean isValid(CharSequence traceparent) {
+        if (traceparent == null || traceparent.length() < LENGTH) {
+            return false;
+        }
+        boolean version00 = traceparent.charAt(0) == '0' && traceparent.charAt(1) == '0';
+        if (version00 ? traceparent.length() != LENGTH : traceparent.length() > LENGTH && traceparent.charAt(LENGTH) != '-') {
+            return false;
+        }
+        if (traceparent.charAt(2) != '-' || traceparent.charAt(SPAN_ID_OFFSET - 1) != '-'
+                || traceparent.charAt(FLAGS_OFFSET - 1) != '-') {
+            return false;
+        }
+        return isHex(traceparent, 0, 2) && !(traceparent.charAt(0) == 'f' && traceparent.charAt(1) == 'f')
+                && isNonZeroHex(traceparent, TRACE_ID_OFFSET, TRACE_ID_LENGTH)
+                && isNonZeroHex(traceparent, SPAN_ID_OFFSET, SPAN_ID_LENGTH)
+                && isHex(traceparent, FLAGS_OFFSET, 2);
+    }
+
+    private static byte[] newHeader() {
+        byte[] out = new byte[LENGTH];
+        out[0] = '0';
+        out[1] = '0';
+        out[2] = '-';
+        out[SPAN_ID_OFFSET - 1] = '-';
+        out[FLAGS_OFFSET - 1] = '-';
+        return out;
+    }
+
+    private static void writeAscii(String hex, byte[] out, int offset) {
+        for (int i = 0; i < hex.length(); i++) {
+            out[offset + i] = (byte) hex.charAt(i);
+        }
+    }
+
+    private static void writeRandomSpanId(byte[] out, int offset) {
+        long id;
+        do {
+            id = ThreadLocalRandom.current().nextLong();
+        } while (id == 0);
+        for (int i = SPAN_ID_LENGTH - 1; i >= 0; i--) {
+            out[offset + i] = HEX[(int) (id & 0xF)];
+            id >>>= 4;
+        }
+    }
+
+    private static boolean isHex(CharSequence s, int offset, int length) {
+        for (int i = offset; i < offset + length; i++) {
+            char c = s.charAt(i);
+            if (!((c >= '0' && c <= '9') || (c >= 'a' && c <= 'f'))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isNonZeroHex(CharSequence s, int offset, int length) {
+        boolean nonZero = false;
+        for (int i = offset; i < offset + length; i++) {
+            char c = s.charAt(i);
+            if (!((c >= '0' && c <= '9') || (c >= 'a' && c <= 'f'))) {
+                return false;
+            }
+            nonZero |= c != '0';
+        }
+        return nonZero;
+    }
+}
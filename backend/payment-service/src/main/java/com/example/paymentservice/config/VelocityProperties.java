@@ -0,0 +1,38 @@
+package com.example.paymentservice.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * Velocity limits on processed payments (see PaymentVelocityChecker).
+ *
+ * @param stripes          lock stripes per limit
+ * @param maxKeysPerStripe customers or merchants held per stripe before the least recently used is dropped
+ * @param limits           limit name -> whose payments it counts, over which window, and the caps
+ */
+@ConfigurationProperties(prefix = "app.velocity")
+public record VelocityProperties(
+        @DefaultValue("true") boolean enabled,
+        @DefaultValue("16") int stripes,
+        @DefaultValue("4096") int maxKeysPerStripe,
+        Map<String, Limit> limits) {
+
+    public enum Scope {
+        CUSTOMER,
+        MERCHANT
+    }
+
+    /**
+     * @param scope     count per customer or per merchant
+     * @param window    how far back payments count
+     * @param buckets   time buckets the window slides by (window / buckets is the granularity)
+     * @param maxCount  payments allowed in the window, unlimited if not set
+     * @param maxAmount total amount allowed in the window, unlimited if not set
+     */
+    public record Limit(Scope scope, Duration window, @DefaultValue("60") int buckets, Long maxCount,
+                        BigDecimal maxAmount) {}
+}
@@ -0,0 +1,36 @@
+package com.example.paymentservice.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Merchant webhook delivery (see WebhookDispatcher).
+ *
+ * @param enabled               whether the dispatcher polls the delivery queue; events are queued either way
+ * @param connectTimeout        connecting to a merchant endpoint
+ * @param readTimeout           waiting for its response; a slow endpoint holds one of its own permits this long
+ * @param lease                 how long a claimed batch is hidden from other dispatchers, longer than both timeouts
+ * @param maxAttempts           attempts before a delivery is marked FAILED
+ * @param initialBackoff        delay before the second attempt, doubled for each further one
+ * @param maxBackoff            longest delay between attempts
+ * @param maxInFlight           requests in flight per instance, across all endpoints
+ * @param defaultMaxConcurrency requests in flight per endpoint when the registration does not say
+ * @param defaultMaxBatchSize   events per request when the registration does not say
+ * @param allowPrivateTargets   lets endpoints resolve to loopback and private addresses (local development only)
+ */
+@ConfigurationProperties(prefix = "app.webhooks")
+public record WebhookProperties(
+        @DefaultValue("true") boolean enabled,
+        @DefaultValue("2s") Duration connectTimeout,
+        @DefaultValue("10s") Duration readTimeout,
+        @DefaultValue("1m") Duration lease,
+        @DefaultValue("10") int maxAttempts,
+        @DefaultValue("10s") Duration initialBackoff,
+        @DefaultValue("1h") Duration maxBackoff,
+        @DefaultValue("200") int maxInFlight,
+        @DefaultValue("4") int defaultMaxConcurrency,
+        @DefaultValue("50") int defaultMaxBatchSize,
+        @DefaultValue("false") boolean allowPrivateTargets) {
+}
@@ -0,0 +1,50 @@
+package com.example.paymentservice.controller;
+
+import com.example.paymentservice.config.JwtAuthFilter;
+import com.example.paymentservice.domain.model.PaymentHistoryPage;
+import com.example.paymentservice.dto.response.PaymentPageResponse;
+import com.example.paymentservice.mapper.PaymentMapper;
+import com.example.paymentservice.service.CustomerPaymentHistoryService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+
+@RestController
+@RequestMapping("/api/v1/customers/{customerId}")
+@RequiredArgsConstructor
+@Tag(name = "Customers", description = "Customer payment history")
+public class CustomerController {
+
+    private final CustomerPaymentHistoryService historyService;
+    private final PaymentMapper paymentMapper;
+
+    @Operation(summary = "List customer payments",
+            description = "Newest first, keyset-paginated: pass the returned nextCursor to get the next page. " +
+                    "Served from the history read model, which trails payment updates by a few seconds")
+    @GetMapping("/payments")
+    public ResponseEntity<PaymentPageResponse> getPayments(
+            @PathVariable String customerId,
+            @Parameter(hidden = true)
+            @RequestAttribute(JwtAuthFilter.REQUEST_ATTR_USER_ID) Long authenticatedUserId,
+            @Parameter(description = "nextCursor from the previous page")
+            @RequestParam(required = false) String cursor,
+            @Parameter(description = "Page size (1-200, default 50)")
+            @RequestParam(required = false) Integer limit) {
+        // Customer ids are user ids: a customer only sees their own payments
+        if (!customerId.equals(String.valueOf(authenticatedUserId))) {
+            throw new ResponseStatusException(HttpStatus.FORBIDDEN, "Not the customer's account");
+        }
+        PaymentHistoryPage page = historyService.getPayments(customerId, cursor, limit);
+        return ResponseEntity.ok(PaymentPageResponse.builder()
+                .payments(page.getEntries().stream()
+                        .map(paymentMapper::toResponse)
+                        .toList())
+                .nextCursor(page.getNextCursor())
+                .build());
+    }
+}
@@ -0,0 +1,30 @@
+package com.example.paymentservice.controller;
+
+import com.example.paymentservice.config.JwtAuthFilter;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.List;
+
+/**
+ * Merchant endpoints are for the merchant's own user: one with the MERCHANT role whose access token names the
+ * merchant in its merchant_id claim (user-service issues it from the user's merchant id). Merchant ids are the
+ * free-text codes payments carry, e.g. MERCHANT_STORE_01, not user ids.
+ */
+final class MerchantAccess {
+
+    static final String MERCHANT_ROLE = "MERCHANT";
+
+    private MerchantAccess() {
+    }
+
+    /** Throws 403 unless the authenticated user is the merchant {@code merchantId}. */
+    static void requireOwner(String merchantId, HttpServletRequest request) {
+        Object roles = request.getAttribute(JwtAuthFilter.REQUEST_ATTR_ROLES);
+        Object ownedMerchantId = request.getAttribute(JwtAuthFilter.REQUEST_ATTR_MERCHANT_ID);
+        if (!(roles instanceof List<?> list && list.contains(MERCHANT_ROLE)) || !merchantId.equals(ownedMerchantId)) {
+            throw new ResponseStatusException(HttpStatus.FORBIDDEN, "Not the merchant's account");
+        }
+    }
+}
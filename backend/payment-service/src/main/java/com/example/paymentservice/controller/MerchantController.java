@@ -0,0 +1,78 @@
+package com.example.paymentservice.controller;
+
+import com.example.paymentservice.domain.model.MerchantDailySummary;
+import com.example.paymentservice.domain.model.PaymentPage;
+import com.example.paymentservice.dto.response.MerchantDailySummaryResponse;
+import com.example.paymentservice.dto.response.PaymentPageResponse;
+import com.example.paymentservice.mapper.PaymentMapper;
+import com.example.paymentservice.service.MerchantService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/v1/merchants/{merchantId}")
+@RequiredArgsConstructor
+@Tag(name = "Merchants", description = "Merchant payment history and daily totals")
+public class MerchantController {
+
+    private final MerchantService merchantService;
+    private final PaymentMapper paymentMapper;
+
+    @Operation(summary = "List merchant payments",
+            description = "Newest first, keyset-paginated: pass the returned nextCursor to get the next page")
+    @GetMapping("/payments")
+    public ResponseEntity<PaymentPageResponse> getPayments(
+            @PathVariable String merchantId,
+            HttpServletRequest request,
+            @Parameter(description = "nextCursor from the previous page")
+            @RequestParam(required = false) String cursor,
+            @Parameter(description = "Page size (1-200, default 50)")
+            @RequestParam(required = false) Integer limit) {
+        MerchantAccess.requireOwner(merchantId, request);
+        PaymentPage page = merchantService.getPayments(merchantId, cursor, limit);
+        return ResponseEntity.ok(PaymentPageResponse.builder()
+                .payments(page.getPayments().stream()
+                        .map(payment -> paymentMapper.toResponse(payment, null))
+                        .toList())
+                .nextCursor(page.getNextCursor())
+                .build());
+    }
+
+    @Operation(summary = "Daily payment totals",
+            description = "Per-day count, gross and refunds for the merchant, served from daily rollups")
+    @GetMapping("/payments/daily-summary")
+    public ResponseEntity<List<MerchantDailySummaryResponse>> getDailySummary(
+            @PathVariable String merchantId,
+            HttpServletRequest request,
+            @Parameter(description = "First day (inclusive), defaults to 29 days before 'to'")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @Parameter(description = "Last day (inclusive), defaults to today")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        MerchantAccess.requireOwner(merchantId, request);
+        List<MerchantDailySummaryResponse> summaries = merchantService.getDailySummaries(merchantId, from, to)
+                .stream()
+                .map(this::toResponse)
+                .toList();
+        return ResponseEntity.ok(summaries);
+    }
+
+    private MerchantDailySummaryResponse toResponse(MerchantDailySummary summary) {
+        return MerchantDailySummaryResponse.builder()
+                .date(summary.getDate())
+                .currency(summary.getCurrency())
+                .paymentCount(summary.getPaymentCount())
+                .grossAmount(summary.getGrossAmount())
+                .refundCount(summary.getRefundCount())
+                .refundAmount(summary.getRefundAmount())
+                .build();
+    }
+}
@@ -0,0 +1,75 @@
+package com.example.paymentservice.controller;
+
+import com.example.paymentservice.domain.model.WebhookEndpoint;
+import com.example.paymentservice.dto.request.RegisterWebhookRequest;
+import com.example.paymentservice.dto.response.WebhookEndpointResponse;
+import com.example.paymentservice.service.webhook.WebhookService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/v1/merchants/{merchantId}/webhook")
+@RequiredArgsConstructor
+@Tag(name = "Merchant webhooks", description = "Where payment events are POSTed for a merchant")
+public class MerchantWebhookController {
+
+    private final WebhookService webhookService;
+
+    @Operation(summary = "Register or update the webhook endpoint",
+            description = "Events are POSTed as {\"events\": [...]} and signed in the X-Webhook-Signature header. "
+                    + "The signing secret is returned once, when the endpoint is first registered")
+    @PutMapping
+    public ResponseEntity<WebhookEndpointResponse> register(
+            @PathVariable String merchantId,
+            HttpServletRequest httpRequest,
+            @Valid @RequestBody RegisterWebhookRequest request) {
+        MerchantAccess.requireOwner(merchantId, httpRequest);
+        boolean created = webhookService.getEndpoint(merchantId).isEmpty();
+        WebhookEndpoint endpoint = webhookService.register(merchantId, request.getUrl(),
+                request.getMaxConcurrency(), request.getMaxBatchSize());
+        return ResponseEntity.status(created ? HttpStatus.CREATED : HttpStatus.OK)
+                .body(toResponse(endpoint, created));
+    }
+
+    @Operation(summary = "Get the webhook endpoint")
+    @GetMapping
+    public ResponseEntity<WebhookEndpointResponse> get(
+            @PathVariable String merchantId,
+            HttpServletRequest httpRequest) {
+        MerchantAccess.requireOwner(merchantId, httpRequest);
+        return webhookService.getEndpoint(merchantId)
+                .map(endpoint -> ResponseEntity.ok(toResponse(endpoint, false)))
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
+    @Operation(summary = "Remove the webhook endpoint", description = "Undelivered events are discarded")
+    @DeleteMapping
+    public ResponseEntity<Void> unregister(
+            @PathVariable String merchantId,
+            HttpServletRequest httpRequest) {
+        MerchantAccess.requireOwner(merchantId, httpRequest);
+        return webhookService.unregister(merchantId)
+                ? ResponseEntity.noContent().build()
+                : ResponseEntity.notFound().build();
+    }
+
+    private WebhookEndpointResponse toResponse(WebhookEndpoint endpoint, boolean withSecret) {
+        return WebhookEndpointResponse.builder()
+                .id(endpoint.getId())
+                .merchantId(endpoint.getMerchantId())
+                .url(endpoint.getUrl())
+                .secret(withSecret ? endpoint.getSecret() : null)
+                .maxConcurrency(endpoint.getMaxConcurrency())
+                .maxBatchSize(endpoint.getMaxBatchSize())
+                .enabled(endpoint.isEnabled())
+                .createdAt(endpoint.getCreatedAt())
+                .updatedAt(endpoint.getUpdatedAt())
+                .build();
+    }
+}
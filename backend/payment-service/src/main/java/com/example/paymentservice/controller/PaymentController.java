@@ -1,17 +1,22 @@
 package com.example.paymentservice.controller;
 
 import com.example.paymentservice.client.QRCodeClientService;
+import com.example.paymentservice.config.JwtAuthFilter;
 import com.example.paymentservice.domain.model.Payment;
 import com.example.paymentservice.domain.model.QRCode;
 import com.example.paymentservice.dto.request.CreatePaymentRequest;
+import com.example.paymentservice.dto.request.InitiatePaymentBatchRequest;
 import com.example.paymentservice.dto.request.InitiatePaymentRequest;
 import com.example.paymentservice.dto.request.ProcessPaymentRequest;
 import com.example.paymentservice.dto.request.RefundPaymentRequest;
+import com.example.paymentservice.dto.response.InitiatePaymentBatchResponse;
 import com.example.paymentservice.dto.response.InitiatePaymentResponse;
 import com.example.paymentservice.dto.response.PaymentResponse;
 import com.example.paymentservice.entity.PaymentStatus;
 import com.example.paymentservice.exception.ErrorResponse;
 import com.example.paymentservice.mapper.PaymentMapper;
+import com.example.paymentservice.service.PaymentRateLimiter;
+import com.example.paymentservice.service.PaymentReadCoalescer;
 import com.example.paymentservice.service.PaymentService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -22,10 +27,13 @@ import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @RestController
@@ -35,6 +43,8 @@ import java.util.List;
 public class PaymentController {
 
     private final PaymentService paymentService;
+    private final PaymentReadCoalescer paymentReadCoalescer;
+    private final PaymentRateLimiter paymentRateLimiter;
     private final QRCodeClientService qrCodeClientService;
     private final PaymentMapper paymentMapper;
 
@@ -47,24 +57,61 @@ public class PaymentController {
             @ApiResponse(responseCode = "201", description = "Payment initiated successfully"),
             @ApiResponse(responseCode = "400", description = "User validation failed",
                     content = @Content(schema = @Schema(implementation = ErrorResponse.class))),
-            @ApiResponse(responseCode = "409", description = "Duplicate request (same idempotency key)")
+            @ApiResponse(responseCode = "409", description = "Duplicate request (same idempotency key)"),
+            @ApiResponse(responseCode = "429", description = "Rate limit exceeded, retry after the Retry-After seconds",
+                    content = @Content(schema = @Schema(implementation = ErrorResponse.class)))
     })
     @PostMapping("/initiate")
     public ResponseEntity<InitiatePaymentResponse> initiatePayment(
             @Parameter(description = "Idempotency key to prevent duplicate payments")
             @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
+            @Parameter(hidden = true)
+            @RequestAttribute(value = JwtAuthFilter.REQUEST_ATTR_USER_ID, required = false) Long authenticatedUserId,
             @Valid @RequestBody InitiatePaymentRequest request) {
+        // Limit the caller: the token's user when authenticated, otherwise the user being charged
+        paymentRateLimiter.acquire(PaymentRateLimiter.INITIATE,
+                authenticatedUserId != null ? authenticatedUserId : request.getUserId());
         InitiatePaymentResponse response = paymentService.initiatePayment(request, idempotencyKey);
         return new ResponseEntity<>(response, HttpStatus.CREATED);
     }
 
+    @Operation(
+            summary = "Initiate a batch of payments",
+            description = "Initiates up to " + InitiatePaymentBatchRequest.MAX_ITEMS + " payments for one user, " +
+                    "e.g. QR payments printed ahead of time by a kiosk. The user is validated once and all " +
+                    "payments are saved together. Returns one transaction ID per item, in request order."
+    )
+    @ApiResponses({
+            @ApiResponse(responseCode = "201", description = "Payments initiated successfully"),
+            @ApiResponse(responseCode = "400", description = "Invalid request or user validation failed",
+                    content = @Content(schema = @Schema(implementation = ErrorResponse.class))),
+            @ApiResponse(responseCode = "429", description = "Rate limit exceeded, retry after the Retry-After seconds",
+                    content = @Content(schema = @Schema(implementation = ErrorResponse.class)))
+    })
+    @PostMapping("/initiate:batch")
+    public ResponseEntity<InitiatePaymentBatchResponse> initiatePayments(
+            @Parameter(description = "Idempotency key to prevent duplicate batches")
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
+            @Parameter(hidden = true)
+            @RequestAttribute(value = JwtAuthFilter.REQUEST_ATTR_USER_ID, required = false) Long authenticatedUserId,
+            @Valid @RequestBody InitiatePaymentBatchRequest request) {
+        // One permit per payment, from a bucket sized for a full batch
+        paymentRateLimiter.acquire(PaymentRateLimiter.INITIATE_BATCH,
+                authenticatedUserId != null ? authenticatedUserId : request.getUserId(), request.getItems().size());
+        InitiatePaymentBatchResponse response = paymentService.initiatePayments(request, idempotencyKey);
+        return new ResponseEntity<>(response, HttpStatus.CREATED);
+    }
+
     @Operation(summary = "Create a payment directly", description = "Creates a payment with full details (amount, merchant, etc.)")
     @ApiResponses({
             @ApiResponse(responseCode = "201", description = "Payment created"),
-            @ApiResponse(responseCode = "400", description = "Invalid request")
+            @ApiResponse(responseCode = "400", description = "Invalid request"),
+            @ApiResponse(responseCode = "429", description = "Rate limit exceeded, retry after the Retry-After seconds",
+                    content = @Content(schema = @Schema(implementation = ErrorResponse.class)))
     })
     @PostMapping
     public ResponseEntity<PaymentResponse> createPayment(@Valid @RequestBody CreatePaymentRequest request) {
+        paymentRateLimiter.acquire(PaymentRateLimiter.CREATE, request.getMerchantId());
         Payment payment = paymentService.createPayment(request);
         PaymentResponse response = mapToPaymentResponse(payment);
         return new ResponseEntity<>(response, HttpStatus.CREATED);
@@ -73,34 +120,44 @@ public class PaymentController {
     @Operation(summary = "Get payment by ID")
     @ApiResponses({
             @ApiResponse(responseCode = "200", description = "Payment found"),
+            @ApiResponse(responseCode = "304", description = "Unchanged since the If-None-Match ETag"),
             @ApiResponse(responseCode = "404", description = "Payment not found")
     })
     @GetMapping("/{id}")
-    public ResponseEntity<PaymentResponse> getPayment(@PathVariable Long id) {
-        Payment payment = paymentService.getPaymentById(id);
-        PaymentResponse response = mapToPaymentResponse(payment);
-        return ResponseEntity.ok(response);
+    public ResponseEntity<PaymentResponse> getPayment(
+            @PathVariable Long id,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        return conditionalRead(id, ifNoneMatch);
     }
 
     @Operation(
             summary = "Poll payment status",
-            description = "Used by frontend to check if QR code is ready or to get the final payment result"
+            description = "Used by frontend to check if QR code is ready or to get the final payment result. " +
+                    "Send the last ETag as If-None-Match to get 304 while nothing has changed."
     )
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Current payment"),
+            @ApiResponse(responseCode = "304", description = "Unchanged since the If-None-Match ETag"),
+            @ApiResponse(responseCode = "404", description = "Payment not found")
+    })
     @GetMapping("/{id}/status")
-    public ResponseEntity<PaymentResponse> getPaymentStatus(@PathVariable Long id) {
-        Payment payment = paymentService.getPaymentById(id);
-        PaymentResponse response = mapToPaymentResponse(payment);
-        return ResponseEntity.ok(response);
+    public ResponseEntity<PaymentResponse> getPaymentStatus(
+            @PathVariable Long id,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        return conditionalRead(id, ifNoneMatch);
     }
 
-    @Operation(summary = "List payments", description = "List all payments, optionally filtered by status")
+    @Operation(summary = "List payments",
+            description = "List recent payments (last 30 days unless createdAfter is given), optionally filtered by status")
     @GetMapping
     public ResponseEntity<List<PaymentResponse>> getAllPayments(
             @Parameter(description = "Filter by payment status")
-            @RequestParam(required = false) PaymentStatus status) {
+            @RequestParam(required = false) PaymentStatus status,
+            @Parameter(description = "Only payments created at or after this time (ISO-8601)")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime createdAfter) {
         List<Payment> payments = status != null
-                ? paymentService.getPaymentsByStatus(status)
-                : paymentService.getAllPayments();
+                ? paymentService.getPaymentsByStatus(status, createdAfter)
+                : paymentService.getAllPayments(createdAfter);
         List<PaymentResponse> responses = payments.stream()
                 .map(this::mapToPaymentResponse)
                 .toList();
@@ -116,14 +173,24 @@ public class PaymentController {
             @ApiResponse(responseCode = "200", description = "Payment processed successfully"),
             @ApiResponse(responseCode = "400", description = "Invalid state / QR mismatch / insufficient balance",
                     content = @Content(schema = @Schema(implementation = ErrorResponse.class))),
-            @ApiResponse(responseCode = "404", description = "Payment not found")
+            @ApiResponse(responseCode = "404", description = "Payment not found"),
+            @ApiResponse(responseCode = "429", description = "Rate limit exceeded, retry after the Retry-After seconds",
+                    content = @Content(schema = @Schema(implementation = ErrorResponse.class)))
     })
     @PostMapping("/{id}/process")
     public ResponseEntity<PaymentResponse> processPayment(
             @PathVariable Long id,
             @Parameter(description = "Idempotency key to prevent duplicate charges")
             @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
+            @Parameter(hidden = true)
+            @RequestAttribute(value = JwtAuthFilter.REQUEST_ATTR_USER_ID, required = false) Long authenticatedUserId,
             @Valid @RequestBody ProcessPaymentRequest request) {
+        // Limit the caller, or the customer being charged; never the merchantId the body claims
+        if (authenticatedUserId != null) {
+            paymentRateLimiter.acquire(PaymentRateLimiter.PROCESS, authenticatedUserId);
+        } else {
+            acquireForCustomer(PaymentRateLimiter.PROCESS, paymentService.getPaymentByIdOnPrimary(id).getCustomerId());
+        }
         Payment payment = paymentService.processPayment(id, request, idempotencyKey);
         PaymentResponse response = mapToPaymentResponse(payment);
         return ResponseEntity.ok(response);
@@ -155,6 +222,8 @@ public class PaymentController {
     @ApiResponses({
             @ApiResponse(responseCode = "200", description = "Payment refunded"),
             @ApiResponse(responseCode = "400", description = "Refund not allowed / amount exceeds original",
+                    content = @Content(schema = @Schema(implementation = ErrorResponse.class))),
+            @ApiResponse(responseCode = "429", description = "Rate limit exceeded, retry after the Retry-After seconds",
                     content = @Content(schema = @Schema(implementation = ErrorResponse.class)))
     })
     @PostMapping("/{id}/refund")
@@ -162,12 +231,37 @@ public class PaymentController {
             @PathVariable Long id,
             @Parameter(description = "Idempotency key to prevent duplicate refunds")
             @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
+            @Parameter(hidden = true)
+            @RequestAttribute(value = JwtAuthFilter.REQUEST_ATTR_USER_ID, required = false) Long authenticatedUserId,
             @Valid @RequestBody RefundPaymentRequest request) {
+        // Limit the caller, otherwise the payment's merchant (or its customer if it has none)
+        if (authenticatedUserId != null) {
+            paymentRateLimiter.acquire(PaymentRateLimiter.REFUND, authenticatedUserId);
+        } else {
+            Payment payment = paymentService.getPaymentByIdOnPrimary(id);
+            if (payment.getMerchantId() != null) {
+                paymentRateLimiter.acquire(PaymentRateLimiter.REFUND, payment.getMerchantId());
+            } else {
+                acquireForCustomer(PaymentRateLimiter.REFUND, payment.getCustomerId());
+            }
+        }
         Payment payment = paymentService.refundPayment(id, request, idempotencyKey);
         PaymentResponse response = mapToPaymentResponse(payment);
         return ResponseEntity.ok(response);
     }
 
+    /** A customer id that is a user id shares the bucket the user's own token is limited on. */
+    private void acquireForCustomer(String endpoint, String customerId) {
+        long userId;
+        try {
+            userId = Long.parseLong(customerId);
+        } catch (NumberFormatException e) {
+            paymentRateLimiter.acquire(endpoint, customerId);
+            return;
+        }
+        paymentRateLimiter.acquire(endpoint, userId);
+    }
+
     private PaymentResponse mapToPaymentResponse(Payment payment) {
         var qrCode = getQRCodeIfExists(payment.getId());
         return paymentMapper.toResponse(payment, qrCode);
@@ -180,4 +274,51 @@ public class PaymentController {
             return null;
         }
     }
+
+    /**
+     * Polled reads with a strong ETag (the payment version). A request with If-None-Match has the version
+     * checked first and a match is answered with 304 from the version alone, before loading the payment or
+     * calling the QR service; a request without one skips the check. The 200 response carries the ETag of the
+     * payment actually returned. Concurrent requests for the same id share the version check, the payment
+     * load and the QR lookup.
+     * <p>
+     * The embedded QR code only changes together with the payment, except for expiry, which clients
+     * read from {@code expiresAt}.
+     */
+    private ResponseEntity<PaymentResponse> conditionalRead(Long id, String ifNoneMatch) {
+        if (ifNoneMatch != null) {
+            String currentETag = eTag(paymentReadCoalescer.getVersion(id));
+            if (matchesAny(ifNoneMatch, currentETag)) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(currentETag).build();
+            }
+        }
+        Payment payment = paymentReadCoalescer.getPayment(id);
+        QRCode qrCode;
+        try {
+            qrCode = paymentReadCoalescer.getQRCode(payment.getId());
+        } catch (Exception e) {
+            qrCode = null;
+        }
+        return ResponseEntity.ok()
+                .eTag(eTag(payment.getVersion()))
+                .body(paymentMapper.toResponse(payment, qrCode));
+    }
+
+    private static String eTag(Long version) {
+        return "\"" + version + "\"";
+    }
+
+    /** If-None-Match uses weak comparison (RFC 9110 13.1.2), so W/"v" also matches "v". */
+    private static boolean matchesAny(String ifNoneMatch, String eTag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.equals("*") || tag.equals(eTag) || tag.equals("W/" + eTag)) {
+                return true;
+            }
+        }
+        return false;
+    }
 }
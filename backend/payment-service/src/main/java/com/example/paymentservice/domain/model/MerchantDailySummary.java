@@ -0,0 +1,27 @@
+package com.example.paymentservice.domain.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * One merchant's completed and refunded totals for a single day and currency.
+ */
+@Getter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class MerchantDailySummary {
+
+    private String merchantId;
+    private LocalDate date;
+    private String currency;
+    private long paymentCount;
+    private BigDecimal grossAmount;
+    private long refundCount;
+    private BigDecimal refundAmount;
+}
@@ -0,0 +1,32 @@
+package com.example.paymentservice.domain.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * What one payment event adds to its merchant's daily totals. The reference identifies the event, so applying
+ * it a second time is a no-op.
+ */
+@Getter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class MerchantRollupIncrement {
+
+    private String reference;
+    private String merchantId;
+    /** When the event happened; {@code date} is its day. */
+    private LocalDateTime occurredAt;
+    private LocalDate date;
+    private String currency;
+    private long paymentCount;
+    private BigDecimal grossAmount;
+    private long refundCount;
+    private BigDecimal refundAmount;
+}
@@ -13,7 +13,7 @@ import java.time.LocalDateTime;
  * Domain model for a payment (business logic layer).
  */
 @Getter
-@Builder
+@Builder(toBuilder = true)
 @NoArgsConstructor
 @AllArgsConstructor
 public class Payment {
@@ -30,4 +30,5 @@ public class Payment {
     private String errorMessage;
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
+    private Long version;
 }
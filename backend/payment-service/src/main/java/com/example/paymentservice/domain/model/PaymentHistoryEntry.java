@@ -0,0 +1,32 @@
+package com.example.paymentservice.domain.model;
+
+import com.example.paymentservice.entity.PaymentStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * A payment as the customer history read model knows it, assembled from payment lifecycle events.
+ * Applied as a change, null fields are the ones the event does not carry.
+ */
+@Getter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PaymentHistoryEntry {
+
+    private Long paymentId;
+    private String customerId;
+    private String merchantId;
+    private BigDecimal amount;
+    private String currency;
+    private PaymentStatus status;
+    private String description;
+    private String qrCode;
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+}
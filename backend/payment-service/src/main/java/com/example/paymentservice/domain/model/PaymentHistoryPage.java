@@ -0,0 +1,22 @@
+package com.example.paymentservice.domain.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * A keyset-paginated slice of a customer's payment history, newest first.
+ * Uses the same cursor as {@link PaymentPage}; {@code nextCursor} is null on the last page.
+ */
+@Getter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PaymentHistoryPage {
+
+    private List<PaymentHistoryEntry> entries;
+    private String nextCursor;
+}
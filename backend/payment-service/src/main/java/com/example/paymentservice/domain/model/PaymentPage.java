@@ -0,0 +1,55 @@
+package com.example.paymentservice.domain.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.List;
+
+/**
+ * A keyset-paginated slice of payments, newest first.
+ * {@code nextCursor} is null on the last page.
+ */
+@Getter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PaymentPage {
+
+    private List<Payment> payments;
+    private String nextCursor;
+
+    /**
+     * Position after the last payment of a page: (createdAt, id) of that payment.
+     * Encoded as an opaque URL-safe token so clients just echo it back.
+     */
+    public record Cursor(LocalDateTime createdAt, Long id) {
+
+        public static Cursor after(Payment last) {
+            return new Cursor(last.getCreatedAt(), last.getId());
+        }
+
+        public String encode() {
+            String raw = createdAt + "|" + id;
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+        }
+
+        /**
+         * @throws IllegalArgumentException if the token was not produced by {@link #encode()}
+         */
+        public static Cursor decode(String token) {
+            try {
+                String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+                int separator = raw.indexOf('|');
+                return new Cursor(LocalDateTime.parse(raw.substring(0, separator)),
+                        Long.parseLong(raw.substring(separator + 1)));
+            } catch (RuntimeException e) {
+                throw new IllegalArgumentException("Invalid cursor: " + token, e);
+            }
+        }
+    }
+}
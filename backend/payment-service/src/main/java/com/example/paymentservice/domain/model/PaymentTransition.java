@@ -0,0 +1,47 @@
+package com.example.paymentservice.domain.model;
+
+import com.example.paymentservice.entity.PaymentStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Domain model for a compare-and-set status transition of a payment.
+ * Null fields are left unchanged; {@code targetStatus} and {@code updatedAt} are always written.
+ */
+@Getter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PaymentTransition {
+
+    private PaymentStatus targetStatus;
+    private BigDecimal amount;
+    private String currency;
+    private String merchantId;
+    private String description;
+    private String idempotencyKey;
+    private String errorCode;
+    private String errorMessage;
+    @Builder.Default
+    private LocalDateTime updatedAt = LocalDateTime.now();
+
+    /** Row image after this transition has been applied to {@code current}. */
+    public Payment applyTo(Payment current) {
+        return current.toBuilder()
+                .status(targetStatus)
+                .amount(amount != null ? amount : current.getAmount())
+                .currency(currency != null ? currency : current.getCurrency())
+                .merchantId(merchantId != null ? merchantId : current.getMerchantId())
+                .description(description != null ? description : current.getDescription())
+                .idempotencyKey(idempotencyKey != null ? idempotencyKey : current.getIdempotencyKey())
+                .errorCode(errorCode != null ? errorCode : current.getErrorCode())
+                .errorMessage(errorMessage != null ? errorMessage : current.getErrorMessage())
+                .updatedAt(updatedAt)
+                .build();
+    }
+}
@@ -0,0 +1,32 @@
+package com.example.paymentservice.domain.model;
+
+import com.example.paymentservice.entity.WebhookDeliveryStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * An event queued for a merchant endpoint. {@code payload} is the event's JSON as the merchant receives it;
+ * {@code eventId} identifies the event across redeliveries.
+ */
+@Getter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class WebhookDelivery {
+
+    private Long id;
+    private Long endpointId;
+    private String eventId;
+    private String eventType;
+    private String payload;
+    private WebhookDeliveryStatus status;
+    private int attempts;
+    private LocalDateTime nextAttemptAt;
+    private String lastError;
+    private LocalDateTime createdAt;
+    private LocalDateTime deliveredAt;
+}
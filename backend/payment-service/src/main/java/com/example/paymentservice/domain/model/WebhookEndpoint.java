@@ -0,0 +1,29 @@
+package com.example.paymentservice.domain.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * A merchant's webhook registration: where events are POSTed, the secret they are signed with, and how many
+ * requests (of up to how many events each) may be in flight to it at once.
+ */
+@Getter
+@Builder(toBuilder = true)
+@NoArgsConstructor
+@AllArgsConstructor
+public class WebhookEndpoint {
+
+    private Long id;
+    private String merchantId;
+    private String url;
+    private String secret;
+    private int maxConcurrency;
+    private int maxBatchSize;
+    private boolean enabled;
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,31 @@
+package com.example.paymentservice.dto.request;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class InitiatePaymentBatchRequest {
+
+    public static final int MAX_ITEMS = 100;
+
+    @NotNull(message = "User ID is required")
+    private Long userId;
+
+    @NotEmpty(message = "At least one item is required")
+    @Size(max = MAX_ITEMS, message = "At most " + MAX_ITEMS + " items per batch")
+    @Valid
+    private List<Item> items;
+
+    @Data
+    public static class Item {
+
+        /** Shown with the payment until it is processed, e.g. the ticket or queue number it was printed for. */
+        @Size(max = 255, message = "Description must be at most 255 characters")
+        private String description;
+    }
+}
@@ -0,0 +1,27 @@
+package com.example.paymentservice.dto.request;
+
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Pattern;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+@Data
+public class RegisterWebhookRequest {
+
+    @NotBlank(message = "URL is required")
+    @Size(max = 2048, message = "URL must be at most 2048 characters")
+    @Pattern(regexp = "https?://\\S+", message = "URL must be an http or https URL")
+    private String url;
+
+    /** Requests in flight to the endpoint at once; defaults to app.webhooks.default-max-concurrency. */
+    @Min(value = 1, message = "Max concurrency must be at least 1")
+    @Max(value = 32, message = "Max concurrency must be at most 32")
+    private Integer maxConcurrency;
+
+    /** Events coalesced into one request; defaults to app.webhooks.default-max-batch-size. */
+    @Min(value = 1, message = "Max batch size must be at least 1")
+    @Max(value = 500, message = "Max batch size must be at most 500")
+    private Integer maxBatchSize;
+}
@@ -0,0 +1,18 @@
+package com.example.paymentservice.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class InitiatePaymentBatchResponse {
+
+    /** One entry per request item, in request order. */
+    private List<InitiatePaymentResponse> payments;
+}
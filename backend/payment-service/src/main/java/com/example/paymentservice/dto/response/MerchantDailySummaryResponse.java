@@ -0,0 +1,23 @@
+package com.example.paymentservice.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class MerchantDailySummaryResponse {
+
+    private LocalDate date;
+    private String currency;
+    private long paymentCount;
+    private BigDecimal grossAmount;
+    private long refundCount;
+    private BigDecimal refundAmount;
+}
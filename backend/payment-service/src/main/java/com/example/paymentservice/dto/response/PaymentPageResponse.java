@@ -0,0 +1,19 @@
+package com.example.paymentservice.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class PaymentPageResponse {
+
+    private List<PaymentResponse> payments;
+    /** Pass as {@code cursor} to fetch the next page; null when there are no more payments. */
+    private String nextCursor;
+}
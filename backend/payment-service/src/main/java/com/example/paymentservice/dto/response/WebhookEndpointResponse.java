@@ -0,0 +1,28 @@
+package com.example.paymentservice.dto.response;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class WebhookEndpointResponse {
+
+    private Long id;
+    private String merchantId;
+    private String url;
+    /** Only returned when the endpoint is first registered. */
+    private String secret;
+    private int maxConcurrency;
+    private int maxBatchSize;
+    private boolean enabled;
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+}
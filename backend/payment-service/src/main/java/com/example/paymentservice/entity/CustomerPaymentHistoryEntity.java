@@ -0,0 +1,61 @@
+package com.example.paymentservice.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Denormalized customer payment history row, written only by the history event consumer.
+ * {@code customerId} and {@code createdAt} are null until payment.created has been seen; such rows are not listed.
+ */
+@Entity
+@Table(name = "customer_payment_history", indexes = @Index(
+        name = "idx_customer_payment_history_customer_created_at",
+        columnList = "customer_id, created_at DESC, payment_id DESC"))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CustomerPaymentHistoryEntity {
+
+    @Id
+    @Column(name = "payment_id")
+    private Long paymentId;
+
+    @Column(name = "customer_id", length = 100)
+    private String customerId;
+
+    @Column(name = "merchant_id", length = 100)
+    private String merchantId;
+
+    @Column(precision = 19, scale = 2)
+    private BigDecimal amount;
+
+    @Column(length = 3)
+    private String currency;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private PaymentStatus status;
+
+    /** Lifecycle stage of {@code status}; an event only changes the status if its stage is later. */
+    @Column(name = "status_rank", nullable = false)
+    private int statusRank;
+
+    @Column(name = "description")
+    private String description;
+
+    @Column(name = "qr_code", length = 500)
+    private String qrCode;
+
+    @Column(name = "created_at")
+    private LocalDateTime createdAt;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+}
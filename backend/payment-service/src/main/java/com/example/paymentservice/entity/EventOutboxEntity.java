@@ -17,7 +17,7 @@ import java.time.LocalDateTime;
 public class EventOutboxEntity {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @SnowflakeId
     private Long id;
 
     @Column(name = "event_type", nullable = false, length = 100)
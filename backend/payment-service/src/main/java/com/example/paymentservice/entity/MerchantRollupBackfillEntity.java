@@ -0,0 +1,31 @@
+package com.example.paymentservice.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * The single row recording up to which event timestamp V8 backfilled the merchant daily rollups (see
+ * MerchantRollupEventConsumer).
+ */
+@Entity
+@Table(name = "merchant_rollup_backfill")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class MerchantRollupBackfillEntity {
+
+    @Id
+    private Short id;
+
+    @Column(name = "events_through")
+    private LocalDateTime eventsThrough;
+
+    @Column(name = "backfilled_at", nullable = false)
+    private LocalDateTime backfilledAt;
+}
@@ -0,0 +1,28 @@
+package com.example.paymentservice.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * An event already counted in merchant_daily_rollups.
+ */
+@Entity
+@Table(name = "merchant_rollup_events")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class MerchantRollupEventEntity {
+
+    @Id
+    @Column(length = 255)
+    private String reference;
+
+    @Column(name = "applied_at", nullable = false)
+    private LocalDateTime appliedAt;
+}
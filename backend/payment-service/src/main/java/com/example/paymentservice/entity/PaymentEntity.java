@@ -18,7 +18,7 @@ import java.time.LocalDateTime;
 public class PaymentEntity {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @SnowflakeId
     private Long id;
 
     @Column(nullable = false, precision = 19, scale = 2)
@@ -40,7 +40,8 @@ public class PaymentEntity {
     @Column(name = "description")
     private String description;
 
-    @Column(name = "idempotency_key", unique = true)
+    // Globally unique via payment_idempotency_keys: payments is partitioned, so a unique index here would have to include created_at
+    @Column(name = "idempotency_key")
     private String idempotencyKey;
 
     @Column(name = "error_code", length = 50)
@@ -55,6 +56,11 @@ public class PaymentEntity {
     @Column(name = "updated_at")
     private LocalDateTime updatedAt;
 
+    // Bumped by every write, including the conditional status UPDATE; the payment's ETag
+    @Version
+    @Column(nullable = false)
+    private Long version;
+
     @PrePersist
     protected void onCreate() {
         createdAt = LocalDateTime.now();
@@ -10,9 +10,13 @@ public enum PaymentErrorCode {
     QR_CODE_EXPIRED,
     QR_CODE_MISMATCH,
     INVALID_PAYMENT_STATE,
+    PAYMENT_EXPIRED,
     USER_VALIDATION_FAILED,
     WALLET_SERVICE_ERROR,
     DUPLICATE_REQUEST,
     REFUND_EXCEEDS_AMOUNT,
-    SERVICE_UNAVAILABLE
+    SERVICE_UNAVAILABLE,
+    RATE_LIMITED,
+    VELOCITY_LIMIT_EXCEEDED,
+    INVALID_REQUEST
 }
@@ -6,5 +6,6 @@ public enum PaymentStatus {
     COMPLETED,   // Payment completed, wallet deducted
     FAILED,      // Payment failed (insufficient balance, QR invalid, etc.)
     REFUNDED,    // Payment refunded to customer
-    CANCELLED    // Payment cancelled before completion
+    CANCELLED,   // Payment cancelled before completion
+    EXPIRED      // Abandoned in PENDING/READY past the expiry TTL (see PaymentExpirySweeper)
 }
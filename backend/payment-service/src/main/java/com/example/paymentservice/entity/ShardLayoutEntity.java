@@ -0,0 +1,30 @@
+package com.example.paymentservice.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * The single row recording where the sharded id layout begins (see ShardLayoutCutover).
+ */
+@Entity
+@Table(name = "shard_layout")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ShardLayoutEntity {
+
+    @Id
+    private Short id;
+
+    @Column(name = "first_sharded_id", nullable = false)
+    private long firstShardedId;
+
+    @Column(name = "recorded_at", nullable = false)
+    private LocalDateTime recordedAt;
+}
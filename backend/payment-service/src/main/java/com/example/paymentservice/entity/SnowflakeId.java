@@ -0,0 +1,19 @@
+package com.example.paymentservice.entity;
+
+import com.example.paymentservice.adapter.persistence.SnowflakeIdentifierGenerator;
+import org.hibernate.annotations.IdGeneratorType;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Id assigned by the application's SnowflakeIdGenerator when the entity is persisted, with no database
+ * round trip, so inserts batch and the id can be used before the flush.
+ */
+@IdGeneratorType(SnowflakeIdentifierGenerator.class)
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.FIELD, ElementType.METHOD})
+public @interface SnowflakeId {
+}
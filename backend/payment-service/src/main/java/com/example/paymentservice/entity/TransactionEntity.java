@@ -10,7 +10,8 @@ import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "transactions")
+@Table(name = "transactions", uniqueConstraints = @UniqueConstraint(
+        name = "uk_transactions_payment_type_reference", columnNames = {"payment_id", "type", "reference"}))
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -18,15 +19,17 @@ import java.time.LocalDateTime;
 public class TransactionEntity {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @SnowflakeId
     private Long id;
 
     @Column(name = "payment_id", nullable = false)
     private Long paymentId;
 
-    // Note: @ManyToOne relationship kept as Payment and Transaction are in same database (payment_db)
+    // Note: @ManyToOne relationship kept as Payment and Transaction are in same database (payment_db).
+    // No foreign key: V7 dropped it when payments became partitioned
     @ManyToOne(fetch = FetchType.LAZY)
-    @JoinColumn(name = "payment_id", insertable = false, updatable = false)
+    @JoinColumn(name = "payment_id", insertable = false, updatable = false,
+            foreignKey = @ForeignKey(ConstraintMode.NO_CONSTRAINT))
     private PaymentEntity payment;
 
     @Enumerated(EnumType.STRING)
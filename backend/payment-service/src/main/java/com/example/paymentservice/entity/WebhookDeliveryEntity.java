@@ -0,0 +1,58 @@
+package com.example.paymentservice.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * One event queued for one merchant endpoint. Written by the webhook event consumer, sent (possibly together
+ * with other due events for the same endpoint) by the webhook dispatcher.
+ */
+@Entity
+@Table(name = "webhook_deliveries", uniqueConstraints = @UniqueConstraint(
+        name = "uk_webhook_deliveries_endpoint_event", columnNames = {"endpoint_id", "event_id"}))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class WebhookDeliveryEntity {
+
+    @Id
+    @SnowflakeId
+    private Long id;
+
+    @Column(name = "endpoint_id", nullable = false)
+    private Long endpointId;
+
+    @Column(name = "event_id", nullable = false)
+    private String eventId;
+
+    @Column(name = "event_type", nullable = false, length = 50)
+    private String eventType;
+
+    @Column(nullable = false, columnDefinition = "TEXT")
+    private String payload;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private WebhookDeliveryStatus status;
+
+    @Column(nullable = false)
+    private int attempts;
+
+    @Column(name = "next_attempt_at", nullable = false)
+    private LocalDateTime nextAttemptAt;
+
+    @Column(name = "last_error", length = 500)
+    private String lastError;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "delivered_at")
+    private LocalDateTime deliveredAt;
+}
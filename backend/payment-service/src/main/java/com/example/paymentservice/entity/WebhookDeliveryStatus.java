@@ -0,0 +1,7 @@
+package com.example.paymentservice.entity;
+
+public enum WebhookDeliveryStatus {
+    PENDING,
+    DELIVERED,
+    FAILED
+}
@@ -0,0 +1,47 @@
+package com.example.paymentservice.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "merchant_webhook_endpoints", uniqueConstraints = @UniqueConstraint(
+        name = "uk_merchant_webhook_endpoints_merchant", columnNames = "merchant_id"))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class WebhookEndpointEntity {
+
+    @Id
+    @SnowflakeId
+    private Long id;
+
+    @Column(name = "merchant_id", nullable = false, length = 100)
+    private String merchantId;
+
+    @Column(nullable = false, length = 2048)
+    private String url;
+
+    @Column(nullable = false, length = 100)
+    private String secret;
+
+    @Column(name = "max_concurrency", nullable = false)
+    private int maxConcurrency;
+
+    @Column(name = "max_batch_size", nullable = false)
+    private int maxBatchSize;
+
+    @Column(nullable = false)
+    private boolean enabled;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,32 @@
+package com.example.paymentservice.exception;
+
+import java.time.Duration;
+
+public class RateLimitExceededException extends RuntimeException {
+
+    private final String endpoint;
+    private final Duration retryAfter;
+
+    public RateLimitExceededException(String endpoint, Duration retryAfter) {
+        super("Too many " + endpoint + " requests. Retry after " + retryAfterSeconds(retryAfter) + " second(s).");
+        this.endpoint = endpoint;
+        this.retryAfter = retryAfter;
+    }
+
+    public String getEndpoint() {
+        return endpoint;
+    }
+
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+
+    /** Whole seconds for the Retry-After header, rounded up so a client retrying on time gets a permit. */
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds(retryAfter);
+    }
+
+    private static long retryAfterSeconds(Duration retryAfter) {
+        return Math.max(1, (retryAfter.toNanos() + 999_999_999L) / 1_000_000_000L);
+    }
+}
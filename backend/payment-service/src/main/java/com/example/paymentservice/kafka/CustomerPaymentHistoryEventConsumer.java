@@ -0,0 +1,126 @@
+package com.example.paymentservice.kafka;
+
+import com.example.paymentservice.domain.model.PaymentHistoryEntry;
+import com.example.paymentservice.entity.PaymentStatus;
+import com.example.paymentservice.repository.CustomerPaymentHistoryRepository;
+import com.example.paymentservice.service.PaymentService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.springframework.context.annotation.Profile;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.support.Acknowledgment;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Keeps the customer payment history read model up to date from the payment lifecycle events, in its own
+ * consumer group so it can lag or be replayed without affecting the payment flow.
+ * <p>
+ * Each event is merged into the payment's entry (see {@link CustomerPaymentHistoryRepository#apply}), so
+ * redelivered and reordered events are harmless. A record that cannot be read is logged and skipped; a write
+ * that fails is thrown to the container, which retries it with backoff before acknowledging anything.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+@Profile("!test")
+public class CustomerPaymentHistoryEventConsumer {
+
+    static final String TOPIC_QR_CODE_GENERATED = QRCodeEventConsumer.TOPIC_QR_CODE_GENERATED;
+
+    private final CustomerPaymentHistoryRepository historyRepository;
+    private final ObjectMapper objectMapper;
+
+    @KafkaListener(
+            topics = {
+                    KafkaEventProducer.TOPIC_PAYMENT_CREATED,
+                    TOPIC_QR_CODE_GENERATED,
+                    KafkaEventProducer.TOPIC_PAYMENT_PROCESSED,
+                    KafkaEventProducer.TOPIC_PAYMENT_REFUNDED,
+                    KafkaEventProducer.TOPIC_PAYMENT_CANCELLED,
+                    KafkaEventProducer.TOPIC_PAYMENT_EXPIRED
+            },
+            groupId = "payment-history-group",
+            containerFactory = "historyListenerContainerFactory"
+    )
+    public void handle(ConsumerRecord<String, String> record, Acknowledgment acknowledgment) {
+        List<PaymentHistoryEntry> changes;
+        try {
+            changes = read(record);
+        } catch (JsonProcessingException | IllegalArgumentException e) {
+            log.error("Skipping unreadable history event: topic={}, partition={}, offset={}",
+                    record.topic(), record.partition(), record.offset(), e);
+            acknowledgment.acknowledge();
+            return;
+        }
+        changes.forEach(historyRepository::apply);
+        acknowledgment.acknowledge();
+        log.debug("History updated from {}: {} payment(s)", record.topic(), changes.size());
+    }
+
+    private List<PaymentHistoryEntry> read(ConsumerRecord<String, String> record) throws JsonProcessingException {
+        return switch (record.topic()) {
+            case KafkaEventProducer.TOPIC_PAYMENT_CREATED -> {
+                var event = objectMapper.readValue(record.value(), PaymentService.PaymentCreatedEvent.class);
+                yield List.of(entry(event.getPaymentId(), PaymentStatus.PENDING, event.getTimestamp())
+                        .customerId(event.getCustomerId())
+                        .merchantId(event.getMerchantId())
+                        .amount(event.getAmount())
+                        .currency(event.getCurrency())
+                        .description(event.getDescription())
+                        .createdAt(event.getTimestamp())
+                        .build());
+            }
+            case TOPIC_QR_CODE_GENERATED -> {
+                var event = objectMapper.readValue(record.value(), QRCodeEventConsumer.QRCodeGeneratedEvent.class);
+                yield List.of(entry(event.getPaymentId(), PaymentStatus.READY, event.getTimestamp())
+                        .qrCode(event.getCode())
+                        .build());
+            }
+            case KafkaEventProducer.TOPIC_PAYMENT_PROCESSED -> {
+                var event = objectMapper.readValue(record.value(), PaymentService.PaymentProcessedEvent.class);
+                yield List.of(entry(event.getPaymentId(), PaymentStatus.COMPLETED, event.getTimestamp())
+                        .amount(event.getAmount())
+                        .currency(event.getCurrency() != null ? event.getCurrency().toUpperCase() : null)
+                        .merchantId(event.getMerchantId())
+                        .description(event.getDescription())
+                        .qrCode(event.getQrCode())
+                        .build());
+            }
+            case KafkaEventProducer.TOPIC_PAYMENT_REFUNDED -> {
+                var event = objectMapper.readValue(record.value(), PaymentService.PaymentRefundedEvent.class);
+                yield List.of(entry(event.getPaymentId(), PaymentStatus.REFUNDED, event.getTimestamp()).build());
+            }
+            case KafkaEventProducer.TOPIC_PAYMENT_CANCELLED -> {
+                var event = objectMapper.readValue(record.value(), PaymentService.PaymentCancelledEvent.class);
+                yield List.of(entry(event.getPaymentId(), PaymentStatus.CANCELLED, event.getTimestamp()).build());
+            }
+            case KafkaEventProducer.TOPIC_PAYMENT_EXPIRED -> {
+                var event = objectMapper.readValue(record.value(), PaymentService.PaymentsExpiredEvent.class);
+                if (event.getPaymentIds() == null) {
+                    throw new IllegalArgumentException("Event without payment ids");
+                }
+                yield event.getPaymentIds().stream()
+                        .map(id -> entry(id, PaymentStatus.EXPIRED, event.getTimestamp()).build())
+                        .toList();
+            }
+            default -> throw new IllegalArgumentException("Unexpected topic " + record.topic());
+        };
+    }
+
+    private static PaymentHistoryEntry.PaymentHistoryEntryBuilder entry(Long paymentId, PaymentStatus status,
+                                                                         LocalDateTime timestamp) {
+        if (paymentId == null || timestamp == null) {
+            throw new IllegalArgumentException("Event without payment id or timestamp");
+        }
+        return PaymentHistoryEntry.builder()
+                .paymentId(paymentId)
+                .status(status)
+                .updatedAt(timestamp);
+    }
+}
@@ -0,0 +1,139 @@
+package com.example.paymentservice.kafka;
+
+import com.example.paymentservice.config.KafkaConsumerConfig;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.springframework.boot.actuate.endpoint.InvalidEndpointRequestException;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.context.annotation.Profile;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Replays a dead-letter topic once the cause of its failures has been fixed, on the management port:
+ * {@code POST /actuator/deadletters/qr.code.generated-payment-dlt} with {@code {"max": 100}}.
+ * <p>
+ * Records are sent, key, value and headers unchanged (traceparent included), to the first retry topic of the
+ * same chain, so only this service's listener sees them again and one that still fails goes through the retries
+ * back to the dead-letter topic. Only the retry bookkeeping headers are dropped, which restarts the attempts.
+ * Progress is committed under its own consumer group after the sends are acknowledged, so a record is replayed
+ * once per call; records dead-lettered while a replay runs are left for the next one.
+ */
+@Component
+@Endpoint(id = "deadletters")
+@RequiredArgsConstructor
+@Slf4j
+@Profile("!test")
+public class DeadLetterReplayer {
+
+    static final String GROUP_ID = "payment-dlt-replay";
+    static final String RETRY_HEADER_PREFIX = "retry_topic-";
+
+    private static final Duration POLL_TIMEOUT = Duration.ofMillis(500);
+    private static final Duration REPLAY_TIMEOUT = Duration.ofSeconds(30);
+
+    private final ConsumerFactory<String, String> consumerFactory;
+    private final KafkaTemplate<String, String> kafkaTemplate;
+
+    @WriteOperation
+    public Replay replay(@Selector String topic, int max) {
+        if (!topic.endsWith(KafkaConsumerConfig.DLT_SUFFIX) || max <= 0) {
+            throw new InvalidEndpointRequestException("Not a dead-letter topic of this service or nothing to replay",
+                    "Expected a topic ending with " + KafkaConsumerConfig.DLT_SUFFIX + " and a positive max");
+        }
+        String target = topic.substring(0, topic.length() - KafkaConsumerConfig.DLT_SUFFIX.length())
+                + KafkaConsumerConfig.RETRY_TOPIC_SUFFIX + "-0";
+
+        Properties overrides = new Properties();
+        overrides.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, Math.min(max, 500));
+        try (Consumer<String, String> consumer = consumerFactory.createConsumer(GROUP_ID, null, null, overrides)) {
+            List<TopicPartition> partitions = consumer.partitionsFor(topic).stream()
+                    .map(info -> new TopicPartition(topic, info.partition()))
+                    .toList();
+            consumer.assign(partitions);
+            Map<TopicPartition, Long> endOffsets = consumer.endOffsets(partitions);
+            Map<TopicPartition, OffsetAndMetadata> committed = consumer.committed(Set.copyOf(partitions));
+            for (TopicPartition partition : partitions) {
+                OffsetAndMetadata offset = committed.get(partition);
+                if (offset != null) {
+                    consumer.seek(partition, offset.offset());
+                } else {
+                    consumer.seekToBeginning(List.of(partition));
+                }
+            }
+
+            List<CompletableFuture<SendResult<String, String>>> sends = new ArrayList<>();
+            Map<TopicPartition, OffsetAndMetadata> replayed = new HashMap<>();
+            long deadline = System.nanoTime() + REPLAY_TIMEOUT.toNanos();
+            while (sends.size() < max && !caughtUp(consumer, partitions, endOffsets)
+                    && System.nanoTime() < deadline) {
+                for (ConsumerRecord<String, String> record : consumer.poll(POLL_TIMEOUT)) {
+                    TopicPartition partition = new TopicPartition(record.topic(), record.partition());
+                    if (sends.size() == max || record.offset() >= endOffsets.get(partition)) {
+                        continue;
+                    }
+                    sends.add(kafkaTemplate.send(toRetry(record, target)));
+                    replayed.put(partition, new OffsetAndMetadata(record.offset() + 1));
+                }
+            }
+
+            CompletableFuture.allOf(sends.toArray(CompletableFuture[]::new))
+                    .get(REPLAY_TIMEOUT.toMillis(), TimeUnit.MILLISECONDS);
+            consumer.commitSync(replayed);
+            log.info("Replayed {} record(s) from {} to {}", sends.size(), topic, target);
+            return new Replay(topic, target, sends.size());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while replaying " + topic, e);
+        } catch (ExecutionException | TimeoutException e) {
+            throw new IllegalStateException("Replay of " + topic + " failed; nothing was committed", e);
+        }
+    }
+
+    static ProducerRecord<String, String> toRetry(ConsumerRecord<String, String> record, String target) {
+        RecordHeaders headers = new RecordHeaders();
+        for (Header header : record.headers()) {
+            if (!header.key().startsWith(RETRY_HEADER_PREFIX)) {
+                headers.add(header);
+            }
+        }
+        return new ProducerRecord<>(target, null, record.key(), record.value(), headers);
+    }
+
+    private static boolean caughtUp(Consumer<String, String> consumer, List<TopicPartition> partitions,
+                                    Map<TopicPartition, Long> endOffsets) {
+        for (TopicPartition partition : partitions) {
+            if (consumer.position(partition) < endOffsets.get(partition)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public record Replay(String topic, String target, int replayed) {
+    }
+}
@@ -1,8 +1,10 @@
 package com.example.paymentservice.kafka;
 
+import com.example.paymentservice.config.TraceParentCodec;
 import com.example.paymentservice.service.PaymentService;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.opentelemetry.api.trace.Span;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.kafka.core.KafkaTemplate;
@@ -12,7 +14,7 @@ import org.springframework.messaging.Message;
 import org.springframework.messaging.support.MessageBuilder;
 import org.springframework.stereotype.Service;
 
-import java.util.HashMap;
+import java.nio.charset.StandardCharsets;
 import java.util.Map;
 import java.util.concurrent.CompletableFuture;
 
@@ -32,9 +34,8 @@ public class KafkaEventProducer {
     public static final String TOPIC_PAYMENT_CREATED = "payment.created";
     public static final String TOPIC_PAYMENT_PROCESSED = "payment.processed";
     public static final String TOPIC_PAYMENT_REFUNDED = "payment.refunded";
-
-    private static final String TRACE_PARENT_HEADER = "traceparent";
-    private static final String TRACE_STATE_HEADER = "tracestate";
+    public static final String TOPIC_PAYMENT_EXPIRED = "payment.expired";
+    public static final String TOPIC_PAYMENT_CANCELLED = "payment.cancelled";
 
     /**
      * Publish PaymentCreatedEvent to Kafka
@@ -78,6 +79,21 @@ public class KafkaEventProducer {
         publishEvent(TOPIC_PAYMENT_REFUNDED, event.getPaymentId().toString(), event, traceparent);
     }
 
+    /**
+     * Publish PaymentCancelledEvent to Kafka with traceparent from database
+     */
+    public void publishPaymentCancelled(PaymentService.PaymentCancelledEvent event, String traceparent) {
+        publishEvent(TOPIC_PAYMENT_CANCELLED, event.getPaymentId().toString(), event, traceparent);
+    }
+
+    /**
+     * Publish PaymentsExpiredEvent (one chunk of expired payments) to Kafka with traceparent from database.
+     * Keyed by the chunk's first payment id; chunks are independent, so no ordering across them is needed.
+     */
+    public void publishPaymentsExpired(PaymentService.PaymentsExpiredEvent event, String traceparent) {
+        publishEvent(TOPIC_PAYMENT_EXPIRED, event.getPaymentIds().getFirst().toString(), event, traceparent);
+    }
+
     /**
      * Generic method to publish events to Kafka with trace context propagation
      * @param topic Kafka topic name
@@ -116,73 +132,31 @@ public class KafkaEventProducer {
 
     /**
      * Create trace headers from stored traceparent header
-     * If traceparent is provided, uses it directly (but generates new span ID for child span)
-     * If null, extracts from current OpenTelemetry context
+     * If traceparent is provided, keeps its trace ID and flags with a new span ID for the child span
+     * If null, uses the current OpenTelemetry context
+     * Header values are the traceparent's ASCII bytes, written to the record as-is
      */
     public Map<String, Object> addTraceHeadersFromTraceParent(String traceparent) {
-        Map<String, Object> headers = new HashMap<>();
-
         if (traceparent != null && !traceparent.isEmpty()) {
-            // Use traceparent from database, but create a new span ID for the child span
-            try {
-                // Parse traceparent: 00-{traceId}-{spanId}-{flags}
-                String[] parts = traceparent.split("-");
-                if (parts.length == 4) {
-                    String traceId = parts[1];
-                    String oldSpanId = parts[2];
-                    String traceFlags = parts[3];
-                    
-                    // Generate a new span ID for this child span
-                    String newSpanId = generateSpanId();
-                    
-                    // Create new traceparent with same trace ID but new span ID
-                    String newTraceParent = String.format("00-%s-%s-%s", traceId, newSpanId, traceFlags);
-                    headers.put(TRACE_PARENT_HEADER, newTraceParent);
-                    
-                    log.debug("Created trace headers from stored traceparent: traceId={}, oldSpanId={}, newSpanId={}", 
-                            traceId, oldSpanId, newSpanId);
-                } else {
-                    // Invalid format, use as-is
-                    log.warn("Invalid traceparent format, using as-is: {}", traceparent);
-                    headers.put(TRACE_PARENT_HEADER, traceparent);
-                }
-            } catch (Exception e) {
-                log.warn("Failed to parse traceparent, using as-is: {}", e.getMessage());
-                headers.put(TRACE_PARENT_HEADER, traceparent);
+            byte[] child = TraceParentCodec.childOf(traceparent);
+            if (child == null) {
+                // Invalid format, use as-is
+                log.warn("Invalid traceparent format, using as-is: {}", traceparent);
+                return Map.of(TraceParentCodec.HEADER, traceparent.getBytes(StandardCharsets.US_ASCII));
             }
-        } else {
-            // No traceparent provided, extract from current context
-            try {
-                io.opentelemetry.context.Context currentContext = io.opentelemetry.context.Context.current();
-                io.opentelemetry.api.trace.Span currentSpan = io.opentelemetry.api.trace.Span.fromContext(currentContext);
-                io.opentelemetry.api.trace.SpanContext spanContext = currentSpan.getSpanContext();
-                
-                if (spanContext.isValid()) {
-                    String traceId = spanContext.getTraceId();
-                    String spanId = spanContext.getSpanId();
-                    String traceFlags = String.format("%02x", spanContext.getTraceFlags().asByte());
-                    
-                    String traceParent = String.format("00-%s-%s-%s", traceId, spanId, traceFlags);
-                    headers.put(TRACE_PARENT_HEADER, traceParent);
-                    
-                    log.debug("Extracted trace headers from current context: traceId={}, spanId={}", traceId, spanId);
-                } else {
-                    log.debug("No valid span context found, skipping trace headers");
-                }
-            } catch (Exception e) {
-                log.warn("Failed to extract trace context: {}", e.getMessage());
+            if (log.isDebugEnabled()) {
+                log.debug("Created trace headers from stored traceparent: parent={}, child={}",
+                        traceparent, new String(child, StandardCharsets.US_ASCII));
             }
+            return Map.of(TraceParentCodec.HEADER, child);
         }
 
-        return headers;
-    }
-    
-    private static String generateSpanId() {
-        java.util.Random random = new java.util.Random();
-        StringBuilder sb = new StringBuilder(16);
-        for (int i = 0; i < 16; i++) {
-            sb.append(String.format("%x", random.nextInt(16)));
+        // No traceparent provided, use the current context
+        byte[] current = TraceParentCodec.encode(Span.current().getSpanContext());
+        if (current == null) {
+            log.debug("No valid span context found, skipping trace headers");
+            return Map.of();
         }
-        return sb.toString();
+        return Map.of(TraceParentCodec.HEADER, current);
     }
 }
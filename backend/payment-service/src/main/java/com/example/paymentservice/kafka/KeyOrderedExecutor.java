@@ -0,0 +1,56 @@
+package com.example.paymentservice.kafka;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Runs a listener's records in parallel on virtual threads while keeping records with the same key in order:
+ * a task starts once the previous task submitted for its key has finished, successfully or not (a failed record
+ * has gone to the retry topics, as it would when processed one at a time). Records without a key are not ordered.
+ * <p>
+ * A listener returns the future from {@link #submit} for the container to acknowledge the record when it
+ * completes (see KafkaConsumerConfig#keyOrderedListenerContainerFactory). Disabled, tasks run on the calling
+ * consumer thread, one record at a time as before.
+ */
+public class KeyOrderedExecutor implements AutoCloseable {
+
+    private static final CompletableFuture<Void> IDLE = CompletableFuture.completedFuture(null);
+
+    /** Null when disabled. */
+    private final ExecutorService virtualThreads;
+    /** Last task submitted per key, removed once it completes unless another task has been chained behind it. */
+    private final ConcurrentMap<String, CompletableFuture<Void>> tails = new ConcurrentHashMap<>();
+
+    public KeyOrderedExecutor(boolean parallel) {
+        this.virtualThreads = parallel ? Executors.newVirtualThreadPerTaskExecutor() : null;
+    }
+
+    public CompletableFuture<Void> submit(String key, Runnable task) {
+        if (virtualThreads == null) {
+            return CompletableFuture.runAsync(task, Runnable::run);
+        }
+        if (key == null) {
+            return CompletableFuture.runAsync(task, virtualThreads);
+        }
+        CompletableFuture<Void> next = tails.compute(key, (k, tail) ->
+                (tail == null ? IDLE : tail.exceptionally(failure -> null)).thenRunAsync(task, virtualThreads));
+        next.whenComplete((result, failure) -> tails.remove(key, next));
+        return next;
+    }
+
+    /** Keys with a task running or waiting. */
+    public int inFlightKeys() {
+        return tails.size();
+    }
+
+    /** Waits for the submitted tasks to finish. */
+    @Override
+    public void close() {
+        if (virtualThreads != null) {
+            virtualThreads.close();
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package com.example.paymentservice.kafka;
+
+import com.example.paymentservice.domain.model.Transaction;
+import com.example.paymentservice.entity.TransactionStatus;
+import com.example.paymentservice.entity.TransactionType;
+import com.example.paymentservice.repository.TransactionRepository;
+import com.example.paymentservice.service.PaymentService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.springframework.context.annotation.Profile;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.support.Acknowledgment;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Writes the transaction ledger from payment events: a PAYMENT row per payment.processed and a REFUND row
+ * per payment.refunded, off the request path.
+ * <p>
+ * Each poll is written as one batch and acknowledged only after the insert has committed, so a crash before
+ * that redelivers the batch. Redelivered and republished events (the outbox publishes at least once) produce
+ * the same reference - topic, payment id and the event's timestamp - and are dropped by the unique
+ * (payment_id, type, reference) index.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+@Profile("!test")
+public class LedgerEventConsumer {
+
+    private final TransactionRepository transactionRepository;
+    private final ObjectMapper objectMapper;
+
+    @KafkaListener(
+            topics = {KafkaEventProducer.TOPIC_PAYMENT_PROCESSED, KafkaEventProducer.TOPIC_PAYMENT_REFUNDED},
+            groupId = "payment-ledger-group",
+            containerFactory = "ledgerListenerContainerFactory"
+    )
+    public void handleBatch(List<ConsumerRecord<String, String>> records, Acknowledgment acknowledgment) {
+        Map<String, Transaction> transactions = new LinkedHashMap<>();
+        for (ConsumerRecord<String, String> record : records) {
+            Transaction transaction = toTransaction(record);
+            if (transaction != null) {
+                transactions.putIfAbsent(transaction.getType() + "/" + transaction.getReference(), transaction);
+            }
+        }
+        if (!transactions.isEmpty()) {
+            transactionRepository.saveAllIfAbsent(List.copyOf(transactions.values()));
+        }
+        acknowledgment.acknowledge();
+        log.debug("Ledger batch of {} record(s) written: {} transaction(s)", records.size(), transactions.size());
+    }
+
+    /** Null for a record that cannot be read; it is logged and skipped rather than blocking the partition. */
+    private Transaction toTransaction(ConsumerRecord<String, String> record) {
+        try {
+            Transaction transaction = read(record);
+            if (transaction.getPaymentId() == null || transaction.getAmount() == null
+                    || transaction.getTimestamp() == null) {
+                throw new IllegalArgumentException("Event without payment id, amount or timestamp");
+            }
+            return transaction;
+        } catch (Exception e) {
+            log.error("Skipping unreadable ledger event: topic={}, partition={}, offset={}",
+                    record.topic(), record.partition(), record.offset(), e);
+            return null;
+        }
+    }
+
+    private Transaction read(ConsumerRecord<String, String> record) throws Exception {
+        if (KafkaEventProducer.TOPIC_PAYMENT_PROCESSED.equals(record.topic())) {
+            PaymentService.PaymentProcessedEvent event =
+                    objectMapper.readValue(record.value(), PaymentService.PaymentProcessedEvent.class);
+            return Transaction.builder()
+                    .paymentId(event.getPaymentId())
+                    .type(TransactionType.PAYMENT)
+                    .amount(event.getAmount())
+                    .status(TransactionStatus.SUCCESS)
+                    .reference(record.topic() + ":" + event.getPaymentId() + "@" + event.getTimestamp())
+                    .externalReference(event.getQrCode())
+                    .timestamp(event.getTimestamp())
+                    .description("Payment processed via QR code")
+                    .build();
+        }
+        PaymentService.PaymentRefundedEvent event =
+                objectMapper.readValue(record.value(), PaymentService.PaymentRefundedEvent.class);
+        return Transaction.builder()
+                .paymentId(event.getPaymentId())
+                .type(TransactionType.REFUND)
+                .amount(event.getRefundAmount())
+                .status(TransactionStatus.SUCCESS)
+                .reference(record.topic() + ":" + event.getPaymentId() + "@" + event.getTimestamp())
+                .timestamp(event.getTimestamp())
+                .description(event.getReason() != null ? event.getReason() : "Refund processed")
+                .build();
+    }
+}
@@ -0,0 +1,122 @@
+package com.example.paymentservice.kafka;
+
+import com.example.paymentservice.domain.model.MerchantRollupIncrement;
+import com.example.paymentservice.repository.MerchantRollupRepository;
+import com.example.paymentservice.service.PaymentService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.springframework.context.annotation.Profile;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.support.Acknowledgment;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Maintains the merchant daily rollups from payment events: a payment per payment.processed and a refund per
+ * payment.refunded, counted on the day of the event.
+ * <p>
+ * Each poll is applied as one batch and acknowledged only after it has committed, so a crash before that
+ * redelivers the batch. References are built like ledger references (topic, payment id, event timestamp) and
+ * stored with the increments, so redelivered and republished events are counted once.
+ * <p>
+ * The V8 migration backfilled the rollups from the events in the outbox up to a recorded timestamp. The group
+ * starts from the beginning of the topics and skips events at or before that timestamp, so every event is counted
+ * either by the backfill or here, including those published between the migration and this group's first commit.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+@Profile("!test")
+public class MerchantRollupEventConsumer {
+
+    private final MerchantRollupRepository merchantRollupRepository;
+    private final ObjectMapper objectMapper;
+    /** Read on the first batch; it never changes. */
+    private volatile Optional<LocalDateTime> backfilledThrough;
+
+    @KafkaListener(
+            topics = {KafkaEventProducer.TOPIC_PAYMENT_PROCESSED, KafkaEventProducer.TOPIC_PAYMENT_REFUNDED},
+            groupId = "payment-rollup-group",
+            containerFactory = "rollupListenerContainerFactory",
+            properties = "auto.offset.reset=earliest"
+    )
+    public void handleBatch(List<ConsumerRecord<String, String>> records, Acknowledgment acknowledgment) {
+        Optional<LocalDateTime> backfilled = backfilledThrough();
+        Map<String, MerchantRollupIncrement> increments = new LinkedHashMap<>();
+        for (ConsumerRecord<String, String> record : records) {
+            MerchantRollupIncrement increment = toIncrement(record);
+            if (increment != null && backfilled.map(increment.getOccurredAt()::isAfter).orElse(true)) {
+                increments.putIfAbsent(increment.getReference(), increment);
+            }
+        }
+        if (!increments.isEmpty()) {
+            merchantRollupRepository.applyAllIfAbsent(List.copyOf(increments.values()));
+        }
+        acknowledgment.acknowledge();
+        log.debug("Rollup batch of {} record(s) applied: {} increment(s)", records.size(), increments.size());
+    }
+
+    private Optional<LocalDateTime> backfilledThrough() {
+        if (backfilledThrough == null) {
+            backfilledThrough = merchantRollupRepository.findBackfilledThrough();
+        }
+        return backfilledThrough;
+    }
+
+    /**
+     * Null for a record that cannot be read, or that has no merchant or currency (published before events
+     * carried them); it is logged and skipped rather than blocking the partition.
+     */
+    private MerchantRollupIncrement toIncrement(ConsumerRecord<String, String> record) {
+        try {
+            MerchantRollupIncrement increment = read(record);
+            if (increment.getMerchantId() == null || increment.getCurrency() == null
+                    || increment.getOccurredAt() == null || increment.getGrossAmount() == null
+                    || increment.getRefundAmount() == null) {
+                throw new IllegalArgumentException("Event without merchant, currency, amount or timestamp");
+            }
+            return increment;
+        } catch (Exception e) {
+            log.error("Skipping unreadable rollup event: topic={}, partition={}, offset={}",
+                    record.topic(), record.partition(), record.offset(), e);
+            return null;
+        }
+    }
+
+    private MerchantRollupIncrement read(ConsumerRecord<String, String> record) throws Exception {
+        if (KafkaEventProducer.TOPIC_PAYMENT_PROCESSED.equals(record.topic())) {
+            PaymentService.PaymentProcessedEvent event =
+                    objectMapper.readValue(record.value(), PaymentService.PaymentProcessedEvent.class);
+            return MerchantRollupIncrement.builder()
+                    .reference(record.topic() + ":" + event.getPaymentId() + "@" + event.getTimestamp())
+                    .merchantId(event.getMerchantId())
+                    .occurredAt(event.getTimestamp())
+                    .date(event.getTimestamp() != null ? event.getTimestamp().toLocalDate() : null)
+                    .currency(event.getCurrency() != null ? event.getCurrency().toUpperCase() : null)
+                    .paymentCount(1)
+                    .grossAmount(event.getAmount())
+                    .refundAmount(BigDecimal.ZERO)
+                    .build();
+        }
+        PaymentService.PaymentRefundedEvent event =
+                objectMapper.readValue(record.value(), PaymentService.PaymentRefundedEvent.class);
+        return MerchantRollupIncrement.builder()
+                .reference(record.topic() + ":" + event.getPaymentId() + "@" + event.getTimestamp())
+                .merchantId(event.getMerchantId())
+                .occurredAt(event.getTimestamp())
+                .date(event.getTimestamp() != null ? event.getTimestamp().toLocalDate() : null)
+                .currency(event.getCurrency())
+                .grossAmount(BigDecimal.ZERO)
+                .refundCount(1)
+                .refundAmount(event.getRefundAmount())
+                .build();
+    }
+}
@@ -1,25 +1,32 @@
 package com.example.paymentservice.kafka;
 
-import com.example.paymentservice.domain.model.Payment;
+import com.example.paymentservice.domain.model.PaymentTransition;
 import com.example.paymentservice.entity.PaymentStatus;
 import com.example.paymentservice.repository.PaymentRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.kafka.annotation.KafkaListener;
-import org.springframework.kafka.support.Acknowledgment;
 import org.springframework.kafka.support.KafkaHeaders;
 import org.springframework.messaging.handler.annotation.Header;
 import org.springframework.messaging.handler.annotation.Payload;
 import org.springframework.stereotype.Component;
-import org.springframework.transaction.annotation.Transactional;
 import org.springframework.context.annotation.Profile;
 
 import java.time.LocalDateTime;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Kafka consumer for QR code events in Payment Service
  * Listens to qr.code.generated events to update payment status
+ * <p>
+ * Records of different payments are processed concurrently, those of one payment in order (see
+ * KeyOrderedExecutor); the READY transition is a single conditional UPDATE in its own transaction.
+ * <p>
+ * Failures, thrown or completing the future, go to the container, which hands the record to this service's retry
+ * topics and finally its dead-letter topic (see KafkaConsumerConfig#retryTopicConfiguration), so the partition
+ * keeps moving meanwhile.
  */
 @Component
 @RequiredArgsConstructor
@@ -27,63 +34,43 @@ import java.time.LocalDateTime;
 @Profile("!test")
 public class QRCodeEventConsumer {
 
+    public static final String TOPIC_QR_CODE_GENERATED = "qr.code.generated";
+
     private final PaymentRepository paymentRepository;
     private final ObjectMapper objectMapper;
+    private final KeyOrderedExecutor keyOrderedExecutor;
 
     @KafkaListener(
-            topics = "qr.code.generated",
+            topics = TOPIC_QR_CODE_GENERATED,
             groupId = "payment-service-group",
-            containerFactory = "kafkaListenerContainerFactory",
+            containerFactory = "keyOrderedListenerContainerFactory",
             autoStartup = "true"
     )
-    @Transactional
-    public void handleQRCodeGenerated(
+    public CompletableFuture<Void> handleQRCodeGenerated(
             @Payload String message,
-            @Header(KafkaHeaders.RECEIVED_KEY) String key,
-            Acknowledgment acknowledgment) {
-        
-        try {
-            log.info("Payment Service - Received QRCodeGeneratedEvent: key={}, message={}", key, message);
-            
-            QRCodeGeneratedEvent event = objectMapper.readValue(message, QRCodeGeneratedEvent.class);
-            
-            // Update payment status and information (Saga Pattern - Step 4)
-            Payment payment = paymentRepository.findById(event.getPaymentId())
-                    .orElseThrow(() -> new RuntimeException("Payment not found: " + event.getPaymentId()));
-            
-            // Update payment status from PENDING to READY (QR code is now available)
-            if (payment.getStatus() == PaymentStatus.PENDING) {
-                Payment updated = Payment.builder()
-                        .id(payment.getId())
-                        .amount(payment.getAmount())
-                        .currency(payment.getCurrency())
-                        .status(PaymentStatus.READY)
-                        .merchantId(payment.getMerchantId())
-                        .customerId(payment.getCustomerId())
-                        .description(payment.getDescription())
-                        .idempotencyKey(payment.getIdempotencyKey())
-                        .errorCode(payment.getErrorCode())
-                        .errorMessage(payment.getErrorMessage())
-                        .createdAt(payment.getCreatedAt())
-                        .updatedAt(payment.getUpdatedAt())
-                        .build();
-                paymentRepository.save(updated);
-                
-                log.info("Updated payment status to READY for paymentId: {}, qrCodeId: {}", 
-                        event.getPaymentId(), event.getQrCodeId());
-            } else {
-                log.warn("Payment {} is not in PENDING status, current status: {}", 
-                        event.getPaymentId(), payment.getStatus());
-            }
-            
-            // Acknowledge message processing
-            acknowledgment.acknowledge();
-            
-        } catch (Exception e) {
-            log.error("Failed to process QRCodeGeneratedEvent: key={}", key, e);
-            // In production, you might want to send to a dead letter queue
-            // For now, we'll acknowledge to prevent infinite retries
-            acknowledgment.acknowledge();
+            @Header(KafkaHeaders.RECEIVED_KEY) String key) throws JsonProcessingException {
+
+        log.info("Payment Service - Received QRCodeGeneratedEvent: key={}", key);
+        log.debug("QRCodeGeneratedEvent payload: {}", message);
+
+        // Read on the consumer thread, so an unreadable payload is dead-lettered without a retry
+        QRCodeGeneratedEvent event = objectMapper.readValue(message, QRCodeGeneratedEvent.class);
+
+        // Events of one payment in order, different payments concurrently; acknowledged when done
+        return keyOrderedExecutor.submit(key, () -> markReady(event));
+    }
+
+    private void markReady(QRCodeGeneratedEvent event) {
+        // Update payment status from PENDING to READY (Saga Pattern - Step 4, QR code is now available)
+        PaymentTransition transition = PaymentTransition.builder()
+                .targetStatus(PaymentStatus.READY)
+                .build();
+        if (paymentRepository.transitionStatus(event.getPaymentId(), PaymentStatus.PENDING, transition)) {
+            log.info("Updated payment status to READY for paymentId: {}, qrCodeId: {}",
+                    event.getPaymentId(), event.getQrCodeId());
+        } else {
+            log.warn("Payment {} is not in PENDING status (or does not exist), skipping READY transition",
+                    event.getPaymentId());
         }
     }
 
@@ -0,0 +1,78 @@
+package com.example.paymentservice.kafka;
+
+import com.example.paymentservice.service.PaymentService;
+import com.example.paymentservice.service.PaymentVelocityChecker;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.context.annotation.Profile;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.listener.AbstractConsumerSeekAware;
+import org.springframework.stereotype.Component;
+
+import java.time.ZoneId;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Feeds every completed payment into this instance's velocity windows (see PaymentVelocityChecker).
+ * <p>
+ * Each instance reads all partitions of payment.processed in a consumer group of its own, so every replica
+ * sees every payment. Offsets are never committed: on assignment the consumer seeks back by the longest
+ * velocity window, which rebuilds the windows after a restart from Kafka alone. Offsets already applied are
+ * remembered per partition, so a later reassignment replaying them does not count payments twice.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+@Profile("!test")
+public class VelocityEventConsumer extends AbstractConsumerSeekAware {
+
+    private final PaymentVelocityChecker velocityChecker;
+    private final ObjectMapper objectMapper;
+    private final Map<TopicPartition, Long> appliedOffsets = new ConcurrentHashMap<>();
+
+    @KafkaListener(
+            topics = KafkaEventProducer.TOPIC_PAYMENT_PROCESSED,
+            groupId = "payment-velocity-${random.uuid}",
+            containerFactory = "velocityListenerContainerFactory"
+    )
+    public void handleBatch(List<ConsumerRecord<String, String>> records) {
+        for (ConsumerRecord<String, String> record : records) {
+            TopicPartition partition = new TopicPartition(record.topic(), record.partition());
+            if (record.offset() <= appliedOffsets.getOrDefault(partition, -1L)) {
+                continue;
+            }
+            apply(record);
+            appliedOffsets.put(partition, record.offset());
+        }
+    }
+
+    @Override
+    public void onPartitionsAssigned(Map<TopicPartition, Long> assignments, ConsumerSeekCallback callback) {
+        super.onPartitionsAssigned(assignments, callback);
+        long from = System.currentTimeMillis() - velocityChecker.longestWindow().toMillis();
+        callback.seekToTimestamp(assignments.keySet(), from);
+        log.info("Rebuilding velocity windows from {} partition(s) of {} since {}",
+                assignments.size(), KafkaEventProducer.TOPIC_PAYMENT_PROCESSED, from);
+    }
+
+    /** A record that cannot be read is logged and skipped; it only makes the windows undercount. */
+    private void apply(ConsumerRecord<String, String> record) {
+        try {
+            PaymentService.PaymentProcessedEvent event =
+                    objectMapper.readValue(record.value(), PaymentService.PaymentProcessedEvent.class);
+            if (event.getPaymentId() == null || event.getTimestamp() == null) {
+                throw new IllegalArgumentException("Event without payment id or timestamp");
+            }
+            velocityChecker.record(event.getPaymentId(), event.getCustomerId(), event.getMerchantId(),
+                    event.getAmount(), event.getTimestamp().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli());
+        } catch (Exception e) {
+            log.error("Skipping unreadable velocity event: partition={}, offset={}",
+                    record.partition(), record.offset(), e);
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package com.example.paymentservice.kafka;
+
+import com.example.paymentservice.entity.PaymentStatus;
+import com.example.paymentservice.service.PaymentService;
+import com.example.paymentservice.service.webhook.WebhookService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.springframework.context.annotation.Profile;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.support.Acknowledgment;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Queues merchant webhooks from payment events: payment.completed per payment.processed and payment.refunded
+ * per payment.refunded, for merchants with a registered endpoint.
+ * <p>
+ * Each poll is queued as one batch and acknowledged once the queue insert has committed. Event ids are built
+ * like ledger references (topic, payment id, event timestamp), so redelivered and republished events are
+ * queued once per endpoint.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+@Profile("!test")
+public class WebhookEventConsumer {
+
+    private final WebhookService webhookService;
+    private final ObjectMapper objectMapper;
+
+    @KafkaListener(
+            topics = {KafkaEventProducer.TOPIC_PAYMENT_PROCESSED, KafkaEventProducer.TOPIC_PAYMENT_REFUNDED},
+            groupId = "payment-webhook-group",
+            containerFactory = "webhookListenerContainerFactory"
+    )
+    public void handleBatch(List<ConsumerRecord<String, String>> records, Acknowledgment acknowledgment) {
+        Map<String, WebhookService.WebhookEvent> events = new LinkedHashMap<>();
+        for (ConsumerRecord<String, String> record : records) {
+            WebhookService.WebhookEvent event = toWebhookEvent(record);
+            if (event != null) {
+                events.putIfAbsent(event.getId(), event);
+            }
+        }
+        int queued = webhookService.enqueue(List.copyOf(events.values()));
+        acknowledgment.acknowledge();
+        log.debug("Webhook batch of {} record(s) handled: {} delivery(ies) queued", records.size(), queued);
+    }
+
+    /**
+     * Null for a record that cannot be read, or that has no merchant (published before events carried one);
+     * it is logged and skipped rather than blocking the partition.
+     */
+    private WebhookService.WebhookEvent toWebhookEvent(ConsumerRecord<String, String> record) {
+        try {
+            WebhookService.WebhookEvent event = read(record);
+            if (event.getData().getPaymentId() == null || event.getData().getMerchantId() == null
+                    || event.getCreatedAt() == null) {
+                throw new IllegalArgumentException("Event without payment id, merchant id or timestamp");
+            }
+            return event;
+        } catch (Exception e) {
+            log.error("Skipping unreadable webhook event: topic={}, partition={}, offset={}",
+                    record.topic(), record.partition(), record.offset(), e);
+            return null;
+        }
+    }
+
+    private WebhookService.WebhookEvent read(ConsumerRecord<String, String> record) throws Exception {
+        if (KafkaEventProducer.TOPIC_PAYMENT_PROCESSED.equals(record.topic())) {
+            PaymentService.PaymentProcessedEvent event =
+                    objectMapper.readValue(record.value(), PaymentService.PaymentProcessedEvent.class);
+            return WebhookService.WebhookEvent.builder()
+                    .id(record.topic() + ":" + event.getPaymentId() + "@" + event.getTimestamp())
+                    .type(WebhookService.EVENT_PAYMENT_COMPLETED)
+                    .createdAt(event.getTimestamp())
+                    .data(WebhookService.PaymentData.builder()
+                            .paymentId(event.getPaymentId())
+                            .merchantId(event.getMerchantId())
+                            .status(PaymentStatus.COMPLETED.name())
+                            .amount(event.getAmount())
+                            .currency(event.getCurrency())
+                            .build())
+                    .build();
+        }
+        PaymentService.PaymentRefundedEvent event =
+                objectMapper.readValue(record.value(), PaymentService.PaymentRefundedEvent.class);
+        return WebhookService.WebhookEvent.builder()
+                .id(record.topic() + ":" + event.getPaymentId() + "@" + event.getTimestamp())
+                .type(WebhookService.EVENT_PAYMENT_REFUNDED)
+                .createdAt(event.getTimestamp())
+                .data(WebhookService.PaymentData.builder()
+                        .paymentId(event.getPaymentId())
+                        .merchantId(event.getMerchantId())
+                        .status(PaymentStatus.REFUNDED.name())
+                        .refundAmount(event.getRefundAmount())
+                        .reason(event.getReason())
+                        .build())
+                .build();
+    }
+}
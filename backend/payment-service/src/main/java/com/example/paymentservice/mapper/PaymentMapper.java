@@ -1,6 +1,7 @@
 package com.example.paymentservice.mapper;
 
 import com.example.paymentservice.domain.model.Payment;
+import com.example.paymentservice.domain.model.PaymentHistoryEntry;
 import com.example.paymentservice.domain.model.QRCode;
 import com.example.paymentservice.dto.response.PaymentResponse;
 import com.example.paymentservice.dto.response.QRCodeResponse;
@@ -32,6 +33,7 @@ public class PaymentMapper {
                 .errorMessage(entity.getErrorMessage())
                 .createdAt(entity.getCreatedAt())
                 .updatedAt(entity.getUpdatedAt())
+                .version(entity.getVersion())
                 .build();
     }
 
@@ -51,6 +53,7 @@ public class PaymentMapper {
                 .errorMessage(domain.getErrorMessage())
                 .createdAt(domain.getCreatedAt())
                 .updatedAt(domain.getUpdatedAt())
+                .version(domain.getVersion())
                 .build();
     }
 
@@ -75,4 +78,26 @@ public class PaymentMapper {
         }
         return builder.build();
     }
+
+    /** History entries carry the QR code string only; qr-service is not asked for the rest. */
+    public PaymentResponse toResponse(PaymentHistoryEntry entry) {
+        if (entry == null) return null;
+        PaymentResponse.PaymentResponseBuilder builder = PaymentResponse.builder()
+                .id(entry.getPaymentId())
+                .amount(entry.getAmount())
+                .currency(entry.getCurrency())
+                .status(entry.getStatus())
+                .merchantId(entry.getMerchantId())
+                .customerId(entry.getCustomerId())
+                .description(entry.getDescription())
+                .createdAt(entry.getCreatedAt())
+                .updatedAt(entry.getUpdatedAt());
+        if (entry.getQrCode() != null) {
+            builder.qrCode(QRCodeResponse.builder()
+                    .code(entry.getQrCode())
+                    .paymentId(entry.getPaymentId())
+                    .build());
+        }
+        return builder.build();
+    }
 }
@@ -0,0 +1,23 @@
+package com.example.paymentservice.repository;
+
+import com.example.paymentservice.domain.model.PaymentHistoryEntry;
+import com.example.paymentservice.domain.model.PaymentPage;
+
+import java.util.List;
+
+/**
+ * Port for the customer payment history read model, one entry per payment, maintained from payment events
+ * and never from the payment write path.
+ */
+public interface CustomerPaymentHistoryRepository {
+
+    /**
+     * Applies one event's view of a payment, creating the entry if it is the first event seen for it.
+     * Events may arrive out of order across topics: the status only moves forward, and an event from an
+     * earlier stage than the stored one only fills in fields that are still empty.
+     */
+    void apply(PaymentHistoryEntry change);
+
+    /** Up to {@code limit} of the customer's payments created before {@code after} (all if null), newest first. */
+    List<PaymentHistoryEntry> findByCustomerId(String customerId, PaymentPage.Cursor after, int limit);
+}
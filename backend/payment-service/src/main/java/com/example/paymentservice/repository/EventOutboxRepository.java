@@ -10,6 +10,9 @@ public interface EventOutboxRepository {
 
     EventOutbox save(EventOutbox event);
 
+    /** Inserts the events in JDBC batches. */
+    List<EventOutbox> saveAll(List<EventOutbox> events);
+
     List<EventOutbox> findByStatus(OutboxStatus status);
 
     List<EventOutbox> findPendingEventsWithLock(OutboxStatus status);
@@ -0,0 +1,30 @@
+package com.example.paymentservice.repository;
+
+import com.example.paymentservice.domain.model.MerchantDailySummary;
+import com.example.paymentservice.domain.model.MerchantRollupIncrement;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Port for per-merchant daily running totals, maintained incrementally from payment events.
+ */
+public interface MerchantRollupRepository {
+
+    /**
+     * Adds the increments to their merchants' daily totals, skipping any whose reference has already been
+     * applied. Durable when this returns.
+     */
+    void applyAllIfAbsent(List<MerchantRollupIncrement> increments);
+
+    /**
+     * Timestamp of the last payment event the V8 migration counted from the outbox; later events are left to the
+     * event consumer. Empty if there was nothing to backfill.
+     */
+    Optional<LocalDateTime> findBackfilledThrough();
+
+    /** Daily rows in {@code [from, to]}, oldest first. Days without activity have no row. */
+    List<MerchantDailySummary> findByMerchantId(String merchantId, LocalDate from, LocalDate to);
+}
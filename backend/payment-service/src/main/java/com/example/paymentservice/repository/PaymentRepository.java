@@ -1,16 +1,29 @@
 package com.example.paymentservice.repository;
 
 import com.example.paymentservice.domain.model.Payment;
+import com.example.paymentservice.domain.model.PaymentPage;
+import com.example.paymentservice.domain.model.PaymentTransition;
 import com.example.paymentservice.entity.PaymentStatus;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 public interface PaymentRepository {
     
-    List<Payment> findByStatus(PaymentStatus status);
+    /**
+     * Payments in {@code status} created at or after {@code createdAfter}, newest first.
+     * The lower bound lets Postgres prune the monthly partitions it doesn't need.
+     */
+    List<Payment> findByStatus(PaymentStatus status, LocalDateTime createdAfter);
     
-    List<Payment> findByMerchantId(String merchantId);
+    /**
+     * Keyset page of a merchant's payments, newest first, on the (merchant_id, created_at, id) index.
+     *
+     * @param after position of the last payment of the previous page, or null for the first page
+     */
+    List<Payment> findByMerchantId(String merchantId, PaymentPage.Cursor after, int limit);
     
     List<Payment> findByCustomerId(String customerId);
     
@@ -18,11 +31,43 @@ public interface PaymentRepository {
 
     Optional<Payment> findById(Long id);
 
+    /** Current version only (no row fetch), for conditional GETs. */
+    Optional<Long> findVersionById(Long id);
+
     Optional<Payment> findByIdempotencyKey(String idempotencyKey);
 
-    List<Payment> findAll();
+    /**
+     * Payments created at or after {@code createdAfter}, newest first.
+     */
+    List<Payment> findCreatedAfter(LocalDateTime createdAfter);
 
     Payment save(Payment payment);
 
+    /**
+     * Inserts new payments of one customer in JDBC batches (multi-row INSERTs on Postgres).
+     *
+     * @throws IllegalArgumentException if the payments would go to different shards
+     */
+    List<Payment> saveAll(List<Payment> payments);
+
+    /**
+     * Compare-and-set status transition: a single conditional UPDATE guarded by {@code expectedStatus}.
+     *
+     * @return true if this caller won the transition, false if the payment was missing or no longer in
+     *         {@code expectedStatus} (a concurrent transition got there first)
+     */
+    boolean transitionStatus(Long id, PaymentStatus expectedStatus, PaymentTransition transition);
+
+    /**
+     * Moves up to {@code limit} of the oldest payments still in one of {@code statuses} and created before
+     * {@code createdBefore} to EXPIRED. Rows locked by another transaction (an in-flight transition, another
+     * replica's sweep) are skipped rather than waited on. Must run in the caller's transaction, which keeps the
+     * expired rows locked until it commits.
+     *
+     * @return ids of the payments expired
+     */
+    List<Long> expireStale(Collection<PaymentStatus> statuses, LocalDateTime createdBefore, int limit,
+                           LocalDateTime expiredAt);
+
     Boolean existsById(Long id);
 }
@@ -18,4 +18,10 @@ public interface TransactionRepository  {
     List<Transaction> findAll();
 
     Optional<Transaction> findById(Long id);
+
+    /**
+     * Inserts the transactions in JDBC batches, skipping any whose (paymentId, type, reference) is already
+     * stored. Ids are assigned here. Durable when this returns.
+     */
+    void saveAllIfAbsent(List<Transaction> transactions);
 }
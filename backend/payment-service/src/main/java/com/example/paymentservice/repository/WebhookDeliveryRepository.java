@@ -0,0 +1,35 @@
+package com.example.paymentservice.repository;
+
+import com.example.paymentservice.domain.model.WebhookDelivery;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface WebhookDeliveryRepository {
+
+    /**
+     * Queues the deliveries in JDBC batches, skipping any whose (endpointId, eventId) is already queued.
+     * Ids are assigned here. Durable when this returns.
+     */
+    void enqueueAllIfAbsent(List<WebhookDelivery> deliveries);
+
+    /** Endpoints with at least one PENDING delivery due at {@code now}. */
+    List<Long> findEndpointsWithDueDeliveries(LocalDateTime now, int limit);
+
+    /**
+     * Claims up to {@code limit} of the endpoint's due deliveries, oldest first: counts an attempt and moves
+     * their next attempt to {@code leaseUntil}, so other dispatchers skip them until the lease runs out.
+     * Rows locked by a concurrent claim are skipped rather than waited for.
+     */
+    List<WebhookDelivery> claimDue(Long endpointId, LocalDateTime now, int limit, LocalDateTime leaseUntil);
+
+    void markDelivered(List<Long> ids, LocalDateTime deliveredAt);
+
+    void reschedule(List<Long> ids, LocalDateTime nextAttemptAt, String error);
+
+    void markFailed(List<Long> ids, String error);
+
+    List<WebhookDelivery> findByEndpointId(Long endpointId);
+
+    void deleteByEndpointId(Long endpointId);
+}
@@ -0,0 +1,20 @@
+package com.example.paymentservice.repository;
+
+import com.example.paymentservice.domain.model.WebhookEndpoint;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+public interface WebhookEndpointRepository {
+
+    Optional<WebhookEndpoint> findByMerchantId(String merchantId);
+
+    List<WebhookEndpoint> findEnabledByMerchantIds(Collection<String> merchantIds);
+
+    List<WebhookEndpoint> findEnabledByIds(Collection<Long> ids);
+
+    WebhookEndpoint save(WebhookEndpoint endpoint);
+
+    void delete(Long id);
+}
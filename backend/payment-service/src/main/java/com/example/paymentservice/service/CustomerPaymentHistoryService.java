@@ -0,0 +1,58 @@
+package com.example.paymentservice.service;
+
+import com.example.paymentservice.domain.model.PaymentHistoryEntry;
+import com.example.paymentservice.domain.model.PaymentHistoryPage;
+import com.example.paymentservice.domain.model.PaymentPage;
+import com.example.paymentservice.entity.PaymentErrorCode;
+import com.example.paymentservice.exception.PaymentException;
+import com.example.paymentservice.repository.CustomerPaymentHistoryRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+/**
+ * Customer-facing payment history, served from the event-fed read model only: it never reads the payments
+ * table or calls qr-service, and read-only transactions go to the replica. Entries trail the payment by the
+ * consumer lag of the history events.
+ */
+@Service
+@RequiredArgsConstructor
+@Transactional(readOnly = true)
+public class CustomerPaymentHistoryService {
+
+    static final int DEFAULT_PAGE_SIZE = 50;
+    static final int MAX_PAGE_SIZE = 200;
+
+    private final CustomerPaymentHistoryRepository historyRepository;
+
+    /**
+     * @param cursor {@link PaymentHistoryPage#getNextCursor()} of the previous page, or null for the newest payments
+     */
+    public PaymentHistoryPage getPayments(String customerId, String cursor, Integer limit) {
+        int pageSize = limit == null ? DEFAULT_PAGE_SIZE : limit;
+        if (pageSize < 1 || pageSize > MAX_PAGE_SIZE) {
+            throw new PaymentException(PaymentErrorCode.INVALID_REQUEST.name(),
+                    "limit must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        PaymentPage.Cursor after;
+        try {
+            after = cursor == null ? null : PaymentPage.Cursor.decode(cursor);
+        } catch (IllegalArgumentException e) {
+            throw new PaymentException(PaymentErrorCode.INVALID_REQUEST.name(), e.getMessage());
+        }
+
+        // One extra row tells whether another page exists, as for merchant history
+        List<PaymentHistoryEntry> rows = historyRepository.findByCustomerId(customerId, after, pageSize + 1);
+        if (rows.size() <= pageSize) {
+            return PaymentHistoryPage.builder().entries(rows).build();
+        }
+        List<PaymentHistoryEntry> entries = rows.subList(0, pageSize);
+        PaymentHistoryEntry last = entries.get(pageSize - 1);
+        return PaymentHistoryPage.builder()
+                .entries(entries)
+                .nextCursor(new PaymentPage.Cursor(last.getCreatedAt(), last.getPaymentId()).encode())
+                .build();
+    }
+}
@@ -0,0 +1,73 @@
+package com.example.paymentservice.service;
+
+import com.example.paymentservice.domain.model.MerchantDailySummary;
+import com.example.paymentservice.domain.model.Payment;
+import com.example.paymentservice.domain.model.PaymentPage;
+import com.example.paymentservice.entity.PaymentErrorCode;
+import com.example.paymentservice.exception.PaymentException;
+import com.example.paymentservice.repository.MerchantRollupRepository;
+import com.example.paymentservice.repository.PaymentRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Merchant-facing read side: payment history and daily totals.
+ * History is keyset-paginated; totals come from the incrementally maintained daily rollups.
+ */
+@Service
+@RequiredArgsConstructor
+@Transactional(readOnly = true)
+public class MerchantService {
+
+    static final int DEFAULT_PAGE_SIZE = 50;
+    static final int MAX_PAGE_SIZE = 200;
+    static final int MAX_SUMMARY_DAYS = 366;
+
+    private final PaymentRepository paymentRepository;
+    private final MerchantRollupRepository merchantRollupRepository;
+
+    /**
+     * @param cursor {@link PaymentPage#getNextCursor()} of the previous page, or null for the newest payments
+     */
+    public PaymentPage getPayments(String merchantId, String cursor, Integer limit) {
+        int pageSize = limit == null ? DEFAULT_PAGE_SIZE : limit;
+        if (pageSize < 1 || pageSize > MAX_PAGE_SIZE) {
+            throw new PaymentException(PaymentErrorCode.INVALID_REQUEST.name(),
+                    "limit must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        PaymentPage.Cursor after;
+        try {
+            after = cursor == null ? null : PaymentPage.Cursor.decode(cursor);
+        } catch (IllegalArgumentException e) {
+            throw new PaymentException(PaymentErrorCode.INVALID_REQUEST.name(), e.getMessage());
+        }
+
+        // Fetch one extra row to know whether another page exists without a count query
+        List<Payment> rows = paymentRepository.findByMerchantId(merchantId, after, pageSize + 1);
+        if (rows.size() <= pageSize) {
+            return PaymentPage.builder().payments(rows).build();
+        }
+        List<Payment> payments = rows.subList(0, pageSize);
+        return PaymentPage.builder()
+                .payments(payments)
+                .nextCursor(PaymentPage.Cursor.after(payments.get(pageSize - 1)).encode())
+                .build();
+    }
+
+    /**
+     * Daily totals for {@code [from, to]}; defaults to the last 30 days.
+     */
+    public List<MerchantDailySummary> getDailySummaries(String merchantId, LocalDate from, LocalDate to) {
+        LocalDate end = to != null ? to : LocalDate.now();
+        LocalDate start = from != null ? from : end.minusDays(29);
+        if (start.isAfter(end) || start.plusDays(MAX_SUMMARY_DAYS).isBefore(end)) {
+            throw new PaymentException(PaymentErrorCode.INVALID_REQUEST.name(),
+                    "from must not be after to, and the range must be at most " + MAX_SUMMARY_DAYS + " days");
+        }
+        return merchantRollupRepository.findByMerchantId(merchantId, start, end);
+    }
+}
@@ -1,6 +1,8 @@
 package com.example.paymentservice.service;
 
 import com.example.paymentservice.config.MapTextMapGetter;
+import com.example.paymentservice.config.ShardRouter;
+import com.example.paymentservice.config.TraceParentCodec;
 import com.example.paymentservice.domain.model.EventOutbox;
 import com.example.paymentservice.entity.OutboxStatus;
 import com.example.paymentservice.repository.EventOutboxRepository;
@@ -15,7 +17,7 @@ import lombok.extern.slf4j.Slf4j;
 import org.slf4j.MDC;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -26,6 +28,9 @@ import java.util.stream.Collectors;
  * Processes events from the outbox table
  * Note: In microservices, events can be published to a message queue or processed via REST calls
  * This is a simplified version that can be extended
+ * <p>
+ * Every shard has its own outbox table (events are written in the payment's transaction), so each poll relays
+ * every database in its own transaction, in parallel when there are several.
  */
 @Service
 @RequiredArgsConstructor
@@ -34,6 +39,8 @@ public class OutboxProcessor {
 
     private final EventOutboxRepository outboxRepository;
     private final List<OutboxEventConsumer> outboxEventConsumers;
+    private final ShardRouter shardRouter;
+    private final TransactionTemplate transactionTemplate;
 
     private static final Tracer tracer = GlobalOpenTelemetry.getTracer("payment-outbox");
     private static final int MAX_RETRIES = 3;
@@ -54,8 +61,14 @@ public class OutboxProcessor {
      * Publishes events to Kafka using the Outbox Pattern
      */
     @Scheduled(fixedDelay = 2000)
-    @Transactional
     public void processOutboxEvents() {
+        shardRouter.onEveryShard(() -> transactionTemplate.execute(status -> {
+            processShardOutbox();
+            return null;
+        }));
+    }
+
+    private void processShardOutbox() {
         MDC.put("processType", "polling");
         try {
             // Get pending events with pessimistic lock to prevent concurrent processing
@@ -96,9 +109,10 @@ public class OutboxProcessor {
 
     private void processEvent(EventOutbox event) throws Exception {
         String traceparent = event.getTraceparent();
-        Map<String, String> carrier = Map.of(
-                "traceparent", traceparent
-        );
+        // Events saved without an active span have no traceparent (Map.of rejects null values)
+        Map<String, String> carrier = traceparent != null
+                ? Map.of(TraceParentCodec.HEADER, traceparent)
+                : Map.of();
 
         Context parent = GlobalOpenTelemetry.getPropagators()
                 .getTextMapPropagator()
@@ -111,7 +125,7 @@ public class OutboxProcessor {
         try (var scope = span.makeCurrent()) {
             // Mark as processing
             outboxRepository.updateStatus(event.getId(), OutboxStatus.PROCESSING, LocalDateTime.now());
-            log.info("Processing outbox event: id={}, eventType={}, traceparent={}", 
+            log.debug("Processing outbox event: id={}, eventType={}, traceparent={}", 
                     event.getId(), event.getEventType(), traceparent != null ? traceparent : "N/A");
             
             // Dispatch to the consumer registered for this event type
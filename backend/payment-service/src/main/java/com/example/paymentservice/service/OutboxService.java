@@ -1,5 +1,6 @@
 package com.example.paymentservice.service;
 
+import com.example.paymentservice.config.TraceParentCodec;
 import com.example.paymentservice.domain.model.EventOutbox;
 import com.example.paymentservice.entity.OutboxStatus;
 import com.example.paymentservice.repository.EventOutboxRepository;
@@ -13,6 +14,9 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.List;
+
 @Service
 @RequiredArgsConstructor
 @Slf4j
@@ -49,6 +53,31 @@ public class OutboxService {
         }
     }
 
+    /**
+     * Save several events of one type to the outbox within the same transaction, as batched inserts.
+     * They share the current traceparent.
+     */
+    @Transactional
+    public void saveEvents(String eventType, List<?> events) {
+        String traceparent = extractTraceParent();
+        List<EventOutbox> outbox = new ArrayList<>(events.size());
+        for (Object event : events) {
+            try {
+                outbox.add(EventOutbox.builder()
+                        .eventType(eventType)
+                        .eventData(objectMapper.writeValueAsString(event))
+                        .status(OutboxStatus.PENDING)
+                        .traceparent(traceparent)
+                        .build());
+            } catch (JsonProcessingException e) {
+                log.error("Failed to serialize event to JSON: eventType={}", eventType, e);
+                throw new RuntimeException("Failed to save event to outbox", e);
+            }
+        }
+        outboxRepository.saveAll(outbox);
+        log.debug("{} event(s) saved to outbox: eventType={}, traceparent={}", outbox.size(), eventType, traceparent);
+    }
+
     /**
      * Extract traceparent header from current OpenTelemetry context
      * Format: 00-{traceId}-{spanId}-{flags}
@@ -59,19 +88,13 @@ public class OutboxService {
             Span currentSpan = Span.fromContext(currentContext);
             SpanContext spanContext = currentSpan.getSpanContext();
             
-            if (spanContext.isValid()) {
-                // Format: traceparent = 00-{traceId}-{spanId}-{flags}
-                String traceId = spanContext.getTraceId();
-                String spanId = spanContext.getSpanId();
-                String traceFlags = String.format("%02x", spanContext.getTraceFlags().asByte());
-                
-                String traceparent = String.format("00-%s-%s-%s", traceId, spanId, traceFlags);
+            String traceparent = TraceParentCodec.format(spanContext);
+            if (traceparent != null) {
                 log.debug("Extracted traceparent: {}", traceparent);
-                return traceparent;
             } else {
                 log.debug("No valid span context found, traceparent will be null");
-                return null;
             }
+            return traceparent;
         } catch (Exception e) {
             log.warn("Failed to extract traceparent: {}", e.getMessage());
             return null;
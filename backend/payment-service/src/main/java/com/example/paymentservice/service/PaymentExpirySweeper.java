@@ -0,0 +1,79 @@
+package com.example.paymentservice.service;
+
+import com.example.paymentservice.config.ShardRouter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+/**
+ * Expires payments abandoned in PENDING or READY (QR never scanned, customer walked away) so they stop
+ * accumulating in status queries and the (status, created_at) index.
+ * <p>
+ * Each run expires up to {@code max-chunks-per-run} chunks of {@code chunk-size}, one short transaction and
+ * one outbox event per chunk. Chunks lock their rows with SKIP LOCKED, so every replica can run the sweeper:
+ * concurrent runs split the backlog between them instead of contending for it. With sharding, each database
+ * is swept separately (in parallel), and its chunks' events go to that database's outbox.
+ */
+@Component
+@Profile("!test")
+@Slf4j
+public class PaymentExpirySweeper {
+
+    private final PaymentService paymentService;
+    private final ShardRouter shardRouter;
+    private final Duration ttl;
+    private final int chunkSize;
+    private final int maxChunksPerRun;
+    private final Counter expiredCounter;
+
+    public PaymentExpirySweeper(PaymentService paymentService,
+                                ShardRouter shardRouter,
+                                MeterRegistry meterRegistry,
+                                @Value("${app.payments.expiry.ttl:30m}") Duration ttl,
+                                @Value("${app.payments.expiry.chunk-size:500}") int chunkSize,
+                                @Value("${app.payments.expiry.max-chunks-per-run:20}") int maxChunksPerRun) {
+        this.paymentService = paymentService;
+        this.shardRouter = shardRouter;
+        this.ttl = ttl;
+        this.chunkSize = chunkSize;
+        this.maxChunksPerRun = maxChunksPerRun;
+        this.expiredCounter = Counter.builder("payments.expired")
+                .description("Abandoned PENDING/READY payments moved to EXPIRED by the sweeper")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${app.payments.expiry.sweep-interval:60s}",
+            initialDelayString = "${app.payments.expiry.sweep-interval:60s}")
+    public void sweep() {
+        LocalDateTime cutoff = LocalDateTime.now().minus(ttl);
+        shardRouter.onEveryShard(() -> sweepShard(cutoff));
+    }
+
+    private int sweepShard(LocalDateTime cutoff) {
+        int total = 0;
+        try {
+            for (int chunk = 0; chunk < maxChunksPerRun; chunk++) {
+                int expired = paymentService.expireStalePayments(cutoff, chunkSize);
+                total += expired;
+                expiredCounter.increment(expired);
+                if (expired < chunkSize) {
+                    break;
+                }
+            }
+        } catch (Exception e) {
+            log.error("Payment expiry sweep failed after expiring {} payment(s): {}", total, e.getMessage(), e);
+            return total;
+        }
+        if (total > 0) {
+            log.info("Expired {} payment(s) created before {}", total, cutoff);
+        }
+        return total;
+    }
+}
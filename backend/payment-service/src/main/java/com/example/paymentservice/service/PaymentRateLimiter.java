@@ -0,0 +1,101 @@
+package com.example.paymentservice.service;
+
+import com.example.paymentservice.config.RateLimitProperties;
+import com.example.paymentservice.exception.RateLimitExceededException;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Per-endpoint rate limits for the expensive write endpoints, keyed by customer (user id) or merchant id.
+ * Each configured endpoint gets its own {@link TokenBucketRateLimiter}; limits are per instance.
+ * <p>
+ * Metrics per endpoint: {@code rate.limiter.requests{endpoint, result=allowed|throttled}},
+ * {@code rate.limiter.evictions} and the {@code rate.limiter.keys} gauge.
+ */
+@Service
+@Slf4j
+public class PaymentRateLimiter {
+
+    public static final String INITIATE = "initiate";
+    /** Charged one permit per item, so its capacity bounds the batch size a user can send. */
+    public static final String INITIATE_BATCH = "initiate-batch";
+    public static final String CREATE = "create";
+    public static final String PROCESS = "process";
+    public static final String REFUND = "refund";
+
+    private final Map<String, TokenBucketRateLimiter> limiters = new HashMap<>();
+
+    public PaymentRateLimiter(RateLimitProperties properties, MeterRegistry meterRegistry) {
+        if (!properties.enabled() || properties.endpoints() == null) {
+            return;
+        }
+        properties.endpoints().forEach((endpoint, limit) -> {
+            TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(
+                    limit.capacity(), limit.permitsPerSecond(), properties.stripes(), properties.maxKeysPerStripe());
+            limiters.put(endpoint, limiter);
+            registerMetrics(meterRegistry, endpoint, limiter);
+            log.info("Rate limit for {}: burst {}, {}/s per key", endpoint, limit.capacity(), limit.permitsPerSecond());
+        });
+    }
+
+    /**
+     * Takes a permit for {@code key} on {@code endpoint}; a no-op if the endpoint has no limit.
+     *
+     * @throws RateLimitExceededException if the key's bucket is empty
+     */
+    public void acquire(String endpoint, long key) {
+        acquire(endpoint, key, 1);
+    }
+
+    /**
+     * Takes {@code permits} permits for {@code key} on {@code endpoint} at once, e.g. one per item of a batch.
+     *
+     * @throws RateLimitExceededException if the key's bucket does not hold them all
+     * @throws IllegalArgumentException   if permits exceed the endpoint's capacity (a misconfigured limit)
+     */
+    public void acquire(String endpoint, long key, int permits) {
+        TokenBucketRateLimiter limiter = limiters.get(endpoint);
+        if (limiter == null) {
+            return;
+        }
+        long waitNanos = limiter.tryAcquire(key, permits);
+        if (waitNanos > 0) {
+            throw new RateLimitExceededException(endpoint, Duration.ofNanos(waitNanos));
+        }
+    }
+
+    /** String keys (merchant ids) are hashed to 64 bits; a null key is not limited. */
+    public void acquire(String endpoint, String key) {
+        if (key != null && limiters.containsKey(endpoint)) {
+            acquire(endpoint, TokenBucketRateLimiter.key(key));
+        }
+    }
+
+    private static void registerMetrics(MeterRegistry meterRegistry, String endpoint, TokenBucketRateLimiter limiter) {
+        FunctionCounter.builder("rate.limiter.requests", limiter, TokenBucketRateLimiter::allowed)
+                .description("Rate-limited requests by result")
+                .tag("endpoint", endpoint)
+                .tag("result", "allowed")
+                .register(meterRegistry);
+        FunctionCounter.builder("rate.limiter.requests", limiter, TokenBucketRateLimiter::throttled)
+                .description("Rate-limited requests by result")
+                .tag("endpoint", endpoint)
+                .tag("result", "throttled")
+                .register(meterRegistry);
+        FunctionCounter.builder("rate.limiter.evictions", limiter, TokenBucketRateLimiter::evicted)
+                .description("Partially drained buckets dropped because their stripe was full")
+                .tag("endpoint", endpoint)
+                .register(meterRegistry);
+        Gauge.builder("rate.limiter.keys", limiter, TokenBucketRateLimiter::size)
+                .description("Buckets currently tracked")
+                .tag("endpoint", endpoint)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,69 @@
+package com.example.paymentservice.service;
+
+import com.example.paymentservice.client.QRCodeClientService;
+import com.example.paymentservice.domain.model.Payment;
+import com.example.paymentservice.domain.model.QRCode;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+
+/**
+ * Single-flight layer for the polled read endpoints (GET /{id}, /{id}/status). The customer app, merchant POS
+ * and support tooling poll the same hot ids, so concurrent reads of one payment share a single DB load and
+ * a single QR lookup, and results stay shared for a short freshness window.
+ * <p>
+ * Only the read endpoints go through here: state transitions read the payment directly so they never
+ * act on a result that is up to one freshness window old.
+ */
+@Service
+public class PaymentReadCoalescer {
+
+    private final PaymentService paymentService;
+    private final QRCodeClientService qrCodeClientService;
+    private final SingleFlight<Long, Payment> payments;
+    private final SingleFlight<Long, QRCode> qrCodes;
+    private final SingleFlight<Long, Long> versions;
+
+    public PaymentReadCoalescer(PaymentService paymentService,
+                                QRCodeClientService qrCodeClientService,
+                                MeterRegistry meterRegistry,
+                                @Value("${app.payments.read-coalescing.freshness:100ms}") Duration freshness) {
+        this.paymentService = paymentService;
+        this.qrCodeClientService = qrCodeClientService;
+        this.payments = new SingleFlight<>(freshness);
+        this.qrCodes = new SingleFlight<>(freshness);
+        this.versions = new SingleFlight<>(freshness);
+        registerMetrics(meterRegistry, "payment", payments);
+        registerMetrics(meterRegistry, "qrCode", qrCodes);
+        registerMetrics(meterRegistry, "version", versions);
+    }
+
+    public Payment getPayment(Long id) {
+        return payments.load(id, paymentService::getPaymentById);
+    }
+
+    /** Payment version for If-None-Match checks: an index-only query, no row load and no QR call. */
+    public Long getVersion(Long id) {
+        return versions.load(id, paymentService::getPaymentVersion);
+    }
+
+    /** QR code of a payment; lookup failures (including not found) are shared but not kept. */
+    public QRCode getQRCode(Long paymentId) {
+        return qrCodes.load(paymentId, qrCodeClientService::getQRCode);
+    }
+
+    private static void registerMetrics(MeterRegistry meterRegistry, String read, SingleFlight<?, ?> singleFlight) {
+        FunctionCounter.builder("payment.read.coalescing", singleFlight, SingleFlight::loads)
+                .description("Coalesced reads: loads performed vs. calls served by a shared load")
+                .tag("read", read)
+                .tag("result", "load")
+                .register(meterRegistry);
+        FunctionCounter.builder("payment.read.coalescing", singleFlight, SingleFlight::shared)
+                .tag("read", read)
+                .tag("result", "shared")
+                .register(meterRegistry);
+    }
+}
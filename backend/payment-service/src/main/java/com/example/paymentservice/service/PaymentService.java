@@ -3,12 +3,16 @@ package com.example.paymentservice.service;
 import com.example.paymentservice.client.QRCodeClientService;
 import com.example.paymentservice.client.UserClientService;
 import com.example.paymentservice.client.WalletClientService;
+import com.example.paymentservice.config.ReplicaRoutingDataSource;
 import com.example.paymentservice.domain.model.Payment;
+import com.example.paymentservice.domain.model.PaymentTransition;
 import com.example.paymentservice.domain.model.QRCode;
 import com.example.paymentservice.dto.request.CreatePaymentRequest;
+import com.example.paymentservice.dto.request.InitiatePaymentBatchRequest;
 import com.example.paymentservice.dto.request.InitiatePaymentRequest;
 import com.example.paymentservice.dto.request.ProcessPaymentRequest;
 import com.example.paymentservice.dto.request.RefundPaymentRequest;
+import com.example.paymentservice.dto.response.InitiatePaymentBatchResponse;
 import com.example.paymentservice.dto.response.InitiatePaymentResponse;
 import com.example.paymentservice.entity.PaymentErrorCode;
 import com.example.paymentservice.entity.PaymentStatus;
@@ -20,9 +24,12 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.math.BigDecimal;
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 
@@ -41,11 +48,19 @@ import java.util.Optional;
 @Slf4j
 public class PaymentService {
 
+    static final Duration DEFAULT_LIST_LOOKBACK = Duration.ofDays(30);
+
+    /** Statuses a payment can be abandoned in: nothing has been deducted yet. */
+    static final List<PaymentStatus> EXPIRABLE_STATUSES = List.of(PaymentStatus.PENDING, PaymentStatus.READY);
+
     private final PaymentRepository paymentPersistencePort;
     private final QRCodeClientService qrCodeClientService;
     private final WalletClientService walletClientService;
     private final UserClientService userClientService;
     private final OutboxService outboxService;
+    private final PaymentVelocityChecker paymentVelocityChecker;
+    /** Payment + outbox writes of the request flows, which call them on {@code this} (no proxy). */
+    private final TransactionTemplate transactionTemplate;
 
     /**
      * Step 1 & 2: User initiates payment.
@@ -57,7 +72,7 @@ public class PaymentService {
     public InitiatePaymentResponse initiatePayment(InitiatePaymentRequest request, String idempotencyKey) {
         // 1. Idempotency check (before any processing)
         if (idempotencyKey != null) {
-            Optional<Payment> existing = paymentPersistencePort.findByIdempotencyKey(idempotencyKey);
+            Optional<Payment> existing = findByIdempotencyKeyOnPrimary(idempotencyKey);
             if (existing.isPresent()) {
                 Payment payment = existing.get();
                 log.info("Duplicate request detected for idempotencyKey: {}, returning existing payment: {}",
@@ -73,20 +88,10 @@ public class PaymentService {
         }
 
         // 2. Validate user conditions (HTTP call - OUTSIDE transaction, protected by circuit breaker)
-        try {
-            if (!userClientService.validateUserConditions(request.getUserId())) {
-                throw new PaymentException(
-                        PaymentErrorCode.USER_VALIDATION_FAILED.name(),
-                        "User does not meet business conditions");
-            }
-        } catch (CallNotPermittedException e) {
-            throw new PaymentException(
-                    PaymentErrorCode.SERVICE_UNAVAILABLE.name(),
-                    "User service is temporarily unavailable. Please retry later.");
-        }
+        validateUser(request.getUserId());
 
-        // 3. Short transaction: save payment + outbox event
-        Payment savedPayment = saveInitiatedPayment(request, idempotencyKey);
+        // 3. Short transaction: save payment + outbox event (on the customer's shard)
+        Payment savedPayment = transactionTemplate.execute(status -> saveInitiatedPayment(request, idempotencyKey));
 
         log.info("Payment initiated. Payment id: {}, User id: {} - PaymentCreatedEvent published. " +
                 "QR code will be generated asynchronously.", savedPayment.getId(), request.getUserId());
@@ -100,8 +105,107 @@ public class PaymentService {
                 .build();
     }
 
-    @Transactional
-    protected Payment saveInitiatedPayment(InitiatePaymentRequest request, String idempotencyKey) {
+    /**
+     * Initiates several payments for one user, e.g. QR payments a kiosk prints ahead of time.
+     * The user is validated once, and the payments and their outbox events are inserted in batches in
+     * one transaction. With an idempotency key, item {@code i} gets the key {@code <key>:<i>}; a repeated
+     * request returns the payments of the first one.
+     */
+    public InitiatePaymentBatchResponse initiatePayments(InitiatePaymentBatchRequest request, String idempotencyKey) {
+        // 1. Idempotency check: the first item's key stands for the batch, which was saved in one transaction
+        if (idempotencyKey != null) {
+            Optional<Payment> existing = findByIdempotencyKeyOnPrimary(itemIdempotencyKey(idempotencyKey, 0));
+            if (existing.isPresent()) {
+                log.info("Duplicate batch request detected for idempotencyKey: {}", idempotencyKey);
+                List<InitiatePaymentResponse> payments = new ArrayList<>(request.getItems().size());
+                for (int i = 0; i < request.getItems().size(); i++) {
+                    Optional<Payment> payment = i == 0 ? existing
+                            : findByIdempotencyKeyOnPrimary(itemIdempotencyKey(idempotencyKey, i));
+                    payments.add(payment
+                            .map(p -> initiated(p, "Payment already initiated. Please poll payment status to get QR code."))
+                            .orElseGet(() -> InitiatePaymentResponse.builder()
+                                    .success(false)
+                                    .message("Not part of the batch first sent with this idempotency key")
+                                    .build()));
+                }
+                return InitiatePaymentBatchResponse.builder().payments(payments).build();
+            }
+        }
+
+        // 2. Validate user conditions once for the whole batch
+        validateUser(request.getUserId());
+
+        // 3. Short transaction: all payments + outbox events, batched, on the customer's shard
+        List<Payment> saved = transactionTemplate.execute(status -> saveInitiatedPayments(request, idempotencyKey));
+
+        log.info("{} payment(s) initiated in a batch. User id: {} - PaymentCreatedEvents published.",
+                saved.size(), request.getUserId());
+
+        return InitiatePaymentBatchResponse.builder()
+                .payments(saved.stream()
+                        .map(p -> initiated(p, "Payment initiated successfully. Please poll payment status to get QR code."))
+                        .toList())
+                .build();
+    }
+
+    private List<Payment> saveInitiatedPayments(InitiatePaymentBatchRequest request, String idempotencyKey) {
+        List<Payment> payments = new ArrayList<>(request.getItems().size());
+        for (int i = 0; i < request.getItems().size(); i++) {
+            payments.add(Payment.builder()
+                    .amount(BigDecimal.ZERO)
+                    .currency("USD")
+                    .status(PaymentStatus.PENDING)
+                    .customerId(request.getUserId().toString())
+                    .description(request.getItems().get(i).getDescription())
+                    .idempotencyKey(idempotencyKey != null ? itemIdempotencyKey(idempotencyKey, i) : null)
+                    .build());
+        }
+        List<Payment> saved = paymentPersistencePort.saveAll(payments);
+
+        LocalDateTime now = LocalDateTime.now();
+        outboxService.saveEvents("PaymentCreatedEvent", saved.stream()
+                .map(payment -> PaymentCreatedEvent.builder()
+                        .paymentId(payment.getId())
+                        .amount(payment.getAmount())
+                        .currency(payment.getCurrency())
+                        .merchantId(payment.getMerchantId())
+                        .customerId(payment.getCustomerId())
+                        .description(payment.getDescription())
+                        .timestamp(now)
+                        .build())
+                .toList());
+        return saved;
+    }
+
+    private static String itemIdempotencyKey(String idempotencyKey, int index) {
+        return idempotencyKey + ":" + index;
+    }
+
+    private static InitiatePaymentResponse initiated(Payment payment, String message) {
+        return InitiatePaymentResponse.builder()
+                .transactionId(payment.getId())
+                .qrCode(null)
+                .message(message)
+                .success(true)
+                .expiresAt(null)
+                .build();
+    }
+
+    private void validateUser(Long userId) {
+        try {
+            if (!userClientService.validateUserConditions(userId)) {
+                throw new PaymentException(
+                        PaymentErrorCode.USER_VALIDATION_FAILED.name(),
+                        "User does not meet business conditions");
+            }
+        } catch (CallNotPermittedException e) {
+            throw new PaymentException(
+                    PaymentErrorCode.SERVICE_UNAVAILABLE.name(),
+                    "User service is temporarily unavailable. Please retry later.");
+        }
+    }
+
+    private Payment saveInitiatedPayment(InitiatePaymentRequest request, String idempotencyKey) {
         Payment domain = Payment.builder()
                 .amount(BigDecimal.ZERO)
                 .currency("USD")
@@ -161,17 +265,39 @@ public class PaymentService {
         return saved;
     }
 
+    @Transactional(readOnly = true)
     public Payment getPaymentById(Long id) {
         return paymentPersistencePort.findById(id)
                 .orElseThrow(() -> new PaymentNotFoundException(id));
     }
 
-    public List<Payment> getAllPayments() {
-        return paymentPersistencePort.findAll();
+    /** The payment as the primary has it, for decisions that must not see replica lag. */
+    public Payment getPaymentByIdOnPrimary(Long id) {
+        return getPaymentOnPrimary(id);
+    }
+
+    /** Version of the payment (its ETag) without loading the row. */
+    public Long getPaymentVersion(Long id) {
+        return paymentPersistencePort.findVersionById(id)
+                .orElseThrow(() -> new PaymentNotFoundException(id));
+    }
+
+    /**
+     * Payments created since {@code createdAfter}, or within the last {@link #DEFAULT_LIST_LOOKBACK} when null.
+     * Lists are always time-bounded so they only scan the recent monthly partitions.
+     */
+    @Transactional(readOnly = true)
+    public List<Payment> getAllPayments(LocalDateTime createdAfter) {
+        return paymentPersistencePort.findCreatedAfter(listLowerBound(createdAfter));
+    }
+
+    @Transactional(readOnly = true)
+    public List<Payment> getPaymentsByStatus(PaymentStatus status, LocalDateTime createdAfter) {
+        return paymentPersistencePort.findByStatus(status, listLowerBound(createdAfter));
     }
 
-    public List<Payment> getPaymentsByStatus(PaymentStatus status) {
-        return paymentPersistencePort.findByStatus(status);
+    private LocalDateTime listLowerBound(LocalDateTime createdAfter) {
+        return createdAfter != null ? createdAfter : LocalDateTime.now().minus(DEFAULT_LIST_LOOKBACK);
     }
 
     /**
@@ -185,7 +311,7 @@ public class PaymentService {
     public Payment processPayment(Long paymentId, ProcessPaymentRequest request, String idempotencyKey) {
         // 1. Idempotency check
         if (idempotencyKey != null) {
-            Optional<Payment> existing = paymentPersistencePort.findByIdempotencyKey(idempotencyKey);
+            Optional<Payment> existing = findByIdempotencyKeyOnPrimary(idempotencyKey);
             if (existing.isPresent()) {
                 log.info("Duplicate process request for idempotencyKey: {}, returning existing payment: {}",
                         idempotencyKey, existing.get().getId());
@@ -193,8 +319,8 @@ public class PaymentService {
             }
         }
 
-        // 2. Quick state validation (read-only, no transaction needed)
-        Payment payment = getPaymentById(paymentId);
+        // 2. Quick state validation (read-only, no transaction needed; primary, the transition depends on it)
+        Payment payment = getPaymentOnPrimary(paymentId);
         if (payment.getStatus() != PaymentStatus.READY) {
             throw new PaymentException(
                     PaymentErrorCode.INVALID_PAYMENT_STATE.name(),
@@ -229,63 +355,95 @@ public class PaymentService {
                     "QR code is not active. Status: " + qrCode.getStatus());
         }
 
-        // 4. Deduct from wallet (HTTP call - OUTSIDE transaction, protected by circuit breaker)
-        Long userId = Long.parseLong(payment.getCustomerId());
+        // 4. Velocity limits (in memory): counted now, taken back below if the payment does not complete
+        long velocityCountedAt = paymentVelocityChecker.acquire(
+                paymentId, payment.getCustomerId(), request.getMerchantId(), request.getAmount());
         try {
-            walletClientService.deductFromWallet(userId, request.getAmount());
-        } catch (CallNotPermittedException e) {
-            throw new PaymentException(
-                    PaymentErrorCode.SERVICE_UNAVAILABLE.name(),
-                    "Wallet service is temporarily unavailable. Please retry later.");
-        } catch (WalletClientService.InsufficientBalanceException e) {
-            throw new PaymentException(
-                    PaymentErrorCode.INSUFFICIENT_BALANCE.name(),
-                    "Insufficient available wallet balance");
-        } catch (WalletClientService.WalletServiceException e) {
-            throw new PaymentException(
-                    PaymentErrorCode.WALLET_SERVICE_ERROR.name(),
-                    "Wallet service error: " + e.getMessage());
-        }
+            // 5. Deduct from wallet (HTTP call - OUTSIDE transaction, protected by circuit breaker)
+            Long userId = Long.parseLong(payment.getCustomerId());
+            try {
+                walletClientService.deductFromWallet(userId, request.getAmount());
+            } catch (CallNotPermittedException e) {
+                throw new PaymentException(
+                        PaymentErrorCode.SERVICE_UNAVAILABLE.name(),
+                        "Wallet service is temporarily unavailable. Please retry later.");
+            } catch (WalletClientService.InsufficientBalanceException e) {
+                throw new PaymentException(
+                        PaymentErrorCode.INSUFFICIENT_BALANCE.name(),
+                        "Insufficient available wallet balance");
+            } catch (WalletClientService.WalletServiceException e) {
+                throw new PaymentException(
+                        PaymentErrorCode.WALLET_SERVICE_ERROR.name(),
+                        "Wallet service error: " + e.getMessage());
+            }
 
-        // 5. Short transaction: update payment status + save outbox event
-        return saveCompletedPayment(paymentId, request, idempotencyKey);
+            // 6. Short transaction: compare-and-set READY -> COMPLETED + save outbox event
+            return transactionTemplate.execute(status -> saveCompletedPayment(payment, request, idempotencyKey))
+                    .orElseThrow(() -> reverseLostDeduction(payment, request.getAmount()));
+        } catch (RuntimeException e) {
+            paymentVelocityChecker.release(paymentId, payment.getCustomerId(), request.getMerchantId(),
+                    request.getAmount(), velocityCountedAt);
+            throw e;
+        }
     }
 
-    @Transactional
-    protected Payment saveCompletedPayment(Long paymentId, ProcessPaymentRequest request, String idempotencyKey) {
-        Payment current = paymentPersistencePort.findById(paymentId)
-                .orElseThrow(() -> new PaymentNotFoundException(paymentId));
-
-        Payment updated = Payment.builder()
-                .id(current.getId())
+    private Optional<Payment> saveCompletedPayment(Payment current, ProcessPaymentRequest request,
+                                                     String idempotencyKey) {
+        PaymentTransition transition = PaymentTransition.builder()
+                .targetStatus(PaymentStatus.COMPLETED)
                 .amount(request.getAmount())
                 .currency(request.getCurrency().toUpperCase())
                 .merchantId(request.getMerchantId())
-                .customerId(current.getCustomerId())
                 .description(request.getDescription())
-                .status(PaymentStatus.COMPLETED)
                 .idempotencyKey(idempotencyKey)
-                .errorCode(current.getErrorCode())
-                .errorMessage(current.getErrorMessage())
-                .createdAt(current.getCreatedAt())
-                .updatedAt(current.getUpdatedAt())
                 .build();
 
-        Payment saved = paymentPersistencePort.save(updated);
+        if (!paymentPersistencePort.transitionStatus(current.getId(), PaymentStatus.READY, transition)) {
+            return Optional.empty();
+        }
 
         PaymentProcessedEvent event = PaymentProcessedEvent.builder()
-                .paymentId(paymentId)
+                .paymentId(current.getId())
+                .customerId(current.getCustomerId())
                 .qrCode(request.getQrCode())
                 .amount(request.getAmount())
                 .currency(request.getCurrency())
+                .merchantId(request.getMerchantId())
+                .description(request.getDescription())
                 .timestamp(LocalDateTime.now())
                 .build();
 
         outboxService.saveEvent("PaymentProcessedEvent", event);
 
         log.info("Payment completed. Payment id: {}, Amount: {}, Merchant: {} - Wallet deducted",
-                paymentId, request.getAmount(), request.getMerchantId());
-        return saved;
+                current.getId(), request.getAmount(), request.getMerchantId());
+        return Optional.of(transition.applyTo(current));
+    }
+
+    /**
+     * The wallet was already debited but a concurrent transition (cancel, duplicate process) won the
+     * READY -> COMPLETED race: credit the amount back and report the state conflict.
+     */
+    private PaymentException reverseLostDeduction(Payment payment, BigDecimal amount) {
+        Long userId = Long.parseLong(payment.getCustomerId());
+        try {
+            walletClientService.addToWallet(userId, amount, "Reversal for payment: " + payment.getId());
+        } catch (Exception e) {
+            log.error("Failed to reverse wallet deduction after lost transition. Payment id: {}, User id: {}, Amount: {}",
+                    payment.getId(), userId, amount, e);
+        }
+        return concurrentModification(payment.getId(), "processed");
+    }
+
+    private PaymentException concurrentModification(Long paymentId, String action) {
+        PaymentStatus current = ReplicaRoutingDataSource.onPrimary(() -> paymentPersistencePort.findById(paymentId))
+                .map(Payment::getStatus)
+                .orElse(null);
+        log.warn("Lost status transition race. Payment id: {}, Action: {}, Current status: {}",
+                paymentId, action, current);
+        return new PaymentException(
+                PaymentErrorCode.INVALID_PAYMENT_STATE.name(),
+                "Payment cannot be " + action + ". It was modified concurrently, current status: " + current);
     }
 
     /**
@@ -303,23 +461,52 @@ public class PaymentService {
                             ". Only PENDING or READY payments can be cancelled.");
         }
 
-        Payment updated = Payment.builder()
-                .id(payment.getId())
-                .amount(payment.getAmount())
-                .currency(payment.getCurrency())
-                .status(PaymentStatus.CANCELLED)
-                .merchantId(payment.getMerchantId())
-                .customerId(payment.getCustomerId())
-                .description(payment.getDescription())
-                .idempotencyKey(payment.getIdempotencyKey())
-                .errorCode(payment.getErrorCode())
-                .errorMessage(payment.getErrorMessage())
-                .createdAt(payment.getCreatedAt())
-                .updatedAt(payment.getUpdatedAt())
+        PaymentTransition transition = PaymentTransition.builder()
+                .targetStatus(PaymentStatus.CANCELLED)
+                .build();
+
+        // The QR consumer may move PENDING -> READY between the read and the update; READY is still cancellable
+        boolean cancelled = paymentPersistencePort.transitionStatus(paymentId, payment.getStatus(), transition)
+                || (payment.getStatus() == PaymentStatus.PENDING
+                && paymentPersistencePort.transitionStatus(paymentId, PaymentStatus.READY, transition));
+        if (!cancelled) {
+            throw concurrentModification(paymentId, "cancelled");
+        }
+
+        PaymentCancelledEvent event = PaymentCancelledEvent.builder()
+                .paymentId(paymentId)
+                .reason(reason)
+                .timestamp(LocalDateTime.now())
                 .build();
+        outboxService.saveEvent("PaymentCancelledEvent", event);
 
         log.info("Payment cancelled. Payment id: {}, Reason: {}", paymentId, reason);
-        return paymentPersistencePort.save(updated);
+        return transition.applyTo(payment);
+    }
+
+    /**
+     * Expire one chunk of abandoned payments: PENDING/READY payments created before {@code createdBefore}.
+     * A single PaymentsExpiredEvent with the chunk's ids is saved to the outbox in the same transaction,
+     * so downstream QR deactivation covers exactly the payments that were expired.
+     *
+     * @return number of payments expired; fewer than {@code limit} means no unlocked stale payment is left
+     */
+    @Transactional
+    public int expireStalePayments(LocalDateTime createdBefore, int limit) {
+        LocalDateTime now = LocalDateTime.now();
+        List<Long> expiredIds = paymentPersistencePort.expireStale(EXPIRABLE_STATUSES, createdBefore, limit, now);
+        if (expiredIds.isEmpty()) {
+            return 0;
+        }
+
+        PaymentsExpiredEvent event = PaymentsExpiredEvent.builder()
+                .paymentIds(expiredIds)
+                .timestamp(now)
+                .build();
+        outboxService.saveEvent("PaymentsExpiredEvent", event);
+
+        log.debug("Expired {} payment(s) created before {}: {}", expiredIds.size(), createdBefore, expiredIds);
+        return expiredIds.size();
     }
 
     /**
@@ -331,7 +518,7 @@ public class PaymentService {
     public Payment refundPayment(Long paymentId, RefundPaymentRequest request, String idempotencyKey) {
         // 1. Idempotency check
         if (idempotencyKey != null) {
-            Optional<Payment> existing = paymentPersistencePort.findByIdempotencyKey(idempotencyKey);
+            Optional<Payment> existing = findByIdempotencyKeyOnPrimary(idempotencyKey);
             if (existing.isPresent() && existing.get().getStatus() == PaymentStatus.REFUNDED) {
                 log.info("Duplicate refund request for idempotencyKey: {}, returning existing payment: {}",
                         idempotencyKey, existing.get().getId());
@@ -339,7 +526,7 @@ public class PaymentService {
             }
         }
 
-        Payment payment = getPaymentById(paymentId);
+        Payment payment = getPaymentOnPrimary(paymentId);
 
         if (payment.getStatus() != PaymentStatus.COMPLETED) {
             throw new PaymentException(
@@ -368,35 +555,27 @@ public class PaymentService {
                     "Failed to refund to wallet: " + e.getMessage());
         }
 
-        // 3. Short transaction: update payment + outbox event
-        return saveRefundedPayment(paymentId, request, idempotencyKey);
+        // 3. Short transaction: compare-and-set COMPLETED -> REFUNDED + outbox event
+        return transactionTemplate.execute(status -> saveRefundedPayment(payment, request, idempotencyKey))
+                .orElseThrow(() -> reverseLostRefund(payment, request.getAmount()));
     }
 
-    @Transactional
-    protected Payment saveRefundedPayment(Long paymentId, RefundPaymentRequest request, String idempotencyKey) {
-        Payment current = paymentPersistencePort.findById(paymentId)
-                .orElseThrow(() -> new PaymentNotFoundException(paymentId));
-
-        Payment updated = Payment.builder()
-                .id(current.getId())
-                .amount(current.getAmount())
-                .currency(current.getCurrency())
-                .status(PaymentStatus.REFUNDED)
-                .merchantId(current.getMerchantId())
-                .customerId(current.getCustomerId())
-                .description(current.getDescription())
-                .idempotencyKey(idempotencyKey != null ? idempotencyKey : current.getIdempotencyKey())
-                .errorCode(current.getErrorCode())
-                .errorMessage(current.getErrorMessage())
-                .createdAt(current.getCreatedAt())
-                .updatedAt(current.getUpdatedAt())
+    private Optional<Payment> saveRefundedPayment(Payment current, RefundPaymentRequest request,
+                                                    String idempotencyKey) {
+        PaymentTransition transition = PaymentTransition.builder()
+                .targetStatus(PaymentStatus.REFUNDED)
+                .idempotencyKey(idempotencyKey)
                 .build();
 
-        Payment saved = paymentPersistencePort.save(updated);
+        if (!paymentPersistencePort.transitionStatus(current.getId(), PaymentStatus.COMPLETED, transition)) {
+            return Optional.empty();
+        }
 
         PaymentRefundedEvent event = PaymentRefundedEvent.builder()
-                .paymentId(saved.getId())
+                .paymentId(current.getId())
+                .merchantId(current.getMerchantId())
                 .refundAmount(request.getAmount())
+                .currency(current.getCurrency())
                 .reason(request.getReason())
                 .timestamp(LocalDateTime.now())
                 .build();
@@ -404,8 +583,36 @@ public class PaymentService {
         outboxService.saveEvent("PaymentRefundedEvent", event);
 
         log.info("Payment refunded. Payment id: {}, Refund amount: {} - Wallet credited",
-                paymentId, request.getAmount());
-        return saved;
+                current.getId(), request.getAmount());
+        return Optional.of(transition.applyTo(current));
+    }
+
+    /**
+     * The wallet was already credited but a concurrent refund won the COMPLETED -> REFUNDED race:
+     * take the duplicate credit back and report the state conflict.
+     */
+    private PaymentException reverseLostRefund(Payment payment, BigDecimal amount) {
+        Long userId = Long.parseLong(payment.getCustomerId());
+        try {
+            walletClientService.deductFromWallet(userId, amount);
+        } catch (Exception e) {
+            log.error("Failed to reverse wallet credit after lost transition. Payment id: {}, User id: {}, Amount: {}",
+                    payment.getId(), userId, amount, e);
+        }
+        return concurrentModification(payment.getId(), "refunded");
+    }
+
+    /**
+     * Reads that decide a write (idempotency, state checks before a transition) must not see
+     * replica lag, so they are pinned to the primary pool.
+     */
+    private Payment getPaymentOnPrimary(Long id) {
+        return ReplicaRoutingDataSource.onPrimary(() -> paymentPersistencePort.findById(id))
+                .orElseThrow(() -> new PaymentNotFoundException(id));
+    }
+
+    private Optional<Payment> findByIdempotencyKeyOnPrimary(String idempotencyKey) {
+        return ReplicaRoutingDataSource.onPrimary(() -> paymentPersistencePort.findByIdempotencyKey(idempotencyKey));
     }
 
     // Event DTOs for outbox
@@ -429,9 +636,12 @@ public class PaymentService {
     @lombok.AllArgsConstructor
     public static class PaymentProcessedEvent {
         private Long paymentId;
+        private String customerId;
         private String qrCode;
         private BigDecimal amount;
         private String currency;
+        private String merchantId;
+        private String description;
         private LocalDateTime timestamp;
     }
     
@@ -441,8 +651,29 @@ public class PaymentService {
     @lombok.AllArgsConstructor
     public static class PaymentRefundedEvent {
         private Long paymentId;
+        private String merchantId;
         private BigDecimal refundAmount;
+        private String currency;
         private String reason;
         private LocalDateTime timestamp;
     }
+
+    @lombok.Builder
+    @lombok.Data
+    @lombok.NoArgsConstructor
+    @lombok.AllArgsConstructor
+    public static class PaymentCancelledEvent {
+        private Long paymentId;
+        private String reason;
+        private LocalDateTime timestamp;
+    }
+
+    @lombok.Builder
+    @lombok.Data
+    @lombok.NoArgsConstructor
+    @lombok.AllArgsConstructor
+    public static class PaymentsExpiredEvent {
+        private List<Long> paymentIds;
+        private LocalDateTime timestamp;
+    }
 }
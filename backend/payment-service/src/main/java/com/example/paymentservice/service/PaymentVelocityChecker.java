@@ -0,0 +1,185 @@
+package com.example.paymentservice.service;
+
+import com.example.paymentservice.config.VelocityProperties;
+import com.example.paymentservice.entity.PaymentErrorCode;
+import com.example.paymentservice.exception.PaymentException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.LongSupplier;
+
+/**
+ * Velocity limits (payments and amount per customer or merchant over a sliding window), checked in memory
+ * before the wallet is debited, so the check adds no database or network round trip.
+ * <p>
+ * Each configured limit is a {@link SlidingWindowCounter}. {@link #acquire} counts the payment against every
+ * limit, or against none if one of them is exceeded; if the payment then does not complete, {@link #release}
+ * takes it back. Payments completed elsewhere (other replicas, or before this instance started) come in
+ * through {@link #record} from payment.processed, so every replica converges on the same windows; this
+ * instance's own payments are recognised by id and not counted twice.
+ * <p>
+ * Amounts are compared in minor units (2 decimals), whatever the currency.
+ */
+@Service
+@Slf4j
+public class PaymentVelocityChecker {
+
+    private static final int ECHO_SLOT_BITS = 17;
+
+    private final List<Limit> limits = new ArrayList<>();
+    /**
+     * Ids of payments counted here, until their payment.processed event comes back. Direct-mapped and lock
+     * free: an id hashing to an occupied slot replaces the older one, whose event is then counted a second
+     * time (erring on the strict side) - rare with 128k slots and events arriving within seconds.
+     */
+    private final AtomicLongArray recordedHere = new AtomicLongArray(1 << ECHO_SLOT_BITS);
+    private final LongSupplier clock;
+    private final Counter allowedCounter;
+    private final Counter rejectedCounter;
+
+    @Autowired
+    public PaymentVelocityChecker(VelocityProperties properties, MeterRegistry meterRegistry) {
+        this(properties, meterRegistry, System::currentTimeMillis);
+    }
+
+    PaymentVelocityChecker(VelocityProperties properties, MeterRegistry meterRegistry, LongSupplier clock) {
+        this.clock = clock;
+        this.allowedCounter = checkCounter(meterRegistry, "allowed");
+        this.rejectedCounter = checkCounter(meterRegistry, "rejected");
+        if (!properties.enabled() || properties.limits() == null) {
+            return;
+        }
+        properties.limits().forEach((name, limit) -> {
+            SlidingWindowCounter counter = new SlidingWindowCounter(limit.window(), limit.buckets(),
+                    properties.stripes(), properties.maxKeysPerStripe());
+            limits.add(new Limit(name, limit.scope(), limit.window(), counter,
+                    limit.maxCount() != null ? limit.maxCount() : Long.MAX_VALUE,
+                    limit.maxAmount() != null ? minorUnits(limit.maxAmount()) : Long.MAX_VALUE));
+            registerMetrics(meterRegistry, name, counter);
+            log.info("Velocity limit {}: per {} over {}, at most {} payment(s) and {} in total",
+                    name, limit.scope(), limit.window(), limit.maxCount(), limit.maxAmount());
+        });
+    }
+
+    /**
+     * Counts the payment against every limit.
+     *
+     * @return the time it was counted at, for {@link #release}
+     * @throws PaymentException VELOCITY_LIMIT_EXCEEDED (nothing counted) if a limit would be exceeded
+     */
+    public long acquire(Long paymentId, String customerId, String merchantId, BigDecimal amount) {
+        long now = clock.getAsLong();
+        long minor = minorUnits(amount);
+        for (int i = 0; i < limits.size(); i++) {
+            Limit limit = limits.get(i);
+            Long key = limit.key(customerId, merchantId);
+            if (key != null && !limit.counter().tryAdd(key, minor, limit.maxCount(), limit.maxAmount(), now)) {
+                for (int j = 0; j < i; j++) {
+                    Limit counted = limits.get(j);
+                    Long countedKey = counted.key(customerId, merchantId);
+                    if (countedKey != null) {
+                        counted.counter().remove(countedKey, minor, now);
+                    }
+                }
+                rejectedCounter.increment();
+                log.warn("Velocity limit {} exceeded. Payment id: {}, Customer: {}, Merchant: {}, Amount: {}",
+                        limit.name(), paymentId, customerId, merchantId, amount);
+                throw new PaymentException(PaymentErrorCode.VELOCITY_LIMIT_EXCEEDED.name(),
+                        "Payment exceeds the " + limit.name() + " velocity limit");
+            }
+        }
+        if (!limits.isEmpty()) {
+            recordedHere.set(echoSlot(paymentId), paymentId);
+        }
+        allowedCounter.increment();
+        return now;
+    }
+
+    /** Takes back a payment counted by {@link #acquire} at {@code acquiredAt} that did not complete. */
+    public void release(Long paymentId, String customerId, String merchantId, BigDecimal amount, long acquiredAt) {
+        long minor = minorUnits(amount);
+        for (Limit limit : limits) {
+            Long key = limit.key(customerId, merchantId);
+            if (key != null) {
+                limit.counter().remove(key, minor, acquiredAt);
+            }
+        }
+        recordedHere.compareAndSet(echoSlot(paymentId), paymentId, 0);
+    }
+
+    /** Counts a payment completed at {@code completedAt} (epoch millis), unless this instance counted it already. */
+    public void record(Long paymentId, String customerId, String merchantId, BigDecimal amount, long completedAt) {
+        if (recordedHere.compareAndSet(echoSlot(paymentId), paymentId, 0)) {
+            return;
+        }
+        long minor = minorUnits(amount);
+        for (Limit limit : limits) {
+            Long key = limit.key(customerId, merchantId);
+            if (key != null) {
+                limit.counter().add(key, minor, completedAt);
+            }
+        }
+    }
+
+    /** How far back payments can still count, i.e. how much history a rebuild has to replay. */
+    public Duration longestWindow() {
+        return limits.stream().map(Limit::window).max(Duration::compareTo).orElse(Duration.ZERO);
+    }
+
+    /** Fibonacci hashing: snowflake ids differ mostly in their high and lowest bits. */
+    private static int echoSlot(long paymentId) {
+        return (int) ((paymentId * 0x9E3779B97F4A7C15L) >>> (64 - ECHO_SLOT_BITS));
+    }
+
+    private static long minorUnits(BigDecimal amount) {
+        return amount == null ? 0 : amount.movePointRight(2).setScale(0, RoundingMode.HALF_UP).longValueExact();
+    }
+
+    private static Counter checkCounter(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("velocity.checks")
+                .description("Velocity checks by result")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    private static void registerMetrics(MeterRegistry meterRegistry, String name, SlidingWindowCounter counter) {
+        FunctionCounter.builder("velocity.evictions", counter, SlidingWindowCounter::evicted)
+                .description("Keys dropped from a velocity limit because their stripe was full")
+                .tag("limit", name)
+                .register(meterRegistry);
+        Gauge.builder("velocity.keys", counter, SlidingWindowCounter::size)
+                .description("Keys currently tracked by a velocity limit")
+                .tag("limit", name)
+                .register(meterRegistry);
+    }
+
+    private record Limit(String name, VelocityProperties.Scope scope, Duration window,
+                         SlidingWindowCounter counter, long maxCount, long maxAmount) {
+
+        /** Customer ids are user ids; merchant ids are hashed. Null if the payment has no such party. */
+        Long key(String customerId, String merchantId) {
+            if (scope == VelocityProperties.Scope.CUSTOMER) {
+                if (customerId == null) {
+                    return null;
+                }
+                try {
+                    return Long.parseLong(customerId);
+                } catch (NumberFormatException e) {
+                    return TokenBucketRateLimiter.key(customerId);
+                }
+            }
+            return merchantId == null ? null : TokenBucketRateLimiter.key(merchantId);
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package com.example.paymentservice.service;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Per-key request coalescing: concurrent {@link #load} calls for the same key share one in-flight loader
+ * invocation, and a successful result keeps being served for {@code freshness} after it completes.
+ * <p>
+ * Failures are shared with callers already waiting but never kept, so the next call loads again.
+ * A zero freshness only coalesces calls that overlap the load itself.
+ */
+public final class SingleFlight<K, V> {
+
+    private final ConcurrentMap<K, CompletableFuture<V>> flights = new ConcurrentHashMap<>();
+    private final long freshnessNanos;
+    private final LongAdder loads = new LongAdder();
+    private final LongAdder shared = new LongAdder();
+
+    public SingleFlight(Duration freshness) {
+        this.freshnessNanos = freshness.toNanos();
+    }
+
+    public V load(K key, Function<? super K, ? extends V> loader) {
+        CompletableFuture<V> flight = new CompletableFuture<>();
+        CompletableFuture<V> existing = flights.putIfAbsent(key, flight);
+        if (existing != null) {
+            shared.increment();
+            return join(existing);
+        }
+        loads.increment();
+        try {
+            V value = loader.apply(key);
+            flight.complete(value);
+            expire(key, flight);
+            return value;
+        } catch (RuntimeException | Error e) {
+            flights.remove(key, flight);
+            flight.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    /** Loader invocations. */
+    public long loads() {
+        return loads.sum();
+    }
+
+    /** Calls answered by another caller's load (in flight or still fresh). */
+    public long shared() {
+        return shared.sum();
+    }
+
+    private void expire(K key, CompletableFuture<V> flight) {
+        if (freshnessNanos <= 0) {
+            flights.remove(key, flight);
+        } else {
+            CompletableFuture.delayedExecutor(freshnessNanos, TimeUnit.NANOSECONDS)
+                    .execute(() -> flights.remove(key, flight));
+        }
+    }
+
+    /** Rethrows the loader's own exception rather than a CompletionException. */
+    private static <V> V join(CompletableFuture<V> flight) {
+        try {
+            return flight.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,355 @@
+package com.example.paymentservice.service;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * In-memory sliding-window count and sum per {@code long} key, e.g. payments and amount per customer over the
+ * last hour.
+ * <p>
+ * The window is split into {@code buckets} equal time buckets, and each key keeps a ring of per-bucket counts
+ * and sums in primitive arrays shared by all keys of its lock stripe. Reading a key sums the buckets still
+ * inside the window (the window slides one bucket at a time), and writing clears the buckets that have
+ * expired since the key was last written. Nothing allocates once a stripe has reached its size.
+ * <p>
+ * Each stripe holds at most {@code maxKeysPerStripe} keys; past that the least recently used key is dropped,
+ * and starts again from zero if it comes back (fail open), so memory stays bounded.
+ * <p>
+ * Times are epoch milliseconds supplied by the caller, so windows rebuilt from event timestamps and windows
+ * written live line up.
+ */
+public final class SlidingWindowCounter {
+
+    private static final int INITIAL_STRIPE_KEYS = 16;
+
+    private final long bucketMillis;
+    private final int buckets;
+    private final Stripe[] stripes;
+    private final int stripeShift;
+    private final int maxKeysPerStripe;
+    private final LongAdder evicted = new LongAdder();
+
+    public SlidingWindowCounter(Duration window, int buckets, int stripes, int maxKeysPerStripe) {
+        if (buckets < 1 || stripes < 1 || maxKeysPerStripe < 1 || window.toMillis() < buckets) {
+            throw new IllegalArgumentException(
+                    "buckets, stripes and maxKeysPerStripe must be positive and the window at least 1ms per bucket");
+        }
+        this.bucketMillis = window.toMillis() / buckets;
+        this.buckets = buckets;
+        this.maxKeysPerStripe = maxKeysPerStripe;
+        int stripeCount = stripes == 1 ? 1 : Integer.highestOneBit(stripes - 1) << 1;
+        this.stripes = new Stripe[stripeCount];
+        for (int i = 0; i < stripeCount; i++) {
+            this.stripes[i] = new Stripe();
+        }
+        this.stripeShift = 64 - Integer.numberOfTrailingZeros(stripeCount);
+    }
+
+    /**
+     * Adds one occurrence of {@code amount} for {@code key} at {@code nowMillis}, unless that would take the
+     * key's count in the window above {@code maxCount} or its sum above {@code maxAmount}.
+     *
+     * @return whether it was added
+     */
+    public boolean tryAdd(long key, long amount, long maxCount, long maxAmount, long nowMillis) {
+        long hash = mix(key);
+        Stripe stripe = stripe(hash);
+        synchronized (stripe) {
+            return stripe.tryAdd(key, (int) hash, amount, maxCount, maxAmount, Math.floorDiv(nowMillis, bucketMillis));
+        }
+    }
+
+    /** Adds one occurrence at {@code atMillis} without checking limits; ignored if that is already outside the window. */
+    public void add(long key, long amount, long atMillis) {
+        tryAdd(key, amount, Long.MAX_VALUE, Long.MAX_VALUE, atMillis);
+    }
+
+    /** Takes back an occurrence added at {@code atMillis}, if the key and that bucket are still held. */
+    public void remove(long key, long amount, long atMillis) {
+        long hash = mix(key);
+        Stripe stripe = stripe(hash);
+        synchronized (stripe) {
+            stripe.remove(key, (int) hash, amount, Math.floorDiv(atMillis, bucketMillis));
+        }
+    }
+
+    /** Occurrences for {@code key} in the window ending at {@code nowMillis}. */
+    public long count(long key, long nowMillis) {
+        long hash = mix(key);
+        Stripe stripe = stripe(hash);
+        synchronized (stripe) {
+            return stripe.sum(key, (int) hash, Math.floorDiv(nowMillis, bucketMillis), false);
+        }
+    }
+
+    /** Sum of the amounts for {@code key} in the window ending at {@code nowMillis}. */
+    public long total(long key, long nowMillis) {
+        long hash = mix(key);
+        Stripe stripe = stripe(hash);
+        synchronized (stripe) {
+            return stripe.sum(key, (int) hash, Math.floorDiv(nowMillis, bucketMillis), true);
+        }
+    }
+
+    /** Keys dropped because their stripe was full. */
+    public long evicted() {
+        return evicted.sum();
+    }
+
+    /** Keys currently held. */
+    public int size() {
+        int size = 0;
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                size += stripe.size;
+            }
+        }
+        return size;
+    }
+
+    private Stripe stripe(long hash) {
+        return stripes.length == 1 ? stripes[0] : stripes[(int) (hash >>> stripeShift)];
+    }
+
+    /** Murmur3 finalizer, as in TokenBucketRateLimiter: high bits pick the stripe, low bits the slot. */
+    private static long mix(long key) {
+        key ^= key >>> 33;
+        key *= 0xff51afd7ed558ccdL;
+        key ^= key >>> 33;
+        key *= 0xc4ceb9fe1a85ec53L;
+        key ^= key >>> 33;
+        return key;
+    }
+
+    /**
+     * Keys of one stripe: entry {@code e} owns ring slots {@code e * buckets ... e * buckets + buckets - 1},
+     * found through a linear-probing index (entry + 1, 0 = free) and ordered by a doubly linked LRU list.
+     * Guarded by its own monitor.
+     */
+    private final class Stripe {
+
+        private int capacity;
+        private int[] index;
+        private long[] keys;
+        private long[] lastBuckets;
+        private int[] prev;
+        private int[] next;
+        private int[] counts;
+        private long[] amounts;
+        private int head = -1;
+        private int tail = -1;
+        private int size;
+        /** Results of {@link #window}, valid until the monitor is released. */
+        private long windowCount;
+        private long windowTotal;
+
+        Stripe() {
+            allocate(Math.min(INITIAL_STRIPE_KEYS, maxKeysPerStripe));
+        }
+
+        boolean tryAdd(long key, int hash, long amount, long maxCount, long maxAmount, long bucket) {
+            int entry = lookup(key, hash);
+            if (entry < 0) {
+                entry = insert(key, hash, bucket);
+            } else {
+                touch(entry);
+            }
+            advance(entry, bucket);
+            long last = lastBuckets[entry];
+            if (bucket <= last - buckets) {
+                return false;
+            }
+            window(entry, last);
+            if (windowCount + 1 > maxCount || windowTotal + amount > maxAmount) {
+                return false;
+            }
+            int slot = entry * buckets + (int) Math.floorMod(bucket, buckets);
+            counts[slot]++;
+            amounts[slot] += amount;
+            return true;
+        }
+
+        void remove(long key, int hash, long amount, long bucket) {
+            int entry = lookup(key, hash);
+            if (entry < 0 || bucket > lastBuckets[entry] || bucket <= lastBuckets[entry] - buckets) {
+                return;
+            }
+            int slot = entry * buckets + (int) Math.floorMod(bucket, buckets);
+            if (counts[slot] > 0) {
+                counts[slot]--;
+                amounts[slot] = Math.max(0, amounts[slot] - amount);
+            }
+        }
+
+        long sum(long key, int hash, long bucket, boolean amount) {
+            int entry = lookup(key, hash);
+            if (entry < 0) {
+                return 0;
+            }
+            window(entry, bucket);
+            return amount ? windowTotal : windowCount;
+        }
+
+        /**
+         * Sets {@code windowCount} and {@code windowTotal} to the sums over the buckets of the window ending at
+         * {@code bucket} that the entry still holds: one pass around the ring from the oldest of them.
+         */
+        private void window(int entry, long bucket) {
+            long last = lastBuckets[entry];
+            long from = Math.max(bucket - buckets + 1, last - buckets + 1);
+            long n = Math.min(bucket, last) - from + 1;
+            long count = 0;
+            long total = 0;
+            int base = entry * buckets;
+            int slot = (int) Math.floorMod(from, buckets);
+            for (long i = 0; i < n; i++) {
+                count += counts[base + slot];
+                total += amounts[base + slot];
+                if (++slot == buckets) {
+                    slot = 0;
+                }
+            }
+            windowCount = count;
+            windowTotal = total;
+        }
+
+        /** Moves the entry's ring forward to {@code bucket}, clearing the buckets that fall out of the window. */
+        private void advance(int entry, long bucket) {
+            long last = lastBuckets[entry];
+            if (bucket <= last) {
+                return;
+            }
+            int base = entry * buckets;
+            if (bucket - last >= buckets) {
+                Arrays.fill(counts, base, base + buckets, 0);
+                Arrays.fill(amounts, base, base + buckets, 0);
+            } else {
+                int slot = (int) Math.floorMod(last + 1, buckets);
+                for (long b = last + 1; b <= bucket; b++) {
+                    counts[base + slot] = 0;
+                    amounts[base + slot] = 0;
+                    if (++slot == buckets) {
+                        slot = 0;
+                    }
+                }
+            }
+            lastBuckets[entry] = bucket;
+        }
+
+        private int lookup(long key, int hash) {
+            int mask = index.length - 1;
+            int slot = hash & mask;
+            while (index[slot] != 0) {
+                int entry = index[slot] - 1;
+                if (keys[entry] == key) {
+                    return entry;
+                }
+                slot = (slot + 1) & mask;
+            }
+            return -1;
+        }
+
+        /** New entry for the key, growing the stripe or evicting its least recently used key if it is full. */
+        private int insert(long key, int hash, long bucket) {
+            int entry;
+            if (size < capacity) {
+                entry = size++;
+            } else if (capacity < maxKeysPerStripe) {
+                allocate(Math.min(capacity * 2, maxKeysPerStripe));
+                entry = size++;
+            } else {
+                entry = tail;
+                unlink(entry);
+                unindex(entry);
+                evicted.increment();
+            }
+            keys[entry] = key;
+            // Starts with an empty window ending at this bucket
+            lastBuckets[entry] = bucket - buckets;
+            int mask = index.length - 1;
+            int slot = hash & mask;
+            while (index[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            index[slot] = entry + 1;
+            linkFirst(entry);
+            return entry;
+        }
+
+        /** Removes the entry from the index, shifting later entries of its probe run back into the gap. */
+        private void unindex(int entry) {
+            int mask = index.length - 1;
+            int gap = (int) mix(keys[entry]) & mask;
+            while (index[gap] != entry + 1) {
+                gap = (gap + 1) & mask;
+            }
+            index[gap] = 0;
+            for (int slot = (gap + 1) & mask; index[slot] != 0; slot = (slot + 1) & mask) {
+                int home = (int) mix(keys[index[slot] - 1]) & mask;
+                // The entry can fill the gap unless its home lies cyclically after the gap, up to its slot
+                boolean reachable = gap <= slot ? home <= gap || home > slot : home <= gap && home > slot;
+                if (reachable) {
+                    index[gap] = index[slot];
+                    index[slot] = 0;
+                    gap = slot;
+                }
+            }
+        }
+
+        private void touch(int entry) {
+            if (entry != head) {
+                unlink(entry);
+                linkFirst(entry);
+            }
+        }
+
+        private void linkFirst(int entry) {
+            prev[entry] = -1;
+            next[entry] = head;
+            if (head >= 0) {
+                prev[head] = entry;
+            }
+            head = entry;
+            if (tail < 0) {
+                tail = entry;
+            }
+        }
+
+        private void unlink(int entry) {
+            int before = prev[entry];
+            int after = next[entry];
+            if (before >= 0) {
+                next[before] = after;
+            } else {
+                head = after;
+            }
+            if (after >= 0) {
+                prev[after] = before;
+            } else {
+                tail = before;
+            }
+        }
+
+        /** Grows the arrays to {@code newCapacity} keys; entries keep their numbers, the index is rebuilt. */
+        private void allocate(int newCapacity) {
+            keys = keys == null ? new long[newCapacity] : Arrays.copyOf(keys, newCapacity);
+            lastBuckets = lastBuckets == null ? new long[newCapacity] : Arrays.copyOf(lastBuckets, newCapacity);
+            prev = prev == null ? new int[newCapacity] : Arrays.copyOf(prev, newCapacity);
+            next = next == null ? new int[newCapacity] : Arrays.copyOf(next, newCapacity);
+            counts = counts == null ? new int[newCapacity * buckets] : Arrays.copyOf(counts, newCapacity * buckets);
+            amounts = amounts == null ? new long[newCapacity * buckets] : Arrays.copyOf(amounts, newCapacity * buckets);
+            capacity = newCapacity;
+            // Index kept at most half full
+            index = new int[Integer.highestOneBit(newCapacity * 2 - 1) << 1];
+            int mask = index.length - 1;
+            for (int entry = 0; entry < size; entry++) {
+                int slot = (int) mix(keys[entry]) & mask;
+                while (index[slot] != 0) {
+                    slot = (slot + 1) & mask;
+                }
+                index[slot] = entry + 1;
+            }
+        }
+    }
+}
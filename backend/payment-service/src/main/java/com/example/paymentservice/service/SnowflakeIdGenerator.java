@@ -0,0 +1,147 @@
+package com.example.paymentservice.service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Time-ordered ids generated in the application: {@code timestamp | shard | node | sequence}, where the timestamp
+ * is milliseconds since {@code epoch}, {@code shard} is the logical shard the row is stored in, {@code node}
+ * identifies this instance and {@code sequence} counts ids within the millisecond. Ids from one node and shard
+ * strictly increase; all other ids sort by creation time to within clock skew. The shard is read back with
+ * {@link #shardOf(long)}, so a row can be found from its id alone.
+ * <p>
+ * Each shard's last (timestamp, sequence) pair is a single {@link AtomicLong} advanced by compare-and-set, so
+ * generating takes no lock and shards don't share a sequence. When a millisecond's sequence runs out the
+ * caller spins until the clock moves on.
+ * <p>
+ * If the clock steps backwards, ids keep counting from the last timestamp handed out rather than reusing
+ * earlier ones. That is tolerated for up to {@code maxClockSkew}; a larger step throws
+ * {@link IllegalStateException} rather than block callers while the clock catches up.
+ */
+public final class SnowflakeIdGenerator {
+
+    private final long epochMillis;
+    private final int sequenceBits;
+    private final long sequenceMask;
+    private final int timestampShift;
+    private final int shardShift;
+    private final int shardCount;
+    private final long maxTimestamp;
+    private final long nodePart;
+    private final long maxClockSkewMillis;
+    private final LongSupplier clock;
+    /** Per shard: (timestamp << sequenceBits) | sequence of the last id handed out. */
+    private final AtomicLong[] last;
+    private final LongAdder generated = new LongAdder();
+    private final LongAdder clockBehind = new LongAdder();
+    private final LongAdder sequenceWaits = new LongAdder();
+
+    public SnowflakeIdGenerator(Instant epoch, int timestampBits, int shardBits, int nodeBits, int sequenceBits,
+                                long nodeId, Duration maxClockSkew) {
+        this(epoch, timestampBits, shardBits, nodeBits, sequenceBits, nodeId, maxClockSkew, System::currentTimeMillis);
+    }
+
+    SnowflakeIdGenerator(Instant epoch, int timestampBits, int shardBits, int nodeBits, int sequenceBits, long nodeId,
+                         Duration maxClockSkew, LongSupplier clock) {
+        if (timestampBits < 1 || shardBits < 0 || shardBits > 16 || nodeBits < 0 || sequenceBits < 1
+                || timestampBits + shardBits + nodeBits + sequenceBits > 63) {
+            throw new IllegalArgumentException("Bit widths must be positive (at most 16 shard bits) and add up to at most 63");
+        }
+        if (nodeId < 0 || nodeId >= 1L << nodeBits) {
+            throw new IllegalArgumentException("Node id " + nodeId + " does not fit in " + nodeBits + " bits");
+        }
+        this.epochMillis = epoch.toEpochMilli();
+        this.sequenceBits = sequenceBits;
+        this.sequenceMask = (1L << sequenceBits) - 1;
+        this.shardShift = nodeBits + sequenceBits;
+        this.timestampShift = shardBits + nodeBits + sequenceBits;
+        this.shardCount = 1 << shardBits;
+        this.last = new AtomicLong[shardCount];
+        for (int i = 0; i < shardCount; i++) {
+            this.last[i] = new AtomicLong();
+        }
+        this.maxTimestamp = (1L << timestampBits) - 1;
+        this.nodePart = nodeId << sequenceBits;
+        this.maxClockSkewMillis = maxClockSkew.toMillis();
+        this.clock = clock;
+        long now = clock.getAsLong() - epochMillis;
+        if (now < 0 || now > maxTimestamp) {
+            throw new IllegalArgumentException("Current time is outside the " + timestampBits + "-bit range from " + epoch);
+        }
+    }
+
+    /** Id for shard 0, or for a layout without shard bits. */
+    public long nextId() {
+        return nextId(0);
+    }
+
+    public long nextId(int shard) {
+        if (shard < 0 || shard >= shardCount) {
+            throw new IllegalArgumentException("Shard " + shard + " does not fit the id layout (" + shardCount + " shards)");
+        }
+        AtomicLong last = this.last[shard];
+        long shardPart = (long) shard << shardShift;
+        while (true) {
+            long previous = last.get();
+            long previousTimestamp = previous >>> sequenceBits;
+            long now = clock.getAsLong() - epochMillis;
+            long next;
+            if (now > previousTimestamp) {
+                if (now > maxTimestamp) {
+                    throw new IllegalStateException("Timestamp no longer fits the id layout");
+                }
+                next = now << sequenceBits;
+            } else if (previousTimestamp - now > maxClockSkewMillis) {
+                throw new IllegalStateException("Clock is " + (previousTimestamp - now)
+                        + " ms behind the last id handed out, more than the tolerated skew");
+            } else if ((previous & sequenceMask) == sequenceMask) {
+                // This millisecond's sequence is used up: wait for the clock rather than borrow from the future
+                sequenceWaits.increment();
+                Thread.onSpinWait();
+                continue;
+            } else {
+                next = previous + 1;
+            }
+            if (last.compareAndSet(previous, next)) {
+                generated.increment();
+                if (now < previousTimestamp) {
+                    clockBehind.increment();
+                }
+                return (next >>> sequenceBits) << timestampShift | shardPart | nodePart | (next & sequenceMask);
+            }
+        }
+    }
+
+    /** Creation time encoded in an id from this generator's layout. */
+    public Instant timestampOf(long id) {
+        return Instant.ofEpochMilli(epochMillis + (id >>> timestampShift));
+    }
+
+    /** Logical shard encoded in an id from this generator's layout. */
+    public int shardOf(long id) {
+        return (int) (id >>> shardShift) & (shardCount - 1);
+    }
+
+    /** Number of shards the layout can encode (2^shardBits). */
+    public int shardCount() {
+        return shardCount;
+    }
+
+    /** Ids handed out. */
+    public long generated() {
+        return generated.sum();
+    }
+
+    /** Ids handed out while the clock read earlier than the last id's timestamp (it stepped backwards). */
+    public long clockBehind() {
+        return clockBehind.sum();
+    }
+
+    /** Spins waiting for the next millisecond because the current one's sequence was used up. */
+    public long sequenceWaits() {
+        return sequenceWaits.sum();
+    }
+}
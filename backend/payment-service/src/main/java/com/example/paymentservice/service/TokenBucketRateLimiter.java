@@ -0,0 +1,216 @@
+package com.example.paymentservice.service;
+
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * In-memory token bucket per {@code long} key: up to {@code capacity} permits in a burst, refilled at
+ * {@code permitsPerSecond}.
+ * <p>
+ * Each bucket is stored as a single "theoretical arrival time" (the GCRA form of a token bucket): the instant
+ * the bucket would be full again. Taking a permit moves it forward by one refill interval, and a permit is
+ * available while it stays within {@code capacity} intervals of now. Buckets live in primitive open-addressing
+ * tables split over lock stripes, so acquiring allocates nothing and unrelated keys rarely contend.
+ * <p>
+ * Buckets that have refilled completely hold no information and are dropped when a stripe's table fills up.
+ * If a stripe still holds {@code maxKeysPerStripe} partially drained buckets it is cleared; those keys
+ * start again with a full bucket (fail open) rather than memory growing without bound.
+ */
+public final class TokenBucketRateLimiter {
+
+    private static final int INITIAL_STRIPE_SLOTS = 64;
+
+    private final int capacity;
+    private final long intervalNanos;
+    private final long burstNanos;
+    private final Stripe[] stripes;
+    private final int stripeShift;
+    private final int maxSlotsPerStripe;
+    private final LongSupplier nanoClock;
+    private final LongAdder allowed = new LongAdder();
+    private final LongAdder throttled = new LongAdder();
+    private final LongAdder evicted = new LongAdder();
+
+    public TokenBucketRateLimiter(int capacity, double permitsPerSecond, int stripes, int maxKeysPerStripe) {
+        this(capacity, permitsPerSecond, stripes, maxKeysPerStripe, System::nanoTime);
+    }
+
+    TokenBucketRateLimiter(int capacity, double permitsPerSecond, int stripes, int maxKeysPerStripe,
+                           LongSupplier nanoClock) {
+        if (capacity < 1 || !(permitsPerSecond > 0) || stripes < 1 || maxKeysPerStripe < 1) {
+            throw new IllegalArgumentException("capacity, permitsPerSecond, stripes and maxKeysPerStripe must be positive");
+        }
+        this.capacity = capacity;
+        this.intervalNanos = Math.max(1, Math.round(1_000_000_000d / permitsPerSecond));
+        this.burstNanos = Math.multiplyExact(intervalNanos, (long) capacity);
+        int stripeCount = stripes == 1 ? 1 : Integer.highestOneBit(stripes - 1) << 1;
+        this.stripes = new Stripe[stripeCount];
+        for (int i = 0; i < stripeCount; i++) {
+            this.stripes[i] = new Stripe();
+        }
+        this.stripeShift = 64 - Integer.numberOfTrailingZeros(stripeCount);
+        // Tables are kept at most 3/4 full, so this many slots hold maxKeysPerStripe buckets
+        this.maxSlotsPerStripe = Math.max(INITIAL_STRIPE_SLOTS, Integer.highestOneBit(maxKeysPerStripe * 4 / 3 + 1) << 1);
+        this.nanoClock = nanoClock;
+    }
+
+    /**
+     * Takes one permit for {@code key} if its bucket has one.
+     *
+     * @return 0 if a permit was taken, otherwise the nanoseconds until the next permit is available
+     */
+    public long tryAcquire(long key) {
+        return tryAcquire(key, 1);
+    }
+
+    /**
+     * Takes {@code permits} permits for {@code key} at once if its bucket has them all, e.g. one per item of a
+     * batch request; otherwise takes none.
+     *
+     * @return 0 if the permits were taken, otherwise the nanoseconds until they are all available
+     * @throws IllegalArgumentException unless 1 <= permits <= capacity, since a bucket never holds more
+     */
+    public long tryAcquire(long key, int permits) {
+        if (permits < 1 || permits > capacity) {
+            throw new IllegalArgumentException("permits must be between 1 and the capacity " + capacity + ": " + permits);
+        }
+        long hash = mix(key);
+        Stripe stripe = stripes.length == 1 ? stripes[0] : stripes[(int) (hash >>> stripeShift)];
+        long waitNanos;
+        synchronized (stripe) {
+            waitNanos = stripe.tryAcquire(key, (int) hash, nanoClock.getAsLong(), permits);
+        }
+        (waitNanos == 0 ? allowed : throttled).increment();
+        return waitNanos;
+    }
+
+    /** 64-bit FNV-1a hash, for string keys such as merchant ids. */
+    public static long key(CharSequence value) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < value.length(); i++) {
+            hash ^= value.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        return hash;
+    }
+
+    /** Permits available in a burst. */
+    public int capacity() {
+        return capacity;
+    }
+
+    /** Requests granted their permits. */
+    public long allowed() {
+        return allowed.sum();
+    }
+
+    /** Requests refused for lack of a permit. */
+    public long throttled() {
+        return throttled.sum();
+    }
+
+    /** Partially drained buckets dropped because their stripe was full. */
+    public long evicted() {
+        return evicted.sum();
+    }
+
+    /** Buckets currently tracked (including refilled ones not yet dropped). */
+    public int size() {
+        int size = 0;
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                size += stripe.size;
+            }
+        }
+        return size;
+    }
+
+    /** Murmur3 finalizer: sequential user ids spread over stripes (high bits) and slots (low bits). */
+    private static long mix(long key) {
+        key ^= key >>> 33;
+        key *= 0xff51afd7ed558ccdL;
+        key ^= key >>> 33;
+        key *= 0xc4ceb9fe1a85ec53L;
+        key ^= key >>> 33;
+        return key;
+    }
+
+    /** Linear-probing table of key -> theoretical arrival time; guarded by its own monitor. */
+    private final class Stripe {
+
+        private long[] keys = new long[INITIAL_STRIPE_SLOTS];
+        private long[] arrivals = new long[INITIAL_STRIPE_SLOTS];
+        private boolean[] used = new boolean[INITIAL_STRIPE_SLOTS];
+        private int size;
+
+        long tryAcquire(long key, int hash, long now, int permits) {
+            int slot = find(key, hash);
+            if (!used[slot]) {
+                if (size + 1 > keys.length - (keys.length >>> 2)) {
+                    makeRoom(now);
+                    slot = find(key, hash);
+                }
+                used[slot] = true;
+                keys[slot] = key;
+                arrivals[slot] = now;
+                size++;
+            }
+            // A bucket that refilled completely starts from now, not from its old arrival time
+            long arrival = arrivals[slot] - now > 0 ? arrivals[slot] : now;
+            long next = arrival + intervalNanos * permits;
+            long excess = next - now - burstNanos;
+            if (excess > 0) {
+                return excess;
+            }
+            arrivals[slot] = next;
+            return 0;
+        }
+
+        private int find(long key, int hash) {
+            int mask = keys.length - 1;
+            int slot = hash & mask;
+            while (used[slot] && keys[slot] != key) {
+                slot = (slot + 1) & mask;
+            }
+            return slot;
+        }
+
+        /** Drops refilled buckets, then grows the table if it is still half full (or clears it at the limit). */
+        private void makeRoom(long now) {
+            int live = 0;
+            for (int i = 0; i < keys.length; i++) {
+                if (used[i] && arrivals[i] - now > 0) {
+                    live++;
+                }
+            }
+            int slots = keys.length;
+            if (live >= slots >>> 1) {
+                if (slots < maxSlotsPerStripe) {
+                    slots <<= 1;
+                } else {
+                    evicted.add(live);
+                    live = 0;
+                }
+            }
+            long[] oldKeys = keys;
+            long[] oldArrivals = arrivals;
+            boolean[] oldUsed = used;
+            keys = new long[slots];
+            arrivals = new long[slots];
+            used = new boolean[slots];
+            size = 0;
+            if (live == 0) {
+                return;
+            }
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldUsed[i] && oldArrivals[i] - now > 0) {
+                    int slot = find(oldKeys[i], (int) mix(oldKeys[i]));
+                    used[slot] = true;
+                    keys[slot] = oldKeys[i];
+                    arrivals[slot] = oldArrivals[i];
+                    size++;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,243 @@
+package com.example.paymentservice.service.webhook;
+
+import com.example.paymentservice.config.WebhookProperties;
+import com.example.paymentservice.domain.model.WebhookDelivery;
+import com.example.paymentservice.domain.model.WebhookEndpoint;
+import com.example.paymentservice.exception.PaymentException;
+import com.example.paymentservice.repository.WebhookDeliveryRepository;
+import com.example.paymentservice.repository.WebhookEndpointRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClient;
+import org.springframework.web.client.RestClientException;
+import org.springframework.web.client.RestClientResponseException;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.Collectors;
+
+/**
+ * Sends queued webhook deliveries to merchant endpoints.
+ * <p>
+ * Each poll looks up the endpoints with due deliveries and, for each, claims batches of up to the endpoint's
+ * {@code maxBatchSize} events while it has a free permit (its {@code maxConcurrency}), sending every batch as
+ * one signed POST on its own virtual thread. The poll itself never waits on an endpoint, and an endpoint that
+ * is slow or down ties up only its own permits (for at most the read timeout), so other merchants' deliveries
+ * keep flowing. Before each POST the endpoint's URL is checked against the WebhookTargetPolicy; a host now
+ * resolving to an internal address fails the attempt like an unreachable endpoint. A batch is marked DELIVERED on a 2xx response; otherwise it is retried with exponential
+ * backoff and jitter until {@code maxAttempts}, then marked FAILED.
+ * <p>
+ * Delivery is at least once: a batch whose outcome is not recorded (instance died, database unavailable)
+ * is sent again once its lease expires. Batches of one endpoint may be in flight concurrently, and a retried
+ * event can arrive after events queued later, so events are not guaranteed to arrive in order. Permits are
+ * per instance: with several replicas an endpoint can see up to replicas x maxConcurrency requests.
+ */
+@Component
+@Slf4j
+public class WebhookDispatcher {
+
+    private static final int MAX_ENDPOINTS_PER_POLL = 1000;
+
+    private final WebhookEndpointRepository endpointRepository;
+    private final WebhookDeliveryRepository deliveryRepository;
+    private final RestClient restClient;
+    private final WebhookTargetPolicy targetPolicy;
+    private final WebhookProperties properties;
+    private final ExecutorService senders = Executors.newVirtualThreadPerTaskExecutor();
+    private final Semaphore inFlight;
+    private final ConcurrentMap<Long, EndpointPermits> endpointPermits = new ConcurrentHashMap<>();
+    private final Counter deliveredCounter;
+    private final Counter retriedCounter;
+    private final Counter failedCounter;
+
+    public WebhookDispatcher(WebhookEndpointRepository endpointRepository,
+                             WebhookDeliveryRepository deliveryRepository,
+                             @Qualifier("webhookRestClient") RestClient restClient,
+                             WebhookTargetPolicy targetPolicy,
+                             WebhookProperties properties,
+                             MeterRegistry meterRegistry) {
+        this.endpointRepository = endpointRepository;
+        this.deliveryRepository = deliveryRepository;
+        this.restClient = restClient;
+        this.targetPolicy = targetPolicy;
+        this.properties = properties;
+        this.inFlight = new Semaphore(properties.maxInFlight());
+        this.deliveredCounter = counter(meterRegistry, "delivered");
+        this.retriedCounter = counter(meterRegistry, "retried");
+        this.failedCounter = counter(meterRegistry, "failed");
+    }
+
+    @Scheduled(fixedDelayString = "${app.webhooks.poll-interval:500ms}",
+            initialDelayString = "${app.webhooks.poll-interval:500ms}")
+    public void poll() {
+        if (!properties.enabled()) {
+            return;
+        }
+        try {
+            dispatchDue();
+        } catch (Exception e) {
+            log.error("Webhook dispatch poll failed: {}", e.getMessage(), e);
+        }
+    }
+
+    /** Claims the due deliveries there are permits for and starts sending them. Returns the batches started. */
+    public int dispatchDue() {
+        LocalDateTime now = LocalDateTime.now();
+        List<Long> endpointIds = deliveryRepository.findEndpointsWithDueDeliveries(now, MAX_ENDPOINTS_PER_POLL);
+        if (endpointIds.isEmpty()) {
+            return 0;
+        }
+        int started = 0;
+        for (WebhookEndpoint endpoint : endpointRepository.findEnabledByIds(endpointIds)) {
+            started += dispatch(endpoint, now);
+        }
+        return started;
+    }
+
+    private int dispatch(WebhookEndpoint endpoint, LocalDateTime now) {
+        Semaphore permits = permits(endpoint);
+        int started = 0;
+        while (permits.tryAcquire()) {
+            if (!inFlight.tryAcquire()) {
+                permits.release();
+                break;
+            }
+            List<WebhookDelivery> batch;
+            try {
+                batch = deliveryRepository.claimDue(endpoint.getId(), now, endpoint.getMaxBatchSize(),
+                        now.plus(properties.lease()));
+            } catch (RuntimeException e) {
+                release(permits);
+                throw e;
+            }
+            if (batch.isEmpty()) {
+                release(permits);
+                break;
+            }
+            senders.execute(() -> {
+                try {
+                    send(endpoint, batch);
+                } finally {
+                    release(permits);
+                }
+            });
+            started++;
+        }
+        return started;
+    }
+
+    private void send(WebhookEndpoint endpoint, List<WebhookDelivery> batch) {
+        String body = batch.stream()
+                .map(WebhookDelivery::getPayload)
+                .collect(Collectors.joining(",", "{\"events\":[", "]}"));
+        long timestamp = Instant.now().getEpochSecond();
+        try {
+            // The host was public at registration; it is resolved again in case it has been repointed since
+            targetPolicy.check(endpoint.getUrl());
+        } catch (PaymentException e) {
+            failed(endpoint, batch, e.getMessage());
+            return;
+        }
+        try {
+            restClient.post()
+                    .uri(endpoint.getUrl())
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .header(WebhookSignature.HEADER, WebhookSignature.header(endpoint.getSecret(), timestamp, body))
+                    .body(body)
+                    .retrieve()
+                    .toBodilessEntity();
+        } catch (RestClientResponseException e) {
+            failed(endpoint, batch, "HTTP " + e.getStatusCode().value());
+            return;
+        } catch (RestClientException e) {
+            failed(endpoint, batch, e.getMessage());
+            return;
+        }
+        try {
+            deliveryRepository.markDelivered(ids(batch), LocalDateTime.now());
+            deliveredCounter.increment(batch.size());
+        } catch (Exception e) {
+            log.error("Webhook batch delivered but not recorded, it will be sent again. Endpoint id: {}, Events: {}",
+                    endpoint.getId(), batch.size(), e);
+        }
+    }
+
+    private void failed(WebhookEndpoint endpoint, List<WebhookDelivery> batch, String error) {
+        List<WebhookDelivery> exhausted = batch.stream()
+                .filter(delivery -> delivery.getAttempts() >= properties.maxAttempts())
+                .toList();
+        List<WebhookDelivery> retried = batch.stream()
+                .filter(delivery -> delivery.getAttempts() < properties.maxAttempts())
+                .toList();
+        try {
+            if (!exhausted.isEmpty()) {
+                deliveryRepository.markFailed(ids(exhausted), error);
+                failedCounter.increment(exhausted.size());
+            }
+            if (!retried.isEmpty()) {
+                int attempts = retried.stream().mapToInt(WebhookDelivery::getAttempts).max().orElse(1);
+                deliveryRepository.reschedule(ids(retried), LocalDateTime.now().plus(backoff(attempts)), error);
+                retriedCounter.increment(retried.size());
+            }
+        } catch (Exception e) {
+            log.error("Failed to record webhook failure, the batch is retried when its lease expires. Endpoint id: {}",
+                    endpoint.getId(), e);
+        }
+        log.warn("Webhook delivery failed. Merchant id: {}, Endpoint id: {}, Events: {}, Given up: {}, Error: {}",
+                endpoint.getMerchantId(), endpoint.getId(), batch.size(), exhausted.size(), error);
+    }
+
+    /** initialBackoff * 2^(attempts - 1), capped at maxBackoff, minus up to a fifth so retries spread out. */
+    Duration backoff(int attempts) {
+        long initial = properties.initialBackoff().toMillis();
+        long max = properties.maxBackoff().toMillis();
+        long delay = attempts > 31 || initial << (attempts - 1) > max ? max : initial << (attempts - 1);
+        return Duration.ofMillis(delay - ThreadLocalRandom.current().nextLong(delay / 5 + 1));
+    }
+
+    /** The endpoint's permits, replaced when its maxConcurrency changes (batches in flight release the old ones). */
+    private Semaphore permits(WebhookEndpoint endpoint) {
+        return endpointPermits.compute(endpoint.getId(), (id, current) ->
+                current != null && current.limit() == endpoint.getMaxConcurrency()
+                        ? current
+                        : new EndpointPermits(endpoint.getMaxConcurrency(),
+                                new Semaphore(endpoint.getMaxConcurrency()))).semaphore();
+    }
+
+    private void release(Semaphore permits) {
+        permits.release();
+        inFlight.release();
+    }
+
+    private static List<Long> ids(List<WebhookDelivery> deliveries) {
+        return deliveries.stream().map(WebhookDelivery::getId).toList();
+    }
+
+    private static Counter counter(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("webhooks.deliveries")
+                .tag("result", result)
+                .description("Webhook events by delivery attempt outcome (delivered, retried, failed for good)")
+                .register(meterRegistry);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        senders.shutdown();
+    }
+
+    private record EndpointPermits(int limit, Semaphore semaphore) {}
+}
@@ -0,0 +1,158 @@
+package com.example.paymentservice.service.webhook;
+
+import com.example.paymentservice.config.WebhookProperties;
+import com.example.paymentservice.domain.model.WebhookDelivery;
+import com.example.paymentservice.domain.model.WebhookEndpoint;
+import com.example.paymentservice.repository.WebhookDeliveryRepository;
+import com.example.paymentservice.repository.WebhookEndpointRepository;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Merchant webhook registry, and the queueing of payment events for registered endpoints. Sending is the
+ * WebhookDispatcher's job.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class WebhookService {
+
+    public static final String EVENT_PAYMENT_COMPLETED = "payment.completed";
+    public static final String EVENT_PAYMENT_REFUNDED = "payment.refunded";
+
+    private final WebhookEndpointRepository endpointRepository;
+    private final WebhookDeliveryRepository deliveryRepository;
+    private final WebhookProperties properties;
+    private final WebhookTargetPolicy targetPolicy;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Registers the merchant's endpoint, or updates the registered one. A new registration gets a new signing
+     * secret; an update keeps the existing secret. Null limits fall back to the configured defaults. A URL the
+     * WebhookTargetPolicy does not allow is rejected with a PaymentException.
+     */
+    @Transactional
+    public WebhookEndpoint register(String merchantId, String url, Integer maxConcurrency, Integer maxBatchSize) {
+        targetPolicy.check(url);
+        LocalDateTime now = LocalDateTime.now();
+        WebhookEndpoint endpoint = endpointRepository.findByMerchantId(merchantId)
+                .map(existing -> existing.toBuilder())
+                .orElseGet(() -> WebhookEndpoint.builder()
+                        .merchantId(merchantId)
+                        .secret(WebhookSignature.newSecret())
+                        .createdAt(now))
+                .url(url)
+                .maxConcurrency(maxConcurrency != null ? maxConcurrency : properties.defaultMaxConcurrency())
+                .maxBatchSize(maxBatchSize != null ? maxBatchSize : properties.defaultMaxBatchSize())
+                .enabled(true)
+                .updatedAt(now)
+                .build();
+        WebhookEndpoint saved = endpointRepository.save(endpoint);
+        log.info("Webhook endpoint registered. Merchant id: {}, Endpoint id: {}, Max concurrency: {}, Max batch size: {}",
+                merchantId, saved.getId(), saved.getMaxConcurrency(), saved.getMaxBatchSize());
+        return saved;
+    }
+
+    @Transactional(readOnly = true)
+    public Optional<WebhookEndpoint> getEndpoint(String merchantId) {
+        return endpointRepository.findByMerchantId(merchantId);
+    }
+
+    /** Removes the merchant's endpoint together with its undelivered events. False if none was registered. */
+    @Transactional
+    public boolean unregister(String merchantId) {
+        Optional<WebhookEndpoint> endpoint = endpointRepository.findByMerchantId(merchantId);
+        endpoint.ifPresent(existing -> {
+            deliveryRepository.deleteByEndpointId(existing.getId());
+            endpointRepository.delete(existing.getId());
+            log.info("Webhook endpoint removed. Merchant id: {}, Endpoint id: {}", merchantId, existing.getId());
+        });
+        return endpoint.isPresent();
+    }
+
+    /**
+     * Queues each event for its merchant's endpoint, if the merchant has an enabled one; events of other
+     * merchants are dropped. Events already queued (same id) are skipped. Durable when this returns.
+     */
+    public int enqueue(List<WebhookEvent> events) {
+        if (events.isEmpty()) {
+            return 0;
+        }
+        Map<String, WebhookEndpoint> endpoints = endpointRepository.findEnabledByMerchantIds(events.stream()
+                        .map(event -> event.getData().getMerchantId())
+                        .collect(Collectors.toSet()))
+                .stream()
+                .collect(Collectors.toMap(WebhookEndpoint::getMerchantId, Function.identity()));
+        LocalDateTime now = LocalDateTime.now();
+        List<WebhookDelivery> deliveries = new ArrayList<>();
+        for (WebhookEvent event : events) {
+            WebhookEndpoint endpoint = endpoints.get(event.getData().getMerchantId());
+            if (endpoint != null) {
+                deliveries.add(WebhookDelivery.builder()
+                        .endpointId(endpoint.getId())
+                        .eventId(event.getId())
+                        .eventType(event.getType())
+                        .payload(toJson(event))
+                        .nextAttemptAt(now)
+                        .createdAt(now)
+                        .build());
+            }
+        }
+        if (!deliveries.isEmpty()) {
+            deliveryRepository.enqueueAllIfAbsent(deliveries);
+        }
+        return deliveries.size();
+    }
+
+    private String toJson(WebhookEvent event) {
+        try {
+            return objectMapper.writeValueAsString(event);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Cannot serialize webhook event " + event.getId(), e);
+        }
+    }
+
+    /**
+     * An event as merchants receive it, inside {@code {"events": [...]}}. {@code id} is stable across
+     * redeliveries, so merchants can drop the duplicates at-least-once delivery produces.
+     */
+    @lombok.Builder
+    @lombok.Data
+    @lombok.NoArgsConstructor
+    @lombok.AllArgsConstructor
+    public static class WebhookEvent {
+        private String id;
+        private String type;
+        private LocalDateTime createdAt;
+        private PaymentData data;
+    }
+
+    @lombok.Builder
+    @lombok.Data
+    @lombok.NoArgsConstructor
+    @lombok.AllArgsConstructor
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public static class PaymentData {
+        private Long paymentId;
+        private String merchantId;
+        private String status;
+        private BigDecimal amount;
+        private String currency;
+        private BigDecimal refundAmount;
+        private String reason;
+    }
+}
@@ -0,0 +1,86 @@
+package com.example.paymentservice.service.webhook;
+
+import com.example.paymentservice.config.WebhookProperties;
+import com.example.paymentservice.exception.PaymentException;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.net.Inet4Address;
+import java.net.Inet6Address;
+import java.net.InetAddress;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.net.UnknownHostException;
+
+/**
+ * Keeps webhook requests off the internal network: an endpoint URL must be http or https and its host must
+ * resolve only to public addresses, not loopback, private, link-local (cloud metadata), carrier-grade NAT,
+ * unspecified or multicast ones.
+ * <p>
+ * Checked when the endpoint is registered and again before every send, because the merchant controls the DNS
+ * record and can repoint it after registration. The send-time lookup fills the JVM's address cache, which the
+ * HTTP client then connects from. {@code app.webhooks.allow-private-targets} lifts the address check for local
+ * development and tests.
+ */
+@Component
+@RequiredArgsConstructor
+public class WebhookTargetPolicy {
+
+    public static final String ERROR_CODE = "WEBHOOK_TARGET_NOT_ALLOWED";
+
+    private final WebhookProperties properties;
+
+    /** Throws a PaymentException with {@link #ERROR_CODE} if the URL may not be called. */
+    public void check(String url) {
+        URI uri;
+        try {
+            uri = new URI(url);
+        } catch (URISyntaxException e) {
+            throw notAllowed("Webhook URL is not a valid URL");
+        }
+        String scheme = uri.getScheme();
+        if (scheme == null || !(scheme.equalsIgnoreCase("http") || scheme.equalsIgnoreCase("https"))) {
+            throw notAllowed("Webhook URL must be an http or https URL");
+        }
+        if (uri.getHost() == null) {
+            throw notAllowed("Webhook URL has no host");
+        }
+        if (properties.allowPrivateTargets()) {
+            return;
+        }
+        InetAddress[] addresses;
+        try {
+            addresses = InetAddress.getAllByName(uri.getHost());
+        } catch (UnknownHostException e) {
+            throw notAllowed("Webhook host " + uri.getHost() + " cannot be resolved");
+        }
+        for (InetAddress address : addresses) {
+            if (!isPublic(address)) {
+                throw notAllowed("Webhook host " + uri.getHost() + " resolves to a non-public address");
+            }
+        }
+    }
+
+    static boolean isPublic(InetAddress address) {
+        if (address.isLoopbackAddress() || address.isSiteLocalAddress() || address.isLinkLocalAddress()
+                || address.isAnyLocalAddress() || address.isMulticastAddress()) {
+            return false;
+        }
+        byte[] bytes = address.getAddress();
+        if (address instanceof Inet4Address) {
+            int first = bytes[0] & 0xff;
+            int second = bytes[1] & 0xff;
+            // 0.0.0.0/8 ("this network") and 100.64.0.0/10 (carrier-grade NAT)
+            return first != 0 && !(first == 100 && second >= 64 && second < 128);
+        }
+        if (address instanceof Inet6Address) {
+            // fc00::/7 unique local addresses, the IPv6 counterpart of the private ranges
+            return (bytes[0] & 0xfe) != 0xfc;
+        }
+        return true;
+    }
+
+    private static PaymentException notAllowed(String message) {
+        return new PaymentException(ERROR_CODE, message);
+    }
+}
@@ -0,0 +1,10 @@
+-- payments, event_outbox and transactions ids are now generated by the application (SnowflakeIdGenerator):
+-- time-ordered, and far above any value the sequences handed out (an id issued one millisecond after the
+-- generator epoch is already 4096), so new ids never collide with existing rows and sort after them.
+--
+-- Rolling deploy: instances on the previous version keep drawing from payments_id_seq and
+-- event_outbox_id_seq through Hibernate, and insert transactions through the column default, so the
+-- sequences and the transactions default stay until no such instance is left. Nothing relies on the
+-- payments and event_outbox column defaults any more.
+ALTER TABLE payments ALTER COLUMN id DROP DEFAULT;
+ALTER TABLE event_outbox ALTER COLUMN id DROP DEFAULT;
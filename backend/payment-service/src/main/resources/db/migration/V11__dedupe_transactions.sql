@@ -0,0 +1,6 @@
+-- The ledger consumer inserts transactions from payment.processed / payment.refunded with
+-- ON CONFLICT DO NOTHING, so a redelivered event (outbox republish, consumer retry) adds no second row.
+-- reference identifies the source event; rows written before the consumer existed may have a NULL
+-- reference, which never conflicts.
+CREATE UNIQUE INDEX IF NOT EXISTS uk_transactions_payment_type_reference
+    ON transactions (payment_id, type, reference);
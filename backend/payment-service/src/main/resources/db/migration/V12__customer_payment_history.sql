@@ -0,0 +1,33 @@
+-- Customer payment history read model, kept up to date from payment events (payment.created,
+-- qr.code.generated, payment.processed/refunded/cancelled/expired) so history reads never touch payments.
+-- Pages walk (customer_id, created_at, payment_id) newest-first like the merchant history.
+CREATE TABLE customer_payment_history (
+    payment_id BIGINT PRIMARY KEY,
+    customer_id VARCHAR(100),
+    merchant_id VARCHAR(100),
+    amount DECIMAL(19, 2),
+    currency VARCHAR(3),
+    status VARCHAR(20) NOT NULL,
+    status_rank INTEGER NOT NULL,
+    description TEXT,
+    qr_code VARCHAR(500),
+    created_at TIMESTAMP,
+    updated_at TIMESTAMP NOT NULL
+);
+
+CREATE INDEX idx_customer_payment_history_customer_created_at
+    ON customer_payment_history(customer_id, created_at DESC, payment_id DESC);
+
+-- Backfill from existing payments. QR codes live in qr-service and are not copied; events replayed
+-- afterwards are merged into these rows.
+INSERT INTO customer_payment_history (payment_id, customer_id, merchant_id, amount, currency, status,
+                                      status_rank, description, created_at, updated_at)
+SELECT id, customer_id, merchant_id, amount, currency, status,
+       CASE status
+           WHEN 'PENDING' THEN 0
+           WHEN 'READY' THEN 1
+           WHEN 'REFUNDED' THEN 3
+           ELSE 2
+       END,
+       description, created_at, COALESCE(updated_at, created_at)
+FROM payments;
@@ -0,0 +1,36 @@
+-- Merchant webhooks: one registered endpoint per merchant, and a persistent queue of deliveries to it.
+-- Deliveries are queued from payment.processed / payment.refunded and sent by the webhook dispatcher.
+CREATE TABLE merchant_webhook_endpoints (
+    id BIGINT PRIMARY KEY,
+    merchant_id VARCHAR(100) NOT NULL,
+    url VARCHAR(2048) NOT NULL,
+    secret VARCHAR(100) NOT NULL,
+    max_concurrency INTEGER NOT NULL,
+    max_batch_size INTEGER NOT NULL,
+    enabled BOOLEAN NOT NULL,
+    created_at TIMESTAMP NOT NULL,
+    updated_at TIMESTAMP NOT NULL,
+    CONSTRAINT uk_merchant_webhook_endpoints_merchant UNIQUE (merchant_id)
+);
+
+-- event_id is unique per endpoint so a redelivered or republished event is queued once.
+-- A claimed delivery stays PENDING with next_attempt_at pushed out by the lease: if the sender dies,
+-- it becomes due again once the lease runs out.
+CREATE TABLE webhook_deliveries (
+    id BIGINT PRIMARY KEY,
+    endpoint_id BIGINT NOT NULL,
+    event_id VARCHAR(255) NOT NULL,
+    event_type VARCHAR(50) NOT NULL,
+    payload TEXT NOT NULL,
+    status VARCHAR(20) NOT NULL,
+    attempts INTEGER NOT NULL DEFAULT 0,
+    next_attempt_at TIMESTAMP NOT NULL,
+    last_error VARCHAR(500),
+    created_at TIMESTAMP NOT NULL,
+    delivered_at TIMESTAMP,
+    CONSTRAINT uk_webhook_deliveries_endpoint_event UNIQUE (endpoint_id, event_id)
+);
+
+CREATE INDEX idx_webhook_deliveries_due
+    ON webhook_deliveries(endpoint_id, next_attempt_at, id)
+    WHERE status = 'PENDING';
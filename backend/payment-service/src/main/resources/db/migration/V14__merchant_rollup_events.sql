@@ -0,0 +1,8 @@
+-- Merchant daily rollups are now incremented from payment.processed / payment.refunded by a Kafka consumer.
+-- Each applied event is recorded here, in the same transaction as its increment, on the merchant's shard:
+-- a redelivered or republished event finds its reference and is not counted again.
+-- Rows only need to outlive redelivery; those older than the topics' retention can be deleted.
+CREATE TABLE merchant_rollup_events (
+    reference VARCHAR(255) PRIMARY KEY,
+    applied_at TIMESTAMP NOT NULL
+);
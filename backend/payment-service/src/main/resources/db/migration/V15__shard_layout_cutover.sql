@@ -0,0 +1,10 @@
+-- First id issued under the sharded id layout (timestamp | shard | node | sequence). Ids below it were issued
+-- before that layout - BIGSERIAL values and ids of the earlier timestamp | node | sequence layout - and their
+-- bits don't name a shard: ShardRouter routes them to logical shard 0, the home database where they live.
+-- One row, written by the first instance that starts with app.sharding.earlier-id-layout-retired and read by every
+-- instance; only the home database's copy is used.
+CREATE TABLE shard_layout (
+    id SMALLINT PRIMARY KEY,
+    first_sharded_id BIGINT NOT NULL,
+    recorded_at TIMESTAMP NOT NULL
+);
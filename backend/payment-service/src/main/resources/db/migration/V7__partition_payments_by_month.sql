@@ -0,0 +1,107 @@
+-- Monthly range partitioning of payments on created_at.
+-- Each month is its own heap + indexes, so status/date queries prune to the partitions they touch and
+-- index size / vacuum cost per partition stay bounded as volume grows.
+
+-- A partitioned table's unique constraints must include the partition key, so nothing can reference
+-- payments(id) alone any more. transactions.payment_id stays indexed, just without the FK.
+ALTER TABLE transactions DROP CONSTRAINT IF EXISTS transactions_payment_id_fkey;
+
+-- Keep the id sequence (and its pooled increment) when the old table is dropped
+ALTER SEQUENCE payments_id_seq OWNED BY NONE;
+
+ALTER TABLE payments RENAME TO payments_unpartitioned;
+DROP INDEX IF EXISTS idx_payments_status;
+DROP INDEX IF EXISTS idx_payments_merchant_id;
+DROP INDEX IF EXISTS idx_payments_customer_id;
+DROP INDEX IF EXISTS idx_payments_idempotency_key;
+
+CREATE TABLE payments (
+    id BIGINT NOT NULL DEFAULT nextval('payments_id_seq'),
+    amount DECIMAL(19, 2) NOT NULL,
+    currency VARCHAR(3) NOT NULL,
+    status VARCHAR(20) NOT NULL,
+    merchant_id VARCHAR(100),
+    customer_id VARCHAR(100),
+    description TEXT,
+    created_at TIMESTAMP NOT NULL,
+    updated_at TIMESTAMP,
+    idempotency_key VARCHAR(255),
+    error_code VARCHAR(50),
+    error_message TEXT,
+    PRIMARY KEY (id, created_at)
+) PARTITION BY RANGE (created_at);
+
+ALTER SEQUENCE payments_id_seq OWNED BY payments.id;
+
+-- Defined on the parent, created on every partition
+CREATE INDEX idx_payments_status_created_at ON payments(status, created_at);
+CREATE INDEX idx_payments_merchant_id ON payments(merchant_id);
+CREATE INDEX idx_payments_customer_id ON payments(customer_id);
+CREATE INDEX idx_payments_idempotency_key ON payments(idempotency_key);
+
+-- Creates one partition per month in [from_month, to_month]; returns the number created.
+-- Serialized with an advisory lock so every replica can call it on startup/schedule.
+CREATE OR REPLACE FUNCTION create_payments_partitions(from_month DATE, to_month DATE) RETURNS INT AS $$
+DECLARE
+    month_start DATE := date_trunc('month', from_month)::date;
+    partition_name TEXT;
+    created INT := 0;
+BEGIN
+    PERFORM pg_advisory_xact_lock(hashtext('create_payments_partitions'));
+    WHILE month_start <= to_month LOOP
+        partition_name := format('payments_y%sm%s', to_char(month_start, 'YYYY'), to_char(month_start, 'MM'));
+        IF to_regclass(partition_name) IS NULL THEN
+            EXECUTE format('CREATE TABLE %I PARTITION OF payments FOR VALUES FROM (%L) TO (%L)',
+                           partition_name, month_start, (month_start + INTERVAL '1 month')::date);
+            created := created + 1;
+        END IF;
+        month_start := (month_start + INTERVAL '1 month')::date;
+    END LOOP;
+    RETURN created;
+END;
+$$ LANGUAGE plpgsql;
+
+-- Partitions for all existing data plus three months ahead (PaymentPartitionMaintainer keeps extending)
+SELECT create_payments_partitions(
+        COALESCE((SELECT min(created_at) FROM payments_unpartitioned), now())::date,
+        (now() + INTERVAL '3 months')::date);
+
+INSERT INTO payments (id, amount, currency, status, merchant_id, customer_id, description,
+                      created_at, updated_at, idempotency_key, error_code, error_message)
+SELECT id, amount, currency, status, merchant_id, customer_id, description,
+       created_at, updated_at, idempotency_key, error_code, error_message
+FROM payments_unpartitioned;
+
+DROP TABLE payments_unpartitioned;
+
+-- Idempotency keys must be unique across all partitions, which a partitioned unique index
+-- (that has to include created_at) can't enforce. A small unpartitioned key table does,
+-- maintained by trigger so the JPA mapping is unchanged.
+CREATE TABLE payment_idempotency_keys (
+    idempotency_key VARCHAR(255) PRIMARY KEY,
+    payment_id BIGINT NOT NULL,
+    created_at TIMESTAMP NOT NULL
+);
+
+INSERT INTO payment_idempotency_keys (idempotency_key, payment_id, created_at)
+SELECT idempotency_key, id, created_at FROM payments WHERE idempotency_key IS NOT NULL;
+
+CREATE OR REPLACE FUNCTION sync_payment_idempotency_key() RETURNS TRIGGER AS $$
+BEGIN
+    IF TG_OP = 'UPDATE' AND OLD.idempotency_key IS NOT NULL
+            AND OLD.idempotency_key IS DISTINCT FROM NEW.idempotency_key THEN
+        DELETE FROM payment_idempotency_keys WHERE idempotency_key = OLD.idempotency_key;
+    END IF;
+    IF NEW.idempotency_key IS NOT NULL
+            AND (TG_OP = 'INSERT' OR OLD.idempotency_key IS DISTINCT FROM NEW.idempotency_key) THEN
+        -- unique_violation here rolls back the payment write, same as the old unique index
+        INSERT INTO payment_idempotency_keys (idempotency_key, payment_id, created_at)
+        VALUES (NEW.idempotency_key, NEW.id, NEW.created_at);
+    END IF;
+    RETURN NEW;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER trg_payments_idempotency_key
+    AFTER INSERT OR UPDATE OF idempotency_key ON payments
+    FOR EACH ROW EXECUTE FUNCTION sync_payment_idempotency_key();
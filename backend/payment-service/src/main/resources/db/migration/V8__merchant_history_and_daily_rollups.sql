@@ -0,0 +1,61 @@
+-- Merchant payment history: keyset pagination walks (merchant_id, created_at, id) newest-first,
+-- so every page is a single index range scan instead of OFFSET over a merchant's whole history.
+DROP INDEX IF EXISTS idx_payments_merchant_id;
+CREATE INDEX idx_payments_merchant_created_at_id ON payments(merchant_id, created_at DESC, id DESC);
+
+-- Per-merchant, per-day running totals, incremented when a payment completes or is refunded.
+-- Serves the merchant summary endpoint without scanning payments.
+CREATE TABLE merchant_daily_rollups (
+    merchant_id VARCHAR(100) NOT NULL,
+    rollup_date DATE NOT NULL,
+    currency VARCHAR(3) NOT NULL,
+    payment_count BIGINT NOT NULL DEFAULT 0,
+    gross_amount DECIMAL(19, 2) NOT NULL DEFAULT 0,
+    refund_count BIGINT NOT NULL DEFAULT 0,
+    refund_amount DECIMAL(19, 2) NOT NULL DEFAULT 0,
+    updated_at TIMESTAMP NOT NULL,
+    PRIMARY KEY (merchant_id, rollup_date, currency)
+);
+
+-- Backfill from the payment.processed / payment.refunded events in the outbox (which keeps every event), with the
+-- live consumer's meaning (MerchantRollupEventConsumer): a payment on the day of its event at the processed amount,
+-- a refund on the day of its event at the refunded amount. Events that predate the merchant id or the refund
+-- currency take them from the payment.
+-- The backfill counts events up to events_through and the consumer only those after it, so each event is counted
+-- once. events_through is a minute before the latest event: an event stamped earlier whose transaction had not
+-- committed when this ran is then still left to the consumer. NULL when there was nothing to backfill.
+CREATE TABLE merchant_rollup_backfill (
+    id SMALLINT PRIMARY KEY,
+    events_through TIMESTAMP,
+    backfilled_at TIMESTAMP NOT NULL
+);
+
+INSERT INTO merchant_rollup_backfill (id, events_through, backfilled_at)
+SELECT 1, max(CAST(CAST(event_data AS jsonb) ->> 'timestamp' AS TIMESTAMP)) - INTERVAL '1 minute', now()
+FROM event_outbox
+WHERE event_type IN ('PaymentProcessedEvent', 'PaymentRefundedEvent');
+
+WITH events AS (
+    SELECT event_type,
+           CAST(CAST(event_data AS jsonb) ->> 'paymentId' AS BIGINT) AS payment_id,
+           CAST(CAST(event_data AS jsonb) ->> 'timestamp' AS TIMESTAMP) AS occurred_at,
+           CAST(event_data AS jsonb) ->> 'merchantId' AS merchant_id,
+           CAST(event_data AS jsonb) ->> 'currency' AS currency,
+           CAST(CAST(event_data AS jsonb) ->> 'amount' AS DECIMAL(19, 2)) AS amount,
+           CAST(CAST(event_data AS jsonb) ->> 'refundAmount' AS DECIMAL(19, 2)) AS refund_amount
+    FROM event_outbox
+    WHERE event_type IN ('PaymentProcessedEvent', 'PaymentRefundedEvent')
+)
+INSERT INTO merchant_daily_rollups (merchant_id, rollup_date, currency, payment_count, gross_amount,
+                                    refund_count, refund_amount, updated_at)
+SELECT COALESCE(e.merchant_id, p.merchant_id), CAST(e.occurred_at AS DATE), UPPER(COALESCE(e.currency, p.currency)),
+       count(*) FILTER (WHERE e.event_type = 'PaymentProcessedEvent'),
+       COALESCE(sum(e.amount) FILTER (WHERE e.event_type = 'PaymentProcessedEvent'), 0),
+       count(*) FILTER (WHERE e.event_type = 'PaymentRefundedEvent'),
+       COALESCE(sum(e.refund_amount) FILTER (WHERE e.event_type = 'PaymentRefundedEvent'), 0),
+       now()
+FROM events e
+JOIN payments p ON p.id = e.payment_id
+WHERE COALESCE(e.merchant_id, p.merchant_id) IS NOT NULL
+  AND e.occurred_at <= (SELECT events_through FROM merchant_rollup_backfill WHERE id = 1)
+GROUP BY COALESCE(e.merchant_id, p.merchant_id), CAST(e.occurred_at AS DATE), UPPER(COALESCE(e.currency, p.currency));
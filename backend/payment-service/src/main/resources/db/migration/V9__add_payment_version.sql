@@ -0,0 +1,6 @@
+-- Optimistic-lock version, bumped by every payment write; exposed as the ETag of GET /payments/{id}(/status).
+-- Adding a column with a constant default is metadata-only, so this does not rewrite the partitions.
+ALTER TABLE payments ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
+
+-- Lets the If-None-Match check (SELECT version ... WHERE id = ?) run as an index-only scan
+CREATE INDEX idx_payments_id_version ON payments(id) INCLUDE (version);
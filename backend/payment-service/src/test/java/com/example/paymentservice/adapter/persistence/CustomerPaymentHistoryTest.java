@@ -0,0 +1,132 @@
+package com.example.paymentservice.adapter.persistence;
+
+import com.example.paymentservice.domain.model.PaymentHistoryEntry;
+import com.example.paymentservice.domain.model.PaymentHistoryPage;
+import com.example.paymentservice.entity.PaymentStatus;
+import com.example.paymentservice.kafka.KafkaEventProducer;
+import com.example.paymentservice.repository.CustomerPaymentHistoryRepository;
+import com.example.paymentservice.service.CustomerPaymentHistoryService;
+import com.example.paymentservice.service.OutboxProcessor;
+import com.example.paymentservice.service.SnowflakeIdGenerator;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * History read model: events merged in any order, and keyset pages over a customer's entries.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class CustomerPaymentHistoryTest {
+
+    private static final LocalDateTime CREATED_AT = LocalDateTime.of(2026, 3, 1, 10, 0);
+
+    @MockitoBean
+    KafkaEventProducer kafkaEventProducer;
+
+    @MockitoBean
+    OutboxProcessor outboxProcessor;
+
+    @Autowired
+    private CustomerPaymentHistoryRepository historyRepository;
+
+    @Autowired
+    private CustomerPaymentHistoryService historyService;
+
+    @Autowired
+    private SnowflakeIdGenerator idGenerator;
+
+    @Test
+    void eventsArrivingOutOfOrderConvergeOnTheLatestState() {
+        // Given
+        String customerId = UUID.randomUUID().toString();
+        long paymentId = idGenerator.nextId(2);
+
+        // When - completion and refund overtake creation and the QR code
+        historyRepository.apply(change(paymentId, PaymentStatus.COMPLETED, CREATED_AT.plusMinutes(2))
+                .amount(new BigDecimal("25.00")).currency("USD").merchantId("MERCHANT_001").build());
+        historyRepository.apply(change(paymentId, PaymentStatus.REFUNDED, CREATED_AT.plusMinutes(3)).build());
+        historyRepository.apply(change(paymentId, PaymentStatus.PENDING, CREATED_AT)
+                .customerId(customerId).amount(BigDecimal.ZERO).currency("USD").description("Coffee")
+                .createdAt(CREATED_AT).build());
+        historyRepository.apply(change(paymentId, PaymentStatus.READY, CREATED_AT.plusMinutes(1))
+                .qrCode("QR-" + paymentId).build());
+
+        // Then
+        List<PaymentHistoryEntry> entries = historyRepository.findByCustomerId(customerId, null, 10);
+        assertEquals(1, entries.size());
+        PaymentHistoryEntry entry = entries.getFirst();
+        assertEquals(PaymentStatus.REFUNDED, entry.getStatus());
+        assertEquals(0, new BigDecimal("25.00").compareTo(entry.getAmount()));
+        assertEquals("MERCHANT_001", entry.getMerchantId());
+        assertEquals("Coffee", entry.getDescription());
+        assertEquals("QR-" + paymentId, entry.getQrCode());
+        assertEquals(CREATED_AT, entry.getCreatedAt());
+        assertEquals(CREATED_AT.plusMinutes(3), entry.getUpdatedAt());
+    }
+
+    @Test
+    void entriesAreNotListedBeforePaymentCreatedIsSeen() {
+        // Given
+        String customerId = UUID.randomUUID().toString();
+        long paymentId = idGenerator.nextId(4);
+
+        // When
+        historyRepository.apply(change(paymentId, PaymentStatus.READY, CREATED_AT).qrCode("QR").build());
+
+        // Then
+        assertTrue(historyRepository.findByCustomerId(customerId, null, 10).isEmpty());
+        historyRepository.apply(change(paymentId, PaymentStatus.PENDING, CREATED_AT)
+                .customerId(customerId).createdAt(CREATED_AT).build());
+        assertEquals(PaymentStatus.READY, historyRepository.findByCustomerId(customerId, null, 10).getFirst().getStatus());
+    }
+
+    @Test
+    void pagesWalkTheHistoryNewestFirst() {
+        // Given - five payments, two with the same creation time
+        String customerId = UUID.randomUUID().toString();
+        for (int i = 0; i < 5; i++) {
+            LocalDateTime createdAt = CREATED_AT.plusMinutes(Math.min(i, 3));
+            historyRepository.apply(change(idGenerator.nextId(1), PaymentStatus.PENDING, createdAt)
+                    .customerId(customerId).createdAt(createdAt).build());
+        }
+
+        // When
+        PaymentHistoryPage first = historyService.getPayments(customerId, null, 2);
+        PaymentHistoryPage second = historyService.getPayments(customerId, first.getNextCursor(), 2);
+        PaymentHistoryPage last = historyService.getPayments(customerId, second.getNextCursor(), 2);
+
+        // Then
+        List<PaymentHistoryEntry> all = new ArrayList<>(first.getEntries());
+        all.addAll(second.getEntries());
+        all.addAll(last.getEntries());
+        assertEquals(5, all.stream().map(PaymentHistoryEntry::getPaymentId).distinct().count());
+        for (int i = 1; i < all.size(); i++) {
+            PaymentHistoryEntry previous = all.get(i - 1);
+            PaymentHistoryEntry current = all.get(i);
+            assertTrue(previous.getCreatedAt().isAfter(current.getCreatedAt())
+                    || previous.getCreatedAt().equals(current.getCreatedAt())
+                    && previous.getPaymentId() > current.getPaymentId());
+        }
+        assertEquals(1, last.getEntries().size());
+        assertNull(last.getNextCursor());
+    }
+
+    private static PaymentHistoryEntry.PaymentHistoryEntryBuilder change(long paymentId, PaymentStatus status,
+                                                                          LocalDateTime at) {
+        return PaymentHistoryEntry.builder()
+                .paymentId(paymentId)
+                .status(status)
+                .updatedAt(at);
+    }
+}
@@ -0,0 +1,73 @@
+package com.example.paymentservice.adapter.persistence;
+
+import com.example.paymentservice.domain.model.EventOutbox;
+import com.example.paymentservice.entity.OutboxStatus;
+import com.example.paymentservice.kafka.KafkaEventProducer;
+import com.example.paymentservice.repository.EventOutboxRepository;
+import com.example.paymentservice.service.OutboxProcessor;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Round-trip benchmark for outbox writes: with pooled sequence IDs and JDBC batching,
+ * N inserts in one transaction cost a handful of statements instead of N.
+ */
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@ActiveProfiles("test")
+class EventOutboxBatchInsertTest {
+
+    private static final int EVENTS = 200;
+
+    @MockitoBean
+    KafkaEventProducer kafkaEventProducer;
+
+    @MockitoBean
+    OutboxProcessor outboxProcessor;
+
+    @Autowired
+    private EventOutboxRepository outboxRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void outboxInsertsAreBatched() {
+        // When
+        transactionTemplate.executeWithoutResult(status -> {
+            for (int i = 0; i < EVENTS; i++) {
+                outboxRepository.save(EventOutbox.builder()
+                        .eventType("PaymentCreatedEvent")
+                        .eventData("{\"paymentId\":" + i + "}")
+                        .status(OutboxStatus.PENDING)
+                        .build());
+            }
+        });
+
+        // Then - one sequence call per 50 ids, one prepared insert per 50-row batch
+        long statements = statistics.getPrepareStatementCount();
+        assertEquals(EVENTS, statistics.getEntityInsertCount());
+        assertTrue(statements <= 2L * (EVENTS / 50) + 2,
+                "Expected batched inserts, but prepared " + statements + " statements");
+    }
+}
@@ -0,0 +1,98 @@
+package com.example.paymentservice.adapter.persistence;
+
+import com.example.paymentservice.domain.model.MerchantDailySummary;
+import com.example.paymentservice.domain.model.MerchantRollupIncrement;
+import com.example.paymentservice.kafka.KafkaEventProducer;
+import com.example.paymentservice.repository.MerchantRollupRepository;
+import com.example.paymentservice.service.OutboxProcessor;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Rollup writes: increments are added to the merchant's daily row once per event reference.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class MerchantRollupWriteTest {
+
+    private static final LocalDate DAY = LocalDate.of(2026, 3, 1);
+
+    @MockitoBean
+    KafkaEventProducer kafkaEventProducer;
+
+    @MockitoBean
+    OutboxProcessor outboxProcessor;
+
+    @Autowired
+    private MerchantRollupRepository merchantRollupRepository;
+
+    @Test
+    void redeliveredEventsAreNotCountedTwice() {
+        // Given
+        String merchantId = "merchant-" + UUID.randomUUID();
+        MerchantRollupIncrement first = payment(merchantId, "payment.processed:1", "25.00");
+        MerchantRollupIncrement second = payment(merchantId, "payment.processed:2", "10.00");
+        MerchantRollupIncrement refund = refund(merchantId, "payment.refunded:1", "5.00");
+
+        // When - the second batch repeats the first batch's events
+        merchantRollupRepository.applyAllIfAbsent(List.of(first, second));
+        merchantRollupRepository.applyAllIfAbsent(List.of(first, refund, second));
+
+        // Then
+        List<MerchantDailySummary> days = merchantRollupRepository.findByMerchantId(merchantId, DAY, DAY);
+        assertEquals(1, days.size());
+        assertEquals(2, days.get(0).getPaymentCount());
+        assertEquals(0, new BigDecimal("35.00").compareTo(days.get(0).getGrossAmount()));
+        assertEquals(1, days.get(0).getRefundCount());
+        assertEquals(0, new BigDecimal("5.00").compareTo(days.get(0).getRefundAmount()));
+    }
+
+    @Test
+    void fullyRedeliveredBatchChangesNothing() {
+        // Given
+        String merchantId = "merchant-" + UUID.randomUUID();
+        List<MerchantRollupIncrement> batch = List.of(payment(merchantId, "payment.processed:" + merchantId, "25.00"));
+        merchantRollupRepository.applyAllIfAbsent(batch);
+
+        // When
+        merchantRollupRepository.applyAllIfAbsent(batch);
+
+        // Then
+        List<MerchantDailySummary> days = merchantRollupRepository.findByMerchantId(merchantId, DAY, DAY);
+        assertEquals(1, days.get(0).getPaymentCount());
+    }
+
+    private MerchantRollupIncrement payment(String merchantId, String reference, String amount) {
+        return MerchantRollupIncrement.builder()
+                .reference(merchantId + "/" + reference)
+                .merchantId(merchantId)
+                .date(DAY)
+                .currency("USD")
+                .paymentCount(1)
+                .grossAmount(new BigDecimal(amount))
+                .refundAmount(BigDecimal.ZERO)
+                .build();
+    }
+
+    private MerchantRollupIncrement refund(String merchantId, String reference, String amount) {
+        return MerchantRollupIncrement.builder()
+                .reference(merchantId + "/" + reference)
+                .merchantId(merchantId)
+                .date(DAY)
+                .currency("USD")
+                .grossAmount(BigDecimal.ZERO)
+                .refundCount(1)
+                .refundAmount(new BigDecimal(amount))
+                .build();
+    }
+}
@@ -0,0 +1,81 @@
+package com.example.paymentservice.adapter.persistence;
+
+import com.example.paymentservice.client.UserClientService;
+import com.example.paymentservice.dto.request.InitiatePaymentBatchRequest;
+import com.example.paymentservice.dto.response.InitiatePaymentResponse;
+import com.example.paymentservice.kafka.KafkaEventProducer;
+import com.example.paymentservice.repository.PaymentRepository;
+import com.example.paymentservice.service.OutboxProcessor;
+import com.example.paymentservice.service.PaymentService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Batch initiation: one user check, and payments plus outbox events inserted in JDBC batches.
+ */
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@ActiveProfiles("test")
+class PaymentBatchInitiationTest {
+
+    private static final int ITEMS = InitiatePaymentBatchRequest.MAX_ITEMS;
+
+    @MockitoBean
+    KafkaEventProducer kafkaEventProducer;
+
+    @MockitoBean
+    OutboxProcessor outboxProcessor;
+
+    @MockitoBean
+    UserClientService userClientService;
+
+    @Autowired
+    private PaymentService paymentService;
+
+    @Autowired
+    private PaymentRepository paymentRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Test
+    void batchIsInsertedInBatchedStatements() {
+        // Given
+        long userId = 4242L;
+        when(userClientService.validateUserConditions(userId)).thenReturn(true);
+        InitiatePaymentBatchRequest request = new InitiatePaymentBatchRequest();
+        request.setUserId(userId);
+        request.setItems(IntStream.range(0, ITEMS).mapToObj(i -> {
+            InitiatePaymentBatchRequest.Item item = new InitiatePaymentBatchRequest.Item();
+            item.setDescription("Ticket " + i);
+            return item;
+        }).toList());
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        // When
+        List<InitiatePaymentResponse> payments = paymentService.initiatePayments(request, null).getPayments();
+
+        // Then - 2 x 100 rows in 50-row batches, ids generated in the application
+        long statements = statistics.getPrepareStatementCount();
+        assertEquals(2L * ITEMS, statistics.getEntityInsertCount());
+        assertTrue(statements <= 2L * (ITEMS / 50) + 4,
+                "Expected batched inserts, but prepared " + statements + " statements");
+        verify(userClientService, times(1)).validateUserConditions(userId);
+
+        assertEquals(ITEMS, payments.stream().map(InitiatePaymentResponse::getTransactionId).distinct().count());
+        assertEquals("Ticket 7", paymentRepository.findById(payments.get(7).getTransactionId())
+                .orElseThrow().getDescription());
+    }
+}
@@ -0,0 +1,105 @@
+package com.example.paymentservice.adapter.persistence;
+
+import com.example.paymentservice.domain.model.EventOutbox;
+import com.example.paymentservice.domain.model.Payment;
+import com.example.paymentservice.entity.OutboxStatus;
+import com.example.paymentservice.entity.PaymentErrorCode;
+import com.example.paymentservice.entity.PaymentStatus;
+import com.example.paymentservice.kafka.KafkaEventProducer;
+import com.example.paymentservice.repository.EventOutboxRepository;
+import com.example.paymentservice.repository.PaymentRepository;
+import com.example.paymentservice.service.OutboxProcessor;
+import com.example.paymentservice.service.PaymentService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Chunked expiry of abandoned payments: only PENDING/READY payments are expired, each chunk is bounded by the
+ * limit, and every chunk records one outbox event listing its payments.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class PaymentExpiryTest {
+
+    @MockitoBean
+    KafkaEventProducer kafkaEventProducer;
+
+    @MockitoBean
+    OutboxProcessor outboxProcessor;
+
+    @Autowired
+    private PaymentService paymentService;
+
+    @Autowired
+    private PaymentRepository paymentRepository;
+
+    @Autowired
+    private EventOutboxRepository outboxRepository;
+
+    @Test
+    void stalePendingAndReadyPaymentsAreExpiredInChunks() {
+        // Given
+        Payment pending1 = save(PaymentStatus.PENDING);
+        Payment pending2 = save(PaymentStatus.PENDING);
+        Payment ready = save(PaymentStatus.READY);
+        Payment completed = save(PaymentStatus.COMPLETED);
+        LocalDateTime cutoff = LocalDateTime.now().plusMinutes(1);
+
+        // When - drain in chunks of 2 (other tests' payments may share the database)
+        assertEquals(2, paymentService.expireStalePayments(cutoff, 2));
+        int chunks = 1;
+        while (paymentService.expireStalePayments(cutoff, 2) > 0) {
+            chunks++;
+        }
+
+        // Then
+        for (Payment expired : List.of(pending1, pending2, ready)) {
+            Payment reloaded = paymentRepository.findById(expired.getId()).orElseThrow();
+            assertEquals(PaymentStatus.EXPIRED, reloaded.getStatus());
+            assertEquals(PaymentErrorCode.PAYMENT_EXPIRED.name(), reloaded.getErrorCode());
+            assertEquals(1L, reloaded.getVersion());
+        }
+        assertEquals(PaymentStatus.COMPLETED, paymentRepository.findById(completed.getId()).orElseThrow().getStatus());
+
+        List<EventOutbox> events = outboxRepository.findByStatus(OutboxStatus.PENDING).stream()
+                .filter(e -> e.getEventType().equals("PaymentsExpiredEvent"))
+                .toList();
+        assertTrue(events.size() >= chunks);
+        for (Payment expired : List.of(pending1, pending2, ready)) {
+            assertTrue(events.stream().anyMatch(e -> e.getEventData().matches(".*[\\[,]" + expired.getId() + "[,\\]].*")),
+                    "No PaymentsExpiredEvent lists payment " + expired.getId());
+        }
+    }
+
+    @Test
+    void paymentsCreatedAfterCutoffAreKept() {
+        // Given
+        Payment pending = save(PaymentStatus.PENDING);
+
+        // When
+        while (paymentService.expireStalePayments(pending.getCreatedAt().minusSeconds(1), 100) > 0) {
+            // drain anything older
+        }
+
+        // Then
+        assertEquals(PaymentStatus.PENDING, paymentRepository.findById(pending.getId()).orElseThrow().getStatus());
+    }
+
+    private Payment save(PaymentStatus status) {
+        return paymentRepository.save(Payment.builder()
+                .amount(new BigDecimal("10.00"))
+                .currency("USD")
+                .status(status)
+                .customerId("1")
+                .build());
+    }
+}
@@ -0,0 +1,93 @@
+package com.example.paymentservice.adapter.persistence;
+
+import com.example.paymentservice.config.ReplicaRoutingDataSource;
+import com.example.paymentservice.config.ShardRouter;
+import com.example.paymentservice.config.ShardingProperties;
+import com.example.paymentservice.service.SnowflakeIdGenerator;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.TransientDataAccessResourceException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.sql.Date;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class PaymentPartitionMaintainerTest {
+
+    private static final String CREATE = "SELECT create_payments_partitions(?, ?)";
+
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final PaymentPartitionMaintainer maintainer = new PaymentPartitionMaintainer(jdbcTemplate, shardRouter(),
+            meterRegistry);
+
+    @Test
+    void partitionsAreCreatedOnThePrimary() {
+        // Given - the route the replica-routing data source would pick for the statement
+        RouteProbe routing = new RouteProbe();
+        AtomicReference<ReplicaRoutingDataSource.Route> route = new AtomicReference<>();
+        when(jdbcTemplate.queryForObject(eq(CREATE), eq(Integer.class), any(Date.class), any(Date.class)))
+                .thenAnswer(invocation -> {
+                    route.set(routing.route());
+                    return 1;
+                });
+
+        // When
+        maintainer.onStartup();
+
+        // Then
+        assertEquals(ReplicaRoutingDataSource.Route.PRIMARY, route.get());
+        assertTrue(meterRegistry.get("payments.partitions.last.success").gauge().value() > 0);
+    }
+
+    @Test
+    void failedStartupRunFailsTheStart() {
+        when(jdbcTemplate.queryForObject(eq(CREATE), eq(Integer.class), any(Date.class), any(Date.class)))
+                .thenThrow(new TransientDataAccessResourceException("read-only transaction"));
+
+        assertThrows(TransientDataAccessResourceException.class, maintainer::onStartup);
+    }
+
+    @Test
+    void failedScheduledRunIsCountedAndLeavesTheLastSuccess() {
+        // Given
+        when(jdbcTemplate.queryForObject(eq(CREATE), eq(Integer.class), any(Date.class), any(Date.class)))
+                .thenReturn(0)
+                .thenThrow(new TransientDataAccessResourceException("database down"));
+        maintainer.onStartup();
+        double lastSuccess = meterRegistry.get("payments.partitions.last.success").gauge().value();
+
+        // When
+        maintainer.ensureFuturePartitions();
+
+        // Then
+        assertEquals(1.0, meterRegistry.get("payments.partitions.maintenance.failures").counter().count());
+        assertEquals(lastSuccess, meterRegistry.get("payments.partitions.last.success").gauge().value());
+    }
+
+    /** The route the replica-routing data source picks for a connection opened now. */
+    private static class RouteProbe extends ReplicaRoutingDataSource {
+
+        RouteProbe() {
+            super(new DriverManagerDataSource(), new DriverManagerDataSource());
+        }
+
+        Route route() {
+            return determineCurrentLookupKey();
+        }
+    }
+
+    private static ShardRouter shardRouter() {
+        SnowflakeIdGenerator idGenerator = new SnowflakeIdGenerator(
+                Instant.parse("2025-01-01T00:00:00Z"), 41, 4, 3, 5, 0, Duration.ofSeconds(1));
+        return new ShardRouter(new ShardingProperties(false, 16, List.of(), List.of(), false), idGenerator);
+    }
+}
@@ -0,0 +1,209 @@
+package com.example.paymentservice.adapter.persistence;
+
+import com.example.paymentservice.config.ShardRouter;
+import com.example.paymentservice.config.ShardRoutingDataSource;
+import com.example.paymentservice.domain.model.Payment;
+import com.example.paymentservice.domain.model.PaymentPage;
+import com.example.paymentservice.domain.model.PaymentTransition;
+import com.example.paymentservice.dto.request.CreatePaymentRequest;
+import com.example.paymentservice.entity.PaymentStatus;
+import com.example.paymentservice.kafka.KafkaEventProducer;
+import com.example.paymentservice.repository.PaymentRepository;
+import com.example.paymentservice.service.MerchantService;
+import com.example.paymentservice.service.OutboxProcessor;
+import com.example.paymentservice.service.PaymentService;
+import com.example.paymentservice.service.SnowflakeIdGenerator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.InvalidDataAccessApiUsageException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Two H2 databases as physical shards: payments and their outbox events land on their customer's database,
+ * are found again by id, merchant lists merge both databases, and a transaction cannot span them. Ids from
+ * before the sharded layout are routed to the home database.
+ * Hibernate creates the schema on the home database only, so it is copied to the second one first.
+ */
+@SpringBootTest(properties = {
+        "app.sharding.enabled=true",
+        "app.sharding.earlier-id-layout-retired=true",
+        "app.sharding.shards[0].url=jdbc:h2:mem:payment_shard_0;DB_CLOSE_DELAY=-1;MODE=PostgreSQL",
+        "app.sharding.shards[0].username=sa",
+        "app.sharding.shards[1].url=jdbc:h2:mem:payment_shard_1;DB_CLOSE_DELAY=-1;MODE=PostgreSQL",
+        "app.sharding.shards[1].username=sa"
+})
+@ActiveProfiles("test")
+class ShardedPaymentStorageTest {
+
+    @MockitoBean
+    KafkaEventProducer kafkaEventProducer;
+
+    @MockitoBean
+    OutboxProcessor outboxProcessor;
+
+    @Autowired
+    private PaymentService paymentService;
+
+    @Autowired
+    private MerchantService merchantService;
+
+    @Autowired
+    private PaymentRepository paymentRepository;
+
+    @Autowired
+    private ShardRouter shardRouter;
+
+    @Autowired
+    private SnowflakeIdGenerator idGenerator;
+
+    @Autowired
+    private ShardRoutingDataSource shardRoutingDataSource;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private List<JdbcTemplate> databases;
+
+    @BeforeEach
+    void copySchemaToSecondShard() {
+        databases = shardRoutingDataSource.getShards().stream().map(JdbcTemplate::new).toList();
+        Integer tables = databases.get(1).queryForObject(
+                "SELECT COUNT(*) FROM INFORMATION_SCHEMA.TABLES WHERE TABLE_NAME = 'PAYMENTS'", Integer.class);
+        if (tables == 0) {
+            databases.get(0).queryForList("SCRIPT NODATA", String.class).stream()
+                    .filter(statement -> !statement.startsWith("CREATE USER"))
+                    .forEach(databases.get(1)::execute);
+        }
+    }
+
+    @Test
+    void paymentsAndOutboxEventsAreStoredOnTheirCustomersShard() {
+        // Given / When
+        String merchantId = "MERCHANT_" + UUID.randomUUID();
+        List<Payment> payments = new ArrayList<>();
+        for (int customer = 0; customer < 20; customer++) {
+            payments.add(create(merchantId, "customer-" + customer));
+        }
+
+        // Then
+        Set<Integer> used = new HashSet<>();
+        for (Payment payment : payments) {
+            int logical = shardRouter.shardOf(payment.getCustomerId());
+            assertEquals(logical, shardRouter.shardOfId(payment.getId()));
+            int expected = logical % 2;
+            used.add(expected);
+            assertEquals(1, count(expected, "SELECT COUNT(*) FROM payments WHERE id = ?", payment.getId()));
+            assertEquals(0, count(1 - expected, "SELECT COUNT(*) FROM payments WHERE id = ?", payment.getId()));
+            assertEquals(1, count(expected, "SELECT COUNT(*) FROM event_outbox WHERE event_data LIKE ?",
+                    "%\"paymentId\":" + payment.getId() + ",%"));
+            assertEquals(payment.getCustomerId(), paymentRepository.findById(payment.getId()).orElseThrow().getCustomerId());
+        }
+        assertEquals(Set.of(0, 1), used);
+    }
+
+    @Test
+    void merchantPagesMergeBothShardsInKeysetOrder() {
+        // Given
+        String merchantId = "MERCHANT_" + UUID.randomUUID();
+        List<Long> created = new ArrayList<>();
+        for (int customer = 0; customer < 10; customer++) {
+            created.add(create(merchantId, "pager-" + customer).getId());
+        }
+
+        // When - pages of 3 until the cursor runs out
+        List<Payment> listed = new ArrayList<>();
+        String cursor = null;
+        do {
+            PaymentPage page = merchantService.getPayments(merchantId, cursor, 3);
+            assertTrue(page.getPayments().size() <= 3);
+            listed.addAll(page.getPayments());
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+
+        // Then - every payment once, newest first
+        assertEquals(Set.copyOf(created), Set.copyOf(listed.stream().map(Payment::getId).toList()));
+        assertEquals(created.size(), listed.size());
+        for (int i = 1; i < listed.size(); i++) {
+            Payment previous = listed.get(i - 1);
+            Payment current = listed.get(i);
+            assertTrue(previous.getCreatedAt().isAfter(current.getCreatedAt())
+                    || previous.getCreatedAt().equals(current.getCreatedAt()) && previous.getId() > current.getId());
+        }
+    }
+
+    @Test
+    void idsFromBeforeTheShardedLayoutAreFoundInTheHomeDatabase() {
+        // Given - a BIGSERIAL-era payment and one from the earlier layout (41-bit time, 5-bit node 3, 7-bit
+        // sequence), both in the home database; read as sharded ids their bits name logical shard 1
+        long sequenceEra = 300;
+        long earlierLayout = (86_400_000L << 12) | (3L << 7) | 5;
+        for (long id : List.of(sequenceEra, earlierLayout)) {
+            databases.get(0).update("INSERT INTO payments (id, amount, currency, status, customer_id, created_at, version) "
+                    + "VALUES (?, 10.00, 'USD', 'PENDING', 'legacy', CURRENT_TIMESTAMP, 0)", id);
+            assertEquals(1, idGenerator.shardOf(id) % 2);
+        }
+
+        // When / Then - routed home for reads and writes
+        for (long id : List.of(sequenceEra, earlierLayout)) {
+            assertEquals(0, shardRouter.shardOfId(id));
+            assertEquals("legacy", paymentRepository.findById(id).orElseThrow().getCustomerId());
+            assertTrue(paymentRepository.transitionStatus(id, PaymentStatus.PENDING,
+                    PaymentTransition.builder().targetStatus(PaymentStatus.READY).updatedAt(LocalDateTime.now()).build()));
+            assertEquals(PaymentStatus.READY, paymentRepository.findById(id).orElseThrow().getStatus());
+        }
+    }
+
+    @Test
+    void transactionCannotSpanTwoDatabases() {
+        // Given - one payment on each database
+        String merchantId = "MERCHANT_" + UUID.randomUUID();
+        Payment onFirst = null;
+        Payment onSecond = null;
+        for (int customer = 0; onFirst == null || onSecond == null; customer++) {
+            Payment payment = create(merchantId, "span-" + customer);
+            if (shardRouter.shardOfId(payment.getId()) % 2 == 0) {
+                onFirst = payment;
+            } else {
+                onSecond = payment;
+            }
+        }
+        Long first = onFirst.getId();
+        Long second = onSecond.getId();
+
+        // When / Then - the adapter's exception translation wraps the router's IllegalStateException
+        InvalidDataAccessApiUsageException e = assertThrows(InvalidDataAccessApiUsageException.class,
+                () -> transactionTemplate.executeWithoutResult(status -> {
+                    paymentRepository.findById(first);
+                    paymentRepository.findById(second);
+                }));
+        assertInstanceOf(IllegalStateException.class, e.getCause());
+    }
+
+    private Payment create(String merchantId, String customerId) {
+        CreatePaymentRequest request = new CreatePaymentRequest();
+        request.setAmount(new BigDecimal("10.00"));
+        request.setCurrency("USD");
+        request.setMerchantId(merchantId);
+        request.setCustomerId(customerId);
+        return paymentService.createPayment(request);
+    }
+
+    private int count(int database, String sql, Object argument) {
+        return databases.get(database).queryForObject(sql, Integer.class, argument);
+    }
+}
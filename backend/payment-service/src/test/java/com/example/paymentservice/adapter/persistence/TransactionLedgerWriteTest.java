@@ -0,0 +1,96 @@
+package com.example.paymentservice.adapter.persistence;
+
+import com.example.paymentservice.config.ShardRouter;
+import com.example.paymentservice.domain.model.Transaction;
+import com.example.paymentservice.entity.TransactionStatus;
+import com.example.paymentservice.entity.TransactionType;
+import com.example.paymentservice.kafka.KafkaEventProducer;
+import com.example.paymentservice.repository.TransactionRepository;
+import com.example.paymentservice.service.OutboxProcessor;
+import com.example.paymentservice.service.SnowflakeIdGenerator;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Ledger writes: batched inserts that skip rows already stored for the same (payment, type, reference).
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class TransactionLedgerWriteTest {
+
+    @MockitoBean
+    KafkaEventProducer kafkaEventProducer;
+
+    @MockitoBean
+    OutboxProcessor outboxProcessor;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private SnowflakeIdGenerator idGenerator;
+
+    @Autowired
+    private ShardRouter shardRouter;
+
+    @Test
+    void redeliveredTransactionsAreNotInsertedTwice() {
+        // Given - payment ids on two different shards
+        long first = idGenerator.nextId(3);
+        long second = idGenerator.nextId(7);
+        Transaction payment = transaction(first, TransactionType.PAYMENT, "payment.processed:" + first);
+        Transaction refund = transaction(first, TransactionType.REFUND, "payment.refunded:" + first);
+        Transaction other = transaction(second, TransactionType.PAYMENT, "payment.processed:" + second);
+
+        // When - the second batch repeats two of the first batch's events
+        transactionRepository.saveAllIfAbsent(List.of(payment, other));
+        transactionRepository.saveAllIfAbsent(List.of(payment, refund, other));
+
+        // Then
+        List<Transaction> stored = transactionRepository.findByPaymentId(first);
+        assertEquals(2, stored.size());
+        assertEquals(1, stored.stream().filter(t -> t.getType() == TransactionType.REFUND).count());
+        assertEquals(1, transactionRepository.findByPaymentId(second).size());
+        for (Transaction transaction : stored) {
+            assertEquals(shardRouter.shardOfId(first), shardRouter.shardOfId(transaction.getId()));
+            assertEquals(new BigDecimal("25.00"), transaction.getAmount());
+            assertEquals(transactionRepository.findById(transaction.getId()).orElseThrow().getReference(),
+                    transaction.getReference());
+        }
+    }
+
+    @Test
+    void sameReferenceWithAnotherTypeIsADifferentTransaction() {
+        // Given
+        long paymentId = idGenerator.nextId(5);
+
+        // When
+        transactionRepository.saveAllIfAbsent(List.of(
+                transaction(paymentId, TransactionType.PAYMENT, "ref-" + paymentId),
+                transaction(paymentId, TransactionType.REFUND, "ref-" + paymentId)));
+
+        // Then
+        assertEquals(2, transactionRepository.findByPaymentId(paymentId).size());
+    }
+
+    private Transaction transaction(long paymentId, TransactionType type, String reference) {
+        return Transaction.builder()
+                .paymentId(paymentId)
+                .type(type)
+                .amount(new BigDecimal("25.00"))
+                .status(TransactionStatus.SUCCESS)
+                .reference(reference)
+                .timestamp(LocalDateTime.of(2026, 3, 1, 10, 15, 30))
+                .description("ledger test")
+                .build();
+    }
+}
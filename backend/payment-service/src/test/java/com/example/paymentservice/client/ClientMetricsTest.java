@@ -0,0 +1,120 @@
+package com.example.paymentservice.client;
+
+import io.github.resilience4j.circuitbreaker.annotation.CircuitBreaker;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.client.MockRestServiceServer;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.RestClient;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.method;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.requestTo;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withStatus;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withSuccess;
+
+class ClientMetricsTest {
+
+    private static final String URL = "http://wallet/api/v1/wallets/users/1/deduct";
+
+    private SimpleMeterRegistry meterRegistry;
+    private ClientMetrics clientMetrics;
+    private MockRestServiceServer server;
+    private RestClient restClient;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        clientMetrics = new ClientMetrics(meterRegistry);
+        RestClient.Builder builder = RestClient.builder().requestInterceptor(clientMetrics.interceptor("wallet"));
+        server = MockRestServiceServer.bindTo(builder).build();
+        restClient = builder.build();
+    }
+
+    @Test
+    void testRequestRecordsTimerAndBytes() {
+        // Given
+        server.expect(requestTo(URL)).andExpect(method(HttpMethod.POST))
+                .andRespond(withSuccess("{\"balance\":10}", MediaType.APPLICATION_JSON));
+
+        // When
+        String response = deduct();
+
+        // Then
+        assertEquals("{\"balance\":10}", response);
+        assertEquals(1, meterRegistry.get("client.requests")
+                .tags("client", "wallet", "operation", "deduct", "status", "200", "outcome", "SUCCESS")
+                .timer().count());
+        assertEquals(13, meterRegistry.get("client.request.size").tag("operation", "deduct").summary().totalAmount());
+        assertEquals(14, meterRegistry.get("client.response.size").tag("operation", "deduct").summary().totalAmount());
+        assertNull(meterRegistry.find("client.calls").timer());
+    }
+
+    @Test
+    void testRetriedCallCountsAttemptsBeyondTheFirst() {
+        // Given
+        server.expect(requestTo(URL)).andRespond(withStatus(HttpStatus.SERVICE_UNAVAILABLE));
+        server.expect(requestTo(URL)).andRespond(withSuccess());
+
+        // When: two attempts within one call, as Resilience4j @Retry would make
+        ClientMetrics.Call call = clientMetrics.startCall();
+        assertThrows(HttpServerErrorException.class, this::deduct);
+        deduct();
+        clientMetrics.endCall(call, "walletService", "deductFromWallet", null);
+
+        // Then
+        assertEquals(1, meterRegistry.get("client.requests").tags("status", "503", "outcome", "SERVER_ERROR")
+                .timer().count());
+        assertEquals(1, meterRegistry.get("client.calls")
+                .tags("client", "walletService", "operation", "deductFromWallet", "outcome", "SUCCESS")
+                .timer().count());
+        assertEquals(1.0, meterRegistry.get("client.call.retries").counter().count());
+    }
+
+    @Test
+    void testFailedCallRecordsException() {
+        // When
+        ClientMetrics.Call call = clientMetrics.startCall();
+        clientMetrics.endCall(call, "walletService", "deductFromWallet", new IllegalStateException("open"));
+
+        // Then
+        assertEquals(1, meterRegistry.get("client.calls")
+                .tags("outcome", "ERROR", "exception", "IllegalStateException").timer().count());
+        assertNull(meterRegistry.find("client.call.retries").counter());
+    }
+
+    @Test
+    void testAspectRecordsCircuitBreakerMethods() {
+        // Given
+        AspectJProxyFactory proxyFactory = new AspectJProxyFactory(new StubClient());
+        proxyFactory.addAspect(new ClientMetricsAspect(clientMetrics));
+        StubClient stubClient = proxyFactory.getProxy();
+
+        // When
+        assertEquals("qr-7", stubClient.getQRCode(7L));
+
+        // Then
+        assertEquals(1, meterRegistry.get("client.calls")
+                .tags("client", "qrCodeService", "operation", "getQRCode", "outcome", "SUCCESS").timer().count());
+    }
+
+    static class StubClient {
+        @CircuitBreaker(name = "qrCodeService")
+        public String getQRCode(Long id) {
+            return "qr-" + id;
+        }
+    }
+
+    private String deduct() {
+        return restClient.post().uri(URL)
+                .attribute(ClientMetrics.OPERATION_ATTRIBUTE, "deduct")
+                .body("{\"amount\":10}")
+                .retrieve()
+                .body(String.class);
+    }
+}
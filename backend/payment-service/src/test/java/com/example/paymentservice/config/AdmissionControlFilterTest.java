@@ -0,0 +1,105 @@
+package com.example.paymentservice.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class AdmissionControlFilterTest {
+
+    private final HikariPoolMXBean poolMXBean = mock(HikariPoolMXBean.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private AdmissionControlFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        HikariDataSource pool = mock(HikariDataSource.class);
+        when(pool.getHikariPoolMXBean()).thenReturn(poolMXBean);
+        when(pool.getMaximumPoolSize()).thenReturn(20);
+        AdmissionControlProperties properties = new AdmissionControlProperties(
+                true, 180, 140, 100, 10, 0, 0.9, Duration.ofSeconds(2));
+        filter = new AdmissionControlFilter(properties, List.of(pool), meterRegistry);
+    }
+
+    @Test
+    void idlePoolAdmitsEverything() throws Exception {
+        // Given
+        when(poolMXBean.getActiveConnections()).thenReturn(3);
+
+        // When / Then
+        assertEquals(200, perform("GET", "/api/v1/payments/1/status").getStatus());
+        assertEquals(200, perform("POST", "/api/v1/payments/initiate").getStatus());
+        assertEquals(200, perform("POST", "/api/v1/payments/1/process").getStatus());
+    }
+
+    @Test
+    void waitingForConnectionsShedsReadsFirst() throws Exception {
+        // Given
+        when(poolMXBean.getActiveConnections()).thenReturn(20);
+        when(poolMXBean.getThreadsAwaitingConnection()).thenReturn(5);
+
+        // When
+        MockHttpServletResponse poll = perform("GET", "/api/v1/payments/1/status");
+
+        // Then
+        assertEquals(503, poll.getStatus());
+        assertEquals("2", poll.getHeader(HttpHeaders.RETRY_AFTER));
+        assertTrue(poll.getContentAsString().contains("SERVICE_UNAVAILABLE"));
+        assertEquals(200, perform("POST", "/api/v1/payments/initiate").getStatus());
+        assertEquals(1, meterRegistry.get("http.admission.rejected")
+                .tags("priority", "LOW", "reason", "pool_pending").counter().count());
+    }
+
+    @Test
+    void deepConnectionQueueKeepsOnlyProcessAndRefund() throws Exception {
+        // Given
+        when(poolMXBean.getActiveConnections()).thenReturn(20);
+        when(poolMXBean.getThreadsAwaitingConnection()).thenReturn(25);
+
+        // When / Then
+        assertEquals(503, perform("GET", "/api/v1/payments").getStatus());
+        assertEquals(503, perform("POST", "/api/v1/payments/initiate").getStatus());
+        assertEquals(503, perform("POST", "/api/v1/payments/1/cancel").getStatus());
+        assertEquals(200, perform("POST", "/api/v1/payments/1/process").getStatus());
+        assertEquals(200, perform("POST", "/api/v1/payments/1/refund").getStatus());
+    }
+
+    @Test
+    void nearlyFullPoolShedsReads() throws Exception {
+        // Given
+        when(poolMXBean.getActiveConnections()).thenReturn(18);
+
+        // When / Then
+        assertEquals(503, perform("GET", "/api/v1/merchants/m1/payments").getStatus());
+        assertEquals(200, perform("POST", "/api/v1/payments").getStatus());
+    }
+
+    @Test
+    void classifiesByMethodAndPath() {
+        assertEquals(AdmissionControlFilter.Priority.LOW, classify("GET", "/api/v1/transactions/1"));
+        assertEquals(AdmissionControlFilter.Priority.NORMAL, classify("POST", "/api/v1/payments/initiate"));
+        assertEquals(AdmissionControlFilter.Priority.CRITICAL, classify("POST", "/api/v1/payments/7/process"));
+        assertEquals(AdmissionControlFilter.Priority.CRITICAL, classify("POST", "/api/v1/payments/7/refund"));
+    }
+
+    private MockHttpServletResponse perform(String method, String uri) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(new MockHttpServletRequest(method, uri), response, new MockFilterChain());
+        return response;
+    }
+
+    private static AdmissionControlFilter.Priority classify(String method, String uri) {
+        return AdmissionControlFilter.classify(new MockHttpServletRequest(method, uri));
+    }
+}
@@ -0,0 +1,222 @@
+package com.example.paymentservice.config;
+
+import com.example.paymentservice.kafka.KeyOrderedExecutor;
+import com.example.paymentservice.kafka.QRCodeEventConsumer;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.KafkaConsumer;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.common.serialization.StringDeserializer;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.KafkaHeaders;
+import org.springframework.kafka.test.EmbeddedKafkaBroker;
+import org.springframework.kafka.test.context.EmbeddedKafka;
+import org.springframework.kafka.test.utils.KafkaTestUtils;
+import org.springframework.messaging.handler.annotation.Header;
+import org.springframework.messaging.handler.annotation.Payload;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit.jupiter.SpringJUnitConfig;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.awaitility.Awaitility.await;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * KafkaConsumerConfig#keyOrderedListenerContainerFactory against an embedded broker, with listeners returning
+ * futures from {@link KeyOrderedExecutor} like QRCodeEventConsumer: records of one key run in order, the
+ * partition is committed only up to a record still running, and a failed future goes through the retry topics
+ * to the dead-letter topic.
+ */
+@SpringJUnitConfig(classes = {KafkaConfig.class, KafkaConsumerConfig.class, KeyOrderedListenerContainerTest.Listeners.class})
+@EmbeddedKafka(partitions = 1,
+        topics = {
+                KeyOrderedListenerContainerTest.ORDER_TOPIC,
+                KeyOrderedListenerContainerTest.COMMIT_TOPIC,
+                QRCodeEventConsumer.TOPIC_QR_CODE_GENERATED,
+                KeyOrderedListenerContainerTest.RETRY_TOPIC,
+                KeyOrderedListenerContainerTest.DLT_TOPIC
+        },
+        bootstrapServersProperty = "spring.kafka.bootstrap-servers")
+@TestPropertySource(properties = {
+        "app.kafka.retry.attempts=2",
+        "app.kafka.retry.initial-interval-ms=100"
+})
+class KeyOrderedListenerContainerTest {
+
+    static final String ORDER_TOPIC = "key-ordered.order";
+    static final String COMMIT_TOPIC = "key-ordered.commit";
+    static final String COMMIT_GROUP = "key-ordered-commit-test";
+    static final String RETRY_TOPIC = QRCodeEventConsumer.TOPIC_QR_CODE_GENERATED + KafkaConsumerConfig.RETRY_TOPIC_SUFFIX + "-0";
+    static final String DLT_TOPIC = QRCodeEventConsumer.TOPIC_QR_CODE_GENERATED + KafkaConsumerConfig.DLT_SUFFIX;
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(30);
+
+    @Autowired
+    private KafkaTemplate<String, String> kafkaTemplate;
+
+    @Autowired
+    private EmbeddedKafkaBroker broker;
+
+    @Autowired
+    private Listeners listeners;
+
+    @Test
+    void recordsOfOneKeyRunInOrderWhileKeysRunConcurrently() throws Exception {
+        // Given - three keys interleaved on one partition
+        int perKey = 20;
+        for (int i = 0; i < perKey; i++) {
+            for (String key : List.of("a", "b", "c")) {
+                kafkaTemplate.send(ORDER_TOPIC, key, key + "-" + i);
+            }
+        }
+        kafkaTemplate.flush();
+
+        // When
+        await().atMost(TIMEOUT).until(() -> listeners.ordered.values().stream().mapToInt(List::size).sum() == 3 * perKey);
+
+        // Then - each key in offset order, and more than one key at a time
+        for (String key : List.of("a", "b", "c")) {
+            List<String> expected = new ArrayList<>();
+            for (int i = 0; i < perKey; i++) {
+                expected.add(key + "-" + i);
+            }
+            assertEquals(expected, listeners.ordered.get(key));
+        }
+        assertTrue(listeners.maxConcurrent.get() > 1, "records never ran concurrently");
+    }
+
+    @Test
+    void commitIsHeldAtARecordStillRunning() throws Exception {
+        // Given - offset 0 done and committed
+        kafkaTemplate.send(COMMIT_TOPIC, "fast", "fast-0").get(10, TimeUnit.SECONDS);
+        await().atMost(TIMEOUT).until(() -> committed() == 1);
+
+        // When - offset 1 blocks; offsets 2-4, other keys, finish
+        kafkaTemplate.send(COMMIT_TOPIC, "slow", "slow");
+        for (int i = 1; i <= 3; i++) {
+            kafkaTemplate.send(COMMIT_TOPIC, "fast-" + i, "fast-" + i);
+        }
+        kafkaTemplate.flush();
+        await().atMost(TIMEOUT).until(() -> listeners.committedFast.size() == 4);
+        Thread.sleep(1_000);
+
+        // Then - nothing past the running record is committed until it completes
+        assertEquals(1, committed());
+        listeners.releaseSlow.countDown();
+        await().atMost(TIMEOUT).until(() -> committed() == 5);
+    }
+
+    @Test
+    void failedFutureGoesThroughTheRetryTopicToTheDeadLetterTopic() throws Exception {
+        // When
+        kafkaTemplate.send(QRCodeEventConsumer.TOPIC_QR_CODE_GENERATED, "42", "fail").get(10, TimeUnit.SECONDS);
+
+        // Then - tried on the main topic and the one retry topic, then dead-lettered with the failure
+        try (Consumer<String, String> consumer = new KafkaConsumer<>(
+                KafkaTestUtils.consumerProps(broker, "key-ordered-dlt-reader", false),
+                new StringDeserializer(), new StringDeserializer())) {
+            broker.consumeFromAnEmbeddedTopic(consumer, DLT_TOPIC);
+            ConsumerRecord<String, String> dead = KafkaTestUtils.getSingleRecord(consumer, DLT_TOPIC, TIMEOUT);
+            assertEquals("42", dead.key());
+            assertEquals("fail", dead.value());
+            assertEquals(QRCodeEventConsumer.TOPIC_QR_CODE_GENERATED, header(dead, KafkaHeaders.ORIGINAL_TOPIC));
+            assertEquals(IllegalStateException.class.getName(), header(dead, KafkaHeaders.EXCEPTION_CAUSE_FQCN));
+        }
+        assertEquals(List.of(QRCodeEventConsumer.TOPIC_QR_CODE_GENERATED, RETRY_TOPIC), listeners.failedAttempts);
+    }
+
+    private static String header(ConsumerRecord<String, String> record, String name) {
+        return new String(record.headers().lastHeader(name).value(), StandardCharsets.UTF_8);
+    }
+
+    private long committed() throws Exception {
+        OffsetAndMetadata offset = KafkaTestUtils.getCurrentOffset(broker.getBrokersAsString(), COMMIT_GROUP, COMMIT_TOPIC, 0);
+        return offset == null ? 0 : offset.offset();
+    }
+
+    @Configuration
+    static class Listeners {
+
+        final Map<String, List<String>> ordered = new ConcurrentHashMap<>();
+        final AtomicInteger running = new AtomicInteger();
+        final AtomicInteger maxConcurrent = new AtomicInteger();
+        final List<String> committedFast = new CopyOnWriteArrayList<>();
+        final CountDownLatch releaseSlow = new CountDownLatch(1);
+        final List<String> failedAttempts = new CopyOnWriteArrayList<>();
+
+        private KeyOrderedExecutor executor;
+
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+
+        @Autowired
+        void setExecutor(KeyOrderedExecutor executor) {
+            this.executor = executor;
+        }
+
+        @KafkaListener(topics = ORDER_TOPIC, groupId = "key-ordered-order-test",
+                containerFactory = "keyOrderedListenerContainerFactory")
+        public CompletableFuture<Void> onOrdered(@Payload String value, @Header(KafkaHeaders.RECEIVED_KEY) String key) {
+            return executor.submit(key, () -> {
+                maxConcurrent.accumulateAndGet(running.incrementAndGet(), Math::max);
+                sleep(5);
+                ordered.computeIfAbsent(key, k -> new CopyOnWriteArrayList<>()).add(value);
+                running.decrementAndGet();
+            });
+        }
+
+        @KafkaListener(topics = COMMIT_TOPIC, groupId = COMMIT_GROUP,
+                containerFactory = "keyOrderedListenerContainerFactory")
+        public CompletableFuture<Void> onCommit(@Payload String value, @Header(KafkaHeaders.RECEIVED_KEY) String key) {
+            return executor.submit(key, () -> {
+                if (value.equals("slow")) {
+                    try {
+                        releaseSlow.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                } else {
+                    committedFast.add(value);
+                }
+            });
+        }
+
+        @KafkaListener(topics = QRCodeEventConsumer.TOPIC_QR_CODE_GENERATED, groupId = "key-ordered-retry-test",
+                containerFactory = "keyOrderedListenerContainerFactory")
+        public CompletableFuture<Void> onRetried(@Payload String value, @Header(KafkaHeaders.RECEIVED_KEY) String key,
+                                                 @Header(KafkaHeaders.RECEIVED_TOPIC) String topic) {
+            return executor.submit(key, () -> {
+                failedAttempts.add(topic);
+                throw new IllegalStateException("payment " + key + " failed");
+            });
+        }
+
+        private static void sleep(long millis) {
+            try {
+                Thread.sleep(millis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.example.paymentservice.config;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.core.spi.FilterReply;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LogSamplingFilterTest {
+
+    private final LoggerContext context = new LoggerContext();
+    private final LogSamplingFilter filter = new LogSamplingFilter();
+
+    @BeforeEach
+    void setUp() {
+        context.getLogger(Logger.ROOT_LOGGER_NAME).setLevel(Level.INFO);
+        filter.setContext(context);
+        filter.setLoggers("com.example.kafka=4, com.example.kafka.Noisy=100");
+        filter.start();
+    }
+
+    @Test
+    void keepsOneInNInfoEventsForConfiguredLoggerAndChildren() {
+        // Given
+        Logger consumer = context.getLogger("com.example.kafka.Consumer");
+
+        // When
+        int kept = kept(consumer, Level.INFO, 100);
+
+        // Then
+        assertEquals(25, kept);
+    }
+
+    @Test
+    void longestConfiguredNameWins() {
+        assertEquals(1, kept(context.getLogger("com.example.kafka.Noisy"), Level.INFO, 100));
+    }
+
+    @Test
+    void warningsErrorsAndUnconfiguredLoggersAreNotSampled() {
+        Logger consumer = context.getLogger("com.example.kafka.Consumer");
+
+        assertEquals(10, kept(consumer, Level.WARN, 10));
+        assertEquals(10, kept(consumer, Level.ERROR, 10));
+        assertEquals(10, kept(context.getLogger("com.example.service.PaymentService"), Level.INFO, 10));
+    }
+
+    @Test
+    void levelChecksAndDisabledEventsDoNotCount() {
+        // Given
+        Logger consumer = context.getLogger("com.example.kafka.Consumer");
+
+        // When - isInfoEnabled() (no format) and DEBUG below the effective level
+        for (int i = 0; i < 10; i++) {
+            assertEquals(FilterReply.NEUTRAL, filter.decide(null, consumer, Level.INFO, null, null, null));
+            filter.decide(null, consumer, Level.DEBUG, "debug", null, null);
+        }
+
+        // Then - the next INFO event is still the first of its window
+        assertEquals(FilterReply.NEUTRAL, filter.decide(null, consumer, Level.INFO, "info", null, null));
+        assertEquals(FilterReply.DENY, filter.decide(null, consumer, Level.INFO, "info", null, null));
+    }
+
+    @Test
+    void invalidEntriesAreIgnored() {
+        // Given
+        filter.setLoggers("com.example.kafka,com.example.service=zero,com.example.web=0");
+
+        // Then
+        assertEquals(10, kept(context.getLogger("com.example.kafka.Consumer"), Level.INFO, 10));
+        assertEquals(10, kept(context.getLogger("com.example.service.PaymentService"), Level.INFO, 10));
+        assertEquals(10, kept(context.getLogger("com.example.web.Controller"), Level.INFO, 10));
+    }
+
+    private int kept(Logger logger, Level level, int events) {
+        int kept = 0;
+        for (int i = 0; i < events; i++) {
+            if (filter.decide(null, logger, level, "event {}", new Object[]{i}, null) == FilterReply.NEUTRAL) {
+                kept++;
+            }
+        }
+        return kept;
+    }
+}
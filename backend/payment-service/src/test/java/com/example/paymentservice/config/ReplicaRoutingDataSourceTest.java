@@ -0,0 +1,55 @@
+package com.example.paymentservice.config;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReplicaRoutingDataSourceTest {
+
+    private final ReplicaRoutingDataSource routingDataSource =
+            new ReplicaRoutingDataSource(new DriverManagerDataSource(), new DriverManagerDataSource());
+
+    @AfterEach
+    void tearDown() {
+        TransactionSynchronizationManager.setActualTransactionActive(false);
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+    }
+
+    @Test
+    void testNonTransactionalQueryGoesToReplica() {
+        assertEquals(ReplicaRoutingDataSource.Route.REPLICA, routingDataSource.determineCurrentLookupKey());
+    }
+
+    @Test
+    void testReadOnlyTransactionGoesToReplica() {
+        // Given
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        // Then
+        assertEquals(ReplicaRoutingDataSource.Route.REPLICA, routingDataSource.determineCurrentLookupKey());
+    }
+
+    @Test
+    void testReadWriteTransactionGoesToPrimary() {
+        // Given
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+
+        // Then
+        assertEquals(ReplicaRoutingDataSource.Route.PRIMARY, routingDataSource.determineCurrentLookupKey());
+    }
+
+    @Test
+    void testPinnedReadGoesToPrimary() {
+        // When
+        ReplicaRoutingDataSource.Route route =
+                ReplicaRoutingDataSource.onPrimary(routingDataSource::determineCurrentLookupKey);
+
+        // Then
+        assertEquals(ReplicaRoutingDataSource.Route.PRIMARY, route);
+        assertEquals(ReplicaRoutingDataSource.Route.REPLICA, routingDataSource.determineCurrentLookupKey());
+    }
+}
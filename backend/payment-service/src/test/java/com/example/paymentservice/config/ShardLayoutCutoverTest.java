@@ -0,0 +1,88 @@
+package com.example.paymentservice.config;
+
+import com.example.paymentservice.service.SnowflakeIdGenerator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The cutover is read and written on the primary even with the replica pool in front (the replica database here
+ * has no shard_layout table), and is recorded only once the earlier id layout is retired.
+ */
+class ShardLayoutCutoverTest {
+
+    private final SnowflakeIdGenerator idGenerator = new SnowflakeIdGenerator(
+            Instant.parse("2025-01-01T00:00:00Z"), 41, 4, 3, 5, 0, Duration.ofSeconds(1));
+
+    private JdbcTemplate primary;
+    private JdbcTemplate routed;
+
+    @BeforeEach
+    void setUp() {
+        DriverManagerDataSource primaryDataSource = h2();
+        primary = new JdbcTemplate(primaryDataSource);
+        primary.execute("CREATE TABLE shard_layout (id SMALLINT PRIMARY KEY, first_sharded_id BIGINT NOT NULL, "
+                + "recorded_at TIMESTAMP NOT NULL)");
+        routed = new JdbcTemplate(new ReplicaRoutingDataSource(primaryDataSource, h2()));
+    }
+
+    @Test
+    void retiredEarlierLayoutRecordsTheCutoverOnThePrimary() {
+        // Given
+        ShardRouter router = router(false, true);
+
+        // When
+        cutover(router, false, true).start();
+
+        // Then - ids issued before it go home, later ones to the shard in their bits
+        long firstShardedId = primary.queryForObject("SELECT first_sharded_id FROM shard_layout", Long.class);
+        assertEquals(0, router.shardOfId(firstShardedId - 1));
+        assertEquals(idGenerator.shardOf(firstShardedId + 1) % 16, router.shardOfId(firstShardedId + 1));
+    }
+
+    @Test
+    void cutoverIsNotRecordedWhileTheEarlierLayoutMayStillIssueIds() {
+        // Given
+        ShardRouter router = router(false, false);
+
+        // When
+        cutover(router, false, false).start();
+
+        // Then - every id stays on the home database, where every row is without sharding
+        assertEquals(0, primary.queryForObject("SELECT COUNT(*) FROM shard_layout", Integer.class));
+        assertEquals(0, router.shardOfId(idGenerator.nextId(5)));
+    }
+
+    @Test
+    void shardingWithoutARecordedCutoverFailsTheStart() {
+        ShardLayoutCutover cutover = cutover(router(true, false), true, false);
+
+        assertThrows(IllegalStateException.class, cutover::start);
+    }
+
+    private ShardLayoutCutover cutover(ShardRouter router, boolean enabled, boolean retired) {
+        return new ShardLayoutCutover(router, idGenerator, routed, properties(enabled, retired));
+    }
+
+    private ShardRouter router(boolean enabled, boolean retired) {
+        return new ShardRouter(properties(enabled, retired), idGenerator);
+    }
+
+    private static ShardingProperties properties(boolean enabled, boolean retired) {
+        return new ShardingProperties(enabled, 16,
+                List.of(new ShardingProperties.PhysicalShard("jdbc:h2:mem:unused", "sa", "", 1)), List.of(), retired);
+    }
+
+    private static DriverManagerDataSource h2() {
+        return new DriverManagerDataSource(
+                "jdbc:h2:mem:" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1;MODE=PostgreSQL", "sa", "");
+    }
+}
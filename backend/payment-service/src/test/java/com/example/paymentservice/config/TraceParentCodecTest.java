@@ -0,0 +1,55 @@
+package com.example.paymentservice.config;
+
+import io.opentelemetry.api.trace.SpanContext;
+import io.opentelemetry.api.trace.TraceFlags;
+import io.opentelemetry.api.trace.TraceState;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TraceParentCodecTest {
+
+    private static final String TRACE_ID = "4bf92f3577b34da6a3ce929d0e0e4736";
+    private static final String SPAN_ID = "00f067aa0ba902b7";
+    private static final String TRACEPARENT = "00-" + TRACE_ID + "-" + SPAN_ID + "-01";
+
+    @Test
+    void testFormatSpanContext() {
+        SpanContext spanContext = SpanContext.create(TRACE_ID, SPAN_ID, TraceFlags.getSampled(), TraceState.getDefault());
+
+        assertEquals(TRACEPARENT, TraceParentCodec.format(spanContext));
+        assertArrayEquals(TRACEPARENT.getBytes(StandardCharsets.US_ASCII), TraceParentCodec.encode(spanContext));
+    }
+
+    @Test
+    void testFormatInvalidSpanContextIsNull() {
+        assertNull(TraceParentCodec.format(SpanContext.getInvalid()));
+    }
+
+    @Test
+    void testChildKeepsTraceIdAndFlagsWithNewSpanId() {
+        // When
+        String child = new String(TraceParentCodec.childOf(TRACEPARENT), StandardCharsets.US_ASCII);
+
+        // Then
+        assertTrue(TraceParentCodec.isValid(child));
+        assertEquals("00-" + TRACE_ID + "-", child.substring(0, 36));
+        assertEquals("-01", child.substring(52));
+        assertNotEquals(SPAN_ID, child.substring(36, 52));
+    }
+
+    @Test
+    void testInvalidTraceparents() {
+        assertFalse(TraceParentCodec.isValid(null));
+        assertFalse(TraceParentCodec.isValid("not-a-traceparent"));
+        assertFalse(TraceParentCodec.isValid(TRACEPARENT.toUpperCase()));
+        assertFalse(TraceParentCodec.isValid("00-00000000000000000000000000000000-" + SPAN_ID + "-01"));
+        assertFalse(TraceParentCodec.isValid("00-" + TRACE_ID + "-0000000000000000-01"));
+        assertFalse(TraceParentCodec.isValid("ff-" + TRACE_ID + "-" + SPAN_ID + "-01"));
+        assertFalse(TraceParentCodec.isValid(TRACEPARENT + "-extra"));
+        assertTrue(TraceParentCodec.isValid("01-" + TRACE_ID + "-" + SPAN_ID + "-01-extra"));
+        assertNull(TraceParentCodec.childOf("00-" + TRACE_ID + "_" + SPAN_ID + "-01"));
+    }
+}
@@ -0,0 +1,56 @@
+package com.example.paymentservice.controller;
+
+import com.example.paymentservice.config.JwtAuthFilter;
+import com.example.paymentservice.kafka.KafkaEventProducer;
+import com.example.paymentservice.service.OutboxProcessor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Customer payment history is readable only by the customer it belongs to, as identified by the JWT filter.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class CustomerPaymentsAccessTest {
+
+    @MockitoBean
+    KafkaEventProducer kafkaEventProducer;
+
+    @MockitoBean
+    OutboxProcessor outboxProcessor;
+
+    @Autowired
+    private WebApplicationContext context;
+
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        mockMvc = MockMvcBuilders.webAppContextSetup(context).build();
+    }
+
+    @Test
+    void customerReadsTheirOwnPayments() throws Exception {
+        mockMvc.perform(get("/api/v1/customers/42/payments")
+                        .requestAttr(JwtAuthFilter.REQUEST_ATTR_USER_ID, 42L))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.payments").isArray());
+    }
+
+    @Test
+    void anotherUsersPaymentsAreForbidden() throws Exception {
+        mockMvc.perform(get("/api/v1/customers/42/payments")
+                        .requestAttr(JwtAuthFilter.REQUEST_ATTR_USER_ID, 7L))
+                .andExpect(status().isForbidden());
+    }
+}
@@ -0,0 +1,102 @@
+package com.example.paymentservice.controller;
+
+import com.example.paymentservice.config.JwtAuthFilter;
+import com.example.paymentservice.kafka.KafkaEventProducer;
+import com.example.paymentservice.service.OutboxProcessor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import java.util.List;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Merchant payments and webhooks are for the user with the MERCHANT role whose token names that merchant.
+ * Merchant ids are free-text codes, not user ids.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class MerchantAccessTest {
+
+    private static final String MERCHANT_ID = "MERCHANT_STORE_01";
+
+    @MockitoBean
+    KafkaEventProducer kafkaEventProducer;
+
+    @MockitoBean
+    OutboxProcessor outboxProcessor;
+
+    @Autowired
+    private WebApplicationContext context;
+
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        mockMvc = MockMvcBuilders.webAppContextSetup(context).build();
+    }
+
+    @Test
+    void merchantReadsItsOwnPayments() throws Exception {
+        mockMvc.perform(authenticated(get("/api/v1/merchants/" + MERCHANT_ID + "/payments"),
+                        List.of("MERCHANT"), MERCHANT_ID))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.payments").isArray());
+        mockMvc.perform(authenticated(get("/api/v1/merchants/" + MERCHANT_ID + "/payments/daily-summary"),
+                        List.of("MERCHANT"), MERCHANT_ID))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void anotherMerchantsPaymentsAreForbidden() throws Exception {
+        mockMvc.perform(authenticated(get("/api/v1/merchants/" + MERCHANT_ID + "/payments"),
+                        List.of("MERCHANT"), "MERCHANT_STORE_02"))
+                .andExpect(status().isForbidden());
+    }
+
+    @Test
+    void merchantClaimWithoutTheMerchantRoleIsForbidden() throws Exception {
+        mockMvc.perform(authenticated(get("/api/v1/merchants/" + MERCHANT_ID + "/payments"),
+                        List.of("PAYMENT_USER"), MERCHANT_ID))
+                .andExpect(status().isForbidden());
+    }
+
+    @Test
+    void userWithoutMerchantClaimIsForbidden() throws Exception {
+        mockMvc.perform(authenticated(get("/api/v1/merchants/" + MERCHANT_ID + "/payments"),
+                        List.of("MERCHANT"), null))
+                .andExpect(status().isForbidden());
+    }
+
+    @Test
+    void merchantManagesOnlyItsOwnWebhook() throws Exception {
+        mockMvc.perform(authenticated(get("/api/v1/merchants/" + MERCHANT_ID + "/webhook"),
+                        List.of("MERCHANT"), MERCHANT_ID))
+                .andExpect(status().isNotFound());
+        mockMvc.perform(authenticated(put("/api/v1/merchants/" + MERCHANT_ID + "/webhook"),
+                        List.of("MERCHANT"), "MERCHANT_STORE_02")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"url\":\"https://example.com/hooks\"}"))
+                .andExpect(status().isForbidden());
+        mockMvc.perform(authenticated(delete("/api/v1/merchants/" + MERCHANT_ID + "/webhook"),
+                        List.of("PAYMENT_USER"), MERCHANT_ID))
+                .andExpect(status().isForbidden());
+    }
+
+    private static MockHttpServletRequestBuilder authenticated(MockHttpServletRequestBuilder request,
+                                                              List<String> roles, String merchantId) {
+        request.requestAttr(JwtAuthFilter.REQUEST_ATTR_USER_ID, 42L)
+                .requestAttr(JwtAuthFilter.REQUEST_ATTR_ROLES, roles);
+        return merchantId != null ? request.requestAttr(JwtAuthFilter.REQUEST_ATTR_MERCHANT_ID, merchantId) : request;
+    }
+}
@@ -0,0 +1,117 @@
+package com.example.paymentservice.controller;
+
+import com.example.paymentservice.client.QRCodeClientService;
+import com.example.paymentservice.domain.model.Payment;
+import com.example.paymentservice.domain.model.PaymentTransition;
+import com.example.paymentservice.entity.PaymentStatus;
+import com.example.paymentservice.kafka.KafkaEventProducer;
+import com.example.paymentservice.repository.PaymentRepository;
+import com.example.paymentservice.service.OutboxProcessor;
+import com.example.paymentservice.service.PaymentReadCoalescer;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Conditional GET on the polled read endpoints: the ETag is the payment version, and a matching
+ * If-None-Match is answered with 304 without loading the payment or calling the QR service. Reads without
+ * If-None-Match don't look the version up.
+ */
+@SpringBootTest(properties = "app.payments.read-coalescing.freshness=0s")
+@ActiveProfiles("test")
+class PaymentConditionalGetTest {
+
+    @MockitoBean
+    QRCodeClientService qrCodeClientService;
+
+    @MockitoBean
+    KafkaEventProducer kafkaEventProducer;
+
+    @MockitoBean
+    OutboxProcessor outboxProcessor;
+
+    @MockitoSpyBean
+    PaymentReadCoalescer paymentReadCoalescer;
+
+    @Autowired
+    private WebApplicationContext context;
+
+    @Autowired
+    private PaymentRepository paymentRepository;
+
+    private MockMvc mockMvc;
+    private Payment payment;
+
+    @BeforeEach
+    void setUp() {
+        mockMvc = MockMvcBuilders.webAppContextSetup(context).build();
+        payment = paymentRepository.save(Payment.builder()
+                .amount(new BigDecimal("10.00"))
+                .currency("USD")
+                .status(PaymentStatus.PENDING)
+                .customerId("1")
+                .build());
+    }
+
+    @Test
+    void matchingETagIsNotModified() throws Exception {
+        // Given
+        String eTag = mockMvc.perform(get("/api/v1/payments/{id}/status", payment.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value("PENDING"))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertEquals("\"0\"", eTag);
+        clearInvocations(qrCodeClientService);
+
+        // When / Then: unchanged payment - 304, no body, no QR lookup
+        mockMvc.perform(get("/api/v1/payments/{id}/status", payment.getId()).header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, eTag))
+                .andExpect(content().string(""));
+        verify(qrCodeClientService, never()).getQRCode(anyLong());
+    }
+
+    @Test
+    void unconditionalReadSkipsTheVersionLookup() throws Exception {
+        mockMvc.perform(get("/api/v1/payments/{id}", payment.getId()))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"0\""));
+        verify(paymentReadCoalescer, never()).getVersion(anyLong());
+    }
+
+    @Test
+    void transitionChangesETag() throws Exception {
+        // When
+        assertTrue(paymentRepository.transitionStatus(payment.getId(), PaymentStatus.PENDING,
+                PaymentTransition.builder().targetStatus(PaymentStatus.READY).updatedAt(LocalDateTime.now()).build()));
+
+        // Then
+        mockMvc.perform(get("/api/v1/payments/{id}", payment.getId()).header(HttpHeaders.IF_NONE_MATCH, "\"0\""))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"1\""))
+                .andExpect(jsonPath("$.status").value("READY"));
+    }
+
+    @Test
+    void unknownPaymentIsNotFound() throws Exception {
+        mockMvc.perform(get("/api/v1/payments/{id}/status", Long.MAX_VALUE).header(HttpHeaders.IF_NONE_MATCH, "\"0\""))
+                .andExpect(status().isNotFound());
+    }
+}
@@ -0,0 +1,155 @@
+package com.example.paymentservice.controller;
+
+import com.example.paymentservice.client.QRCodeClientService;
+import com.example.paymentservice.client.UserClientService;
+import com.example.paymentservice.kafka.KafkaEventProducer;
+import com.example.paymentservice.service.OutboxProcessor;
+import com.jayway.jsonpath.JsonPath;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import java.util.Collections;
+
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Per-merchant limit on POST /payments: a merchant over its burst gets 429 with Retry-After,
+ * other merchants are unaffected. Batch initiation is charged one permit per item. Without a token, processing is
+ * limited per paying customer and refunds per the payment's merchant, whatever the request body says.
+ */
+@SpringBootTest(properties = {
+        "app.rate-limit.endpoints.create.capacity=2",
+        "app.rate-limit.endpoints.create.permits-per-second=0.01",
+        "app.rate-limit.endpoints.initiate-batch.capacity=5",
+        "app.rate-limit.endpoints.initiate-batch.permits-per-second=0.01",
+        "app.rate-limit.endpoints.process.capacity=1",
+        "app.rate-limit.endpoints.process.permits-per-second=0.01",
+        "app.rate-limit.endpoints.refund.capacity=1",
+        "app.rate-limit.endpoints.refund.permits-per-second=0.01"
+})
+@ActiveProfiles("test")
+class PaymentRateLimitTest {
+
+    @MockitoBean
+    QRCodeClientService qrCodeClientService;
+
+    @MockitoBean
+    UserClientService userClientService;
+
+    @MockitoBean
+    KafkaEventProducer kafkaEventProducer;
+
+    @MockitoBean
+    OutboxProcessor outboxProcessor;
+
+    @Autowired
+    private WebApplicationContext context;
+
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        mockMvc = MockMvcBuilders.webAppContextSetup(context).build();
+    }
+
+    @Test
+    void merchantOverBurstIsThrottled() throws Exception {
+        // Given
+        create("rate-limit-merchant").andExpect(status().isCreated());
+        create("rate-limit-merchant").andExpect(status().isCreated());
+
+        // When / Then - the next permit is 100 seconds away
+        create("rate-limit-merchant")
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().string(HttpHeaders.RETRY_AFTER, "100"))
+                .andExpect(jsonPath("$.errorCode").value("RATE_LIMITED"));
+        create("other-merchant").andExpect(status().isCreated());
+    }
+
+    @Test
+    void batchIsChargedPerItem() throws Exception {
+        // Given
+        when(userClientService.validateUserConditions(anyLong())).thenReturn(true);
+        initiateBatch(7001L, 4).andExpect(status().isCreated());
+
+        // When / Then - 1 permit left: a 2-item batch is refused, a 1-item batch fits
+        initiateBatch(7001L, 2)
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().string(HttpHeaders.RETRY_AFTER, "100"));
+        initiateBatch(7001L, 1).andExpect(status().isCreated());
+        initiateBatch(7002L, 5).andExpect(status().isCreated());
+    }
+
+    @Test
+    void processIsLimitedPerPayingCustomerNotBodyMerchant() throws Exception {
+        // Given - two payments by the same customer
+        long first = createdPaymentId("process-merchant-1", "8001");
+        long second = createdPaymentId("process-merchant-2", "8001");
+
+        // When / Then - the first attempt passes the limiter (and fails: not READY), a new merchantId doesn't help
+        process(first, "merchant-a").andExpect(status().isBadRequest());
+        process(second, "merchant-b").andExpect(status().isTooManyRequests());
+        process(createdPaymentId("process-merchant-3", "8002"), "merchant-a").andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void refundWithoutTokenIsLimitedPerPaymentMerchant() throws Exception {
+        // Given
+        long first = createdPaymentId("refund-merchant", "9001");
+        long second = createdPaymentId("refund-merchant", "9002");
+
+        // When / Then - the first refund passes the limiter (and fails: not COMPLETED), the merchant's next is refused
+        refund(first).andExpect(status().isBadRequest());
+        refund(second).andExpect(status().isTooManyRequests());
+        refund(createdPaymentId("other-refund-merchant", "9001")).andExpect(status().isBadRequest());
+    }
+
+    private long createdPaymentId(String merchantId, String customerId) throws Exception {
+        String body = mockMvc.perform(post("/api/v1/payments")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"amount\":10.00,\"currency\":\"USD\",\"merchantId\":\"" + merchantId
+                                + "\",\"customerId\":\"" + customerId + "\"}"))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+        return JsonPath.parse(body).read("$.id", Long.class);
+    }
+
+    private ResultActions process(long paymentId, String merchantId) throws Exception {
+        return mockMvc.perform(post("/api/v1/payments/" + paymentId + "/process")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"qrCode\":\"qr\",\"amount\":10.00,\"currency\":\"USD\",\"merchantId\":\""
+                        + merchantId + "\"}"));
+    }
+
+    private ResultActions refund(long paymentId) throws Exception {
+        return mockMvc.perform(post("/api/v1/payments/" + paymentId + "/refund")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"amount\":5.00}"));
+    }
+
+    private ResultActions initiateBatch(long userId, int items) throws Exception {
+        String itemsJson = String.join(",", Collections.nCopies(items, "{\"description\":\"Ticket\"}"));
+        return mockMvc.perform(post("/api/v1/payments/initiate:batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"userId\":" + userId + ",\"items\":[" + itemsJson + "]}"));
+    }
+
+    private ResultActions create(String merchantId) throws Exception {
+        return mockMvc.perform(post("/api/v1/payments")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"amount\":10.00,\"currency\":\"USD\",\"merchantId\":\"" + merchantId + "\",\"customerId\":\"1\"}"));
+    }
+}
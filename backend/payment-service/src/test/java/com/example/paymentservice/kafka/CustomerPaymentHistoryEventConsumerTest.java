@@ -0,0 +1,155 @@
+package com.example.paymentservice.kafka;
+
+import com.example.paymentservice.domain.model.PaymentHistoryEntry;
+import com.example.paymentservice.entity.PaymentStatus;
+import com.example.paymentservice.repository.CustomerPaymentHistoryRepository;
+import com.example.paymentservice.service.PaymentService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.kafka.support.Acknowledgment;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CustomerPaymentHistoryEventConsumerTest {
+
+    private static final LocalDateTime AT = LocalDateTime.of(2026, 3, 1, 10, 15, 30);
+
+    @Mock
+    private CustomerPaymentHistoryRepository historyRepository;
+
+    @Mock
+    private Acknowledgment acknowledgment;
+
+    private final ObjectMapper objectMapper = new ObjectMapper()
+            .registerModule(new JavaTimeModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+    private CustomerPaymentHistoryEventConsumer consumer;
+
+    @BeforeEach
+    void setUp() {
+        consumer = new CustomerPaymentHistoryEventConsumer(historyRepository, objectMapper);
+    }
+
+    @Test
+    void createdEventStartsTheEntryBeforeAcknowledging() throws Exception {
+        // Given
+        String value = objectMapper.writeValueAsString(PaymentService.PaymentCreatedEvent.builder()
+                .paymentId(11L)
+                .amount(new BigDecimal("25.00"))
+                .currency("USD")
+                .merchantId("MERCHANT_001")
+                .customerId("42")
+                .description("Coffee")
+                .timestamp(AT)
+                .build());
+
+        // When
+        consumer.handle(record(KafkaEventProducer.TOPIC_PAYMENT_CREATED, value), acknowledgment);
+
+        // Then
+        ArgumentCaptor<PaymentHistoryEntry> change = ArgumentCaptor.forClass(PaymentHistoryEntry.class);
+        var order = inOrder(historyRepository, acknowledgment);
+        order.verify(historyRepository).apply(change.capture());
+        order.verify(acknowledgment).acknowledge();
+        assertEquals(11L, change.getValue().getPaymentId());
+        assertEquals(PaymentStatus.PENDING, change.getValue().getStatus());
+        assertEquals("42", change.getValue().getCustomerId());
+        assertEquals("MERCHANT_001", change.getValue().getMerchantId());
+        assertEquals(new BigDecimal("25.00"), change.getValue().getAmount());
+        assertEquals(AT, change.getValue().getCreatedAt());
+        assertEquals(AT, change.getValue().getUpdatedAt());
+    }
+
+    @Test
+    void processedEventCompletesWithMerchantAndQrCode() throws Exception {
+        // Given
+        String value = objectMapper.writeValueAsString(PaymentService.PaymentProcessedEvent.builder()
+                .paymentId(11L)
+                .qrCode("QR-11")
+                .amount(new BigDecimal("25.00"))
+                .currency("usd")
+                .merchantId("MERCHANT_001")
+                .timestamp(AT)
+                .build());
+
+        // When
+        consumer.handle(record(KafkaEventProducer.TOPIC_PAYMENT_PROCESSED, value), acknowledgment);
+
+        // Then - the customer is not in the event; it comes from payment.created
+        ArgumentCaptor<PaymentHistoryEntry> change = ArgumentCaptor.forClass(PaymentHistoryEntry.class);
+        verify(historyRepository).apply(change.capture());
+        assertEquals(PaymentStatus.COMPLETED, change.getValue().getStatus());
+        assertEquals("USD", change.getValue().getCurrency());
+        assertEquals("MERCHANT_001", change.getValue().getMerchantId());
+        assertEquals("QR-11", change.getValue().getQrCode());
+        assertNull(change.getValue().getCustomerId());
+        assertNull(change.getValue().getCreatedAt());
+    }
+
+    @Test
+    void expiredChunkExpiresEveryPayment() throws Exception {
+        // Given
+        String value = objectMapper.writeValueAsString(PaymentService.PaymentsExpiredEvent.builder()
+                .paymentIds(List.of(11L, 12L))
+                .timestamp(AT)
+                .build());
+
+        // When
+        consumer.handle(record(KafkaEventProducer.TOPIC_PAYMENT_EXPIRED, value), acknowledgment);
+
+        // Then
+        ArgumentCaptor<PaymentHistoryEntry> change = ArgumentCaptor.forClass(PaymentHistoryEntry.class);
+        verify(historyRepository, times(2)).apply(change.capture());
+        assertEquals(List.of(11L, 12L), change.getAllValues().stream().map(PaymentHistoryEntry::getPaymentId).toList());
+        assertTrue(change.getAllValues().stream().allMatch(c -> c.getStatus() == PaymentStatus.EXPIRED));
+        verify(acknowledgment).acknowledge();
+    }
+
+    @Test
+    void unreadableRecordIsSkipped() {
+        // When
+        consumer.handle(record(KafkaEventProducer.TOPIC_PAYMENT_CANCELLED, "not json"), acknowledgment);
+        consumer.handle(record(KafkaEventProducer.TOPIC_PAYMENT_REFUNDED, "{\"reason\":\"x\"}"), acknowledgment);
+
+        // Then
+        verifyNoInteractions(historyRepository);
+        verify(acknowledgment, times(2)).acknowledge();
+    }
+
+    @Test
+    void failedWriteIsNotAcknowledged() throws Exception {
+        // Given
+        doThrow(new DataAccessResourceFailureException("database down")).when(historyRepository).apply(any());
+        String value = objectMapper.writeValueAsString(PaymentService.PaymentCancelledEvent.builder()
+                .paymentId(11L)
+                .reason("No longer needed")
+                .timestamp(AT)
+                .build());
+
+        // When / Then - the container redelivers the record
+        assertThrows(DataAccessResourceFailureException.class,
+                () -> consumer.handle(record(KafkaEventProducer.TOPIC_PAYMENT_CANCELLED, value), acknowledgment));
+        verifyNoInteractions(acknowledgment);
+    }
+
+    private static ConsumerRecord<String, String> record(String topic, String value) {
+        return new ConsumerRecord<>(topic, 0, 0, "11", value);
+    }
+}
@@ -0,0 +1,124 @@
+package com.example.paymentservice.kafka;
+
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.MockConsumer;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.Node;
+import org.apache.kafka.common.PartitionInfo;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.apache.kafka.common.record.TimestampType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.boot.actuate.endpoint.InvalidEndpointRequestException;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class DeadLetterReplayerTest {
+
+    private static final String DLT = "qr.code.generated-payment-dlt";
+    private static final String TRACEPARENT = "00-0af7651916cd43dd8448eb211c80319c-b7ad6b7169203331-01";
+
+    @Mock
+    private ConsumerFactory<String, String> consumerFactory;
+
+    @Mock
+    private KafkaTemplate<String, String> kafkaTemplate;
+
+    private final Map<TopicPartition, OffsetAndMetadata> commits = new HashMap<>();
+    private final MockConsumer<String, String> consumer = new MockConsumer<>("earliest") {
+        @Override
+        public synchronized void commitSync(Map<TopicPartition, OffsetAndMetadata> offsets) {
+            commits.putAll(offsets);
+            super.commitSync(offsets);
+        }
+    };
+    private final TopicPartition partition = new TopicPartition(DLT, 0);
+
+    private DeadLetterReplayer replayer;
+
+    @BeforeEach
+    void setUp() {
+        replayer = new DeadLetterReplayer(consumerFactory, kafkaTemplate);
+    }
+
+    @Test
+    void replaysUpToMaxToTheFirstRetryTopicAndCommitsWhatWasSent() {
+        // Given - three dead letters
+        givenDeadLetters(3);
+        when(kafkaTemplate.send(any(ProducerRecord.class))).thenReturn(CompletableFuture.completedFuture(null));
+
+        // When
+        DeadLetterReplayer.Replay replay = replayer.replay(DLT, 2);
+
+        // Then - original key, value and headers, without the retry bookkeeping
+        assertEquals(new DeadLetterReplayer.Replay(DLT, "qr.code.generated-payment-retry-0", 2), replay);
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<ProducerRecord<String, String>> sent = ArgumentCaptor.forClass(ProducerRecord.class);
+        verify(kafkaTemplate, times(2)).send(sent.capture());
+        ProducerRecord<String, String> first = sent.getAllValues().getFirst();
+        assertEquals("qr.code.generated-payment-retry-0", first.topic());
+        assertEquals("key-0", first.key());
+        assertEquals("value-0", first.value());
+        assertEquals(TRACEPARENT, new String(first.headers().lastHeader("traceparent").value(), StandardCharsets.UTF_8));
+        assertNotNull(first.headers().lastHeader("kafka_dlt-original-topic"));
+        assertNull(first.headers().lastHeader("retry_topic-attempts"));
+
+        // The third record is left for the next replay
+        assertEquals(Map.of(partition, new OffsetAndMetadata(2)), commits);
+    }
+
+    @Test
+    void failedSendCommitsNothing() {
+        // Given
+        givenDeadLetters(1);
+        when(kafkaTemplate.send(any(ProducerRecord.class)))
+                .thenReturn(CompletableFuture.failedFuture(new IllegalStateException("broker down")));
+
+        // When / Then
+        assertThrows(IllegalStateException.class, () -> replayer.replay(DLT, 10));
+        assertTrue(commits.isEmpty());
+    }
+
+    @Test
+    void rejectsTopicsThatAreNotThisServicesDeadLetters() {
+        assertThrows(InvalidEndpointRequestException.class, () -> replayer.replay("qr.code.generated", 10));
+        assertThrows(InvalidEndpointRequestException.class, () -> replayer.replay("payment.expired-qr-dlt", 10));
+        verifyNoInteractions(consumerFactory, kafkaTemplate);
+    }
+
+    private void givenDeadLetters(int count) {
+        when(consumerFactory.createConsumer(eq(DeadLetterReplayer.GROUP_ID), any(), any(), any())).thenReturn(consumer);
+        consumer.updatePartitions(DLT, List.of(new PartitionInfo(DLT, 0, Node.noNode(), new Node[0], new Node[0])));
+        consumer.updateBeginningOffsets(Map.of(partition, 0L));
+        consumer.updateEndOffsets(Map.of(partition, (long) count));
+        consumer.schedulePollTask(() -> {
+            for (int i = 0; i < count; i++) {
+                RecordHeaders headers = new RecordHeaders();
+                headers.add("traceparent", TRACEPARENT.getBytes(StandardCharsets.UTF_8));
+                headers.add("kafka_dlt-original-topic", "qr.code.generated".getBytes(StandardCharsets.UTF_8));
+                headers.add("retry_topic-attempts", new byte[]{0, 0, 0, 5});
+                consumer.addRecord(new ConsumerRecord<>(DLT, 0, i, 0L, TimestampType.CREATE_TIME, -1, -1,
+                        "key-" + i, "value-" + i, headers, Optional.empty()));
+            }
+        });
+    }
+}
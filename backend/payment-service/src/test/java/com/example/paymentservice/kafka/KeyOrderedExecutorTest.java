@@ -0,0 +1,86 @@
+package com.example.paymentservice.kafka;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class KeyOrderedExecutorTest {
+
+    private final KeyOrderedExecutor executor = new KeyOrderedExecutor(true);
+    private final List<String> ran = new CopyOnWriteArrayList<>();
+
+    @AfterEach
+    void tearDown() {
+        executor.close();
+    }
+
+    @Test
+    void sameKeyWaitsForThePreviousTaskWhileOtherKeysRun() throws Exception {
+        // Given - the first task of payment 1 is still running
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<Void> first = executor.submit("1", () -> {
+            await(release);
+            ran.add("1-first");
+        });
+
+        // When
+        CompletableFuture<Void> second = executor.submit("1", () -> ran.add("1-second"));
+        CompletableFuture<Void> other = executor.submit("2", () -> ran.add("2"));
+
+        // Then - payment 2 is not held up; payment 1's second task waits for its first
+        other.get(5, TimeUnit.SECONDS);
+        assertFalse(second.isDone());
+        assertEquals(List.of("2"), ran);
+
+        release.countDown();
+        second.get(5, TimeUnit.SECONDS);
+        assertTrue(first.isDone());
+        assertEquals(List.of("2", "1-first", "1-second"), ran);
+    }
+
+    @Test
+    void failedTaskFailsItsFutureButNotTheNextTaskOfItsKey() throws Exception {
+        // Given
+        CompletableFuture<Void> failed = executor.submit("1", () -> {
+            throw new IllegalStateException("database down");
+        });
+
+        // When
+        CompletableFuture<Void> next = executor.submit("1", () -> ran.add("1-next"));
+
+        // Then - the failure is the container's to retry; the next event of the payment still runs
+        ExecutionException failure = assertThrows(ExecutionException.class, () -> failed.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(IllegalStateException.class, failure.getCause());
+        next.get(5, TimeUnit.SECONDS);
+        assertEquals(List.of("1-next"), ran);
+    }
+
+    @Test
+    void disabledRunsTasksOnTheCallingThread() {
+        try (KeyOrderedExecutor sequential = new KeyOrderedExecutor(false)) {
+            Thread caller = Thread.currentThread();
+
+            CompletableFuture<Void> done = sequential.submit("1", () -> assertSame(caller, Thread.currentThread()));
+
+            assertTrue(done.isDone());
+            assertFalse(done.isCompletedExceptionally());
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            assertTrue(latch.await(5, TimeUnit.SECONDS));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+}
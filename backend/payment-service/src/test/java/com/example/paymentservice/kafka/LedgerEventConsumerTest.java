@@ -0,0 +1,149 @@
+package com.example.paymentservice.kafka;
+
+import com.example.paymentservice.domain.model.Transaction;
+import com.example.paymentservice.entity.TransactionStatus;
+import com.example.paymentservice.entity.TransactionType;
+import com.example.paymentservice.repository.TransactionRepository;
+import com.example.paymentservice.service.PaymentService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.kafka.support.Acknowledgment;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class LedgerEventConsumerTest {
+
+    private static final LocalDateTime PROCESSED_AT = LocalDateTime.of(2026, 3, 1, 10, 15, 30);
+
+    @Mock
+    private TransactionRepository transactionRepository;
+
+    @Mock
+    private Acknowledgment acknowledgment;
+
+    private final ObjectMapper objectMapper = new ObjectMapper()
+            .registerModule(new JavaTimeModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+    private LedgerEventConsumer consumer;
+
+    @BeforeEach
+    void setUp() {
+        consumer = new LedgerEventConsumer(transactionRepository, objectMapper);
+    }
+
+    @Test
+    void batchBecomesPaymentAndRefundTransactionsWrittenBeforeAcknowledging() throws Exception {
+        // Given
+        List<ConsumerRecord<String, String>> records = List.of(
+                processed(0, 11L, "QR-11"),
+                refunded(1, 12L, "Customer request"));
+
+        // When
+        consumer.handleBatch(records, acknowledgment);
+
+        // Then
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<Transaction>> saved = ArgumentCaptor.forClass(List.class);
+        var order = inOrder(transactionRepository, acknowledgment);
+        order.verify(transactionRepository).saveAllIfAbsent(saved.capture());
+        order.verify(acknowledgment).acknowledge();
+
+        Transaction payment = saved.getValue().get(0);
+        assertEquals(11L, payment.getPaymentId());
+        assertEquals(TransactionType.PAYMENT, payment.getType());
+        assertEquals(TransactionStatus.SUCCESS, payment.getStatus());
+        assertEquals(new BigDecimal("25.00"), payment.getAmount());
+        assertEquals("QR-11", payment.getExternalReference());
+        assertEquals(PROCESSED_AT, payment.getTimestamp());
+        assertEquals("payment.processed:11@" + PROCESSED_AT, payment.getReference());
+
+        Transaction refund = saved.getValue().get(1);
+        assertEquals(12L, refund.getPaymentId());
+        assertEquals(TransactionType.REFUND, refund.getType());
+        assertEquals(new BigDecimal("5.00"), refund.getAmount());
+        assertEquals("Customer request", refund.getDescription());
+        assertEquals("payment.refunded:12@" + PROCESSED_AT, refund.getReference());
+    }
+
+    @Test
+    void duplicatesWithinBatchAreWrittenOnce() throws Exception {
+        // When - the outbox published the same event twice
+        consumer.handleBatch(List.of(processed(0, 11L, "QR-11"), processed(1, 11L, "QR-11")), acknowledgment);
+
+        // Then
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<Transaction>> saved = ArgumentCaptor.forClass(List.class);
+        verify(transactionRepository).saveAllIfAbsent(saved.capture());
+        assertEquals(1, saved.getValue().size());
+        verify(acknowledgment).acknowledge();
+    }
+
+    @Test
+    void unreadableRecordsAreSkipped() throws Exception {
+        // Given
+        List<ConsumerRecord<String, String>> records = List.of(
+                new ConsumerRecord<>(KafkaEventProducer.TOPIC_PAYMENT_PROCESSED, 0, 0, "1", "not json"),
+                new ConsumerRecord<>(KafkaEventProducer.TOPIC_PAYMENT_REFUNDED, 0, 1, "2", "{\"reason\":\"x\"}"),
+                processed(2, 13L, "QR-13"));
+
+        // When
+        consumer.handleBatch(records, acknowledgment);
+
+        // Then
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<Transaction>> saved = ArgumentCaptor.forClass(List.class);
+        verify(transactionRepository).saveAllIfAbsent(saved.capture());
+        assertEquals(List.of(13L), saved.getValue().stream().map(Transaction::getPaymentId).toList());
+        verify(acknowledgment).acknowledge();
+    }
+
+    @Test
+    void failedWriteIsNotAcknowledged() throws Exception {
+        // Given
+        doThrow(new DataAccessResourceFailureException("database down"))
+                .when(transactionRepository).saveAllIfAbsent(anyList());
+
+        // When / Then - the container retries the batch from its uncommitted offsets
+        assertThrows(DataAccessResourceFailureException.class,
+                () -> consumer.handleBatch(List.of(processed(0, 11L, "QR-11")), acknowledgment));
+        verifyNoInteractions(acknowledgment);
+    }
+
+    private ConsumerRecord<String, String> processed(long offset, Long paymentId, String qrCode) throws Exception {
+        String value = objectMapper.writeValueAsString(PaymentService.PaymentProcessedEvent.builder()
+                .paymentId(paymentId)
+                .qrCode(qrCode)
+                .amount(new BigDecimal("25.00"))
+                .currency("USD")
+                .timestamp(PROCESSED_AT)
+                .build());
+        return new ConsumerRecord<>(KafkaEventProducer.TOPIC_PAYMENT_PROCESSED, 0, offset, paymentId.toString(), value);
+    }
+
+    private ConsumerRecord<String, String> refunded(long offset, Long paymentId, String reason) throws Exception {
+        String value = objectMapper.writeValueAsString(PaymentService.PaymentRefundedEvent.builder()
+                .paymentId(paymentId)
+                .refundAmount(new BigDecimal("5.00"))
+                .reason(reason)
+                .timestamp(PROCESSED_AT)
+                .build());
+        return new ConsumerRecord<>(KafkaEventProducer.TOPIC_PAYMENT_REFUNDED, 0, offset, paymentId.toString(), value);
+    }
+}
@@ -0,0 +1,174 @@
+package com.example.paymentservice.kafka;
+
+import com.example.paymentservice.domain.model.MerchantRollupIncrement;
+import com.example.paymentservice.repository.MerchantRollupRepository;
+import com.example.paymentservice.service.PaymentService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.kafka.support.Acknowledgment;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class MerchantRollupEventConsumerTest {
+
+    private static final LocalDateTime PROCESSED_AT = LocalDateTime.of(2026, 3, 1, 10, 15, 30);
+
+    @Mock
+    private MerchantRollupRepository merchantRollupRepository;
+
+    @Mock
+    private Acknowledgment acknowledgment;
+
+    private final ObjectMapper objectMapper = new ObjectMapper()
+            .registerModule(new JavaTimeModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+    private MerchantRollupEventConsumer consumer;
+
+    @BeforeEach
+    void setUp() {
+        consumer = new MerchantRollupEventConsumer(merchantRollupRepository, objectMapper);
+    }
+
+    @Test
+    void batchBecomesPaymentAndRefundIncrementsAppliedBeforeAcknowledging() throws Exception {
+        // When
+        consumer.handleBatch(List.of(processed(0, 11L, "usd"), refunded(1, 12L, "USD")), acknowledgment);
+
+        // Then
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<MerchantRollupIncrement>> applied = ArgumentCaptor.forClass(List.class);
+        var order = inOrder(merchantRollupRepository, acknowledgment);
+        order.verify(merchantRollupRepository).applyAllIfAbsent(applied.capture());
+        order.verify(acknowledgment).acknowledge();
+
+        MerchantRollupIncrement payment = applied.getValue().get(0);
+        assertEquals("payment.processed:11@" + PROCESSED_AT, payment.getReference());
+        assertEquals("MERCHANT_001", payment.getMerchantId());
+        assertEquals(PROCESSED_AT, payment.getOccurredAt());
+        assertEquals(PROCESSED_AT.toLocalDate(), payment.getDate());
+        assertEquals("USD", payment.getCurrency());
+        assertEquals(1, payment.getPaymentCount());
+        assertEquals(new BigDecimal("25.00"), payment.getGrossAmount());
+        assertEquals(0, payment.getRefundCount());
+        assertEquals(BigDecimal.ZERO, payment.getRefundAmount());
+
+        MerchantRollupIncrement refund = applied.getValue().get(1);
+        assertEquals("payment.refunded:12@" + PROCESSED_AT, refund.getReference());
+        assertEquals(0, refund.getPaymentCount());
+        assertEquals(BigDecimal.ZERO, refund.getGrossAmount());
+        assertEquals(1, refund.getRefundCount());
+        assertEquals(new BigDecimal("5.00"), refund.getRefundAmount());
+    }
+
+    @Test
+    void duplicatesWithinBatchAreAppliedOnce() throws Exception {
+        // When - the outbox published the same event twice
+        consumer.handleBatch(List.of(processed(0, 11L, "USD"), processed(1, 11L, "USD")), acknowledgment);
+
+        // Then
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<MerchantRollupIncrement>> applied = ArgumentCaptor.forClass(List.class);
+        verify(merchantRollupRepository).applyAllIfAbsent(applied.capture());
+        assertEquals(1, applied.getValue().size());
+        verify(acknowledgment).acknowledge();
+    }
+
+    @Test
+    void unreadableRecordsAndRefundsWithoutCurrencyAreSkipped() throws Exception {
+        // Given - the refund was published before refund events carried the currency
+        List<ConsumerRecord<String, String>> records = List.of(
+                new ConsumerRecord<>(KafkaEventProducer.TOPIC_PAYMENT_PROCESSED, 0, 0, "1", "not json"),
+                refunded(1, 12L, null),
+                processed(2, 13L, "USD"));
+
+        // When
+        consumer.handleBatch(records, acknowledgment);
+
+        // Then
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<MerchantRollupIncrement>> applied = ArgumentCaptor.forClass(List.class);
+        verify(merchantRollupRepository).applyAllIfAbsent(applied.capture());
+        assertEquals(List.of("payment.processed:13@" + PROCESSED_AT),
+                applied.getValue().stream().map(MerchantRollupIncrement::getReference).toList());
+        verify(acknowledgment).acknowledge();
+    }
+
+    @Test
+    void eventsTheMigrationBackfilledAreSkipped() throws Exception {
+        // Given - V8 counted the outbox events up to PROCESSED_AT
+        when(merchantRollupRepository.findBackfilledThrough()).thenReturn(Optional.of(PROCESSED_AT));
+
+        // When
+        consumer.handleBatch(List.of(
+                processed(0, 11L, "USD", PROCESSED_AT.minusMinutes(5)),
+                processed(1, 12L, "USD", PROCESSED_AT),
+                processed(2, 13L, "USD", PROCESSED_AT.plusSeconds(1))), acknowledgment);
+        consumer.handleBatch(List.of(processed(3, 14L, "USD", PROCESSED_AT.minusDays(1))), acknowledgment);
+
+        // Then - only the event after the backfill is counted; the watermark is read once
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<MerchantRollupIncrement>> applied = ArgumentCaptor.forClass(List.class);
+        verify(merchantRollupRepository).applyAllIfAbsent(applied.capture());
+        assertEquals(List.of("payment.processed:13@" + PROCESSED_AT.plusSeconds(1)),
+                applied.getValue().stream().map(MerchantRollupIncrement::getReference).toList());
+        verify(merchantRollupRepository, times(1)).findBackfilledThrough();
+        verify(acknowledgment, times(2)).acknowledge();
+    }
+
+    @Test
+    void failedWriteIsNotAcknowledged() throws Exception {
+        // Given
+        doThrow(new DataAccessResourceFailureException("database down"))
+                .when(merchantRollupRepository).applyAllIfAbsent(anyList());
+
+        // When / Then - the container retries the batch from its uncommitted offsets
+        assertThrows(DataAccessResourceFailureException.class,
+                () -> consumer.handleBatch(List.of(processed(0, 11L, "USD")), acknowledgment));
+        verifyNoInteractions(acknowledgment);
+    }
+
+    private ConsumerRecord<String, String> processed(long offset, Long paymentId, String currency) throws Exception {
+        return processed(offset, paymentId, currency, PROCESSED_AT);
+    }
+
+    private ConsumerRecord<String, String> processed(long offset, Long paymentId, String currency,
+                                                     LocalDateTime timestamp) throws Exception {
+        String value = objectMapper.writeValueAsString(PaymentService.PaymentProcessedEvent.builder()
+                .paymentId(paymentId)
+                .merchantId("MERCHANT_001")
+                .amount(new BigDecimal("25.00"))
+                .currency(currency)
+                .timestamp(timestamp)
+                .build());
+        return new ConsumerRecord<>(KafkaEventProducer.TOPIC_PAYMENT_PROCESSED, 0, offset, paymentId.toString(), value);
+    }
+
+    private ConsumerRecord<String, String> refunded(long offset, Long paymentId, String currency) throws Exception {
+        String value = objectMapper.writeValueAsString(PaymentService.PaymentRefundedEvent.builder()
+                .paymentId(paymentId)
+                .merchantId("MERCHANT_001")
+                .refundAmount(new BigDecimal("5.00"))
+                .currency(currency)
+                .timestamp(PROCESSED_AT)
+                .build());
+        return new ConsumerRecord<>(KafkaEventProducer.TOPIC_PAYMENT_REFUNDED, 0, offset, paymentId.toString(), value);
+    }
+}
@@ -0,0 +1,125 @@
+package com.example.paymentservice.kafka;
+
+import com.example.paymentservice.service.PaymentService;
+import com.example.paymentservice.service.webhook.WebhookService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.kafka.support.Acknowledgment;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class WebhookEventConsumerTest {
+
+    private static final LocalDateTime PROCESSED_AT = LocalDateTime.of(2026, 3, 1, 10, 15, 30);
+
+    @Mock
+    private WebhookService webhookService;
+
+    @Mock
+    private Acknowledgment acknowledgment;
+
+    private final ObjectMapper objectMapper = new ObjectMapper()
+            .registerModule(new JavaTimeModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+    private WebhookEventConsumer consumer;
+
+    @BeforeEach
+    void setUp() {
+        consumer = new WebhookEventConsumer(webhookService, objectMapper);
+    }
+
+    @Test
+    void batchIsQueuedAsCompletedAndRefundedEventsBeforeAcknowledging() throws Exception {
+        // When - the second record is a republished duplicate
+        consumer.handleBatch(List.of(processed(0, 11L, "M-1"), processed(1, 11L, "M-1"), refunded(2, 12L, "M-2")),
+                acknowledgment);
+
+        // Then
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<WebhookService.WebhookEvent>> queued = ArgumentCaptor.forClass(List.class);
+        var order = inOrder(webhookService, acknowledgment);
+        order.verify(webhookService).enqueue(queued.capture());
+        order.verify(acknowledgment).acknowledge();
+        assertEquals(2, queued.getValue().size());
+
+        WebhookService.WebhookEvent completed = queued.getValue().get(0);
+        assertEquals("payment.processed:11@" + PROCESSED_AT, completed.getId());
+        assertEquals(WebhookService.EVENT_PAYMENT_COMPLETED, completed.getType());
+        assertEquals("M-1", completed.getData().getMerchantId());
+        assertEquals("COMPLETED", completed.getData().getStatus());
+        assertEquals(new BigDecimal("25.00"), completed.getData().getAmount());
+
+        WebhookService.WebhookEvent refunded = queued.getValue().get(1);
+        assertEquals(WebhookService.EVENT_PAYMENT_REFUNDED, refunded.getType());
+        assertEquals("M-2", refunded.getData().getMerchantId());
+        assertEquals(new BigDecimal("5.00"), refunded.getData().getRefundAmount());
+        assertEquals(PROCESSED_AT, refunded.getCreatedAt());
+    }
+
+    @Test
+    void unreadableRecordsAndEventsWithoutMerchantAreSkipped() throws Exception {
+        // When
+        consumer.handleBatch(List.of(
+                new ConsumerRecord<>(KafkaEventProducer.TOPIC_PAYMENT_PROCESSED, 0, 0, "1", "not json"),
+                processed(1, 12L, null),
+                refunded(2, 13L, "M-3")), acknowledgment);
+
+        // Then
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<WebhookService.WebhookEvent>> queued = ArgumentCaptor.forClass(List.class);
+        verify(webhookService).enqueue(queued.capture());
+        assertEquals(List.of(13L), queued.getValue().stream().map(event -> event.getData().getPaymentId()).toList());
+        verify(acknowledgment).acknowledge();
+    }
+
+    @Test
+    void failedQueueWriteIsNotAcknowledged() throws Exception {
+        // Given
+        when(webhookService.enqueue(anyList())).thenThrow(new DataAccessResourceFailureException("database down"));
+
+        // When / Then - the container retries the batch from its uncommitted offsets
+        assertThrows(DataAccessResourceFailureException.class,
+                () -> consumer.handleBatch(List.of(processed(0, 11L, "M-1")), acknowledgment));
+        verifyNoInteractions(acknowledgment);
+    }
+
+    private ConsumerRecord<String, String> processed(long offset, Long paymentId, String merchantId) throws Exception {
+        String value = objectMapper.writeValueAsString(PaymentService.PaymentProcessedEvent.builder()
+                .paymentId(paymentId)
+                .merchantId(merchantId)
+                .qrCode("QR-" + paymentId)
+                .amount(new BigDecimal("25.00"))
+                .currency("USD")
+                .timestamp(PROCESSED_AT)
+                .build());
+        return new ConsumerRecord<>(KafkaEventProducer.TOPIC_PAYMENT_PROCESSED, 0, offset, paymentId.toString(), value);
+    }
+
+    private ConsumerRecord<String, String> refunded(long offset, Long paymentId, String merchantId) throws Exception {
+        String value = objectMapper.writeValueAsString(PaymentService.PaymentRefundedEvent.builder()
+                .paymentId(paymentId)
+                .merchantId(merchantId)
+                .refundAmount(new BigDecimal("5.00"))
+                .reason("Customer request")
+                .timestamp(PROCESSED_AT)
+                .build());
+        return new ConsumerRecord<>(KafkaEventProducer.TOPIC_PAYMENT_REFUNDED, 0, offset, paymentId.toString(), value);
+    }
+}
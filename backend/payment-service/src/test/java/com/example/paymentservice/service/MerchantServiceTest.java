@@ -0,0 +1,104 @@
+package com.example.paymentservice.service;
+
+import com.example.paymentservice.domain.model.Payment;
+import com.example.paymentservice.domain.model.PaymentPage;
+import com.example.paymentservice.entity.PaymentErrorCode;
+import com.example.paymentservice.entity.PaymentStatus;
+import com.example.paymentservice.exception.PaymentException;
+import com.example.paymentservice.repository.MerchantRollupRepository;
+import com.example.paymentservice.repository.PaymentRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class MerchantServiceTest {
+
+    private static final String MERCHANT_ID = "MERCHANT_001";
+
+    @Mock
+    private PaymentRepository paymentRepository;
+
+    @Mock
+    private MerchantRollupRepository merchantRollupRepository;
+
+    @InjectMocks
+    private MerchantService merchantService;
+
+    @Test
+    void testGetPayments_FullPageReturnsCursorToLastRow() {
+        // Given - one row more than the page size means another page exists
+        LocalDateTime now = LocalDateTime.now();
+        List<Payment> rows = LongStream.rangeClosed(1, 3)
+                .mapToObj(i -> payment(100 - i, now.minusMinutes(i)))
+                .toList();
+        when(paymentRepository.findByMerchantId(MERCHANT_ID, null, 3)).thenReturn(rows);
+
+        // When
+        PaymentPage page = merchantService.getPayments(MERCHANT_ID, null, 2);
+
+        // Then
+        assertEquals(2, page.getPayments().size());
+        PaymentPage.Cursor cursor = PaymentPage.Cursor.decode(page.getNextCursor());
+        assertEquals(98L, cursor.id());
+        assertEquals(now.minusMinutes(2), cursor.createdAt());
+    }
+
+    @Test
+    void testGetPayments_CursorIsPassedToRepositoryAndLastPageHasNoCursor() {
+        // Given
+        LocalDateTime createdAt = LocalDateTime.now();
+        String cursor = new PaymentPage.Cursor(createdAt, 98L).encode();
+        when(paymentRepository.findByMerchantId(MERCHANT_ID, new PaymentPage.Cursor(createdAt, 98L), 3))
+                .thenReturn(List.of(payment(97L, createdAt.minusMinutes(1))));
+
+        // When
+        PaymentPage page = merchantService.getPayments(MERCHANT_ID, cursor, 2);
+
+        // Then
+        assertEquals(1, page.getPayments().size());
+        assertNull(page.getNextCursor());
+    }
+
+    @Test
+    void testGetPayments_InvalidCursor() {
+        PaymentException exception = assertThrows(PaymentException.class,
+                () -> merchantService.getPayments(MERCHANT_ID, "not-a-cursor", null));
+
+        assertEquals(PaymentErrorCode.INVALID_REQUEST.name(), exception.getErrorCode());
+        verifyNoInteractions(paymentRepository);
+    }
+
+    @Test
+    void testGetDailySummaries_DefaultsToLast30Days() {
+        // When
+        merchantService.getDailySummaries(MERCHANT_ID, null, null);
+
+        // Then
+        LocalDate today = LocalDate.now();
+        verify(merchantRollupRepository).findByMerchantId(MERCHANT_ID, today.minusDays(29), today);
+    }
+
+    private Payment payment(long id, LocalDateTime createdAt) {
+        return Payment.builder()
+                .id(id)
+                .amount(new BigDecimal("10.00"))
+                .currency("USD")
+                .status(PaymentStatus.COMPLETED)
+                .merchantId(MERCHANT_ID)
+                .createdAt(createdAt)
+                .build();
+    }
+}
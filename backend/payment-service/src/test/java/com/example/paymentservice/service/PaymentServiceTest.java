@@ -3,10 +3,13 @@ package com.example.paymentservice.service;
 import com.example.paymentservice.client.QRCodeClientService;
 import com.example.paymentservice.client.UserClientService;
 import com.example.paymentservice.client.WalletClientService;
+import com.example.paymentservice.domain.model.PaymentTransition;
 import com.example.paymentservice.domain.model.QRCode;
+import com.example.paymentservice.dto.request.InitiatePaymentBatchRequest;
 import com.example.paymentservice.dto.request.InitiatePaymentRequest;
 import com.example.paymentservice.dto.request.ProcessPaymentRequest;
 import com.example.paymentservice.dto.request.RefundPaymentRequest;
+import com.example.paymentservice.dto.response.InitiatePaymentResponse;
 import com.example.paymentservice.entity.PaymentErrorCode;
 import com.example.paymentservice.entity.PaymentStatus;
 import com.example.paymentservice.exception.PaymentException;
@@ -16,13 +19,19 @@ import com.example.paymentservice.repository.PaymentRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.LongStream;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
@@ -49,6 +58,12 @@ class PaymentServiceTest {
     @Mock
     private OutboxService outboxService;
 
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @Mock
+    private PaymentVelocityChecker paymentVelocityChecker;
+
     @InjectMocks
     private PaymentService paymentService;
 
@@ -59,6 +74,9 @@ class PaymentServiceTest {
 
     @BeforeEach
     void setUp() {
+        lenient().when(transactionTemplate.execute(any()))
+                .thenAnswer(invocation -> invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+
         domainPayment = com.example.paymentservice.domain.model.Payment.builder()
                 .id(paymentId)
                 .amount(new BigDecimal("50.00"))
@@ -149,6 +167,59 @@ class PaymentServiceTest {
         verify(paymentRepository, never()).save(any(com.example.paymentservice.domain.model.Payment.class));
     }
 
+    @Test
+    void testInitiatePayments_ValidatesUserOnceAndSavesOneBatch() {
+        // Given
+        InitiatePaymentBatchRequest request = batchRequest("Ticket A-1", "Ticket A-2", "Ticket A-3");
+        when(userClientService.validateUserConditions(userId)).thenReturn(true);
+        when(paymentRepository.saveAll(anyList())).thenAnswer(invocation -> {
+            List<com.example.paymentservice.domain.model.Payment> payments = invocation.getArgument(0);
+            return LongStream.range(0, payments.size())
+                    .mapToObj(i -> payments.get((int) i).toBuilder().id(paymentId + i).build())
+                    .toList();
+        });
+
+        // When
+        var response = paymentService.initiatePayments(request, "batch-key");
+
+        // Then
+        assertEquals(List.of(100L, 101L, 102L), response.getPayments().stream()
+                .map(InitiatePaymentResponse::getTransactionId).toList());
+        verify(userClientService, times(1)).validateUserConditions(userId);
+        verify(paymentRepository, never()).save(any(com.example.paymentservice.domain.model.Payment.class));
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<com.example.paymentservice.domain.model.Payment>> saved = ArgumentCaptor.forClass(List.class);
+        verify(paymentRepository).saveAll(saved.capture());
+        assertEquals(List.of("batch-key:0", "batch-key:1", "batch-key:2"), saved.getValue().stream()
+                .map(com.example.paymentservice.domain.model.Payment::getIdempotencyKey).toList());
+        assertEquals("Ticket A-2", saved.getValue().get(1).getDescription());
+
+        ArgumentCaptor<List<?>> events = ArgumentCaptor.forClass(List.class);
+        verify(outboxService).saveEvents(eq("PaymentCreatedEvent"), events.capture());
+        assertEquals(3, events.getValue().size());
+        verify(outboxService, never()).saveEvent(anyString(), any());
+    }
+
+    @Test
+    void testInitiatePayments_RepeatedKeyReturnsFirstBatch() {
+        // Given
+        InitiatePaymentBatchRequest request = batchRequest("Ticket A-1", "Ticket A-2");
+        when(paymentRepository.findByIdempotencyKey("batch-key:0"))
+                .thenReturn(Optional.of(domainPayment.toBuilder().id(100L).build()));
+        when(paymentRepository.findByIdempotencyKey("batch-key:1"))
+                .thenReturn(Optional.of(domainPayment.toBuilder().id(101L).build()));
+
+        // When
+        var response = paymentService.initiatePayments(request, "batch-key");
+
+        // Then
+        assertEquals(List.of(100L, 101L), response.getPayments().stream()
+                .map(InitiatePaymentResponse::getTransactionId).toList());
+        verify(userClientService, never()).validateUserConditions(anyLong());
+        verify(paymentRepository, never()).saveAll(anyList());
+    }
+
     @Test
     void testGetPaymentById_Success() {
         // Given
@@ -189,7 +260,8 @@ class PaymentServiceTest {
 
         when(paymentRepository.findById(paymentId)).thenReturn(Optional.of(domainPayment));
         when(qrCodeClientService.validateQRCode(request.getQrCode())).thenReturn(domainQRCode);
-        when(paymentRepository.save(any(com.example.paymentservice.domain.model.Payment.class))).thenReturn(domainPayment);
+        when(paymentRepository.transitionStatus(eq(paymentId), eq(PaymentStatus.READY), any(PaymentTransition.class)))
+                .thenReturn(true);
 
         // When
         com.example.paymentservice.domain.model.Payment result = paymentService.processPayment(paymentId, request, null);
@@ -197,8 +269,11 @@ class PaymentServiceTest {
         // Then
         assertNotNull(result);
         assertEquals(PaymentStatus.COMPLETED, result.getStatus());
+        assertEquals("MERCHANT_001", result.getMerchantId());
         verify(walletClientService).deductFromWallet(userId, request.getAmount());
-        verify(paymentRepository).save(any(com.example.paymentservice.domain.model.Payment.class));
+        verify(paymentRepository).transitionStatus(eq(paymentId), eq(PaymentStatus.READY), any(PaymentTransition.class));
+        verify(paymentRepository, never()).save(any(com.example.paymentservice.domain.model.Payment.class));
+        verify(outboxService).saveEvent(eq("PaymentProcessedEvent"), any());
     }
 
     @Test
@@ -221,7 +296,54 @@ class PaymentServiceTest {
         });
 
         assertEquals(PaymentErrorCode.INSUFFICIENT_BALANCE.name(), exception.getErrorCode());
-        verify(paymentRepository, never()).save(any(com.example.paymentservice.domain.model.Payment.class));
+        verify(paymentRepository, never()).transitionStatus(anyLong(), any(), any());
+    }
+
+    @Test
+    void testProcessPayment_VelocityLimitExceeded() {
+        // Given
+        ProcessPaymentRequest request = new ProcessPaymentRequest();
+        request.setQrCode("PAYMENT_100_1234567890_ABCDEF123456");
+        request.setAmount(new BigDecimal("50.00"));
+        request.setCurrency("USD");
+        request.setMerchantId("MERCHANT_001");
+
+        when(paymentRepository.findById(paymentId)).thenReturn(Optional.of(domainPayment));
+        when(qrCodeClientService.validateQRCode(request.getQrCode())).thenReturn(domainQRCode);
+        when(paymentVelocityChecker.acquire(paymentId, userId.toString(), "MERCHANT_001", request.getAmount()))
+                .thenThrow(new PaymentException(PaymentErrorCode.VELOCITY_LIMIT_EXCEEDED.name(), "limit"));
+
+        // When & Then - refused before the wallet is touched
+        PaymentException exception = assertThrows(PaymentException.class, () -> {
+            paymentService.processPayment(paymentId, request, null);
+        });
+
+        assertEquals(PaymentErrorCode.VELOCITY_LIMIT_EXCEEDED.name(), exception.getErrorCode());
+        verifyNoInteractions(walletClientService);
+        verify(paymentVelocityChecker, never()).release(any(), any(), any(), any(), anyLong());
+    }
+
+    @Test
+    void testProcessPayment_FailedDeductionReleasesVelocity() {
+        // Given
+        ProcessPaymentRequest request = new ProcessPaymentRequest();
+        request.setQrCode("PAYMENT_100_1234567890_ABCDEF123456");
+        request.setAmount(new BigDecimal("50.00"));
+        request.setCurrency("USD");
+        request.setMerchantId("MERCHANT_001");
+
+        when(paymentRepository.findById(paymentId)).thenReturn(Optional.of(domainPayment));
+        when(qrCodeClientService.validateQRCode(request.getQrCode())).thenReturn(domainQRCode);
+        when(paymentVelocityChecker.acquire(paymentId, userId.toString(), "MERCHANT_001", request.getAmount()))
+                .thenReturn(1234L);
+        doThrow(new WalletClientService.InsufficientBalanceException("Insufficient balance"))
+                .when(walletClientService).deductFromWallet(userId, request.getAmount());
+
+        // When
+        assertThrows(PaymentException.class, () -> paymentService.processPayment(paymentId, request, null));
+
+        // Then
+        verify(paymentVelocityChecker).release(paymentId, userId.toString(), "MERCHANT_001", request.getAmount(), 1234L);
     }
 
     @Test
@@ -259,6 +381,7 @@ class PaymentServiceTest {
                 .amount(new BigDecimal("50.00"))
                 .currency("USD")
                 .status(PaymentStatus.COMPLETED)
+                .merchantId("MERCHANT_001")
                 .customerId(userId.toString())
                 .build();
         RefundPaymentRequest request = new RefundPaymentRequest();
@@ -266,7 +389,8 @@ class PaymentServiceTest {
         request.setReason("Customer request");
 
         when(paymentRepository.findById(paymentId)).thenReturn(Optional.of(completedPayment));
-        when(paymentRepository.save(any(com.example.paymentservice.domain.model.Payment.class))).thenReturn(completedPayment);
+        when(paymentRepository.transitionStatus(eq(paymentId), eq(PaymentStatus.COMPLETED), any(PaymentTransition.class)))
+                .thenReturn(true);
 
         // When
         com.example.paymentservice.domain.model.Payment result = paymentService.refundPayment(paymentId, request, null);
@@ -275,7 +399,14 @@ class PaymentServiceTest {
         assertNotNull(result);
         assertEquals(PaymentStatus.REFUNDED, result.getStatus());
         verify(walletClientService).addToWallet(eq(userId), eq(request.getAmount()), anyString());
-        verify(paymentRepository).save(any(com.example.paymentservice.domain.model.Payment.class));
+        verify(paymentRepository).transitionStatus(eq(paymentId), eq(PaymentStatus.COMPLETED), any(PaymentTransition.class));
+        // The event carries what the merchant rollup needs
+        ArgumentCaptor<PaymentService.PaymentRefundedEvent> event =
+                ArgumentCaptor.forClass(PaymentService.PaymentRefundedEvent.class);
+        verify(outboxService).saveEvent(eq("PaymentRefundedEvent"), event.capture());
+        assertEquals("MERCHANT_001", event.getValue().getMerchantId());
+        assertEquals("USD", event.getValue().getCurrency());
+        assertEquals(request.getAmount(), event.getValue().getRefundAmount());
     }
 
     @Test
@@ -336,7 +467,8 @@ class PaymentServiceTest {
                 .customerId(domainPayment.getCustomerId())
                 .build();
         when(paymentRepository.findById(paymentId)).thenReturn(Optional.of(pendingPayment));
-        when(paymentRepository.save(any(com.example.paymentservice.domain.model.Payment.class))).thenAnswer(inv -> inv.getArgument(0));
+        when(paymentRepository.transitionStatus(eq(paymentId), eq(PaymentStatus.PENDING), any(PaymentTransition.class)))
+                .thenReturn(true);
 
         // When
         com.example.paymentservice.domain.model.Payment result = paymentService.cancelPayment(paymentId, "No longer needed");
@@ -350,7 +482,8 @@ class PaymentServiceTest {
     void testCancelPayment_FromReady() {
         // Given
         when(paymentRepository.findById(paymentId)).thenReturn(Optional.of(domainPayment));
-        when(paymentRepository.save(any(com.example.paymentservice.domain.model.Payment.class))).thenAnswer(inv -> inv.getArgument(0));
+        when(paymentRepository.transitionStatus(eq(paymentId), eq(PaymentStatus.READY), any(PaymentTransition.class)))
+                .thenReturn(true);
 
         // When
         com.example.paymentservice.domain.model.Payment result = paymentService.cancelPayment(paymentId, "Changed mind");
@@ -379,4 +512,63 @@ class PaymentServiceTest {
 
         assertEquals(PaymentErrorCode.INVALID_PAYMENT_STATE.name(), exception.getErrorCode());
     }
+
+    @Test
+    void testProcessPayment_LostTransitionReversesDeduction() {
+        // Given - payment is cancelled concurrently after the READY check
+        ProcessPaymentRequest request = new ProcessPaymentRequest();
+        request.setQrCode("PAYMENT_100_1234567890_ABCDEF123456");
+        request.setAmount(new BigDecimal("50.00"));
+        request.setCurrency("USD");
+        request.setMerchantId("MERCHANT_001");
+
+        com.example.paymentservice.domain.model.Payment cancelledPayment = domainPayment.toBuilder()
+                .status(PaymentStatus.CANCELLED)
+                .build();
+        when(paymentRepository.findById(paymentId))
+                .thenReturn(Optional.of(domainPayment))
+                .thenReturn(Optional.of(cancelledPayment));
+        when(qrCodeClientService.validateQRCode(request.getQrCode())).thenReturn(domainQRCode);
+        when(paymentRepository.transitionStatus(eq(paymentId), eq(PaymentStatus.READY), any(PaymentTransition.class)))
+                .thenReturn(false);
+
+        // When & Then
+        PaymentException exception = assertThrows(PaymentException.class, () -> {
+            paymentService.processPayment(paymentId, request, null);
+        });
+
+        assertEquals(PaymentErrorCode.INVALID_PAYMENT_STATE.name(), exception.getErrorCode());
+        verify(walletClientService).addToWallet(eq(userId), eq(request.getAmount()), anyString());
+        verify(outboxService, never()).saveEvent(anyString(), any());
+    }
+
+    @Test
+    void testCancelPayment_PendingBecameReadyConcurrently() {
+        // Given - QR consumer moves PENDING -> READY between the read and the update
+        com.example.paymentservice.domain.model.Payment pendingPayment = domainPayment.toBuilder()
+                .status(PaymentStatus.PENDING)
+                .build();
+        when(paymentRepository.findById(paymentId)).thenReturn(Optional.of(pendingPayment));
+        when(paymentRepository.transitionStatus(eq(paymentId), eq(PaymentStatus.PENDING), any(PaymentTransition.class)))
+                .thenReturn(false);
+        when(paymentRepository.transitionStatus(eq(paymentId), eq(PaymentStatus.READY), any(PaymentTransition.class)))
+                .thenReturn(true);
+
+        // When
+        com.example.paymentservice.domain.model.Payment result = paymentService.cancelPayment(paymentId, "Changed mind");
+
+        // Then
+        assertEquals(PaymentStatus.CANCELLED, result.getStatus());
+    }
+
+    private InitiatePaymentBatchRequest batchRequest(String... descriptions) {
+        InitiatePaymentBatchRequest request = new InitiatePaymentBatchRequest();
+        request.setUserId(userId);
+        request.setItems(Arrays.stream(descriptions).map(description -> {
+            InitiatePaymentBatchRequest.Item item = new InitiatePaymentBatchRequest.Item();
+            item.setDescription(description);
+            return item;
+        }).toList());
+        return request;
+    }
 }
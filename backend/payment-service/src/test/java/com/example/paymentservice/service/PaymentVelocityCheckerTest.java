@@ -0,0 +1,91 @@
+package com.example.paymentservice.service;
+
+import com.example.paymentservice.config.VelocityProperties;
+import com.example.paymentservice.exception.PaymentException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PaymentVelocityCheckerTest {
+
+    private final AtomicLong clock = new AtomicLong(1_772_000_000_000L);
+
+    @Test
+    void paymentIsCountedAgainstAllLimitsOrNone() {
+        // Given - customer: 2 per minute; merchant: 100.00 per minute
+        PaymentVelocityChecker checker = checker(limits(2L, null, null, new BigDecimal("100.00")));
+        checker.acquire(1L, "7", "M-1", new BigDecimal("60.00"));
+
+        // When - the merchant limit refuses, after the customer limit accepted
+        PaymentException exceeded = assertThrows(PaymentException.class,
+                () -> checker.acquire(2L, "7", "M-1", new BigDecimal("50.00")));
+
+        // Then - the customer's count was rolled back: one more payment still fits
+        assertEquals("VELOCITY_LIMIT_EXCEEDED", exceeded.getErrorCode());
+        checker.acquire(3L, "7", "M-2", new BigDecimal("50.00"));
+        assertThrows(PaymentException.class, () -> checker.acquire(4L, "7", "M-3", BigDecimal.ONE));
+    }
+
+    @Test
+    void releasedPaymentNoLongerCounts() {
+        // Given
+        PaymentVelocityChecker checker = checker(limits(1L, null, null, null));
+        long countedAt = checker.acquire(1L, "7", "M-1", BigDecimal.TEN);
+
+        // When - the wallet refused the debit
+        clock.addAndGet(2_000);
+        checker.release(1L, "7", "M-1", BigDecimal.TEN, countedAt);
+
+        // Then
+        checker.acquire(2L, "7", "M-1", BigDecimal.TEN);
+    }
+
+    @Test
+    void paymentsCompletedElsewhereCountButOwnEventsDoNot() {
+        // Given
+        PaymentVelocityChecker checker = checker(limits(2L, null, null, null));
+        checker.acquire(1L, "7", "M-1", BigDecimal.TEN);
+
+        // When - our own event comes back, and another replica's payment arrives
+        checker.record(1L, "7", "M-1", BigDecimal.TEN, clock.get());
+        checker.record(9L, "7", "M-1", BigDecimal.TEN, clock.get() - 30_000);
+
+        // Then - two payments in the window
+        assertThrows(PaymentException.class, () -> checker.acquire(2L, "7", "M-1", BigDecimal.TEN));
+        assertEquals(Duration.ofMinutes(1), checker.longestWindow());
+    }
+
+    @Test
+    void paymentWithoutMerchantSkipsMerchantLimits() {
+        // Given
+        PaymentVelocityChecker checker = checker(limits(null, null, 1L, null));
+
+        // When / Then
+        checker.acquire(1L, "7", null, BigDecimal.TEN);
+        checker.acquire(2L, "7", null, BigDecimal.TEN);
+        checker.acquire(3L, "7", "M-1", BigDecimal.TEN);
+        assertThrows(PaymentException.class, () -> checker.acquire(4L, "8", "M-1", BigDecimal.TEN));
+    }
+
+    private PaymentVelocityChecker checker(Map<String, VelocityProperties.Limit> limits) {
+        return new PaymentVelocityChecker(new VelocityProperties(true, 4, 100, limits), new SimpleMeterRegistry(),
+                clock::get);
+    }
+
+    private static Map<String, VelocityProperties.Limit> limits(Long customerCount, BigDecimal customerAmount,
+                                                                Long merchantCount, BigDecimal merchantAmount) {
+        Map<String, VelocityProperties.Limit> limits = new LinkedHashMap<>();
+        limits.put("customer-minute", new VelocityProperties.Limit(VelocityProperties.Scope.CUSTOMER,
+                Duration.ofMinutes(1), 6, customerCount, customerAmount));
+        limits.put("merchant-minute", new VelocityProperties.Limit(VelocityProperties.Scope.MERCHANT,
+                Duration.ofMinutes(1), 6, merchantCount, merchantAmount));
+        return limits;
+    }
+}
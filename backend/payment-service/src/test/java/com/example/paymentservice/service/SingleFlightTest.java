@@ -0,0 +1,102 @@
+package com.example.paymentservice.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SingleFlightTest {
+
+    @Test
+    void testConcurrentCallersShareOneLoad() throws Exception {
+        // Given
+        SingleFlight<Long, String> singleFlight = new SingleFlight<>(Duration.ZERO);
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        int callers = 8;
+
+        // When: one caller blocks inside the loader while the others arrive
+        List<Future<String>> results = new ArrayList<>();
+        try (ExecutorService executor = Executors.newFixedThreadPool(callers)) {
+            results.add(executor.submit(() -> singleFlight.load(1L, id -> {
+                loads.incrementAndGet();
+                loading.countDown();
+                await(release);
+                return "payment-" + id;
+            })));
+            assertTrue(loading.await(5, TimeUnit.SECONDS));
+            for (int i = 1; i < callers; i++) {
+                results.add(executor.submit(() -> singleFlight.load(1L, id -> {
+                    loads.incrementAndGet();
+                    return "other";
+                })));
+            }
+            while (singleFlight.shared() < callers - 1) {
+                Thread.onSpinWait();
+            }
+            release.countDown();
+
+            // Then
+            for (Future<String> result : results) {
+                assertEquals("payment-1", result.get(5, TimeUnit.SECONDS));
+            }
+        }
+        assertEquals(1, loads.get());
+        assertEquals(1, singleFlight.loads());
+        assertEquals(callers - 1, singleFlight.shared());
+    }
+
+    @Test
+    void testResultIsReusedWithinFreshnessWindowOnly() throws Exception {
+        // Given
+        SingleFlight<Long, Integer> singleFlight = new SingleFlight<>(Duration.ofMillis(200));
+        AtomicInteger loads = new AtomicInteger();
+
+        // When
+        int first = singleFlight.load(1L, id -> loads.incrementAndGet());
+        int fresh = singleFlight.load(1L, id -> loads.incrementAndGet());
+        int otherKey = singleFlight.load(2L, id -> loads.incrementAndGet());
+        Thread.sleep(400);
+        int expired = singleFlight.load(1L, id -> loads.incrementAndGet());
+
+        // Then
+        assertEquals(1, first);
+        assertEquals(1, fresh);
+        assertEquals(2, otherKey);
+        assertEquals(3, expired);
+    }
+
+    @Test
+    void testFailureIsRethrownAndNotKept() {
+        // Given
+        SingleFlight<Long, String> singleFlight = new SingleFlight<>(Duration.ofSeconds(10));
+
+        // When / Then
+        IllegalStateException failure = assertThrows(IllegalStateException.class,
+                () -> singleFlight.load(1L, id -> {
+                    throw new IllegalStateException("not found");
+                }));
+        assertEquals("not found", failure.getMessage());
+        assertEquals("loaded", singleFlight.load(1L, id -> "loaded"));
+        assertEquals(2, singleFlight.loads());
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            assertTrue(latch.await(5, TimeUnit.SECONDS));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+}
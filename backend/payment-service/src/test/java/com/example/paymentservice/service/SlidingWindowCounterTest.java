@@ -0,0 +1,141 @@
+package com.example.paymentservice.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SlidingWindowCounterTest {
+
+    private static final long SECOND = 1_000;
+    private static final long T0 = 1_772_000_000_000L;
+
+    @Test
+    void windowSlidesOneBucketAtATime() {
+        // Given - 1 minute in 6 buckets of 10s
+        SlidingWindowCounter counter = new SlidingWindowCounter(Duration.ofMinutes(1), 6, 4, 100);
+        counter.add(7, 100, T0);
+        counter.add(7, 250, T0 + 15 * SECOND);
+
+        // Then
+        assertEquals(2, counter.count(7, T0 + 59 * SECOND));
+        assertEquals(350, counter.total(7, T0 + 59 * SECOND));
+        // The first bucket [T0, T0 + 10s) leaves the window at T0 + 60s
+        assertEquals(1, counter.count(7, T0 + 60 * SECOND));
+        assertEquals(250, counter.total(7, T0 + 69 * SECOND));
+        assertEquals(0, counter.count(7, T0 + 70 * SECOND));
+        assertEquals(0, counter.count(8, T0));
+    }
+
+    @Test
+    void tryAddEnforcesCountAndAmount() {
+        // Given
+        SlidingWindowCounter counter = new SlidingWindowCounter(Duration.ofMinutes(1), 6, 4, 100);
+
+        // When / Then - at most 3 occurrences and 1000 in total
+        assertTrue(counter.tryAdd(1, 400, 3, 1000, T0));
+        assertTrue(counter.tryAdd(1, 400, 3, 1000, T0 + SECOND));
+        assertFalse(counter.tryAdd(1, 300, 3, 1000, T0 + 2 * SECOND));
+        assertTrue(counter.tryAdd(1, 200, 3, 1000, T0 + 3 * SECOND));
+        assertFalse(counter.tryAdd(1, 1, 3, 1000, T0 + 4 * SECOND));
+        assertEquals(1000, counter.total(1, T0 + 4 * SECOND));
+
+        // Once the first two have left the window there is room again
+        assertTrue(counter.tryAdd(1, 700, 3, 1000, T0 + 60 * SECOND));
+    }
+
+    @Test
+    void removeTakesBackAnOccurrenceStillInTheWindow() {
+        // Given
+        SlidingWindowCounter counter = new SlidingWindowCounter(Duration.ofMinutes(1), 6, 1, 100);
+        counter.add(3, 500, T0);
+
+        // When
+        counter.remove(3, 500, T0);
+        counter.remove(3, 500, T0);
+        counter.remove(4, 500, T0);
+
+        // Then
+        assertEquals(0, counter.count(3, T0));
+        assertEquals(0, counter.total(3, T0));
+    }
+
+    @Test
+    void occurrencesOlderThanTheWindowAreIgnored() {
+        // Given
+        SlidingWindowCounter counter = new SlidingWindowCounter(Duration.ofMinutes(1), 6, 1, 100);
+        counter.add(5, 100, T0 + 120 * SECOND);
+
+        // When - replayed out of order: one still inside the window, one not
+        counter.add(5, 10, T0 + 70 * SECOND);
+        counter.add(5, 1, T0);
+
+        // Then
+        assertEquals(2, counter.count(5, T0 + 120 * SECOND));
+        assertEquals(110, counter.total(5, T0 + 120 * SECOND));
+    }
+
+    @Test
+    void leastRecentlyUsedKeyIsEvictedWhenTheStripeIsFull() {
+        // Given - one stripe of 3 keys
+        SlidingWindowCounter counter = new SlidingWindowCounter(Duration.ofMinutes(1), 6, 1, 3);
+        counter.add(1, 1, T0);
+        counter.add(2, 1, T0);
+        counter.add(3, 1, T0);
+        counter.add(1, 1, T0);
+
+        // When
+        counter.add(4, 1, T0);
+
+        // Then - key 2 was the least recently used
+        assertEquals(2, counter.count(1, T0));
+        assertEquals(0, counter.count(2, T0));
+        assertEquals(1, counter.count(3, T0));
+        assertEquals(1, counter.count(4, T0));
+        assertEquals(3, counter.size());
+        assertEquals(1, counter.evicted());
+    }
+
+    @Test
+    void matchesNaiveModelUnderChurn() {
+        // Given - many more keys than fit, so the index is grown, evicted from and refilled constantly
+        int maxKeys = 50;
+        SlidingWindowCounter counter = new SlidingWindowCounter(Duration.ofSeconds(10), 10, 1, maxKeys);
+        Map<Long, List<long[]>> model = new LinkedHashMap<>(16, 0.75f, true);
+        Random random = new Random(42);
+        long now = T0;
+
+        for (int i = 0; i < 20_000; i++) {
+            now += random.nextInt(50);
+            long key = random.nextInt(120);
+            long amount = 1 + random.nextInt(1000);
+
+            // When
+            counter.add(key, amount, now);
+            model.computeIfAbsent(key, k -> new ArrayList<>()).add(new long[]{now, amount});
+            if (model.size() > maxKeys) {
+                model.remove(model.keySet().iterator().next());
+            }
+
+            // Then - the key just written agrees with the model
+            long bucketStart = (now / SECOND - 9) * SECOND;
+            long count = 0;
+            long total = 0;
+            for (long[] occurrence : model.get(key)) {
+                if (occurrence[0] >= bucketStart) {
+                    count++;
+                    total += occurrence[1];
+                }
+            }
+            assertEquals(count, counter.count(key, now), "count of key " + key + " at step " + i);
+            assertEquals(total, counter.total(key, now), "total of key " + key + " at step " + i);
+        }
+        assertEquals(maxKeys, counter.size());
+    }
+}
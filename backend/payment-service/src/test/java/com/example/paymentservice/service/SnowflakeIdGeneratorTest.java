@@ -0,0 +1,155 @@
+package com.example.paymentservice.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SnowflakeIdGeneratorTest {
+
+    private static final Instant EPOCH = Instant.parse("2025-01-01T00:00:00Z");
+
+    private final AtomicLong clock = new AtomicLong(EPOCH.toEpochMilli() + 1_000);
+
+    @Test
+    void idsEncodeTimestampNodeAndSequence() {
+        // Given - 41/5/7 layout, node 3
+        SnowflakeIdGenerator generator = new SnowflakeIdGenerator(EPOCH, 41, 0, 5, 7, 3, Duration.ofSeconds(1), clock::get);
+
+        // When
+        long first = generator.nextId();
+        long second = generator.nextId();
+        clock.incrementAndGet();
+        long third = generator.nextId();
+
+        // Then
+        assertEquals(1_000L << 12 | 3L << 7, first);
+        assertEquals(first + 1, second);
+        assertEquals(1_001L << 12 | 3L << 7, third);
+        assertEquals(EPOCH.plusMillis(1_001), generator.timestampOf(third));
+        assertTrue(third < 1L << 53);
+    }
+
+    @Test
+    void shardIsEncodedAndEachShardHasItsOwnSequence() {
+        // Given - 41/4/3/5 layout, node 2
+        SnowflakeIdGenerator generator = new SnowflakeIdGenerator(EPOCH, 41, 4, 3, 5, 2, Duration.ofSeconds(1), clock::get);
+
+        // When
+        long shard0 = generator.nextId(0);
+        long shard9 = generator.nextId(9);
+        long shard9Again = generator.nextId(9);
+
+        // Then - same millisecond, both shards start their sequence at 0
+        assertEquals(1_000L << 12 | 2L << 5, shard0);
+        assertEquals(1_000L << 12 | 9L << 8 | 2L << 5, shard9);
+        assertEquals(shard9 + 1, shard9Again);
+        assertEquals(0, generator.shardOf(shard0));
+        assertEquals(9, generator.shardOf(shard9));
+        assertThrows(IllegalArgumentException.class, () -> generator.nextId(16));
+    }
+
+    @Test
+    void idsFromLayoutWithoutShardBitsReadBackAsShardZeroForNodeZero() {
+        // Given - an id from the earlier 41/5/7 layout on node 0
+        long legacy = new SnowflakeIdGenerator(EPOCH, 41, 0, 5, 7, 0, Duration.ofSeconds(1), clock::get).nextId();
+        SnowflakeIdGenerator generator = new SnowflakeIdGenerator(EPOCH, 41, 4, 3, 5, 0, Duration.ofSeconds(1), clock::get);
+
+        // Then - same timestamp position, shard 0
+        assertEquals(0, generator.shardOf(legacy));
+        assertEquals(EPOCH.plusMillis(1_000), generator.timestampOf(legacy));
+    }
+
+    @Test
+    void clockSteppingBackWithinSkewKeepsIdsIncreasing() {
+        // Given
+        SnowflakeIdGenerator generator = new SnowflakeIdGenerator(EPOCH, 41, 0, 5, 7, 0, Duration.ofSeconds(1), clock::get);
+        long before = generator.nextId();
+
+        // When - clock steps back 500ms
+        clock.addAndGet(-500);
+        long during = generator.nextId();
+
+        // Then - counts on from the last timestamp rather than reusing ids
+        assertTrue(during > before);
+        assertEquals(1, generator.clockBehind());
+    }
+
+    @Test
+    void clockSteppingBackBeyondSkewFails() {
+        // Given
+        SnowflakeIdGenerator generator = new SnowflakeIdGenerator(EPOCH, 41, 0, 5, 7, 0, Duration.ofSeconds(1), clock::get);
+        generator.nextId();
+
+        // When
+        clock.addAndGet(-5_000);
+
+        // Then
+        assertThrows(IllegalStateException.class, () -> generator.nextId());
+    }
+
+    @Test
+    void exhaustedSequenceWaitsForNextMillisecond() throws Exception {
+        // Given - 2 ids per millisecond; the clock advances only after a caller has started waiting
+        SnowflakeIdGenerator generator = new SnowflakeIdGenerator(EPOCH, 41, 0, 5, 1, 0, Duration.ofSeconds(1), clock::get);
+        long first = generator.nextId();
+        generator.nextId();
+
+        // When
+        try (ExecutorService executor = Executors.newSingleThreadExecutor()) {
+            Future<Long> third = executor.submit(() -> generator.nextId());
+            while (generator.sequenceWaits() == 0) {
+                Thread.onSpinWait();
+            }
+            clock.incrementAndGet();
+
+            // Then
+            assertEquals(generator.timestampOf(first).plusMillis(1), generator.timestampOf(third.get()));
+        }
+    }
+
+    @Test
+    void concurrentCallersGetUniqueIds() throws Exception {
+        // Given - real clock
+        SnowflakeIdGenerator generator = new SnowflakeIdGenerator(EPOCH, 41, 0, 5, 7, 1, Duration.ofSeconds(1));
+
+        // When
+        List<long[]> batches;
+        try (ExecutorService executor = Executors.newFixedThreadPool(8)) {
+            List<Future<long[]>> futures = executor.invokeAll(Collections.nCopies(8, () -> {
+                long[] ids = new long[5_000];
+                for (int i = 0; i < ids.length; i++) {
+                    ids[i] = generator.nextId();
+                }
+                return ids;
+            }));
+            batches = futures.stream().map(future -> {
+                try {
+                    return future.get();
+                } catch (Exception e) {
+                    throw new IllegalStateException(e);
+                }
+            }).toList();
+        }
+
+        // Then - unique overall, increasing per thread
+        Set<Long> unique = new HashSet<>();
+        for (long[] ids : batches) {
+            for (int i = 0; i < ids.length; i++) {
+                assertTrue(unique.add(ids[i]));
+                assertTrue(i == 0 || ids[i] > ids[i - 1]);
+            }
+        }
+        assertEquals(40_000, unique.size());
+    }
+}
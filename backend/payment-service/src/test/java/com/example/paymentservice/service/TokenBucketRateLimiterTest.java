@@ -0,0 +1,104 @@
+package com.example.paymentservice.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TokenBucketRateLimiterTest {
+
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    private final AtomicLong clock = new AtomicLong(-5 * SECOND);
+
+    @Test
+    void burstThenRefillAtRate() {
+        // Given - 3 permits, one more every 500ms
+        TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(3, 2, 4, 100, clock::get);
+
+        // When / Then
+        assertEquals(0, limiter.tryAcquire(42));
+        assertEquals(0, limiter.tryAcquire(42));
+        assertEquals(0, limiter.tryAcquire(42));
+        assertEquals(SECOND / 2, limiter.tryAcquire(42));
+
+        clock.addAndGet(SECOND / 5);
+        assertEquals(SECOND * 3 / 10, limiter.tryAcquire(42));
+
+        clock.addAndGet(SECOND * 3 / 10);
+        assertEquals(0, limiter.tryAcquire(42));
+        assertTrue(limiter.tryAcquire(42) > 0);
+
+        assertEquals(4, limiter.allowed());
+        assertEquals(3, limiter.throttled());
+    }
+
+    @Test
+    void batchTakesAllItsPermitsOrNone() {
+        // Given - 5 permits, one more every second
+        TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(5, 1, 4, 100, clock::get);
+
+        // When / Then - 3 of 5, then 3 more needs one refill, a single permit still fits
+        assertEquals(0, limiter.tryAcquire(42, 3));
+        assertEquals(SECOND, limiter.tryAcquire(42, 3));
+        assertEquals(0, limiter.tryAcquire(42, 2));
+        assertTrue(limiter.tryAcquire(42) > 0);
+
+        clock.addAndGet(5 * SECOND);
+        assertEquals(0, limiter.tryAcquire(42, 5));
+        assertThrows(IllegalArgumentException.class, () -> limiter.tryAcquire(42, 6));
+    }
+
+    @Test
+    void keysHaveIndependentBuckets() {
+        // Given
+        TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(1, 1, 4, 100, clock::get);
+        long merchantA = TokenBucketRateLimiter.key("merchant-a");
+        long merchantB = TokenBucketRateLimiter.key("merchant-b");
+
+        // When / Then
+        assertEquals(0, limiter.tryAcquire(merchantA));
+        assertTrue(limiter.tryAcquire(merchantA) > 0);
+        assertEquals(0, limiter.tryAcquire(merchantB));
+        assertEquals(0, limiter.tryAcquire(7));
+    }
+
+    @Test
+    void idleBucketRefillsToCapacityOnly() {
+        // Given
+        TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(2, 1, 1, 100, clock::get);
+        limiter.tryAcquire(1);
+
+        // When - idle far longer than a full refill
+        clock.addAndGet(60 * SECOND);
+
+        // Then - still only 2 in a burst
+        assertEquals(0, limiter.tryAcquire(1));
+        assertEquals(0, limiter.tryAcquire(1));
+        assertTrue(limiter.tryAcquire(1) > 0);
+    }
+
+    @Test
+    void refilledBucketsAreDroppedAndFullStripesReset() {
+        // Given - one stripe, tables capped at 64 slots
+        TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(1, 1, 1, 10, clock::get);
+        for (long key = 0; key < 1000; key++) {
+            limiter.tryAcquire(key);
+        }
+
+        // Then - drained buckets beyond the cap were evicted rather than kept
+        assertTrue(limiter.size() <= 48, "size " + limiter.size());
+        assertTrue(limiter.evicted() > 0);
+
+        // When - everything refills; new keys replace the refilled buckets without evicting
+        clock.addAndGet(2 * SECOND);
+        long evicted = limiter.evicted();
+        for (long key = 1000; key < 1040; key++) {
+            assertEquals(0, limiter.tryAcquire(key));
+        }
+        assertEquals(evicted, limiter.evicted());
+        assertTrue(limiter.tryAcquire(1039) > 0);
+    }
+}
@@ -0,0 +1,252 @@
+package com.example.paymentservice.service.webhook;
+
+import com.example.paymentservice.domain.model.WebhookDelivery;
+import com.example.paymentservice.domain.model.WebhookEndpoint;
+import com.example.paymentservice.entity.WebhookDeliveryStatus;
+import com.example.paymentservice.exception.PaymentException;
+import com.example.paymentservice.kafka.KafkaEventProducer;
+import com.example.paymentservice.repository.WebhookDeliveryRepository;
+import com.example.paymentservice.service.OutboxProcessor;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.doThrow;
+
+/**
+ * Dispatcher against a local HTTP stand-in for merchant endpoints: /ok answers 204, /failing answers 500 and
+ * /slow holds requests until the test releases them. The stand-in listens on loopback, so private targets are
+ * allowed here.
+ */
+@SpringBootTest(properties = {
+        "app.webhooks.allow-private-targets=true",
+        "app.webhooks.max-attempts=2",
+        "app.webhooks.initial-backoff=0s",
+        "app.webhooks.read-timeout=5s"})
+@ActiveProfiles("test")
+class WebhookDispatcherTest {
+
+    @MockitoBean
+    KafkaEventProducer kafkaEventProducer;
+
+    @MockitoBean
+    OutboxProcessor outboxProcessor;
+
+    @MockitoSpyBean
+    WebhookTargetPolicy targetPolicy;
+
+    @Autowired
+    private WebhookDispatcher dispatcher;
+
+    @Autowired
+    private WebhookService webhookService;
+
+    @Autowired
+    private WebhookDeliveryRepository deliveryRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private HttpServer server;
+    private final Queue<Received> received = new ConcurrentLinkedQueue<>();
+    private final CountDownLatch releaseSlow = new CountDownLatch(1);
+    private final AtomicInteger slowInFlight = new AtomicInteger();
+    private final AtomicInteger slowMaxInFlight = new AtomicInteger();
+
+    @BeforeEach
+    void startStandIn() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        server.createContext("/ok", exchange -> respond(exchange, 204));
+        server.createContext("/failing", exchange -> respond(exchange, 500));
+        server.createContext("/slow", exchange -> {
+            slowMaxInFlight.accumulateAndGet(slowInFlight.incrementAndGet(), Math::max);
+            try {
+                releaseSlow.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            slowInFlight.decrementAndGet();
+            respond(exchange, 200);
+        });
+        server.start();
+    }
+
+    @AfterEach
+    void stopStandIn() {
+        releaseSlow.countDown();
+        server.stop(0);
+    }
+
+    @Test
+    void dueEventsAreCoalescedIntoOneSignedRequest() throws Exception {
+        // Given - three events, queued twice (redelivered by Kafka)
+        WebhookEndpoint endpoint = register("/ok", 4, 10);
+        List<WebhookService.WebhookEvent> events = events(endpoint.getMerchantId(), 3);
+        webhookService.enqueue(events);
+        webhookService.enqueue(events);
+
+        // When
+        assertEquals(1, dispatcher.dispatchDue());
+
+        // Then
+        awaitTrue(() -> deliveries(endpoint).stream().allMatch(d -> d.getStatus() == WebhookDeliveryStatus.DELIVERED));
+        assertEquals(1, received.size());
+        Received request = received.poll();
+        String[] signature = request.signature().split(",");
+        long timestamp = Long.parseLong(signature[0].substring("t=".length()));
+        assertEquals(WebhookSignature.header(endpoint.getSecret(), timestamp, request.body()),
+                request.signature());
+        JsonNode body = objectMapper.readTree(request.body());
+        assertEquals(events.stream().map(WebhookService.WebhookEvent::getId).toList(),
+                body.get("events").findValuesAsText("id"));
+        assertEquals("payment.completed", body.get("events").get(0).get("type").asText());
+        assertEquals(3, deliveries(endpoint).size());
+    }
+
+    @Test
+    void failedDeliveryIsRetriedThenGivenUp() {
+        // Given
+        WebhookEndpoint endpoint = register("/failing", 1, 10);
+        webhookService.enqueue(events(endpoint.getMerchantId(), 1));
+
+        // When - first attempt
+        assertEquals(1, dispatcher.dispatchDue());
+
+        // Then - rescheduled (no backoff configured here)
+        awaitTrue(() -> deliveries(endpoint).getFirst().getLastError() != null);
+        WebhookDelivery retried = deliveries(endpoint).getFirst();
+        assertEquals(WebhookDeliveryStatus.PENDING, retried.getStatus());
+        assertEquals(1, retried.getAttempts());
+        assertEquals("HTTP 500", retried.getLastError());
+
+        // When - last attempt
+        assertEquals(1, dispatcher.dispatchDue());
+
+        // Then
+        awaitTrue(() -> deliveries(endpoint).getFirst().getStatus() == WebhookDeliveryStatus.FAILED);
+        assertEquals(2, deliveries(endpoint).getFirst().getAttempts());
+        assertEquals(0, dispatcher.dispatchDue());
+    }
+
+    @Test
+    void endpointRepointedToAnInternalAddressIsNotCalled() {
+        // Given - the host passed the check at registration, then its DNS record was changed
+        WebhookEndpoint endpoint = register("/ok", 1, 10);
+        webhookService.enqueue(events(endpoint.getMerchantId(), 1));
+        doThrow(new PaymentException(WebhookTargetPolicy.ERROR_CODE, "resolves to a non-public address"))
+                .when(targetPolicy).check(endpoint.getUrl());
+
+        // When
+        assertEquals(1, dispatcher.dispatchDue());
+
+        // Then - the attempt fails without a request and is retried like an unreachable endpoint
+        awaitTrue(() -> deliveries(endpoint).getFirst().getLastError() != null);
+        assertEquals("resolves to a non-public address", deliveries(endpoint).getFirst().getLastError());
+        assertEquals(WebhookDeliveryStatus.PENDING, deliveries(endpoint).getFirst().getStatus());
+        assertTrue(received.isEmpty());
+        webhookService.unregister(endpoint.getMerchantId());
+    }
+
+    @Test
+    void slowEndpointIsCappedAndDoesNotHoldUpOthers() {
+        // Given - a slow endpoint allowed 2 requests of 1 event, with 4 events due, and a fast one with 1
+        WebhookEndpoint slow = register("/slow", 2, 1);
+        WebhookEndpoint fast = register("/ok", 4, 10);
+        webhookService.enqueue(events(slow.getMerchantId(), 4));
+        webhookService.enqueue(events(fast.getMerchantId(), 1));
+
+        // When
+        int started = dispatcher.dispatchDue();
+
+        // Then - the fast endpoint is served while both slow permits are taken
+        assertEquals(3, started);
+        awaitTrue(() -> deliveries(fast).getFirst().getStatus() == WebhookDeliveryStatus.DELIVERED);
+        awaitTrue(() -> slowInFlight.get() == 2);
+        assertEquals(0, dispatcher.dispatchDue());
+
+        // When - the slow endpoint answers
+        releaseSlow.countDown();
+        awaitTrue(() -> deliveries(slow).stream().filter(d -> d.getStatus() == WebhookDeliveryStatus.DELIVERED).count() == 2);
+        awaitTrue(() -> dispatcher.dispatchDue() > 0);
+
+        // Then
+        awaitTrue(() -> deliveries(slow).stream().allMatch(d -> d.getStatus() == WebhookDeliveryStatus.DELIVERED));
+        assertEquals(2, slowMaxInFlight.get());
+    }
+
+    private WebhookEndpoint register(String path, int maxConcurrency, int maxBatchSize) {
+        String url = "http://127.0.0.1:" + server.getAddress().getPort() + path;
+        return webhookService.register("M-" + UUID.randomUUID(), url, maxConcurrency, maxBatchSize);
+    }
+
+    private List<WebhookService.WebhookEvent> events(String merchantId, int count) {
+        LocalDateTime processedAt = LocalDateTime.of(2026, 3, 1, 10, 15, 30);
+        return IntStream.range(0, count)
+                .mapToObj(i -> WebhookService.WebhookEvent.builder()
+                        .id("payment.processed:" + merchantId + "-" + i + "@" + processedAt)
+                        .type(WebhookService.EVENT_PAYMENT_COMPLETED)
+                        .createdAt(processedAt)
+                        .data(WebhookService.PaymentData.builder()
+                                .paymentId((long) i)
+                                .merchantId(merchantId)
+                                .status("COMPLETED")
+                                .amount(new BigDecimal("25.00"))
+                                .currency("USD")
+                                .build())
+                        .build())
+                .toList();
+    }
+
+    private List<WebhookDelivery> deliveries(WebhookEndpoint endpoint) {
+        return deliveryRepository.findByEndpointId(endpoint.getId());
+    }
+
+    private void respond(HttpExchange exchange, int status) throws IOException {
+        received.add(new Received(exchange.getRequestHeaders().getFirst(WebhookSignature.HEADER),
+                new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8)));
+        exchange.sendResponseHeaders(status, -1);
+        exchange.close();
+    }
+
+    private static void awaitTrue(BooleanSupplier condition) {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, "condition not met within 10s");
+            try {
+                Thread.sleep(20);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+
+    private record Received(String signature, String body) {}
+}
@@ -0,0 +1,61 @@
+package com.example.paymentservice.service.webhook;
+
+import com.example.paymentservice.config.WebhookProperties;
+import com.example.paymentservice.exception.PaymentException;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WebhookTargetPolicyTest {
+
+    private final WebhookTargetPolicy policy = new WebhookTargetPolicy(properties(false));
+
+    @Test
+    void publicHttpAndHttpsTargetsAreAllowed() {
+        assertDoesNotThrow(() -> policy.check("https://93.184.215.14/hooks"));
+        assertDoesNotThrow(() -> policy.check("http://[2606:2800:21f:cb07:6820:80da:af6b:8b2c]:8080/hooks"));
+    }
+
+    @Test
+    void internalTargetsAreRejected() {
+        for (String url : new String[] {
+                "http://127.0.0.1:8080/actuator",
+                "http://localhost/hooks",
+                "http://10.0.0.5/hooks",
+                "http://172.16.3.4/hooks",
+                "http://192.168.1.1/hooks",
+                "http://169.254.169.254/latest/meta-data/",
+                "http://100.64.0.1/hooks",
+                "http://0.0.0.0/hooks",
+                "http://[::1]/hooks",
+                "http://[::ffff:127.0.0.1]/hooks",
+                "http://[fe80::1]/hooks",
+                "http://[fd00:ec2::254]/hooks",
+                "http://224.0.0.1/hooks"}) {
+            PaymentException rejected = assertThrows(PaymentException.class, () -> policy.check(url), url);
+            assertEquals(WebhookTargetPolicy.ERROR_CODE, rejected.getErrorCode());
+        }
+    }
+
+    @Test
+    void otherSchemesAndHostlessUrlsAreRejected() {
+        assertThrows(PaymentException.class, () -> policy.check("file:///etc/passwd"));
+        assertThrows(PaymentException.class, () -> policy.check("gopher://93.184.215.14/"));
+        assertThrows(PaymentException.class, () -> policy.check("http:///hooks"));
+    }
+
+    @Test
+    void privateTargetsCanBeAllowedForLocalDevelopment() {
+        WebhookTargetPolicy local = new WebhookTargetPolicy(properties(true));
+
+        assertDoesNotThrow(() -> local.check("http://127.0.0.1:8080/hooks"));
+        assertThrows(PaymentException.class, () -> local.check("file:///etc/passwd"));
+    }
+
+    private static WebhookProperties properties(boolean allowPrivateTargets) {
+        return new WebhookProperties(true, Duration.ofSeconds(2), Duration.ofSeconds(10), Duration.ofMinutes(1),
+                10, Duration.ofSeconds(10), Duration.ofHours(1), 200, 4, 50, allowPrivateTargets);
+    }
+}
@@ -1,6 +1,9 @@
 package com.example.qrservice.config;
 
+import com.example.qrservice.kafka.PaymentEventConsumer;
+import com.fasterxml.jackson.core.JsonProcessingException;
 import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.common.TopicPartition;
 import org.apache.kafka.common.serialization.StringDeserializer;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
@@ -9,18 +12,48 @@ import org.springframework.kafka.annotation.EnableKafka;
 import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
 import org.springframework.kafka.core.ConsumerFactory;
 import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.kafka.listener.ContainerProperties;
+import org.springframework.kafka.listener.DeadLetterPublishingRecoverer;
+import org.springframework.kafka.listener.DefaultErrorHandler;
+import org.springframework.kafka.retrytopic.RetryTopicConfiguration;
+import org.springframework.kafka.retrytopic.RetryTopicConfigurationBuilder;
+import org.springframework.kafka.retrytopic.RetryTopicSchedulerWrapper;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+import org.springframework.util.backoff.FixedBackOff;
 
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 @Configuration
 @EnableKafka
 public class KafkaConsumerConfig {
 
+    /** Suffix of this service's retry topics, e.g. {@code payment.expired-qr-retry-0}. */
+    public static final String RETRY_TOPIC_SUFFIX = "-qr-retry";
+
+    /** Suffix of this service's dead-letter topics, e.g. {@code payment.expired-qr-dlt}. */
+    public static final String DLT_SUFFIX = "-qr-dlt";
+
     @Value("${spring.kafka.bootstrap-servers:localhost:9092}")
     private String bootstrapServers;
 
+    @Value("${app.qr.batch-size:100}")
+    private int qrBatchSize;
+
+    @Value("${app.kafka.retry.attempts:5}")
+    private int retryAttempts;
+
+    @Value("${app.kafka.retry.initial-interval-ms:1000}")
+    private long retryInitialIntervalMs;
+
+    @Value("${app.kafka.retry.multiplier:5}")
+    private double retryMultiplier;
+
+    @Value("${app.kafka.retry.max-interval-ms:300000}")
+    private long retryMaxIntervalMs;
+
     @Bean
     public ConsumerFactory<String, String> consumerFactory() {
         Map<String, Object> configProps = new HashMap<>();
@@ -48,4 +81,74 @@ public class KafkaConsumerConfig {
         
         return factory;
     }
+
+    /**
+     * Batch listener for QR generation: each poll of up to {@code app.qr.batch-size} payment.created records
+     * is one listener call, so a burst (a batch-initiated set of payments) is inserted in one transaction.
+     * <p>
+     * Retry topics do not work with batch listeners, so a record the listener reports as failed
+     * (BatchListenerFailedException) is published straight away, headers included, to payment.created-qr, whose
+     * record listener has the retry topics; the records before it are committed and those after it redelivered.
+     */
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<String, String> batchListenerContainerFactory(
+            KafkaTemplate<String, String> kafkaTemplate) {
+        Map<String, Object> configProps = new HashMap<>(consumerFactory().getConfigurationProperties());
+        configProps.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, qrBatchSize);
+
+        ConcurrentKafkaListenerContainerFactory<String, String> factory =
+                new ConcurrentKafkaListenerContainerFactory<>();
+        factory.setConsumerFactory(new DefaultKafkaConsumerFactory<>(configProps));
+        factory.setBatchListener(true);
+        factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.MANUAL);
+        DeadLetterPublishingRecoverer toRetryTopic = new DeadLetterPublishingRecoverer(kafkaTemplate,
+                (record, exception) -> new TopicPartition(PaymentEventConsumer.TOPIC_PAYMENT_CREATED_RETRY, -1));
+        factory.setCommonErrorHandler(new DefaultErrorHandler(toRetryTopic, new FixedBackOff(0, 0)));
+        return factory;
+    }
+
+    /**
+     * Non-blocking retries for payment.expired. A record whose listener throws is published, with its original
+     * headers (traceparent included), to {@code payment.expired-qr-retry-0}, then -1, ..., each consumed once its
+     * backoff has elapsed (1s, 5s, 25s, 2m5s by default, see {@code app.kafka.retry.*}), and after the last attempt
+     * to {@code payment.expired-qr-dlt} with kafka_dlt-* headers naming the source topic, partition, offset and
+     * exception. The main topic's offset moves past the record at once, so the rest of its partition keeps
+     * flowing. Unreadable payloads go straight to the dead-letter topic; DeadLetterReplayer sends them back.
+     */
+    @Bean
+    public RetryTopicConfiguration retryTopicConfiguration(KafkaTemplate<String, String> kafkaTemplate) {
+        return retryTopics(PaymentEventConsumer.TOPIC_PAYMENT_EXPIRED, RETRY_TOPIC_SUFFIX, DLT_SUFFIX)
+                .create(kafkaTemplate);
+    }
+
+    /**
+     * The same retries for the payment.created records forwarded by the batch listener; payment.created-qr is
+     * already this service's own topic, so its chain is payment.created-qr-retry-0, ... and payment.created-qr-dlt.
+     */
+    @Bean
+    public RetryTopicConfiguration paymentCreatedRetryTopicConfiguration(KafkaTemplate<String, String> kafkaTemplate) {
+        return retryTopics(PaymentEventConsumer.TOPIC_PAYMENT_CREATED_RETRY, "-retry", "-dlt")
+                .create(kafkaTemplate);
+    }
+
+    /** Resumes the retry topics' partitions when a record's backoff has elapsed. */
+    @Bean
+    public RetryTopicSchedulerWrapper retryTopicSchedulerWrapper() {
+        ThreadPoolTaskScheduler scheduler = new ThreadPoolTaskScheduler();
+        scheduler.setThreadNamePrefix("kafka-retry-");
+        return new RetryTopicSchedulerWrapper(scheduler);
+    }
+
+    private RetryTopicConfigurationBuilder retryTopics(String topic, String retryTopicSuffix, String dltSuffix) {
+        return RetryTopicConfigurationBuilder.newInstance()
+                .includeTopics(List.of(topic))
+                .maxAttempts(retryAttempts)
+                .exponentialBackoff(retryInitialIntervalMs, retryMultiplier, retryMaxIntervalMs)
+                .suffixTopicsWithIndexValues()
+                .retryTopicSuffix(retryTopicSuffix)
+                .dltSuffix(dltSuffix)
+                .notRetryOn(JsonProcessingException.class)
+                .traversingCauses()
+                .doNotAutoCreateRetryTopics();
+    }
 }
@@ -17,7 +17,8 @@ import java.time.LocalDateTime;
 public class QRCode {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "qr_codes_id_seq")
+    @SequenceGenerator(name = "qr_codes_id_seq", sequenceName = "qr_codes_id_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false, unique = true, length = 500)
@@ -2,31 +2,76 @@ package com.example.qrservice.kafka;
 
 import com.example.qrservice.entity.QRCode;
 import com.example.qrservice.service.QRCodeService;
+import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
 import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.listener.BatchListenerFailedException;
 import org.springframework.kafka.support.Acknowledgment;
 import org.springframework.kafka.support.KafkaHeaders;
 import org.springframework.messaging.handler.annotation.Header;
 import org.springframework.messaging.handler.annotation.Payload;
 import org.springframework.stereotype.Component;
 
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+
 /**
  * Kafka consumer for payment events in QR Service
- * Listens to payment.created events to generate QR codes
+ * Listens to payment.created events to generate QR codes, a poll at a time
+ * and payment.expired events to expire the QR codes of abandoned payments
+ * <p>
+ * Failures are not acknowledged away: they go to this service's retry topics and finally its dead-letter topics
+ * (see KafkaConsumerConfig), while the rest of the partition keeps flowing. A payment.created record that fails
+ * inside a poll is singled out and forwarded to payment.created-qr, which is handled a record at a time.
  */
 @Component
 @RequiredArgsConstructor
 @Slf4j
 public class PaymentEventConsumer {
 
+    public static final String TOPIC_PAYMENT_CREATED = "payment.created";
+    public static final String TOPIC_PAYMENT_EXPIRED = "payment.expired";
+
+    /** Where the batch listener's error handler forwards a payment.created record that failed on its own. */
+    public static final String TOPIC_PAYMENT_CREATED_RETRY = TOPIC_PAYMENT_CREATED + "-qr";
+
     private final QRCodeService qrCodeService;
     private final ObjectMapper objectMapper;
     private final QRCodeEventProducer qrCodeEventProducer;
 
     @KafkaListener(
-            topics = "payment.created",
+            topics = TOPIC_PAYMENT_CREATED,
+            groupId = "qr-service-group",
+            containerFactory = "batchListenerContainerFactory",
+            autoStartup = "true"
+    )
+    public void handlePaymentsCreated(List<ConsumerRecord<String, String>> records, Acknowledgment acknowledgment) {
+        log.info("QR Service - Received {} PaymentCreatedEvent(s)", records.size());
+
+        List<Long> paymentIds = new ArrayList<>(records.size());
+        for (ConsumerRecord<String, String> record : records) {
+            try {
+                log.debug("PaymentCreatedEvent payload: {}", record.value());
+                paymentIds.add(readPaymentId(record.value()));
+            } catch (JsonProcessingException | IllegalArgumentException e) {
+                // The records before it are handled first: the container commits up to the failed record
+                generate(records, paymentIds);
+                throw new BatchListenerFailedException("Unreadable PaymentCreatedEvent", e, record);
+            }
+        }
+        generate(records, paymentIds);
+
+        // Acknowledge the whole poll
+        acknowledgment.acknowledge();
+    }
+
+    /** A payment.created record that failed within its poll, on its own; if it fails again it goes on to the retry topics. */
+    @KafkaListener(
+            topics = TOPIC_PAYMENT_CREATED_RETRY,
             groupId = "qr-service-group",
             containerFactory = "kafkaListenerContainerFactory",
             autoStartup = "true"
@@ -34,34 +79,71 @@ public class PaymentEventConsumer {
     public void handlePaymentCreated(
             @Payload String message,
             @Header(KafkaHeaders.RECEIVED_KEY) String key,
-            Acknowledgment acknowledgment) {
-        
+            Acknowledgment acknowledgment) throws JsonProcessingException {
+
+        log.info("QR Service - Retrying PaymentCreatedEvent: key={}", key);
+        qrCodeService.createQRCodes(List.of(readPaymentId(message))).forEach(qrCodeEventProducer::publishQRCodeGenerated);
+        acknowledgment.acknowledge();
+    }
+
+    @KafkaListener(
+            topics = TOPIC_PAYMENT_EXPIRED,
+            groupId = "qr-service-group",
+            containerFactory = "kafkaListenerContainerFactory",
+            autoStartup = "true"
+    )
+    public void handlePaymentsExpired(
+            @Payload String message,
+            @Header(KafkaHeaders.RECEIVED_KEY) String key,
+            Acknowledgment acknowledgment) throws JsonProcessingException {
+
+        PaymentsExpiredEvent event = objectMapper.readValue(message, PaymentsExpiredEvent.class);
+        log.info("QR Service - Received PaymentsExpiredEvent: key={}, payments={}", key, event.getPaymentIds().size());
+
+        // One bulk UPDATE per chunk of expired payments
+        qrCodeService.expireActiveQRCodesForPayments(event.getPaymentIds());
+
+        acknowledgment.acknowledge();
+    }
+
+    /**
+     * Generates and publishes the QR codes of {@code paymentIds}, read from the first records of the poll, in one
+     * transaction (Saga Pattern - Steps 2 and 3). If that fails they are tried one at a time, and the first that
+     * still fails is thrown to the container, which commits the records before it, forwards it to
+     * {@link #TOPIC_PAYMENT_CREATED_RETRY} and redelivers the records after it.
+     */
+    private void generate(List<ConsumerRecord<String, String>> records, List<Long> paymentIds) {
+        if (paymentIds.isEmpty()) {
+            return;
+        }
+        List<QRCode> qrCodes;
         try {
-            log.info("QR Service - Received PaymentCreatedEvent: key={}, message={}", key, message);
-            
-            PaymentCreatedEvent event = objectMapper.readValue(message, PaymentCreatedEvent.class);
-            
-            // Generate QR code for the payment (Saga Pattern - Step 2)
-            // Note: This is idempotent - if QR code already exists (created via REST), 
-            // createQRCode will deactivate old ones and create a new one
-            QRCode qrCode = qrCodeService.createQRCode(event.getPaymentId(), event.getCustomerId());
-            
-            log.info("Successfully generated QR code for paymentId: {}", event.getPaymentId());
-            
-            // Publish QRCodeGeneratedEvent to notify Payment Service (Saga Pattern - Step 3)
-            qrCodeEventProducer.publishQRCodeGenerated(qrCode);
-            
-            log.info("Published QRCodeGeneratedEvent for paymentId: {}", event.getPaymentId());
-            
-            // Acknowledge message processing
-            acknowledgment.acknowledge();
-            
-        } catch (Exception e) {
-            log.error("Failed to process PaymentCreatedEvent: key={}", key, e);
-            // In production, you might want to send to a dead letter queue
-            // For now, we'll acknowledge to prevent infinite retries
-            acknowledgment.acknowledge();
+            // A redelivered event in the same poll gets one QR code, as it would one at a time.
+            // Idempotent per payment: existing active codes are deactivated and replaced
+            qrCodes = qrCodeService.createQRCodes(List.copyOf(new LinkedHashSet<>(paymentIds)));
+        } catch (RuntimeException e) {
+            log.warn("QR generation failed for a poll of {} payment(s), retrying one at a time", paymentIds.size(), e);
+            for (int i = 0; i < paymentIds.size(); i++) {
+                try {
+                    qrCodeService.createQRCodes(List.of(paymentIds.get(i))).forEach(qrCodeEventProducer::publishQRCodeGenerated);
+                } catch (RuntimeException single) {
+                    throw new BatchListenerFailedException("QR generation failed", single, records.get(i));
+                }
+            }
+            return;
         }
+
+        // Publish QRCodeGeneratedEvent to notify Payment Service (Saga Pattern - Step 3)
+        qrCodes.forEach(qrCodeEventProducer::publishQRCodeGenerated);
+        log.info("Generated and published {} QR code(s)", qrCodes.size());
+    }
+
+    private Long readPaymentId(String message) throws JsonProcessingException {
+        Long paymentId = objectMapper.readValue(message, PaymentCreatedEvent.class).getPaymentId();
+        if (paymentId == null) {
+            throw new IllegalArgumentException("PaymentCreatedEvent without payment id");
+        }
+        return paymentId;
     }
 
     // Event DTO matching PaymentService.PaymentCreatedEvent
@@ -77,4 +159,13 @@ public class PaymentEventConsumer {
         private String description;
         private java.time.LocalDateTime timestamp;
     }
+
+    // Event DTO matching PaymentService.PaymentsExpiredEvent
+    @lombok.Data
+    @lombok.NoArgsConstructor
+    @lombok.AllArgsConstructor
+    public static class PaymentsExpiredEvent {
+        private java.util.List<Long> paymentIds;
+        private java.time.LocalDateTime timestamp;
+    }
 }
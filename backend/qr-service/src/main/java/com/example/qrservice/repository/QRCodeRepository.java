@@ -9,6 +9,7 @@ import org.springframework.data.repository.query.Param;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -37,4 +38,14 @@ public interface QRCodeRepository extends JpaRepository<QRCode, Long> {
     int deactivateByPaymentId(@Param("paymentId") Long paymentId, 
                                @Param("oldStatus") QRCodeStatus oldStatus, 
                                @Param("newStatus") QRCodeStatus newStatus);
+
+    /**
+     * Bulk status change for the QR codes of many payments (one statement per expired-payment chunk)
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE QRCode q SET q.status = :newStatus WHERE q.paymentId IN :paymentIds AND q.status = :oldStatus")
+    int updateStatusByPaymentIds(@Param("paymentIds") Collection<Long> paymentIds,
+                                 @Param("oldStatus") QRCodeStatus oldStatus,
+                                 @Param("newStatus") QRCodeStatus newStatus);
 }
@@ -9,6 +9,7 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.List;
 import java.util.UUID;
 
 /**
@@ -54,6 +55,39 @@ public class QRCodeService {
         return savedQRCode;
     }
 
+    /**
+     * Create QR codes for several payments in one transaction: one bulk UPDATE deactivates their existing
+     * active codes, and the new codes are inserted in JDBC batches.
+     */
+    @Transactional
+    public List<QRCode> createQRCodes(List<Long> paymentIds) {
+        if (paymentIds.isEmpty()) {
+            return List.of();
+        }
+        int deactivated = qrCodeRepository.updateStatusByPaymentIds(
+                paymentIds,
+                QRCodeStatus.ACTIVE,
+                QRCodeStatus.CANCELLED
+        );
+        if (deactivated > 0) {
+            log.info("Deactivated {} existing active QR code(s) for {} payment(s)", deactivated, paymentIds.size());
+        }
+
+        LocalDateTime expiresAt = LocalDateTime.now().plusMinutes(15);
+        List<QRCode> qrCodes = paymentIds.stream()
+                .map(paymentId -> QRCode.builder()
+                        .code(generateUniqueQRCode(paymentId))
+                        .paymentId(paymentId)
+                        .status(QRCodeStatus.ACTIVE)
+                        .expiresAt(expiresAt)
+                        .build())
+                .toList();
+        List<QRCode> saved = qrCodeRepository.saveAll(qrCodes);
+
+        log.info("{} new QR code(s) generated in one batch", saved.size());
+        return saved;
+    }
+
     /**
      * Validate QR code
      */
@@ -113,6 +147,24 @@ public class QRCodeService {
                 deactivatedCount, paymentId);
     }
 
+    /**
+     * Expire the active QR codes of payments that were expired by the payment service
+     */
+    @Transactional
+    public int expireActiveQRCodesForPayments(List<Long> paymentIds) {
+        if (paymentIds == null || paymentIds.isEmpty()) {
+            return 0;
+        }
+        int expiredCount = qrCodeRepository.updateStatusByPaymentIds(
+                paymentIds,
+                QRCodeStatus.ACTIVE,
+                QRCodeStatus.EXPIRED
+        );
+
+        log.info("Expired {} active QR code(s) for {} expired payment(s)", expiredCount, paymentIds.size());
+        return expiredCount;
+    }
+
     private String generateUniqueQRCode(Long paymentId) {
         // Generate a unique QR code string with timestamp and UUID for better uniqueness
         long timestamp = System.currentTimeMillis();
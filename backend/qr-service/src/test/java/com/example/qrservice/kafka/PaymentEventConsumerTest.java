@@ -0,0 +1,128 @@
+package com.example.qrservice.kafka;
+
+import com.example.qrservice.entity.QRCode;
+import com.example.qrservice.service.QRCodeService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.kafka.listener.BatchListenerFailedException;
+import org.springframework.kafka.support.Acknowledgment;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class PaymentEventConsumerTest {
+
+    @Mock
+    private QRCodeService qrCodeService;
+
+    @Mock
+    private QRCodeEventProducer qrCodeEventProducer;
+
+    @Mock
+    private Acknowledgment acknowledgment;
+
+    private final ObjectMapper objectMapper = new ObjectMapper()
+            .registerModule(new JavaTimeModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+    private PaymentEventConsumer consumer;
+
+    @BeforeEach
+    void setUp() {
+        consumer = new PaymentEventConsumer(qrCodeService, objectMapper, qrCodeEventProducer);
+    }
+
+    @Test
+    void pollIsGeneratedInOneCallAndAcknowledged() throws Exception {
+        // Given - payment 2 was redelivered within the poll
+        when(qrCodeService.createQRCodes(List.of(1L, 2L))).thenReturn(List.of(qrCode(1L), qrCode(2L)));
+
+        // When
+        consumer.handlePaymentsCreated(List.of(created(0, 1L), created(1, 2L), created(2, 2L)), acknowledgment);
+
+        // Then
+        verify(qrCodeService).createQRCodes(List.of(1L, 2L));
+        verify(qrCodeEventProducer, times(2)).publishQRCodeGenerated(any(QRCode.class));
+        verify(acknowledgment).acknowledge();
+    }
+
+    @Test
+    void failedPollIsRetriedOneAtATimeAndTheFailingRecordIsHandedToTheContainer() throws Exception {
+        // Given - payment 2 cannot be generated, so neither can the poll
+        when(qrCodeService.createQRCodes(anyList())).thenAnswer(invocation -> {
+            List<Long> ids = invocation.getArgument(0);
+            if (ids.contains(2L)) {
+                throw new DataIntegrityViolationException("payment 2");
+            }
+            return ids.stream().map(this::qrCode).toList();
+        });
+        List<ConsumerRecord<String, String>> records = List.of(created(0, 1L), created(1, 2L), created(2, 3L));
+
+        // When
+        BatchListenerFailedException failure = assertThrows(BatchListenerFailedException.class,
+                () -> consumer.handlePaymentsCreated(records, acknowledgment));
+
+        // Then - payment 1 is done; the container forwards record 1 and redelivers record 2
+        assertSame(records.get(1), failure.getRecord());
+        verify(qrCodeService).createQRCodes(List.of(1L));
+        verify(qrCodeService, never()).createQRCodes(List.of(3L));
+        verify(qrCodeEventProducer).publishQRCodeGenerated(any(QRCode.class));
+        verifyNoInteractions(acknowledgment);
+    }
+
+    @Test
+    void unreadableRecordIsHandedToTheContainerAfterTheRecordsBeforeIt() throws Exception {
+        // Given
+        when(qrCodeService.createQRCodes(List.of(1L))).thenReturn(List.of(qrCode(1L)));
+        ConsumerRecord<String, String> unreadable = new ConsumerRecord<>("payment.created", 0, 1, "2", "not json");
+        List<ConsumerRecord<String, String>> records = List.of(created(0, 1L), unreadable, created(2, 3L));
+
+        // When
+        BatchListenerFailedException failure = assertThrows(BatchListenerFailedException.class,
+                () -> consumer.handlePaymentsCreated(records, acknowledgment));
+
+        // Then
+        assertSame(unreadable, failure.getRecord());
+        verify(qrCodeService).createQRCodes(List.of(1L));
+        verifyNoMoreInteractions(qrCodeService);
+        verifyNoInteractions(acknowledgment);
+    }
+
+    @Test
+    void failureOnTheRetryTopicIsThrownToTheContainer() throws Exception {
+        // Given
+        when(qrCodeService.createQRCodes(List.of(2L))).thenThrow(new DataIntegrityViolationException("payment 2"));
+
+        // When / Then - not acknowledged: the container moves it to the next retry topic
+        assertThrows(DataIntegrityViolationException.class,
+                () -> consumer.handlePaymentCreated(created(0, 2L).value(), "2", acknowledgment));
+        verifyNoInteractions(qrCodeEventProducer, acknowledgment);
+    }
+
+    private ConsumerRecord<String, String> created(long offset, Long paymentId) throws Exception {
+        PaymentEventConsumer.PaymentCreatedEvent event = new PaymentEventConsumer.PaymentCreatedEvent();
+        event.setPaymentId(paymentId);
+        event.setAmount(new BigDecimal("25.00"));
+        event.setCurrency("USD");
+        return new ConsumerRecord<>("payment.created", 0, offset, paymentId.toString(),
+                objectMapper.writeValueAsString(event));
+    }
+
+    private QRCode qrCode(Long paymentId) {
+        return QRCode.builder().id(paymentId + 100).paymentId(paymentId).code("PAYMENT_" + paymentId).build();
+    }
+}
@@ -11,10 +11,12 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -95,6 +97,37 @@ class QRCodeServiceTest {
         verify(qrCodeRepository).save(any(QRCode.class));
     }
 
+    @Test
+    void testCreateQRCodes_OneBulkDeactivateAndOneBatchInsert() {
+        // Given
+        List<Long> paymentIds = List.of(paymentId, 101L, 102L);
+        when(qrCodeRepository.updateStatusByPaymentIds(paymentIds, QRCodeStatus.ACTIVE, QRCodeStatus.CANCELLED))
+                .thenReturn(1);
+        when(qrCodeRepository.saveAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // When
+        List<QRCode> result = qrCodeService.createQRCodes(paymentIds);
+
+        // Then
+        assertEquals(paymentIds, result.stream().map(QRCode::getPaymentId).toList());
+        assertTrue(result.stream().allMatch(qrCode -> qrCode.getStatus() == QRCodeStatus.ACTIVE
+                && qrCode.getCode().startsWith("PAYMENT_" + qrCode.getPaymentId() + "_")));
+        assertEquals(3, result.stream().map(QRCode::getCode).distinct().count());
+        verify(qrCodeRepository).updateStatusByPaymentIds(paymentIds, QRCodeStatus.ACTIVE, QRCodeStatus.CANCELLED);
+        verify(qrCodeRepository).saveAll(anyList());
+        verify(qrCodeRepository, never()).save(any(QRCode.class));
+    }
+
+    @Test
+    void testCreateQRCodes_Empty() {
+        // When
+        List<QRCode> result = qrCodeService.createQRCodes(List.of());
+
+        // Then
+        assertTrue(result.isEmpty());
+        verifyNoInteractions(qrCodeRepository);
+    }
+
     @Test
     void testValidateQRCode_Success() {
         // Given
@@ -202,4 +235,29 @@ class QRCodeServiceTest {
         // Then
         verify(qrCodeRepository).deactivateByPaymentId(paymentId, QRCodeStatus.ACTIVE, QRCodeStatus.CANCELLED);
     }
+
+    @Test
+    void testExpireActiveQRCodesForPayments() {
+        // Given
+        List<Long> paymentIds = List.of(paymentId, 101L, 102L);
+        when(qrCodeRepository.updateStatusByPaymentIds(paymentIds, QRCodeStatus.ACTIVE, QRCodeStatus.EXPIRED))
+                .thenReturn(2);
+
+        // When
+        int expired = qrCodeService.expireActiveQRCodesForPayments(paymentIds);
+
+        // Then
+        assertEquals(2, expired);
+        verify(qrCodeRepository).updateStatusByPaymentIds(paymentIds, QRCodeStatus.ACTIVE, QRCodeStatus.EXPIRED);
+    }
+
+    @Test
+    void testExpireActiveQRCodesForPayments_Empty() {
+        // When
+        int expired = qrCodeService.expireActiveQRCodesForPayments(List.of());
+
+        // Then
+        assertEquals(0, expired);
+        verifyNoInteractions(qrCodeRepository);
+    }
 }
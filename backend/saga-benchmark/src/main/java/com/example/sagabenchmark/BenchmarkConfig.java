@@ -0,0 +1,76 @@
+package com.example.sagabenchmark;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Harness settings, from {@code --key=value} arguments.
+ *
+ * @param rate          saga arrivals per second (open model: arrivals don't wait for earlier sagas)
+ * @param warmup        initial period whose sagas are run but not recorded
+ * @param duration      measured period after warmup
+ * @param users         distinct customers (and wallets) the arrivals are spread over
+ * @param maxInFlight   sagas allowed in flight before new arrivals are counted as dropped
+ * @param pollInterval  GET /status polling interval while waiting for READY
+ * @param stepTimeout   give up on a saga step after this long
+ * @param servicesDir   directory containing payment-service, qr-service and wallet-service (with built jars)
+ * @param serviceJvmOpts extra JVM options for the forked services
+ * @param outputDir     where .hgrm files and summary.json are written
+ */
+record BenchmarkConfig(
+        double rate,
+        Duration warmup,
+        Duration duration,
+        int users,
+        int maxInFlight,
+        Duration pollInterval,
+        Duration stepTimeout,
+        Path servicesDir,
+        String serviceJvmOpts,
+        Path outputDir) {
+
+    private static final Set<String> OPTIONS = Set.of("rate", "warmup", "duration", "users", "max-in-flight",
+            "poll-interval", "step-timeout", "services-dir", "service-jvm-opts", "output-dir");
+
+    static BenchmarkConfig fromArgs(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("Expected --key=value, got: " + arg);
+            }
+            int separator = arg.indexOf('=');
+            String key = arg.substring(2, separator);
+            if (!OPTIONS.contains(key)) {
+                throw new IllegalArgumentException("Unknown option --" + key + ", expected one of " + OPTIONS);
+            }
+            options.put(key, arg.substring(separator + 1));
+        }
+        return new BenchmarkConfig(
+                Double.parseDouble(options.getOrDefault("rate", "20")),
+                duration(options.getOrDefault("warmup", "10s")),
+                duration(options.getOrDefault("duration", "30s")),
+                Integer.parseInt(options.getOrDefault("users", "50")),
+                Integer.parseInt(options.getOrDefault("max-in-flight", "2000")),
+                duration(options.getOrDefault("poll-interval", "10ms")),
+                duration(options.getOrDefault("step-timeout", "30s")),
+                Path.of(options.getOrDefault("services-dir", "..")).toAbsolutePath().normalize(),
+                options.getOrDefault("service-jvm-opts", "-Xmx512m"),
+                Path.of(options.getOrDefault("output-dir", "target/saga-benchmark")).toAbsolutePath());
+    }
+
+    /** Accepts 250ms, 30s, 2m. */
+    static Duration duration(String value) {
+        if (value.endsWith("ms")) {
+            return Duration.ofMillis(Long.parseLong(value.substring(0, value.length() - 2)));
+        }
+        long amount = Long.parseLong(value.substring(0, value.length() - 1));
+        return switch (value.charAt(value.length() - 1)) {
+            case 's' -> Duration.ofSeconds(amount);
+            case 'm' -> Duration.ofMinutes(amount);
+            default -> throw new IllegalArgumentException("Unsupported duration: " + value);
+        };
+    }
+}
@@ -0,0 +1,68 @@
+package com.example.sagabenchmark;
+
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.kafka.test.EmbeddedKafkaKraftBroker;
+
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Single-node KRaft Kafka broker and a local Postgres with one database per service,
+ * both on ephemeral ports on localhost.
+ */
+class LocalInfrastructure implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(LocalInfrastructure.class);
+
+    static final String[] DATABASES = {"payment_db", "qr_db", "wallet_db", "merchant_db", "user_db"};
+    static final String DB_USER = "postgres";
+
+    private static final int PARTITIONS = 3;
+    private static final String[] TOPICS = {
+            "payment.created", "payment.processed", "payment.refunded", "payment.expired", "payment.confirmed", "qr.code.generated"
+    };
+
+    private final EmbeddedKafkaKraftBroker kafka;
+    private final EmbeddedPostgres postgres;
+
+    private LocalInfrastructure(EmbeddedKafkaKraftBroker kafka, EmbeddedPostgres postgres) {
+        this.kafka = kafka;
+        this.postgres = postgres;
+    }
+
+    static LocalInfrastructure start() throws IOException, SQLException {
+        EmbeddedKafkaKraftBroker kafka = new EmbeddedKafkaKraftBroker(1, PARTITIONS, TOPICS);
+        kafka.afterPropertiesSet();
+        log.info("Kafka broker started at {}", kafka.getBrokersAsString());
+
+        EmbeddedPostgres postgres = EmbeddedPostgres.builder()
+                .setServerConfig("max_connections", "300")
+                .start();
+        try (Connection connection = postgres.getPostgresDatabase().getConnection();
+             Statement statement = connection.createStatement()) {
+            for (String database : DATABASES) {
+                statement.execute("CREATE DATABASE " + database);
+            }
+        }
+        log.info("Postgres started on port {}", postgres.getPort());
+        return new LocalInfrastructure(kafka, postgres);
+    }
+
+    String kafkaBootstrapServers() {
+        return kafka.getBrokersAsString();
+    }
+
+    String jdbcUrl(String database) {
+        return "jdbc:postgresql://localhost:" + postgres.getPort() + "/" + database + "?reWriteBatchedInserts=true";
+    }
+
+    @Override
+    public void close() throws IOException {
+        kafka.destroy();
+        postgres.close();
+    }
+}
@@ -0,0 +1,85 @@
+package com.example.sagabenchmark;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.math.BigDecimal;
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.stream.Stream;
+
+/**
+ * End-to-end throughput benchmark of the payment saga (initiate -> READY -> process) on one machine.
+ * <p>
+ * Starts an embedded Kafka broker and a local Postgres, forks payment-service, qr-service and
+ * wallet-service from their built jars, replaces user-service with {@link UserServiceStub}, then drives
+ * sagas at an open-model arrival rate and reports HdrHistogram latencies per saga step.
+ * <p>
+ * Build the three service jars first ({@code mvn -DskipTests package}), then from this directory:
+ * <pre>
+ * mvn -q compile exec:java -Dexec.args="--rate=50 --warmup=15s --duration=60s --users=100"
+ * </pre>
+ * Results: stdout table, {@code target/saga-benchmark/*.hgrm} and {@code summary.json}; service logs alongside.
+ */
+public class SagaBenchmark {
+
+    private static final Logger log = LoggerFactory.getLogger(SagaBenchmark.class);
+    private static final BigDecimal STARTING_BALANCE = new BigDecimal("1000000.00");
+
+    public static void main(String[] args) throws Exception {
+        BenchmarkConfig config = BenchmarkConfig.fromArgs(args);
+        HttpClient http = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .build();
+
+        try (LocalInfrastructure infrastructure = LocalInfrastructure.start();
+             UserServiceStub userService = UserServiceStub.start();
+             ServiceProcess wallet = ServiceProcess.start("wallet-service", config,
+                     common(infrastructure, "wallet_db"));
+             ServiceProcess qr = ServiceProcess.start("qr-service", config,
+                     common(infrastructure, "qr_db"))) {
+            wallet.awaitReady(http);
+            qr.awaitReady(http);
+            try (ServiceProcess payment = ServiceProcess.start("payment-service", config, withAll(
+                    common(infrastructure, "payment_db"),
+                    "--app.auth.jwt.secret=" + SagaClient.JWT_SECRET,
+                    "--app.auth.jwt.issuer=" + SagaClient.JWT_ISSUER,
+                    "--spring.http.serviceclient.wallet.base-url=" + wallet.baseUrl(),
+                    "--spring.http.serviceclient.qrCode.base-url=" + qr.baseUrl(),
+                    "--spring.http.serviceclient.user.base-url=" + userService.baseUrl(),
+                    // All sagas share one merchant; the benchmark measures the saga, not the per-merchant limit
+                    "--app.rate-limit.enabled=false"))) {
+                payment.awaitReady(http);
+
+                SagaClient client = new SagaClient(http, payment.baseUrl(), wallet.baseUrl(), config.stepTimeout());
+                for (long userId = 1; userId <= config.users(); userId++) {
+                    client.topUp(userId, STARTING_BALANCE);
+                }
+                log.info("Seeded {} wallets", config.users());
+
+                SagaMetrics metrics = new SagaMetrics();
+                new SagaDriver(config, client, metrics).run();
+
+                metrics.report(System.out, config.duration(), config.rate());
+                metrics.write(config.outputDir(), config.duration(), config.rate());
+                log.info("Histograms and summary written to {}", config.outputDir());
+            }
+        }
+    }
+
+    private static List<String> common(LocalInfrastructure infrastructure, String database) {
+        return List.of(
+                "--spring.datasource.url=" + infrastructure.jdbcUrl(database),
+                "--spring.datasource.username=" + LocalInfrastructure.DB_USER,
+                "--spring.kafka.bootstrap-servers=" + infrastructure.kafkaBootstrapServers());
+    }
+
+    private static List<String> withAll(List<String> base, String... extra) {
+        return Stream.concat(base.stream(), Arrays.stream(extra)).toList();
+    }
+}
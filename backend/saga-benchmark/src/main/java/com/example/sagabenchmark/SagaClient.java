@@ -0,0 +1,115 @@
+package com.example.sagabenchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Date;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * HTTP calls the saga makes against payment-service (and wallet-service for seeding balances).
+ */
+class SagaClient {
+
+    /** Passed to payment-service as app.auth.jwt.secret, so tokens minted here validate. */
+    static final String JWT_SECRET = "saga-benchmark-secret-at-least-256-bits-long!!";
+    static final String JWT_ISSUER = "user-service";
+
+    static final String MERCHANT_ID = "BENCH_MERCHANT";
+    private static final BigDecimal AMOUNT = new BigDecimal("1.00");
+
+    private final HttpClient http;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final String paymentUrl;
+    private final String walletUrl;
+    private final Duration requestTimeout;
+    private final Map<Long, String> tokens = new ConcurrentHashMap<>();
+
+    SagaClient(HttpClient http, String paymentUrl, String walletUrl, Duration requestTimeout) {
+        this.http = http;
+        this.paymentUrl = paymentUrl;
+        this.walletUrl = walletUrl;
+        this.requestTimeout = requestTimeout;
+    }
+
+    void topUp(long userId, BigDecimal amount) throws IOException, InterruptedException {
+        send(post(walletUrl + "/api/v1/wallets/users/" + userId + "/topup", Map.of("amount", amount), null).build(), 200);
+    }
+
+    /** @return the payment id */
+    long initiate(long userId) throws IOException, InterruptedException {
+        HttpRequest request = post(paymentUrl + "/api/v1/payments/initiate", Map.of("userId", userId), userId)
+                .header("Idempotency-Key", UUID.randomUUID().toString())
+                .build();
+        return objectMapper.readTree(send(request, 201)).get("transactionId").asLong();
+    }
+
+    /** @return the QR code once the payment is READY, otherwise null */
+    String readyQrCode(long paymentId, long userId) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(paymentUrl + "/api/v1/payments/" + paymentId + "/status"))
+                .header("Authorization", "Bearer " + token(userId))
+                .timeout(requestTimeout)
+                .GET()
+                .build();
+        JsonNode payment = objectMapper.readTree(send(request, 200));
+        JsonNode qrCode = payment.path("qrCode").path("code");
+        return "READY".equals(payment.path("status").asText()) && qrCode.isTextual() ? qrCode.asText() : null;
+    }
+
+    void process(long paymentId, long userId, String qrCode) throws IOException, InterruptedException {
+        Map<String, Object> body = Map.of(
+                "qrCode", qrCode,
+                "amount", AMOUNT,
+                "currency", "USD",
+                "merchantId", MERCHANT_ID);
+        send(post(paymentUrl + "/api/v1/payments/" + paymentId + "/process", body, userId).build(), 200);
+    }
+
+    private HttpRequest.Builder post(String url, Object body, Long userId) throws IOException {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(url))
+                .header("Content-Type", "application/json")
+                .timeout(requestTimeout)
+                .POST(HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(body)));
+        if (userId != null) {
+            builder.header("Authorization", "Bearer " + token(userId));
+        }
+        return builder;
+    }
+
+    private String send(HttpRequest request, int expectedStatus) throws IOException, InterruptedException {
+        HttpResponse<String> response = http.send(request, HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() != expectedStatus) {
+            throw new IOException(request.method() + " " + request.uri().getPath() + " returned "
+                    + response.statusCode() + ": " + response.body());
+        }
+        return response.body();
+    }
+
+    private String token(long userId) {
+        return tokens.computeIfAbsent(userId, id -> {
+            Instant now = Instant.now();
+            return Jwts.builder()
+                    .subject(id.toString())
+                    .issuer(JWT_ISSUER)
+                    .claim("token_type", "access")
+                    .issuedAt(Date.from(now))
+                    .expiration(Date.from(now.plus(1, ChronoUnit.DAYS)))
+                    .signWith(Keys.hmacShaKeyFor(JWT_SECRET.getBytes(StandardCharsets.UTF_8)))
+                    .compact();
+        });
+    }
+}
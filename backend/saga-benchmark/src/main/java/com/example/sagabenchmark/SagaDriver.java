@@ -0,0 +1,132 @@
+package com.example.sagabenchmark;
+
+import com.example.sagabenchmark.SagaMetrics.Step;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Open-model load: sagas arrive on a fixed schedule regardless of how many are still running,
+ * each on its own virtual thread. Latencies are measured from the scheduled arrival time, so a
+ * stalled system shows up as latency instead of silently lowering the offered load.
+ */
+class SagaDriver {
+
+    private static final Logger log = LoggerFactory.getLogger(SagaDriver.class);
+
+    private final BenchmarkConfig config;
+    private final SagaClient client;
+    private final SagaMetrics metrics;
+
+    SagaDriver(BenchmarkConfig config, SagaClient client, SagaMetrics metrics) {
+        this.config = config;
+        this.client = client;
+        this.metrics = metrics;
+    }
+
+    void run() throws InterruptedException {
+        long intervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) / config.rate());
+        long start = System.nanoTime();
+        long measureFrom = start + config.warmup().toNanos();
+        long end = measureFrom + config.duration().toNanos();
+        Semaphore inFlight = new Semaphore(config.maxInFlight());
+
+        log.info("Driving {} sagas/s: {}s warmup, {}s measured", config.rate(),
+                config.warmup().toSeconds(), config.duration().toSeconds());
+        try (ExecutorService sagas = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (long arrival = 0; ; arrival++) {
+                long scheduled = start + arrival * intervalNanos;
+                if (scheduled >= end) {
+                    break;
+                }
+                parkUntil(scheduled);
+                boolean measured = scheduled >= measureFrom;
+                if (!inFlight.tryAcquire()) {
+                    if (measured) {
+                        metrics.dropped();
+                    }
+                    continue;
+                }
+                long userId = arrival % config.users() + 1;
+                sagas.execute(() -> {
+                    try {
+                        runSaga(userId, scheduled, measured ? metrics : null);
+                    } finally {
+                        inFlight.release();
+                    }
+                });
+            }
+            log.info("Arrivals done, waiting for {} in-flight sagas", config.maxInFlight() - inFlight.availablePermits());
+        }
+    }
+
+    /**
+     * @param metrics null during warmup
+     */
+    private void runSaga(long userId, long scheduled, SagaMetrics metrics) {
+        long paymentId;
+        long initiated;
+        try {
+            paymentId = client.initiate(userId);
+            initiated = System.nanoTime();
+        } catch (Exception e) {
+            fail(metrics, Step.INITIATE, e);
+            return;
+        }
+        record(metrics, Step.INITIATE, initiated - scheduled);
+
+        String qrCode = null;
+        long deadline = initiated + config.stepTimeout().toNanos();
+        try {
+            while ((qrCode = client.readyQrCode(paymentId, userId)) == null) {
+                if (System.nanoTime() > deadline) {
+                    throw new IllegalStateException("Payment " + paymentId + " not READY within " + config.stepTimeout());
+                }
+                Thread.sleep(config.pollInterval());
+            }
+        } catch (Exception e) {
+            fail(metrics, Step.QR_READY, e);
+            return;
+        }
+        long ready = System.nanoTime();
+        record(metrics, Step.QR_READY, ready - initiated);
+
+        try {
+            client.process(paymentId, userId, qrCode);
+        } catch (Exception e) {
+            fail(metrics, Step.PROCESS, e);
+            return;
+        }
+        long processed = System.nanoTime();
+        record(metrics, Step.PROCESS, processed - ready);
+        record(metrics, Step.END_TO_END, processed - scheduled);
+    }
+
+    private static void record(SagaMetrics metrics, Step step, long nanos) {
+        if (metrics != null) {
+            metrics.record(step, nanos);
+        }
+    }
+
+    private static void fail(SagaMetrics metrics, Step step, Exception e) {
+        if (e instanceof InterruptedException) {
+            Thread.currentThread().interrupt();
+        }
+        log.debug("Saga failed at {}: {}", step, e.getMessage());
+        if (metrics != null) {
+            metrics.failed(step, String.valueOf(e.getMessage()));
+        }
+    }
+
+    private static void parkUntil(long deadlineNanos) {
+        long remaining;
+        while ((remaining = deadlineNanos - System.nanoTime()) > 0) {
+            LockSupport.parkNanos(remaining);
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package com.example.sagabenchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Per-step latency histograms (microsecond resolution) and outcome counters for the measured period.
+ */
+class SagaMetrics {
+
+    enum Step {
+        /** Intended arrival time -> 201 from POST /initiate (includes any driver lag). */
+        INITIATE,
+        /** Initiate response -> first GET /status showing READY with a QR code (outbox, Kafka, qr-service, consumer). */
+        QR_READY,
+        /** POST /process round trip (QR validation, wallet deduct, status transition). */
+        PROCESS,
+        /** Intended arrival time -> process response. */
+        END_TO_END
+    }
+
+    private static final long HIGHEST_TRACKABLE_MICROS = TimeUnit.MINUTES.toMicros(5);
+
+    private final Map<Step, Histogram> latencies = new EnumMap<>(Step.class);
+    private final Map<Step, LongAdder> failures = new EnumMap<>(Step.class);
+    private final Map<Step, AtomicReference<String>> firstErrors = new EnumMap<>(Step.class);
+    private final LongAdder dropped = new LongAdder();
+
+    SagaMetrics() {
+        for (Step step : Step.values()) {
+            latencies.put(step, new ConcurrentHistogram(HIGHEST_TRACKABLE_MICROS, 3));
+            failures.put(step, new LongAdder());
+            firstErrors.put(step, new AtomicReference<>());
+        }
+    }
+
+    void record(Step step, long nanos) {
+        latencies.get(step).recordValue(Math.min(TimeUnit.NANOSECONDS.toMicros(nanos), HIGHEST_TRACKABLE_MICROS));
+    }
+
+    void failed(Step step, String error) {
+        failures.get(step).increment();
+        firstErrors.get(step).compareAndSet(null, error);
+    }
+
+    void dropped() {
+        dropped.increment();
+    }
+
+    void report(PrintStream out, Duration measured, double targetRate) {
+        long completed = latencies.get(Step.END_TO_END).getTotalCount();
+        out.printf("%nSaga benchmark: target %.1f/s, measured %ds, completed %d (%.1f/s), dropped %d%n",
+                targetRate, measured.toSeconds(), completed, completed / (double) measured.toSeconds(), dropped.sum());
+        out.printf("%-11s %8s %7s %9s %9s %9s %9s %9s %9s%n",
+                "step", "count", "failed", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms", "mean ms");
+        for (Step step : Step.values()) {
+            Histogram histogram = latencies.get(step);
+            out.printf("%-11s %8d %7d %9.1f %9.1f %9.1f %9.1f %9.1f %9.1f%n",
+                    step, histogram.getTotalCount(), failures.get(step).sum(),
+                    millis(histogram.getValueAtPercentile(50)), millis(histogram.getValueAtPercentile(90)),
+                    millis(histogram.getValueAtPercentile(99)), millis(histogram.getValueAtPercentile(99.9)),
+                    millis(histogram.getMaxValue()), histogram.getMean() / 1000.0);
+        }
+        for (Step step : Step.values()) {
+            String error = firstErrors.get(step).get();
+            if (error != null) {
+                out.printf("first %s failure: %s%n", step, error);
+            }
+        }
+    }
+
+    /**
+     * One {@code <step>.hgrm} percentile distribution per step (values in ms, plottable with HdrHistogram's
+     * plotter) plus {@code summary.json} for comparing runs.
+     */
+    void write(Path outputDir, Duration measured, double targetRate) throws IOException {
+        Files.createDirectories(outputDir);
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("targetRatePerSecond", targetRate);
+        summary.put("measuredSeconds", measured.toSeconds());
+        summary.put("dropped", dropped.sum());
+        Map<String, Object> steps = new LinkedHashMap<>();
+        for (Step step : Step.values()) {
+            Histogram histogram = latencies.get(step);
+            try (PrintStream hgrm = new PrintStream(outputDir.resolve(step.name().toLowerCase() + ".hgrm").toFile())) {
+                histogram.outputPercentileDistribution(hgrm, 1000.0);
+            }
+            Map<String, Object> stats = new LinkedHashMap<>();
+            stats.put("count", histogram.getTotalCount());
+            stats.put("failed", failures.get(step).sum());
+            stats.put("p50Ms", millis(histogram.getValueAtPercentile(50)));
+            stats.put("p90Ms", millis(histogram.getValueAtPercentile(90)));
+            stats.put("p99Ms", millis(histogram.getValueAtPercentile(99)));
+            stats.put("p999Ms", millis(histogram.getValueAtPercentile(99.9)));
+            stats.put("maxMs", millis(histogram.getMaxValue()));
+            stats.put("meanMs", histogram.getMean() / 1000.0);
+            stats.put("firstError", firstErrors.get(step).get());
+            steps.put(step.name(), stats);
+        }
+        summary.put("steps", steps);
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT)
+                .writeValue(outputDir.resolve("summary.json").toFile(), summary);
+    }
+
+    private static double millis(long micros) {
+        return micros / 1000.0;
+    }
+}
@@ -0,0 +1,170 @@
+package com.example.sagabenchmark;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * A service started from its built Spring Boot jar in a forked JVM, on a free port,
+ * with its stdout/stderr in {@code <output-dir>/<service>.log}.
+ */
+class ServiceProcess implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(ServiceProcess.class);
+    private static final Duration STARTUP_TIMEOUT = Duration.ofMinutes(3);
+
+    private final String name;
+    private final int port;
+    private final Process process;
+    private final long startNanos;
+
+    private ServiceProcess(String name, int port, Process process, long startNanos) {
+        this.name = name;
+        this.port = port;
+        this.process = process;
+        this.startNanos = startNanos;
+    }
+
+    /**
+     * @param properties Spring properties passed as {@code --key=value} (override application.properties)
+     */
+    static ServiceProcess start(String name, BenchmarkConfig config, List<String> properties) throws IOException {
+        return start(name, findJar(config.servicesDir().resolve(name)), jvmOptions(config.serviceJvmOpts()),
+                properties, config.outputDir());
+    }
+
+    /**
+     * @param jar        the jar to run, e.g. the extracted one of the fast-startup profile
+     * @param jvmOptions options placed before {@code -jar}
+     * @param properties Spring properties passed as {@code --key=value} (override application.properties)
+     */
+    static ServiceProcess start(String name, Path jar, List<String> jvmOptions, List<String> properties,
+                                Path outputDir) throws IOException {
+        int port = freePort();
+
+        List<String> command = new ArrayList<>();
+        command.add(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+        command.addAll(jvmOptions);
+        command.add("-jar");
+        command.add(jar.toString());
+        command.add("--server.port=" + port);
+        command.add("--spring.jpa.show-sql=false");
+        command.add("--logging.level.root=WARN");
+        command.addAll(properties);
+        command.removeIf(String::isEmpty);
+
+        Files.createDirectories(outputDir);
+        Path logFile = outputDir.resolve(name + ".log");
+        long startNanos = System.nanoTime();
+        Process process = new ProcessBuilder(command)
+                .redirectErrorStream(true)
+                .redirectOutput(logFile.toFile())
+                .start();
+        log.info("Started {} on port {} (pid {}, log {})", name, port, process.pid(), logFile);
+        return new ServiceProcess(name, port, process, startNanos);
+    }
+
+    /** Splits a command-line style option string such as {@code "-Xmx512m -XX:+UseG1GC"}. */
+    static List<String> jvmOptions(String options) {
+        return Arrays.stream(options.trim().split("\\s+")).filter(option -> !option.isEmpty()).toList();
+    }
+
+    String baseUrl() {
+        return "http://localhost:" + port;
+    }
+
+    /**
+     * Block until the service answers HTTP (any status), failing fast if the JVM exits.
+     */
+    void awaitReady(HttpClient http) throws InterruptedException, TimeoutException {
+        long deadline = System.nanoTime() + STARTUP_TIMEOUT.toNanos();
+        HttpRequest probe = HttpRequest.newBuilder(URI.create(baseUrl() + "/v3/api-docs"))
+                .timeout(Duration.ofSeconds(2))
+                .build();
+        while (System.nanoTime() < deadline) {
+            if (!process.isAlive()) {
+                throw new IllegalStateException(name + " exited with code " + process.exitValue() + ", see its log");
+            }
+            try {
+                http.send(probe, HttpResponse.BodyHandlers.discarding());
+                log.info("{} is up", name);
+                return;
+            } catch (IOException e) {
+                // not listening yet
+                Thread.sleep(250);
+            }
+        }
+        throw new TimeoutException(name + " did not start within " + STARTUP_TIMEOUT);
+    }
+
+    /**
+     * Polls {@code path} every {@code interval} until it returns a non-5xx response, failing fast if the JVM
+     * exits.
+     *
+     * @return time from forking the JVM to that first response
+     */
+    Duration awaitFirstResponse(HttpClient http, String path, Duration interval)
+            throws InterruptedException, TimeoutException {
+        HttpRequest probe = HttpRequest.newBuilder(URI.create(baseUrl() + path))
+                .timeout(Duration.ofSeconds(2))
+                .build();
+        long deadline = startNanos + STARTUP_TIMEOUT.toNanos();
+        while (System.nanoTime() < deadline) {
+            if (!process.isAlive()) {
+                throw new IllegalStateException(name + " exited with code " + process.exitValue() + ", see its log");
+            }
+            try {
+                HttpResponse<Void> response = http.send(probe, HttpResponse.BodyHandlers.discarding());
+                if (response.statusCode() < 500) {
+                    return Duration.ofNanos(System.nanoTime() - startNanos);
+                }
+            } catch (IOException e) {
+                // not listening yet
+            }
+            Thread.sleep(interval);
+        }
+        throw new TimeoutException(name + " did not answer " + path + " within " + STARTUP_TIMEOUT);
+    }
+
+    static Path findJar(Path serviceDir) throws IOException {
+        Path target = serviceDir.resolve("target");
+        if (!Files.isDirectory(target)) {
+            throw new IllegalStateException("No build output in " + target + ": run mvn -DskipTests package there first");
+        }
+        try (var files = Files.list(target)) {
+            return files.filter(path -> path.getFileName().toString().endsWith(".jar"))
+                    .filter(path -> !path.getFileName().toString().endsWith("-plain.jar"))
+                    .findFirst()
+                    .orElseThrow(() -> new IllegalStateException(
+                            "No jar in " + target + ": run mvn -DskipTests package there first"));
+        }
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+    @Override
+    public void close() throws InterruptedException {
+        process.destroy();
+        if (!process.waitFor(20, TimeUnit.SECONDS)) {
+            process.destroyForcibly();
+        }
+    }
+}
@@ -0,0 +1,177 @@
+package com.example.sagabenchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.http.HttpClient;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.jar.JarFile;
+
+/**
+ * Startup time of each service: from forking its JVM to the first non-5xx answer on a real endpoint that
+ * reads the database, comparing the packaged jar ({@code jar}) with the output of the {@code fast-startup}
+ * Maven profile ({@code fast}: extracted jar, AppCDS archive and, where the service was built with it,
+ * Spring AOT).
+ * <p>
+ * Uses the same embedded Kafka broker and Postgres as {@link SagaBenchmark}. Services are started one at a
+ * time; the first start of each service (which runs its Flyway migrations) is not recorded, and the modes are
+ * interleaved run by run so drift on the machine affects both alike.
+ * <p>
+ * Build the jars first ({@code mvn -Pfast-startup -DskipTests package} in each service), then from this
+ * directory:
+ * <pre>
+ * mvn -q compile exec:java -Dexec.mainClass=com.example.sagabenchmark.StartupBenchmark -Dexec.args="--runs=5"
+ * </pre>
+ * Results: stdout table and {@code target/startup-benchmark/startup.json}; service logs alongside.
+ */
+public class StartupBenchmark {
+
+    private static final Logger log = LoggerFactory.getLogger(StartupBenchmark.class);
+
+    /**
+     * Database-backed GET per service; a 4xx for the made-up id still means the request was served. user-service
+     * answers unknown users with a 500, so it is probed through its health endpoint (which checks the database).
+     */
+    private static final Map<String, String> PROBES = Map.of(
+            "order-service", "/api/v1/products",
+            "payment-service", "/api/v1/merchants/startup-probe/payments",
+            "qr-service", "/api/v1/qrcodes/0",
+            "user-service", "/actuator/health",
+            "wallet-service", "/api/v1/wallets/users/0/balance");
+
+    private static final Map<String, String> DATABASES = Map.of(
+            "order-service", "merchant_db",
+            "payment-service", "payment_db",
+            "qr-service", "qr_db",
+            "user-service", "user_db",
+            "wallet-service", "wallet_db");
+
+    public static void main(String[] args) throws Exception {
+        StartupBenchmarkConfig config = StartupBenchmarkConfig.fromArgs(args);
+        HttpClient http = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(1))
+                .build();
+
+        Map<String, Map<String, List<Long>>> results = new LinkedHashMap<>();
+        try (LocalInfrastructure infrastructure = LocalInfrastructure.start()) {
+            for (String service : config.services()) {
+                List<String> properties = List.of(
+                        "--spring.datasource.url=" + infrastructure.jdbcUrl(DATABASES.get(service)),
+                        "--spring.datasource.username=" + LocalInfrastructure.DB_USER,
+                        "--spring.kafka.bootstrap-servers=" + infrastructure.kafkaBootstrapServers());
+                Map<String, Launch> launches = new LinkedHashMap<>();
+                for (String mode : config.modes()) {
+                    launches.put(mode, launch(config, service, mode));
+                }
+
+                Duration migration = startOnce(config, http, service, launches.values().iterator().next(), properties);
+                log.info("{}: first start (migrations, not recorded) took {} ms", service, migration.toMillis());
+
+                Map<String, List<Long>> byMode = new LinkedHashMap<>();
+                for (int run = 1; run <= config.runs(); run++) {
+                    for (Map.Entry<String, Launch> launch : launches.entrySet()) {
+                        Duration startup = startOnce(config, http, service, launch.getValue(), properties);
+                        byMode.computeIfAbsent(launch.getKey(), mode -> new ArrayList<>()).add(startup.toMillis());
+                        log.info("{} [{}] run {}: {} ms", service, launch.getKey(), run, startup.toMillis());
+                    }
+                }
+                results.put(service, byMode);
+            }
+        }
+        report(System.out, results);
+        write(config.outputDir(), config, results);
+        log.info("Summary written to {}", config.outputDir().resolve("startup.json"));
+    }
+
+    private static Duration startOnce(StartupBenchmarkConfig config, HttpClient http, String service, Launch launch,
+                                      List<String> properties) throws Exception {
+        try (ServiceProcess process = ServiceProcess.start(service, launch.jar(), launch.jvmOptions(), properties,
+                config.outputDir())) {
+            return process.awaitFirstResponse(http, PROBES.get(service), config.probeInterval());
+        }
+    }
+
+    /**
+     * The jar and JVM options for one mode. {@code fast} needs {@code target/startup} from the fast-startup
+     * profile, and adds {@code -Dspring.aot.enabled=true} only if that jar contains AOT-generated initializers.
+     */
+    private static Launch launch(StartupBenchmarkConfig config, String service, String mode) throws IOException {
+        Path serviceDir = config.servicesDir().resolve(service);
+        List<String> jvmOptions = new ArrayList<>(ServiceProcess.jvmOptions(config.serviceJvmOpts()));
+        if (mode.equals("jar")) {
+            return new Launch(ServiceProcess.findJar(serviceDir), jvmOptions);
+        }
+        Path startupDir = serviceDir.resolve("target").resolve("startup");
+        Path archive = startupDir.resolve("app.jsa");
+        if (!Files.isRegularFile(archive)) {
+            throw new IllegalStateException("No " + archive + ": run mvn -Pfast-startup -DskipTests package in "
+                    + serviceDir + " first");
+        }
+        Path extracted = startupDir.resolve("app.jar");
+        jvmOptions.add("-XX:SharedArchiveFile=" + archive);
+        if (hasAotInitializer(extracted)) {
+            jvmOptions.add("-Dspring.aot.enabled=true");
+        }
+        return new Launch(extracted, jvmOptions);
+    }
+
+    private static boolean hasAotInitializer(Path jar) throws IOException {
+        try (JarFile jarFile = new JarFile(jar.toFile())) {
+            return jarFile.stream().anyMatch(entry -> entry.getName().endsWith("__ApplicationContextInitializer.class"));
+        }
+    }
+
+    private static void report(PrintStream out, Map<String, Map<String, List<Long>>> results) {
+        out.printf("%nTime to first response (ms)%n");
+        out.printf("%-16s %-5s %5s %8s %8s %8s%n", "service", "mode", "runs", "min", "median", "max");
+        results.forEach((service, byMode) -> byMode.forEach((mode, millis) -> {
+            List<Long> sorted = millis.stream().sorted().toList();
+            out.printf("%-16s %-5s %5d %8d %8d %8d%n", service, mode, sorted.size(),
+                    sorted.getFirst(), median(sorted), sorted.getLast());
+        }));
+    }
+
+    private static void write(Path outputDir, StartupBenchmarkConfig config,
+                              Map<String, Map<String, List<Long>>> results) throws IOException {
+        Files.createDirectories(outputDir);
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("runs", config.runs());
+        summary.put("serviceJvmOpts", config.serviceJvmOpts());
+        Map<String, Object> services = new LinkedHashMap<>();
+        results.forEach((service, byMode) -> {
+            Map<String, Object> modes = new LinkedHashMap<>();
+            byMode.forEach((mode, millis) -> {
+                List<Long> sorted = millis.stream().sorted().toList();
+                Map<String, Object> stats = new LinkedHashMap<>();
+                stats.put("runsMs", millis);
+                stats.put("minMs", sorted.getFirst());
+                stats.put("medianMs", median(sorted));
+                stats.put("maxMs", sorted.getLast());
+                modes.put(mode, stats);
+            });
+            services.put(service, modes);
+        });
+        summary.put("services", services);
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT)
+                .writeValue(outputDir.resolve("startup.json").toFile(), summary);
+    }
+
+    private static long median(List<Long> sorted) {
+        int middle = sorted.size() / 2;
+        return sorted.size() % 2 == 1 ? sorted.get(middle) : (sorted.get(middle - 1) + sorted.get(middle)) / 2;
+    }
+
+    private record Launch(Path jar, List<String> jvmOptions) {
+    }
+}
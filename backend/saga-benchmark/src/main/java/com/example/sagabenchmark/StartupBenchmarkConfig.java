@@ -0,0 +1,70 @@
+package com.example.sagabenchmark;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Startup benchmark settings, from {@code --key=value} arguments.
+ *
+ * @param runs           recorded starts per service and mode (after one unrecorded start per service)
+ * @param services       services to start, one at a time
+ * @param modes          {@code jar} (the packaged jar) and/or {@code fast} (the fast-startup profile's output)
+ * @param probeInterval  delay between probe requests while a service is starting
+ * @param servicesDir    directory containing the service modules (with built jars)
+ * @param serviceJvmOpts extra JVM options for the forked services
+ * @param outputDir      where startup.json and the service logs are written
+ */
+record StartupBenchmarkConfig(
+        int runs,
+        List<String> services,
+        List<String> modes,
+        Duration probeInterval,
+        Path servicesDir,
+        String serviceJvmOpts,
+        Path outputDir) {
+
+    static final List<String> ALL_SERVICES =
+            List.of("order-service", "payment-service", "qr-service", "user-service", "wallet-service");
+    static final List<String> ALL_MODES = List.of("jar", "fast");
+
+    private static final Set<String> OPTIONS = Set.of("runs", "services", "modes", "probe-interval",
+            "services-dir", "service-jvm-opts", "output-dir");
+
+    static StartupBenchmarkConfig fromArgs(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("Expected --key=value, got: " + arg);
+            }
+            int separator = arg.indexOf('=');
+            String key = arg.substring(2, separator);
+            if (!OPTIONS.contains(key)) {
+                throw new IllegalArgumentException("Unknown option --" + key + ", expected one of " + OPTIONS);
+            }
+            options.put(key, arg.substring(separator + 1));
+        }
+        return new StartupBenchmarkConfig(
+                Integer.parseInt(options.getOrDefault("runs", "5")),
+                list(options.getOrDefault("services", String.join(",", ALL_SERVICES)), ALL_SERVICES),
+                list(options.getOrDefault("modes", String.join(",", ALL_MODES)), ALL_MODES),
+                BenchmarkConfig.duration(options.getOrDefault("probe-interval", "10ms")),
+                Path.of(options.getOrDefault("services-dir", "..")).toAbsolutePath().normalize(),
+                options.getOrDefault("service-jvm-opts", "-Xmx512m"),
+                Path.of(options.getOrDefault("output-dir", "target/startup-benchmark")).toAbsolutePath());
+    }
+
+    private static List<String> list(String value, List<String> allowed) {
+        List<String> values = Arrays.stream(value.split(",")).map(String::trim).toList();
+        for (String v : values) {
+            if (!allowed.contains(v)) {
+                throw new IllegalArgumentException("Unknown value " + v + ", expected one of " + allowed);
+            }
+        }
+        return values;
+    }
+}
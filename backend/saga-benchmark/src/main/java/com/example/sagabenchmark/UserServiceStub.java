@@ -0,0 +1,67 @@
+package com.example.sagabenchmark;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.concurrent.Executors;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Local stand-in for the two user-service endpoints payment-service calls on initiate
+ * ({@code GET /api/v1/users/{id}} and {@code GET /api/v1/users/{id}/wallet}): every user is active
+ * and verified, every wallet active. Keeps user-service (and its OTP/auth flow) out of the measurement.
+ */
+class UserServiceStub implements AutoCloseable {
+
+    private static final Pattern USER_PATH = Pattern.compile("/api/v1/users/(\\d+)(/wallet)?");
+
+    private final HttpServer server;
+
+    private UserServiceStub(HttpServer server) {
+        this.server = server;
+    }
+
+    static UserServiceStub start() throws IOException {
+        HttpServer server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        server.createContext("/api/v1/users/", UserServiceStub::handle);
+        server.start();
+        return new UserServiceStub(server);
+    }
+
+    String baseUrl() {
+        return "http://localhost:" + server.getAddress().getPort();
+    }
+
+    private static void handle(HttpExchange exchange) throws IOException {
+        Matcher matcher = USER_PATH.matcher(exchange.getRequestURI().getPath());
+        if (!"GET".equals(exchange.getRequestMethod()) || !matcher.matches()) {
+            exchange.sendResponseHeaders(404, -1);
+            exchange.close();
+            return;
+        }
+        String userId = matcher.group(1);
+        String body = matcher.group(2) == null
+                ? "{\"id\":" + userId + ",\"username\":\"bench-" + userId + "\",\"email\":\"bench-" + userId
+                        + "@example.com\",\"isActive\":true,\"isVerified\":true}"
+                : "{\"id\":" + userId + ",\"userId\":" + userId + ",\"balance\":1000000.00,\"currency\":\"USD\","
+                        + "\"isActive\":true,\"createdAt\":\"" + LocalDateTime.now() + "\",\"updatedAt\":null}";
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(200, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+    }
+}
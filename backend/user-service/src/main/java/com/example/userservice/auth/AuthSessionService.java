@@ -49,7 +49,7 @@ public class AuthSessionService {
         deviceSessionRepository.revokeAllByUserId(userId);
         User user = userRepository.findById(userId).orElseThrow();
         List<String> roles = user.getRole() != null ? List.of(user.getRole()) : List.of();
-        String accessToken = jwtService.issueAccessToken(userId, roles);
+        String accessToken = jwtService.issueAccessToken(userId, roles, user.getMerchantId());
         String refreshToken = jwtService.issueRefreshToken(userId);
         JwtService.JwtClaims refreshClaims = jwtService.validateRefreshToken(refreshToken);
         String refreshTokenHash = hashRefreshToken(refreshToken);
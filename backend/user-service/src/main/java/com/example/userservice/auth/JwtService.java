@@ -20,6 +20,8 @@ public class JwtService {
     private static final String CLAIM_USER_ID = "sub";
     private static final String CLAIM_TOKEN_TYPE = "token_type";
     public static final String CLAIM_ROLES = "roles";
+    /** The merchant a MERCHANT user runs; only set on their access tokens. */
+    public static final String CLAIM_MERCHANT_ID = "merchant_id";
     private static final String TYPE_ACCESS = "access";
     private static final String TYPE_REFRESH = "refresh";
 
@@ -32,12 +34,17 @@ public class JwtService {
     }
 
     public String issueAccessToken(Long userId, List<String> roles) {
+        return issueAccessToken(userId, roles, null);
+    }
+
+    public String issueAccessToken(Long userId, List<String> roles, String merchantId) {
         Date now = new Date();
         Date expiry = Date.from(now.toInstant().plus(properties.accessTokenValidity()));
         return Jwts.builder()
                 .subject(String.valueOf(userId))
                 .claim(CLAIM_TOKEN_TYPE, TYPE_ACCESS)
                 .claim(CLAIM_ROLES, roles != null ? roles : List.<String>of())
+                .claim(CLAIM_MERCHANT_ID, merchantId)
                 .issuer(properties.issuer())
                 .issuedAt(now)
                 .expiration(expiry)
@@ -96,7 +103,8 @@ public class JwtService {
             }
             Long userId = Long.parseLong(sub);
             List<String> roles = getRolesFromClaims(claims);
-            return new JwtClaims(userId, roles, claims.getExpiration().toInstant());
+            String merchantId = claims.get(CLAIM_MERCHANT_ID, String.class);
+            return new JwtClaims(userId, roles, merchantId, claims.getExpiration().toInstant());
         } catch (ExpiredJwtException e) {
             throw new JwtException("Token expired", e);
         } catch (JwtException e) {
@@ -106,5 +114,5 @@ public class JwtService {
         }
     }
 
-    public record JwtClaims(Long userId, List<String> roles, java.time.Instant expiresAt) {}
+    public record JwtClaims(Long userId, List<String> roles, String merchantId, java.time.Instant expiresAt) {}
 }
@@ -1,5 +1,6 @@
 package com.example.userservice.client;
 
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
@@ -18,6 +19,7 @@ import java.math.BigDecimal;
 public class WalletClientService {
 
     private final RestClient.Builder restClientBuilder;
+    private final MeterRegistry meterRegistry;
     
     @Value("${wallet.service.url:http://localhost:8082}")
     private String baseUrl;
@@ -26,7 +28,9 @@ public class WalletClientService {
 
     private RestClient getRestClient() {
         if (restClient == null) {
-            restClient = restClientBuilder.baseUrl(baseUrl).build();
+            restClient = restClientBuilder.baseUrl(baseUrl)
+                    .requestInterceptor(new ClientMetricsInterceptor(meterRegistry, "wallet"))
+                    .build();
         }
         return restClient;
     }
@@ -39,6 +43,7 @@ public class WalletClientService {
             WalletBalanceResponse apiResponse = getRestClient()
                     .get()
                     .uri("/api/v1/wallets/users/{userId}/balance", userId)
+                    .attribute(ClientMetricsInterceptor.OPERATION_ATTRIBUTE, "getWalletBalance")
                     .retrieve()
                     .onStatus(status -> status.is4xxClientError() || status.is5xxServerError(), 
                             (request, response) -> {
@@ -63,6 +68,7 @@ public class WalletClientService {
             return getRestClient()
                     .get()
                     .uri("/api/v1/wallets/users/{userId}", userId)
+                    .attribute(ClientMetricsInterceptor.OPERATION_ATTRIBUTE, "getWallet")
                     .retrieve()
                     .onStatus(status -> status.is4xxClientError() || status.is5xxServerError(),
                             (request, response) -> {
@@ -85,6 +91,7 @@ public class WalletClientService {
             WalletBalanceResponse apiResponse = getRestClient()
                     .post()
                     .uri("/api/v1/wallets/users/{userId}/topup", userId)
+                    .attribute(ClientMetricsInterceptor.OPERATION_ATTRIBUTE, "topUp")
                     .body(new TopUpRequest(amount))
                     .retrieve()
                     .onStatus(status -> status.is4xxClientError() || status.is5xxServerError(),
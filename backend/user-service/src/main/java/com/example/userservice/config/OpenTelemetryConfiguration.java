@@ -10,6 +10,7 @@ package com.example.userservice.config;
 //import io.micrometer.core.instrument.binder.jvm.convention.otel.OpenTelemetryJvmThreadMeterConventions;
 //import io.micrometer.core.instrument.binder.system.ProcessorMetrics;
 //import io.opentelemetry.api.OpenTelemetry;
+import io.prometheus.metrics.tracer.common.SpanContext;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.server.observation.OpenTelemetryServerRequestObservationConvention;
@@ -19,6 +20,12 @@ import java.util.List;
 @Configuration(proxyBeanMethods = false)
 public class OpenTelemetryConfiguration {
 
+    /** Trace-id exemplars on Prometheus histogram buckets, from the agent's current span. */
+    @Bean
+    SpanContext exemplarSpanContext() {
+        return new OpenTelemetryExemplarSpanContext();
+    }
+
 //    @Bean
 //    InstallOpenTelemetryAppender installOpenTelemetryAppender(OpenTelemetry openTelemetry) {
 //        return new InstallOpenTelemetryAppender(openTelemetry);
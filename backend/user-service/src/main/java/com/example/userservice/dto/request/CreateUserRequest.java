@@ -21,6 +21,10 @@ public class CreateUserRequest {
     /** One of: PAYMENT_USER, MERCHANT, ADMIN. Default PAYMENT_USER if not set. */
     private String role;
 
+    /** The merchant a MERCHANT user runs (e.g. MERCHANT_STORE_01). Required for MERCHANT, ignored otherwise. */
+    @Size(max = 100, message = "Merchant id must be at most 100 characters")
+    private String merchantId;
+
     private Boolean isActive;
 
     private Boolean isVerified;
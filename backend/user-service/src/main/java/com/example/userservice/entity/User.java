@@ -49,6 +49,10 @@ public class User {
     @Builder.Default
     private String role = "PAYMENT_USER";
 
+    /** The merchant this MERCHANT user runs; null for other roles. */
+    @Column(name = "merchant_id", unique = true, length = 100)
+    private String merchantId;
+
     @Column(name = "created_at", nullable = false, updatable = false)
     private LocalDateTime createdAt;
 
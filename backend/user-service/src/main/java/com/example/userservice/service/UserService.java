@@ -45,11 +45,22 @@ public class UserService {
         if (!List.of("PAYMENT_USER", "MERCHANT", "ADMIN").contains(role)) {
             role = "PAYMENT_USER";
         }
+        String merchantId = null;
+        if ("MERCHANT".equals(role)) {
+            merchantId = request.getMerchantId();
+            if (merchantId == null || merchantId.isBlank()) {
+                throw new PaymentException("Merchant id is required for a MERCHANT user");
+            }
+            if (userRepository.findByMerchantId(merchantId).isPresent()) {
+                throw new PaymentException("Merchant already has a user: " + merchantId);
+            }
+        }
         User user = User.builder()
                 .username(request.getUsername())
                 .email(request.getEmail())
                 .phoneNumber(request.getPhoneNumber())
                 .role(role)
+                .merchantId(merchantId)
                 .isActive(request.getIsActive() != null ? request.getIsActive() : true)
                 .isVerified(request.getIsVerified() != null ? request.getIsVerified() : false)
                 .build();
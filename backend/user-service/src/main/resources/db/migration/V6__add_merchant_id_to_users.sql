@@ -0,0 +1,4 @@
+-- The merchant a MERCHANT user runs (the merchantId payments carry, e.g. MERCHANT_STORE_01). Issued in the
+-- access token's merchant_id claim; payment-service only shows a merchant's data to the user that owns it.
+ALTER TABLE users ADD COLUMN IF NOT EXISTS merchant_id VARCHAR(100);
+CREATE UNIQUE INDEX IF NOT EXISTS idx_users_merchant_id ON users (merchant_id);
@@ -17,6 +17,7 @@ import java.util.Optional;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -39,10 +40,10 @@ class AuthSessionServiceTest {
     @Test
     void createSession_revokesPreviousAndReturnsTokens() {
         when(userRepository.findById(1L)).thenReturn(Optional.of(User.builder().id(1L).role("PAYMENT_USER").build()));
-        when(jwtService.issueAccessToken(eq(1L), any())).thenReturn("access");
+        when(jwtService.issueAccessToken(eq(1L), any(), isNull())).thenReturn("access");
         when(jwtService.issueRefreshToken(1L)).thenReturn("refresh");
         when(jwtService.validateRefreshToken("refresh"))
-                .thenReturn(new JwtService.JwtClaims(1L, List.of(), LocalDateTime.now().plusHours(2).atZone(java.time.ZoneId.systemDefault()).toInstant()));
+                .thenReturn(new JwtService.JwtClaims(1L, List.of(), null, LocalDateTime.now().plusHours(2).atZone(java.time.ZoneId.systemDefault()).toInstant()));
         when(deviceSessionRepository.save(any(DeviceSession.class))).thenAnswer(i -> i.getArgument(0));
 
         AuthSessionService.TokenPair pair = authSessionService.createSession(1L, "device-1");
@@ -56,7 +57,7 @@ class AuthSessionServiceTest {
     @Test
     void validateRefreshTokenAndGetUserId_returnsNullWhenNoMatchingSession() {
         when(jwtService.validateRefreshToken("refresh"))
-                .thenReturn(new JwtService.JwtClaims(1L, List.of(), LocalDateTime.now().plusHours(1).atZone(java.time.ZoneId.systemDefault()).toInstant()));
+                .thenReturn(new JwtService.JwtClaims(1L, List.of(), null, LocalDateTime.now().plusHours(1).atZone(java.time.ZoneId.systemDefault()).toInstant()));
         when(deviceSessionRepository.findByUserIdAndIsRevokedFalse(1L)).thenReturn(List.of());
 
         Long userId = authSessionService.validateRefreshTokenAndGetUserId("refresh");
@@ -32,9 +32,18 @@ class JwtServiceTest {
         JwtService.JwtClaims claims = jwtService.validateAccessToken(token);
         assertEquals(100L, claims.userId());
         assertEquals(List.of("PAYMENT_USER"), claims.roles());
+        assertNull(claims.merchantId());
         assertNotNull(claims.expiresAt());
     }
 
+    @Test
+    void issueAndValidateAccessToken_carriesMerchantId() {
+        String token = jwtService.issueAccessToken(300L, List.of("MERCHANT"), "MERCHANT_STORE_01");
+        JwtService.JwtClaims claims = jwtService.validateAccessToken(token);
+        assertEquals(List.of("MERCHANT"), claims.roles());
+        assertEquals("MERCHANT_STORE_01", claims.merchantId());
+    }
+
     @Test
     void validateAccessToken_rejectsRefreshToken() {
         String refreshToken = jwtService.issueRefreshToken(100L);
@@ -131,4 +131,54 @@ class UserServiceTest {
         assertTrue(result.getIsActive());
         assertFalse(result.getIsVerified());
     }
+
+    @Test
+    void testCreateUser_MerchantKeepsItsMerchantId() {
+        // Given
+        createUserRequest.setRole("merchant");
+        createUserRequest.setMerchantId("MERCHANT_STORE_01");
+        when(userRepository.findByUsername("testuser")).thenReturn(Optional.empty());
+        when(userRepository.findByEmail("test@example.com")).thenReturn(Optional.empty());
+        when(userRepository.findByMerchantId("MERCHANT_STORE_01")).thenReturn(Optional.empty());
+        when(userRepository.save(any(User.class))).thenAnswer(i -> i.getArgument(0));
+
+        // When
+        User result = userService.createUser(createUserRequest);
+
+        // Then
+        assertEquals("MERCHANT", result.getRole());
+        assertEquals("MERCHANT_STORE_01", result.getMerchantId());
+    }
+
+    @Test
+    void testCreateUser_MerchantWithoutMerchantId() {
+        // Given
+        createUserRequest.setRole("MERCHANT");
+        when(userRepository.findByUsername("testuser")).thenReturn(Optional.empty());
+        when(userRepository.findByEmail("test@example.com")).thenReturn(Optional.empty());
+
+        // When & Then
+        PaymentException exception = assertThrows(PaymentException.class, () -> {
+            userService.createUser(createUserRequest);
+        });
+
+        assertEquals("Merchant id is required for a MERCHANT user", exception.getMessage());
+        verify(userRepository, never()).save(any(User.class));
+    }
+
+    @Test
+    void testCreateUser_MerchantIdIgnoredForOtherRoles() {
+        // Given
+        createUserRequest.setMerchantId("MERCHANT_STORE_01");
+        when(userRepository.findByUsername("testuser")).thenReturn(Optional.empty());
+        when(userRepository.findByEmail("test@example.com")).thenReturn(Optional.empty());
+        when(userRepository.save(any(User.class))).thenAnswer(i -> i.getArgument(0));
+
+        // When
+        User result = userService.createUser(createUserRequest);
+
+        // Then
+        assertEquals("PAYMENT_USER", result.getRole());
+        assertNull(result.getMerchantId());
+    }
 }
@@ -1,24 +1,56 @@
 package com.example.walletservice.config;
 
+import com.example.walletservice.kafka.PaymentEventConsumer;
+import com.fasterxml.jackson.core.JsonProcessingException;
 import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.producer.ProducerConfig;
 import org.apache.kafka.common.serialization.StringDeserializer;
+import org.apache.kafka.common.serialization.StringSerializer;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.annotation.EnableKafka;
 import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
 import org.springframework.kafka.core.ConsumerFactory;
 import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.core.ProducerFactory;
 import org.springframework.kafka.listener.ContainerProperties;
+import org.springframework.kafka.retrytopic.RetryTopicConfiguration;
+import org.springframework.kafka.retrytopic.RetryTopicConfigurationBuilder;
+import org.springframework.kafka.retrytopic.RetryTopicSchedulerWrapper;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
 
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 @Configuration
+@EnableKafka
 public class KafkaConfig {
 
+    /** Suffix of this service's retry topics, e.g. {@code payment.processed-wallet-retry-0}. */
+    public static final String RETRY_TOPIC_SUFFIX = "-wallet-retry";
+
+    /** Suffix of this service's dead-letter topics, e.g. {@code payment.processed-wallet-dlt}. */
+    public static final String DLT_SUFFIX = "-wallet-dlt";
+
     @Value("${spring.kafka.bootstrap-servers:localhost:9092}")
     private String bootstrapServers;
 
+    @Value("${app.kafka.retry.attempts:5}")
+    private int retryAttempts;
+
+    @Value("${app.kafka.retry.initial-interval-ms:1000}")
+    private long retryInitialIntervalMs;
+
+    @Value("${app.kafka.retry.multiplier:5}")
+    private double retryMultiplier;
+
+    @Value("${app.kafka.retry.max-interval-ms:300000}")
+    private long retryMaxIntervalMs;
+
     @Bean
     public ConsumerFactory<String, String> consumerFactory() {
         Map<String, Object> configProps = new HashMap<>();
@@ -46,4 +78,55 @@ public class KafkaConfig {
         
         return factory;
     }
+
+    /** Publishes records to the retry and dead-letter topics, and replays them (DeadLetterReplayer). */
+    @Bean
+    public ProducerFactory<String, String> producerFactory() {
+        Map<String, Object> configProps = new HashMap<>();
+        configProps.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        configProps.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
+        configProps.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
+        configProps.put(ProducerConfig.ACKS_CONFIG, "all");
+        configProps.put(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, true);
+        return new DefaultKafkaProducerFactory<>(configProps);
+    }
+
+    @Bean
+    public KafkaTemplate<String, String> kafkaTemplate() {
+        return new KafkaTemplate<>(producerFactory());
+    }
+
+    /**
+     * Non-blocking retries for the payment event listeners. A record whose listener throws is published, with its
+     * original headers (traceparent included), to {@code <topic>-wallet-retry-0}, then -1, ..., each consumed once
+     * its backoff has elapsed (1s, 5s, 25s, 2m5s by default, see {@code app.kafka.retry.*}), and after the last
+     * attempt to {@code <topic>-wallet-dlt} with kafka_dlt-* headers naming the source topic, partition, offset and
+     * exception. The main topic's offset moves past the record at once, so the rest of its partition keeps
+     * flowing. Unreadable payloads go straight to the dead-letter topic; DeadLetterReplayer sends them back.
+     */
+    @Bean
+    public RetryTopicConfiguration retryTopicConfiguration(KafkaTemplate<String, String> kafkaTemplate) {
+        return RetryTopicConfigurationBuilder.newInstance()
+                .includeTopics(List.of(
+                        PaymentEventConsumer.TOPIC_PAYMENT_PROCESSED,
+                        PaymentEventConsumer.TOPIC_PAYMENT_CONFIRMED,
+                        PaymentEventConsumer.TOPIC_PAYMENT_REFUNDED))
+                .maxAttempts(retryAttempts)
+                .exponentialBackoff(retryInitialIntervalMs, retryMultiplier, retryMaxIntervalMs)
+                .suffixTopicsWithIndexValues()
+                .retryTopicSuffix(RETRY_TOPIC_SUFFIX)
+                .dltSuffix(DLT_SUFFIX)
+                .notRetryOn(JsonProcessingException.class)
+                .traversingCauses()
+                .doNotAutoCreateRetryTopics()
+                .create(kafkaTemplate);
+    }
+
+    /** Resumes the retry topics' partitions when a record's backoff has elapsed. */
+    @Bean
+    public RetryTopicSchedulerWrapper retryTopicSchedulerWrapper() {
+        ThreadPoolTaskScheduler scheduler = new ThreadPoolTaskScheduler();
+        scheduler.setThreadNamePrefix("kafka-retry-");
+        return new RetryTopicSchedulerWrapper(scheduler);
+    }
 }
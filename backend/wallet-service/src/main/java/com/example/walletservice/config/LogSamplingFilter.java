@@ -0,0 +1,90 @@
+package com.example.walletservice.config;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.turbo.TurboFilter;
+import ch.qos.logback.core.spi.FilterReply;
+import org.slf4j.Marker;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps 1 in N log events at INFO and below for high-volume loggers; WARN and ERROR always pass.
+ * Configured in logback-spring.xml from {@code app.logging.sampling.loggers}, e.g.
+ * {@code com.example.walletservice.kafka=10,com.example.walletservice.service.HoldService=5}.
+ * A name covers its child loggers and the longest configured name wins.
+ * <p>
+ * Runs before the event is created, so dropped events cost a map lookup and a counter increment.
+ * Each configured name has one counter shared by its loggers.
+ */
+public class LogSamplingFilter extends TurboFilter {
+
+    private static final Sampler KEEP_ALL = new Sampler(1);
+
+    private final Map<String, Sampler> configured = new HashMap<>();
+    private final Map<String, Sampler> byLogger = new ConcurrentHashMap<>();
+
+    public void setLoggers(String loggers) {
+        configured.clear();
+        byLogger.clear();
+        for (String entry : loggers.split(",")) {
+            if (entry.isBlank()) {
+                continue;
+            }
+            int separator = entry.indexOf('=');
+            if (separator < 0) {
+                addError("Sampled logger '" + entry.trim() + "' needs a rate: name=N");
+                continue;
+            }
+            try {
+                int rate = Integer.parseInt(entry.substring(separator + 1).trim());
+                if (rate < 1) {
+                    throw new NumberFormatException("rate must be at least 1");
+                }
+                configured.put(entry.substring(0, separator).trim(), new Sampler(rate));
+            } catch (NumberFormatException e) {
+                addError("Invalid sampling rate in '" + entry.trim() + "'", e);
+            }
+        }
+    }
+
+    @Override
+    public FilterReply decide(Marker marker, Logger logger, Level level, String format, Object[] params, Throwable t) {
+        // format is null for isInfoEnabled() and friends: answer those by level alone, sample the event itself
+        if (!isStarted() || format == null || level.isGreaterOrEqual(Level.WARN)
+                || !level.isGreaterOrEqual(logger.getEffectiveLevel())) {
+            return FilterReply.NEUTRAL;
+        }
+        Sampler sampler = byLogger.computeIfAbsent(logger.getName(), this::samplerFor);
+        return sampler.keep() ? FilterReply.NEUTRAL : FilterReply.DENY;
+    }
+
+    private Sampler samplerFor(String loggerName) {
+        String name = loggerName;
+        while (true) {
+            Sampler sampler = configured.get(name);
+            if (sampler != null) {
+                return sampler;
+            }
+            int dot = name.lastIndexOf('.');
+            if (dot < 0) {
+                return KEEP_ALL;
+            }
+            name = name.substring(0, dot);
+        }
+    }
+
+    private record Sampler(int rate, AtomicLong events) {
+
+        Sampler(int rate) {
+            this(rate, new AtomicLong());
+        }
+
+        boolean keep() {
+            return rate == 1 || events.getAndIncrement() % rate == 0;
+        }
+    }
+}
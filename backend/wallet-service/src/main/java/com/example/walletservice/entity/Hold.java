@@ -18,7 +18,8 @@ import java.time.LocalDateTime;
 public class Hold {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "holds_id_seq")
+    @SequenceGenerator(name = "holds_id_seq", sequenceName = "holds_id_seq", allocationSize = 50)
     private Long id;
 
     @Column(name = "user_id", nullable = false)
@@ -2,6 +2,7 @@ package com.example.walletservice.kafka;
 
 import com.example.walletservice.service.HoldService;
 import com.example.walletservice.service.WalletService;
+import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -17,96 +18,85 @@ import java.math.BigDecimal;
 /**
  * Kafka consumer for payment events in Wallet Service
  * Handles payment processing, confirmation, and refund events
+ * <p>
+ * Failures are thrown to the container, which hands the record to this service's retry topics and finally its
+ * dead-letter topic (see KafkaConfig#retryTopicConfiguration), so the partition keeps moving meanwhile.
  */
 @Component
 @RequiredArgsConstructor
 @Slf4j
 public class PaymentEventConsumer {
 
+    public static final String TOPIC_PAYMENT_PROCESSED = "payment.processed";
+    public static final String TOPIC_PAYMENT_CONFIRMED = "payment.confirmed";
+    public static final String TOPIC_PAYMENT_REFUNDED = "payment.refunded";
+
     private final HoldService holdService;
     private final WalletService walletService;
     private final ObjectMapper objectMapper;
 
     @KafkaListener(
-            topics = "payment.processed",
+            topics = TOPIC_PAYMENT_PROCESSED,
             groupId = "wallet-service-group",
             containerFactory = "kafkaListenerContainerFactory"
     )
     public void handlePaymentProcessed(
             @Payload String message,
             @Header(KafkaHeaders.RECEIVED_KEY) String key,
-            Acknowledgment acknowledgment) {
+            Acknowledgment acknowledgment) throws JsonProcessingException {
+        
+        log.info("Received PaymentProcessedEvent: key={}", key);
+        
+        PaymentProcessedEvent event = objectMapper.readValue(message, PaymentProcessedEvent.class);
         
-        try {
-            log.info("Received PaymentProcessedEvent: key={}", key);
-            
-            PaymentProcessedEvent event = objectMapper.readValue(message, PaymentProcessedEvent.class);
-            
-            // Create hold for the payment (already done via REST call, but this is for event-driven consistency)
-            // In a fully event-driven architecture, this would create the hold
-            log.info("Payment processed event received for paymentId: {}, amount: {}", 
-                    event.getPaymentId(), event.getAmount());
-            
-            acknowledgment.acknowledge();
-            
-        } catch (Exception e) {
-            log.error("Failed to process PaymentProcessedEvent: key={}", key, e);
-            acknowledgment.acknowledge();
-        }
+        // Create hold for the payment (already done via REST call, but this is for event-driven consistency)
+        // In a fully event-driven architecture, this would create the hold
+        log.info("Payment processed event received for paymentId: {}, amount: {}", 
+                event.getPaymentId(), event.getAmount());
+        
+        acknowledgment.acknowledge();
     }
 
     @KafkaListener(
-            topics = "payment.confirmed",
+            topics = TOPIC_PAYMENT_CONFIRMED,
             groupId = "wallet-service-group",
             containerFactory = "kafkaListenerContainerFactory"
     )
     public void handlePaymentConfirmed(
             @Payload String message,
             @Header(KafkaHeaders.RECEIVED_KEY) String key,
-            Acknowledgment acknowledgment) {
+            Acknowledgment acknowledgment) throws JsonProcessingException {
+        
+        log.info("Received PaymentConfirmedEvent: key={}", key);
         
-        try {
-            log.info("Received PaymentConfirmedEvent: key={}", key);
-            
-            PaymentConfirmedEvent event = objectMapper.readValue(message, PaymentConfirmedEvent.class);
-            
-            // Hold capture is already done via REST call, but this confirms the event
-            log.info("Payment confirmed event received for paymentId: {}, amount: {}", 
-                    event.getPaymentId(), event.getAmount());
-            
-            acknowledgment.acknowledge();
-            
-        } catch (Exception e) {
-            log.error("Failed to process PaymentConfirmedEvent: key={}", key, e);
-            acknowledgment.acknowledge();
-        }
+        PaymentConfirmedEvent event = objectMapper.readValue(message, PaymentConfirmedEvent.class);
+        
+        // Hold capture is already done via REST call, but this confirms the event
+        log.info("Payment confirmed event received for paymentId: {}, amount: {}", 
+                event.getPaymentId(), event.getAmount());
+        
+        acknowledgment.acknowledge();
     }
 
     @KafkaListener(
-            topics = "payment.refunded",
+            topics = TOPIC_PAYMENT_REFUNDED,
             groupId = "wallet-service-group",
             containerFactory = "kafkaListenerContainerFactory"
     )
     public void handlePaymentRefunded(
             @Payload String message,
             @Header(KafkaHeaders.RECEIVED_KEY) String key,
-            Acknowledgment acknowledgment) {
+            Acknowledgment acknowledgment) throws JsonProcessingException {
+        
+        log.info("Received PaymentRefundedEvent: key={}", key);
+        
+        PaymentRefundedEvent event = objectMapper.readValue(message, PaymentRefundedEvent.class);
+        
+        // Refund is already processed via REST call, but this confirms the event
+        log.info("Payment refunded event received for paymentId: {}, refundAmount: {}", 
+                event.getPaymentId(), event.getRefundAmount());
         
-        try {
-            log.info("Received PaymentRefundedEvent: key={}", key);
-            
-            PaymentRefundedEvent event = objectMapper.readValue(message, PaymentRefundedEvent.class);
-            
-            // Refund is already processed via REST call, but this confirms the event
-            log.info("Payment refunded event received for paymentId: {}, refundAmount: {}", 
-                    event.getPaymentId(), event.getRefundAmount());
-            
-            acknowledgment.acknowledge();
-            
-        } catch (Exception e) {
-            log.error("Failed to process PaymentRefundedEvent: key={}", key, e);
-            acknowledgment.acknowledge();
-        }
+        acknowledgment.acknowledge();
     }
 
     // Event DTOs
@@ -115,9 +105,12 @@ public class PaymentEventConsumer {
     @lombok.AllArgsConstructor
     public static class PaymentProcessedEvent {
         private Long paymentId;
+        private String customerId;
         private String qrCode;
         private BigDecimal amount;
         private String currency;
+        private String merchantId;
+        private String description;
         private java.time.LocalDateTime timestamp;
     }
 
@@ -136,6 +129,7 @@ public class PaymentEventConsumer {
     @lombok.AllArgsConstructor
     public static class PaymentRefundedEvent {
         private Long paymentId;
+        private String merchantId;
         private BigDecimal refundAmount;
         private String reason;
         private java.time.LocalDateTime timestamp;
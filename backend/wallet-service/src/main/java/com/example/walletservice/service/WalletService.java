@@ -59,8 +59,8 @@ public class WalletService {
         wallet.setBalance(oldBalance.add(amount));
         Wallet updatedWallet = walletRepository.save(wallet);
         
-        log.info("Wallet credited. UserId: {}, Amount: {}, Old Balance: {}, New Balance: {}, Reason: {}", 
-                userId, amount, oldBalance, updatedWallet.getBalance(), reason);
+        log.info("Wallet credited. UserId: {}, Amount: {}, Reason: {}", userId, amount, reason);
+        log.debug("Wallet {} balance {} -> {}", userId, oldBalance, updatedWallet.getBalance());
     }
 
     /**
@@ -80,8 +80,8 @@ public class WalletService {
         wallet.setBalance(oldBalance.subtract(amount));
         Wallet updatedWallet = walletRepository.save(wallet);
         
-        log.info("Wallet deducted. UserId: {}, Amount: {}, Old Balance: {}, New Balance: {}", 
-                userId, amount, oldBalance, updatedWallet.getBalance());
+        log.info("Wallet deducted. UserId: {}, Amount: {}", userId, amount);
+        log.debug("Wallet {} balance {} -> {}", userId, oldBalance, updatedWallet.getBalance());
     }
 
     /**
@@ -0,0 +1,3 @@
+-- Hand out IDs in blocks of 50 (Hibernate pooled optimizer, allocationSize = 50).
+-- IDENTITY generation disables JDBC insert batching; sequence IDs keep inserts batchable.
+ALTER SEQUENCE holds_id_seq INCREMENT BY 50;
@@ -532,6 +532,7 @@ export default function PaymentsPage() {
               <option value="FAILED">FAILED</option>
               <option value="CANCELLED">CANCELLED</option>
               <option value="REFUNDED">REFUNDED</option>
+              <option value="EXPIRED">EXPIRED</option>
             </select>
             <button
               onClick={handleGetAllPayments}